@@ -0,0 +1,110 @@
+package com.fedelis.centinel.analysis.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fails startup when the AOT-processed context does not match the properties it is started with.
+ *
+ * With {@code -Dspring.aot.enabled=true} the {@code @ConditionalOnProperty} beans are the ones the build-time
+ * evaluation chose, so a changed property would otherwise leave a bean in or out silently, for example a live
+ * analysis instance started with {@code replay.enabled=true} that replays nothing. The conditions are read from the
+ * annotations of the service's own components, found by scanning the package above this one, so there is no list to
+ * keep in step with them. Runs once the singletons exist, before the listeners and connections are started.
+ *
+ * The analysis, monitor and generator services each carry a copy of this class, as they build and ship separately.
+ * The copies differ only in their package, which {@code SharedSourcesTests} in the monitor service checks.
+ */
+@Component
+@RequiredArgsConstructor
+public class BuildTimeConditionsCheck implements SmartInitializingSingleton {
+
+    private final ListableBeanFactory beanFactory;
+    private final Environment environment;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        List<String> mismatches = findMismatches();
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Properties evaluated at build time were changed, start without "
+                + "-Dspring.aot.enabled=true: " + String.join("; ", mismatches));
+        }
+    }
+
+    /**
+     * Compares every conditional component of the service with the bean factory.
+     * @return one description per component that is present although its condition no longer matches, or the
+     * other way round
+     */
+    List<String> findMismatches() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(ConditionalOnProperty.class));
+        String basePackage = ClassUtils.getPackageName(BuildTimeConditionsCheck.class);
+        basePackage = basePackage.substring(0, basePackage.lastIndexOf('.'));
+
+        List<String> mismatches = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+            String className = candidate.getBeanClassName();
+            List<String> properties = new ArrayList<>();
+            boolean matches = ((AnnotatedBeanDefinition) candidate).getMetadata().getAnnotations()
+                .stream(ConditionalOnProperty.class)
+                .map(condition -> matches(condition, properties))
+                .reduce(true, Boolean::logicalAnd);
+            Class<?> beanType = ClassUtils.resolveClassName(className, BuildTimeConditionsCheck.class.getClassLoader());
+            boolean present = beanFactory.getBeanNamesForType(beanType, true, false).length > 0;
+            if (matches != present) {
+                mismatches.add(String.join(", ", properties) + " but the AOT-processed context was built "
+                    + (present ? "with " : "without ") + beanType.getSimpleName());
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Evaluates a {@code @ConditionalOnProperty} the way Spring Boot does: every named property must equal
+     * {@code havingValue}, or must not be {@code false} when no value is given.
+     */
+    private boolean matches(MergedAnnotation<ConditionalOnProperty> condition, List<String> properties) {
+        String prefix = condition.getString("prefix").trim();
+        if (StringUtils.hasText(prefix) && !prefix.endsWith(".")) {
+            prefix += ".";
+        }
+        // name and value are aliases, the merged annotation returns whichever was set
+        String[] names = condition.getStringArray("name");
+        String havingValue = condition.getString("havingValue");
+        boolean matchIfMissing = condition.getBoolean("matchIfMissing");
+
+        boolean matches = true;
+        for (String name : names) {
+            String property = prefix + name;
+            String value = environment.getProperty(property);
+            properties.add(property + "=" + value);
+            if (value == null) {
+                matches &= matchIfMissing;
+            } else if (havingValue.isEmpty()) {
+                matches &= !"false".equalsIgnoreCase(value.trim());
+            } else {
+                matches &= havingValue.equalsIgnoreCase(value.trim());
+            }
+        }
+        return matches;
+    }
+}
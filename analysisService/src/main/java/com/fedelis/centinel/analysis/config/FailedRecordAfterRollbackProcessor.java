@@ -0,0 +1,120 @@
+package com.fedelis.centinel.analysis.config;
+
+import com.fedelis.centinel.analysis.service.RedeliveryTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.AfterRollbackProcessor;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.ListenerUtils;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * After-rollback processor of the transactional market data batch listener.
+ *
+ * Nothing of a rolled back batch committed, so every partition in it is sought back to its first record and the
+ * whole batch is delivered again; the {@link RedeliveryTracker} keeps the records that were already stored from
+ * being counted twice. When the listener failed the batch with a {@link BatchListenerFailedException}, the record it
+ * names is retried with the back off and, once that is exhausted, dead-lettered on its own and skipped by the next
+ * delivery. Any other failure retries the whole batch the same way and then dead-letters all of it, as the
+ * non-transactional error handler does.
+ */
+@Slf4j
+public class FailedRecordAfterRollbackProcessor<K, V> implements AfterRollbackProcessor<K, V> {
+
+    private final ConsumerRecordRecoverer recoverer;
+    private final BackOff backOff;
+    private final RedeliveryTracker redeliveryTracker;
+
+    // Failures of the same record in a row on one consumer thread share a back off
+    private final ThreadLocal<Failure> failures = new ThreadLocal<>();
+
+    private record Failure(TopicPartitionOffset record, BackOffExecution backOff) {
+    }
+
+    public FailedRecordAfterRollbackProcessor(ConsumerRecordRecoverer recoverer, BackOff backOff,
+                                              RedeliveryTracker redeliveryTracker) {
+        this.recoverer = recoverer;
+        this.backOff = backOff;
+        this.redeliveryTracker = redeliveryTracker;
+    }
+
+    @Override
+    public void process(List<ConsumerRecord<K, V>> records, Consumer<K, V> consumer, MessageListenerContainer container,
+                        Exception exception, boolean recoverable, ContainerProperties.EOSMode eosMode) {
+        if (records.isEmpty()) {
+            return;
+        }
+        ConsumerRecord<?, ?> failed = failedRecord(exception, records);
+        List<? extends ConsumerRecord<?, ?>> toRecover = failed != null ? List.of(failed) : records;
+        if (recoverable) {
+            long interval = nextBackOff(toRecover.get(0));
+            if (interval == BackOffExecution.STOP) {
+                failures.remove();
+                for (ConsumerRecord<?, ?> record : toRecover) {
+                    log.error("❌ Retries exhausted for {}-{}@{}, sending it to the dead-letter topic",
+                        record.topic(), record.partition(), record.offset());
+                    recoverer.accept(record, exception);
+                    redeliveryTracker.markDeadLettered(record);
+                }
+            } else {
+                sleep(container, interval);
+            }
+        }
+        seekToFirst(records, consumer);
+    }
+
+    @Override
+    public void clearThreadState() {
+        failures.remove();
+    }
+
+    private long nextBackOff(ConsumerRecord<?, ?> record) {
+        TopicPartitionOffset key = new TopicPartitionOffset(record.topic(), record.partition(), record.offset());
+        Failure failure = failures.get();
+        if (failure == null || !failure.record().equals(key)) {
+            failure = new Failure(key, backOff.start());
+            failures.set(failure);
+        }
+        return failure.backOff().nextBackOff();
+    }
+
+    private static ConsumerRecord<?, ?> failedRecord(Exception exception, List<? extends ConsumerRecord<?, ?>> records) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BatchListenerFailedException batchFailure) {
+                if (batchFailure.getRecord() != null) {
+                    return batchFailure.getRecord();
+                }
+                int index = batchFailure.getIndex();
+                return index >= 0 && index < records.size() ? records.get(index) : null;
+            }
+        }
+        return null;
+    }
+
+    private static void seekToFirst(List<? extends ConsumerRecord<?, ?>> records, Consumer<?, ?> consumer) {
+        Map<TopicPartition, Long> firstOffsets = new LinkedHashMap<>();
+        for (ConsumerRecord<?, ?> record : records) {
+            firstOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset(), Math::min);
+        }
+        firstOffsets.forEach(consumer::seek);
+    }
+
+    private static void sleep(MessageListenerContainer container, long interval) {
+        try {
+            ListenerUtils.stoppableSleep(container, interval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.fedelis.centinel.analysis.config;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Indicator periods under {@code signal.config}, read as one consistent set so a reload never mixes old and new
+ * values.
+ */
+public record IndicatorParameters(int rsiPeriod, int emaShort, int emaLong, int macdSignal) {
+
+    public static final String PREFIX = "signal.config.";
+
+    public IndicatorParameters {
+        if (rsiPeriod < 2 || emaShort < 1 || macdSignal < 1 || emaShort >= emaLong) {
+            throw new IllegalArgumentException("Invalid indicator parameters: rsiPeriod=" + rsiPeriod
+                + ", emaShort=" + emaShort + ", emaLong=" + emaLong + ", macdSignal=" + macdSignal);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the values are not a usable set
+     */
+    public static IndicatorParameters from(Environment environment) {
+        return new IndicatorParameters(
+            environment.getProperty(PREFIX + "rsiPeriod", Integer.class, 14),
+            environment.getProperty(PREFIX + "emaShort", Integer.class, 12),
+            environment.getProperty(PREFIX + "emaLong", Integer.class, 26),
+            environment.getProperty(PREFIX + "macdSignal", Integer.class, 9)
+        );
+    }
+
+    /**
+     * @return the number of bars before every indicator has a value
+     */
+    public int warmUpBars() {
+        return Math.max(rsiPeriod + 1, emaLong + macdSignal);
+    }
+}
@@ -1,19 +1,41 @@
 package com.fedelis.centinel.analysis.config;
 
 import com.fedelis.centinel.analysis.model.MarketDataEvent;
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import com.fedelis.centinel.analysis.service.PartitionStateManager;
+import com.fedelis.centinel.analysis.service.RedeliveryTracker;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.util.backoff.BackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -52,6 +74,42 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.listener-threads:3}")
     private int listenerThreads;
 
+    @Value("${spring.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${spring.kafka.consumer.max-partition-fetch-bytes:1048576}")
+    private int maxPartitionFetchBytes;
+
+    @Value("${spring.kafka.consumer.fetch-min-bytes:1}")
+    private int fetchMinBytes;
+
+    @Value("${spring.kafka.consumer.fetch-max-wait-ms:100}")
+    private int fetchMaxWaitMs;
+
+    @Value("${backtest.enabled:false}")
+    private boolean backtestEnabled;
+
+    @Value("${replay.enabled:false}")
+    private boolean replayEnabled;
+
+    @Value("${replay.max-poll-records:2000}")
+    private int replayMaxPollRecords;
+
+    @Value("${processing.exactly-once:false}")
+    private boolean exactlyOnce;
+
+    @Value("${dlt.suffix:.DLT}")
+    private String deadLetterSuffix;
+
+    @Value("${dlt.partitions:3}")
+    private int deadLetterPartitions;
+
+    @Value("${dlt.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${dlt.retry.initial-interval-ms:200}")
+    private long retryInitialIntervalMs;
+
     @Bean
     public ConsumerFactory<String, MarketDataEvent> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -68,22 +126,32 @@ public class KafkaConsumerConfig {
         
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 30000);
         props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 20000);
-        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 20000);
-        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1024);
-        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 500);
+        // Only partitions that actually move are revoked, so a scale-out hands over just their state
+        props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());
+        // Return as soon as any data is available; the adaptive batch controller decides when to wait for fuller batches
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, maxPartitionFetchBytes);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
 
+        // A value that is not valid JSON reaches the listener as null with the original bytes in a header,
+        // instead of failing the poll, so it can be dead-lettered on its own
         return new DefaultKafkaConsumerFactory<>(
             props,
             new StringDeserializer(),
-            new JsonDeserializer<>(MarketDataEvent.class)
+            new ErrorHandlingDeserializer<>(new JsonDeserializer<>(MarketDataEvent.class))
         );
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, MarketDataEvent> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, MarketDataEvent> kafkaListenerContainerFactory(
+        ProducerFactory<String, TradeSignal> tradeSignalProducerFactory,
+        DeadLetterPublishingRecoverer deadLetterPublishingRecoverer,
+        PartitionStateManager partitionStateManager,
+        RedeliveryTracker redeliveryTracker
+    ) {
         log.debug("🔄 initializing KafkaListenerContainerFactory");
         ConcurrentKafkaListenerContainerFactory<String, MarketDataEvent> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
@@ -91,16 +159,146 @@ public class KafkaConsumerConfig {
         log.debug("🔄 setting KafkaListenerContainerFactory concurreny to {}", listenerThreads);
         factory.setConcurrency(listenerThreads); // Number of consumer threads
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        // Per-product state follows its partition across rebalances
+        factory.getContainerProperties().setConsumerRebalanceListener(partitionStateManager);
+        if (exactlyOnce) {
+            // Each batch runs in a Kafka transaction; acknowledged offsets are sent to it and commit with the signals.
+            // The manager is not a bean so the JPA transaction manager stays the application default.
+            factory.getContainerProperties().setKafkaAwareTransactionManager(
+                new KafkaTransactionManager<>(tradeSignalProducerFactory));
+            // A rolled back batch comes back whole; the record that failed it is retried with the same backoff as
+            // without transactions and then dead-lettered alone, see FailedRecordAfterRollbackProcessor
+            factory.setAfterRollbackProcessor(new FailedRecordAfterRollbackProcessor<>(
+                deadLetterPublishingRecoverer, retryBackOff(), redeliveryTracker));
+        }
         factory.setBatchListener(true);
+        // Backtests and replays drive history through the same state, keep live traffic out of it
+        factory.setAutoStartup(!backtestEnabled && !replayEnabled);
         
-        // Error handling
-        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler(
+        // A BatchListenerFailedException from the listener commits the records before the failed one, retries from
+        // it with backoff and, once retries are exhausted, dead-letters only that record and carries on with the rest
+        factory.setCommonErrorHandler(new DefaultErrorHandler(deadLetterPublishingRecoverer, retryBackOff()));
+
+        return factory;
+    }
+
+    /**
+     * Producer for dead-lettered records. Values that failed deserialization arrive as the original bytes,
+     * everything else is a MarketDataEvent and is written back as JSON.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> deadLetterKafkaTemplate(
+        MeterRegistry meterRegistry,
+        @Value("${kafka.producer.profile.dead-letter:BALANCED}") ProducerProfile deadLetterProfile
+    ) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        deadLetterProfile.apply(props);
+        JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+        DelegatingByTypeSerializer valueSerializer = new DelegatingByTypeSerializer(Map.of(
+            byte[].class, new ByteArraySerializer(),
+            MarketDataEvent.class, jsonSerializer
+        ));
+        return new KafkaTemplate<>(deadLetterProfile.instrument(
+            new DefaultKafkaProducerFactory<>(props, new StringSerializer(), valueSerializer),
+            meterRegistry, "coinbase-market-data" + deadLetterSuffix));
+    }
+
+    /**
+     * Publishes failed records to {@code <topic><dlt.suffix>} with the exception, stack trace and original
+     * topic/partition/offset as headers. Sends are not awaited, so dead-lettering never blocks a partition;
+     * a failed send is logged by the recoverer.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer(
+        @Qualifier("deadLetterKafkaTemplate") KafkaTemplate<String, Object> deadLetterKafkaTemplate
+    ) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(deadLetterKafkaTemplate,
+            (record, exception) -> new TopicPartition(record.topic() + deadLetterSuffix, -1));
+        recoverer.setFailIfSendResultIsError(false);
+        return recoverer;
+    }
+
+    @Bean
+    public NewTopic marketDataDeadLetterTopic() {
+        return TopicBuilder.name("coinbase-market-data" + deadLetterSuffix)
+            .partitions(deadLetterPartitions)
+            .build();
+    }
+
+    /**
+     * Compacted changelog of per-product analysis state, see {@link PartitionStateManager}.
+     */
+    @Bean
+    public NewTopic analysisStateChangelogTopic(
+        @Value("${state.changelog.topic:analysis-state-changelog}") String changelogTopic,
+        @Value("${state.changelog.partitions:3}") int changelogPartitions
+    ) {
+        return TopicBuilder.name(changelogTopic)
+            .partitions(changelogPartitions)
+            .compact()
+            .build();
+    }
+
+    private BackOff retryBackOff() {
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(retryMaxAttempts);
+        backOff.setInitialInterval(retryInitialIntervalMs);
+        backOff.setMultiplier(2.0);
+        return backOff;
+    }
+
+    /**
+     * Listener container factory for replaying topic history. Uses the live consumer settings
+     * with larger fetches, since a replay is throughput bound rather than latency bound.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, MarketDataEvent> replayKafkaListenerContainerFactory() {
+        Map<String, Object> props = new HashMap<>(consumerFactory().getConfigurationProperties());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, replayMaxPollRecords);
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 4 * 1024 * 1024);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 64 * 1024);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 100);
+
+        ConcurrentKafkaListenerContainerFactory<String, MarketDataEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(
+            props,
+            new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(new JsonDeserializer<>(MarketDataEvent.class))
+        ));
+        factory.setConcurrency(listenerThreads);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setBatchListener(true);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
             (record, exception) -> {
-                // Log the error and continue processing
-                log.error("❌ Error processing record: {}, Exception: {}", record, exception.getMessage());
+                log.error("❌ Error replaying record: {}, Exception: {}", record, exception.getMessage());
             }
         ));
 
         return factory;
     }
+
+    /**
+     * Compacted topic of price alert rules keyed by rule id, read in full by every instance.
+     */
+    @Bean
+    public NewTopic priceAlertRulesTopic(
+        @Value("${alerts.rules-topic:price-alert-rules}") String rulesTopic
+    ) {
+        return TopicBuilder.name(rulesTopic)
+            .partitions(1)
+            .compact()
+            .build();
+    }
+
+    @Bean
+    public NewTopic priceAlertsTopic(
+        @Value("${alerts.trigger-topic:price-alerts}") String triggerTopic,
+        @Value("${alerts.trigger-partitions:3}") int triggerPartitions
+    ) {
+        return TopicBuilder.name(triggerTopic)
+            .partitions(triggerPartitions)
+            .build();
+    }
 }
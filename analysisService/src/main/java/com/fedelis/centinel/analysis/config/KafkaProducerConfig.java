@@ -0,0 +1,89 @@
+package com.fedelis.centinel.analysis.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka producer configuration for publishing trade signals.
+ *
+ * The producer is always idempotent. With {@code processing.exactly-once=true} it is also transactional:
+ * the live listener container runs each batch in a Kafka transaction on this producer factory, so the
+ * signals a batch produces and the batch's consumer offsets are committed atomically. Batching and compression
+ * come from the {@link ProducerProfile} set by {@code kafka.producer.profile.trade-signals}.
+ */
+@Configuration
+@Slf4j
+public class KafkaProducerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${processing.exactly-once:false}")
+    private boolean exactlyOnce;
+
+    @Value("${processing.transaction-id-prefix:analysis-signals-}")
+    private String transactionIdPrefix;
+
+    @Value("${signal.kafka.topic:trade-signals}")
+    private String tradeSignalTopic;
+
+    @Value("${kafka.producer.profile.trade-signals:LOW_LATENCY}")
+    private ProducerProfile tradeSignalProfile;
+
+    @Value("${kafka.producer.profile.price-alerts:LOW_LATENCY}")
+    private ProducerProfile priceAlertProfile;
+
+    @Bean
+    public ProducerFactory<String, TradeSignal> tradeSignalProducerFactory(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        Map<String, Object> configMap = new HashMap<>();
+        configMap.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        // Signals are few and small, waiting to batch them only delays trading decisions
+        tradeSignalProfile.apply(configMap);
+
+        JsonSerializer<TradeSignal> valueSerializer = new JsonSerializer<>(objectMapper);
+        valueSerializer.setAddTypeInfo(false);
+        DefaultKafkaProducerFactory<String, TradeSignal> producerFactory =
+            new DefaultKafkaProducerFactory<>(configMap, new StringSerializer(), valueSerializer);
+        if (exactlyOnce) {
+            log.info("🔄 Trade signal producer is transactional with prefix {}", transactionIdPrefix);
+            producerFactory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return tradeSignalProfile.instrument(producerFactory, meterRegistry, tradeSignalTopic);
+    }
+
+    @Bean
+    public KafkaTemplate<String, TradeSignal> tradeSignalKafkaTemplate(ProducerFactory<String, TradeSignal> tradeSignalProducerFactory) {
+        return new KafkaTemplate<>(tradeSignalProducerFactory);
+    }
+
+    /**
+     * Producer for price alert triggers and rule changes, JSON values without type headers. A null value is a
+     * tombstone on the compacted rules topic.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> alertKafkaTemplate(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        Map<String, Object> configMap = new HashMap<>();
+        configMap.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        priceAlertProfile.apply(configMap);
+
+        JsonSerializer<Object> valueSerializer = new JsonSerializer<>(objectMapper);
+        valueSerializer.setAddTypeInfo(false);
+        DefaultKafkaProducerFactory<String, Object> producerFactory =
+            new DefaultKafkaProducerFactory<>(configMap, new StringSerializer(), valueSerializer);
+        return new KafkaTemplate<>(priceAlertProfile.instrument(producerFactory, meterRegistry, "price-alerts"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.fedelis.centinel.analysis.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Every request is authenticated, through one of two filter chains.
+ *
+ * The operational REST API and the actuator endpoints are called by scripts and other services, so their chain only
+ * takes HTTP basic credentials and never creates or reads a session. Without a login cookie for a browser to attach
+ * to a forged request, these endpoints can go without CSRF tokens. Everything else, the live update handshake
+ * included, keeps Spring Boot's defaults: the login form, a session and CSRF protection.
+ */
+@Configuration
+public class SecurityConfig {
+
+    private static final String[] API_PATHS = {
+        "/dlt/**", "/sketches/**", "/alerts/**", "/correlation/**", "/actuator/**"
+    };
+
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(API_PATHS)
+            .authorizeHttpRequests(requests -> requests.anyRequest().authenticated())
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(csrf -> csrf.disable());
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        http
+            .authorizeHttpRequests(requests -> requests.anyRequest().authenticated())
+            .formLogin(Customizer.withDefaults())
+            .httpBasic(Customizer.withDefaults());
+        return http.build();
+    }
+}
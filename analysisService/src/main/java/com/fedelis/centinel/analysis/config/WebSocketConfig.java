@@ -0,0 +1,44 @@
+package com.fedelis.centinel.analysis.config;
+
+import com.fedelis.centinel.analysis.controller.LiveUpdateWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import java.util.Arrays;
+
+/**
+ * Exposes the live candle, indicator and signal push API at {@code push.path}.
+ *
+ * Browsers send the session cookie with cross-site WebSocket handshakes, so only same-origin pages may connect
+ * unless the dashboard origins are listed in {@code push.allowed-origins}.
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+@Slf4j
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final LiveUpdateWebSocketHandler liveUpdateWebSocketHandler;
+
+    @Value("${push.path:/ws/live}")
+    private String path;
+
+    @Value("${push.allowed-origins:}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        if (allowedOrigins.length == 0) {
+            log.info("✅ Live updates only accept same-origin handshakes, set push.allowed-origins for other dashboards");
+        } else if (Arrays.asList(allowedOrigins).contains("*")) {
+            log.warn("⚠️ push.allowed-origins is *, any website can open live update sessions with a visitor's login");
+        }
+        registry.addHandler(liveUpdateWebSocketHandler, path)
+            .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
@@ -0,0 +1,56 @@
+package com.fedelis.centinel.analysis.controller;
+
+import com.fedelis.centinel.analysis.model.CorrelationSnapshot;
+import com.fedelis.centinel.analysis.service.CorrelationEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rolling cross-product correlations, see {@link CorrelationEngine}.
+ */
+@RestController
+@RequestMapping("/correlation")
+@RequiredArgsConstructor
+public class CorrelationController {
+
+    private final CorrelationEngine correlationEngine;
+
+    /**
+     * @param products optional subset of products, in the order the sub-matrix should use; unknown or not yet
+     *                 warm products are left out
+     * @return the current matrix snapshot
+     */
+    @GetMapping
+    public CorrelationSnapshot snapshot(@RequestParam(required = false) List<String> products) {
+        CorrelationSnapshot snapshot = correlationEngine.getSnapshot();
+        if (products == null || products.isEmpty()) {
+            return snapshot;
+        }
+        List<Integer> indexes = new ArrayList<>();
+        List<String> selected = new ArrayList<>();
+        for (String product : products) {
+            int index = snapshot.products().indexOf(product);
+            if (index >= 0) {
+                indexes.add(index);
+                selected.add(product);
+            }
+        }
+        int size = indexes.size();
+        double[][] correlation = new double[size][size];
+        double[][] covariance = new double[size][size];
+        for (int a = 0; a < size; a++) {
+            for (int b = 0; b < size; b++) {
+                correlation[a][b] = snapshot.correlation()[indexes.get(a)][indexes.get(b)];
+                covariance[a][b] = snapshot.covariance()[indexes.get(a)][indexes.get(b)];
+            }
+        }
+        return new CorrelationSnapshot(snapshot.asOf(), snapshot.barIntervalMs(), snapshot.windowBars(),
+            List.copyOf(selected), correlation, covariance);
+    }
+}
@@ -0,0 +1,29 @@
+package com.fedelis.centinel.analysis.controller;
+
+import com.fedelis.centinel.analysis.model.RedriveResult;
+import com.fedelis.centinel.analysis.service.DeadLetterRedriveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operations on the market data dead-letter topic.
+ */
+@RestController
+@RequestMapping("/dlt")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterRedriveService deadLetterRedriveService;
+
+    /**
+     * Re-drives dead-lettered records back onto their original topic.
+     * @param maxRecords upper bound on the records read from the dead-letter topic in this call
+     */
+    @PostMapping("/redrive")
+    public RedriveResult redrive(@RequestParam(defaultValue = "1000") int maxRecords) throws Exception {
+        return deadLetterRedriveService.redrive(maxRecords);
+    }
+}
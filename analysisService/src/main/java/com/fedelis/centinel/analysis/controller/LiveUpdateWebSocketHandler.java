@@ -0,0 +1,66 @@
+package com.fedelis.centinel.analysis.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.model.LiveChannel;
+import com.fedelis.centinel.analysis.service.LiveUpdateBroadcaster;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live update subscriptions over WebSocket.
+ *
+ * Clients send {@code {"type":"subscribe","channel":"candles","productIds":["BTC-USD"]}}, or {@code unsubscribe},
+ * with channel {@code candles}, {@code indicators} or {@code signals}, and receive a {@code subscriptions} reply
+ * listing what they are subscribed to on that channel. Replies and updates arrive as binary frames of UTF-8 JSON.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LiveUpdateWebSocketHandler extends TextWebSocketHandler {
+
+    private final LiveUpdateBroadcaster liveUpdateBroadcaster;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        liveUpdateBroadcaster.register(session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        try {
+            JsonNode request = objectMapper.readTree(message.getPayload());
+            String type = request.path("type").asText();
+            LiveChannel channel = LiveChannel.fromWireName(request.path("channel").asText());
+            List<String> productIds = new ArrayList<>();
+            request.path("productIds").forEach(node -> productIds.add(node.asText()));
+            Set<String> subscribed = switch (type) {
+                case "subscribe" -> liveUpdateBroadcaster.subscribe(session.getId(), channel, productIds);
+                case "unsubscribe" -> liveUpdateBroadcaster.unsubscribe(session.getId(), channel, productIds);
+                default -> throw new IllegalArgumentException("Unknown type: " + type);
+            };
+            log.debug("✉️ {} {} {} -> subscribed to {}", type, channel.wireName(), productIds, subscribed);
+            liveUpdateBroadcaster.reply(session.getId(),
+                Map.of("type", "subscriptions", "channel", channel.wireName(), "productIds", subscribed));
+        } catch (Exception e) {
+            log.warn("⚠️ Rejected live update request from {}: {}", session.getId(), e.getMessage());
+            liveUpdateBroadcaster.reply(session.getId(), Map.of("type", "error", "message", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        liveUpdateBroadcaster.unregister(session.getId());
+    }
+}
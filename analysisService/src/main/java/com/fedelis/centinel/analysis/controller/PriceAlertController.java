@@ -0,0 +1,65 @@
+package com.fedelis.centinel.analysis.controller;
+
+import com.fedelis.centinel.analysis.model.AlertDirection;
+import com.fedelis.centinel.analysis.model.PriceAlert;
+import com.fedelis.centinel.analysis.service.PriceAlertEngine;
+import com.fedelis.centinel.analysis.service.PriceAlertRuleService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Price alert rules, see {@link PriceAlertEngine}. Rules are shared by every instance.
+ */
+@RestController
+@RequestMapping("/alerts")
+@RequiredArgsConstructor
+public class PriceAlertController {
+
+    private final PriceAlertRuleService priceAlertRuleService;
+    private final PriceAlertEngine priceAlertEngine;
+
+    public record CreateAlertRequest(String productId, BigDecimal threshold, AlertDirection direction, boolean repeat,
+                                     String owner) {
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public PriceAlert create(@RequestBody CreateAlertRequest request) throws Exception {
+        return priceAlertRuleService.create(request.productId(), request.threshold(), request.direction(),
+            request.repeat(), request.owner());
+    }
+
+    @DeleteMapping("/{alertId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@PathVariable String alertId) throws Exception {
+        priceAlertRuleService.delete(alertId);
+    }
+
+    /**
+     * @param productId optional product filter, rules come back sorted by threshold when given
+     */
+    @GetMapping
+    public Collection<PriceAlert> list(@RequestParam(required = false) String productId) {
+        return productId == null ? priceAlertEngine.getRules() : priceAlertEngine.getRules(productId);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+}
@@ -0,0 +1,81 @@
+package com.fedelis.centinel.analysis.controller;
+
+import com.fedelis.centinel.analysis.model.QuantileResult;
+import com.fedelis.centinel.analysis.model.SketchData;
+import com.fedelis.centinel.analysis.model.SketchMetric;
+import com.fedelis.centinel.analysis.service.QuantileSketchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolling spread, trade size and price percentiles per product, see {@link QuantileSketchService}.
+ * Metrics are {@code spread}, {@code spread-bps}, {@code trade-size} and {@code price}; a window of 0 means
+ * everything retained.
+ */
+@RestController
+@RequestMapping("/sketches")
+@RequiredArgsConstructor
+public class QuantileSketchController {
+
+    private final QuantileSketchService quantileSketchService;
+
+    @GetMapping("/{productId}/{metric}")
+    public QuantileResult quantiles(
+        @PathVariable String productId,
+        @PathVariable String metric,
+        @RequestParam(defaultValue = "0") long windowSeconds,
+        @RequestParam(name = "q", required = false) List<Double> quantiles
+    ) {
+        return quantileSketchService.query(productId, SketchMetric.fromWireName(metric), windowSeconds,
+            quantilesOrDefault(quantiles));
+    }
+
+    /**
+     * Exports the window's sketch so another instance can merge it.
+     */
+    @GetMapping("/{productId}/{metric}/data")
+    public SketchData data(
+        @PathVariable String productId,
+        @PathVariable String metric,
+        @RequestParam(defaultValue = "0") long windowSeconds
+    ) {
+        return quantileSketchService.export(productId, SketchMetric.fromWireName(metric), windowSeconds);
+    }
+
+    /**
+     * Merges sketches exported by other instances with this instance's window of the product, if one is given.
+     */
+    @PostMapping("/{metric}/merge")
+    public QuantileResult merge(
+        @PathVariable String metric,
+        @RequestParam(required = false) String productId,
+        @RequestParam(defaultValue = "0") long windowSeconds,
+        @RequestParam(name = "q", required = false) List<Double> quantiles,
+        @RequestBody List<SketchData> sketches
+    ) {
+        return quantileSketchService.merge(productId, SketchMetric.fromWireName(metric), windowSeconds, sketches,
+            quantilesOrDefault(quantiles));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+
+    private static List<Double> quantilesOrDefault(List<Double> quantiles) {
+        return quantiles == null || quantiles.isEmpty() ? QuantileSketchService.DEFAULT_QUANTILES : quantiles;
+    }
+}
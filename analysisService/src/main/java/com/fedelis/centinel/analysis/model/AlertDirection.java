@@ -0,0 +1,22 @@
+package com.fedelis.centinel.analysis.model;
+
+/**
+ * Which crossings of its threshold trigger a price alert.
+ */
+public enum AlertDirection {
+
+    /** The price moves from below the threshold to at or above it. */
+    RISES_ABOVE,
+    /** The price moves from above the threshold to at or below it. */
+    FALLS_BELOW,
+    /** Either of the above. */
+    CROSSES;
+
+    public boolean matchesRise() {
+        return this != FALLS_BELOW;
+    }
+
+    public boolean matchesFall() {
+        return this != RISES_ABOVE;
+    }
+}
@@ -0,0 +1,38 @@
+package com.fedelis.centinel.analysis.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestResult {
+
+    private Instant startTime;
+    private Instant endTime;
+    private long totalTicks;
+    private long totalSignals;
+    private long elapsedMillis;
+    private double ticksPerSecond;
+    private List<ProductResult> products;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductResult {
+        private String productId;
+        private long ticks;
+        private long buySignals;
+        private long sellSignals;
+        private long holdSignals;
+        private long failedSignals;
+        private long elapsedMillis;
+    }
+}
@@ -0,0 +1,30 @@
+package com.fedelis.centinel.analysis.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * OHLCV candle of one product over [start, start + intervalSeconds). Volume is the sum of the
+ * trade sizes seen in the interval.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Candle {
+
+    private String productId;
+    private long intervalSeconds;
+    private Instant start;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private BigDecimal volume;
+    private long trades;
+}
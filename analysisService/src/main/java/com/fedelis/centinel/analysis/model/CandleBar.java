@@ -0,0 +1,28 @@
+package com.fedelis.centinel.analysis.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Projection of one OHLCV bucket aggregated from market data rows by the database.
+ */
+public interface CandleBar {
+
+    /** Start of the bucket. */
+    Instant getBucket();
+
+    BigDecimal getOpen();
+
+    BigDecimal getHigh();
+
+    BigDecimal getLow();
+
+    BigDecimal getClose();
+
+    BigDecimal getVolume();
+
+    long getTrades();
+
+    /** Time of the last tick in the bucket. */
+    Instant getLatest();
+}
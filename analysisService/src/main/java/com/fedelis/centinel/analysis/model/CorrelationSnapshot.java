@@ -0,0 +1,27 @@
+package com.fedelis.centinel.analysis.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Rolling correlation and covariance of aligned per-bar log returns, as of the last closed bar.
+ * @param asOf close time of the last bar in the window
+ * @param barIntervalMs length of one bar
+ * @param windowBars number of bars the statistics cover
+ * @param products products with a full window of history, in matrix order
+ * @param correlation Pearson correlation, 0 where a product's returns have no variance
+ * @param covariance population covariance of the log returns
+ */
+public record CorrelationSnapshot(
+    Instant asOf,
+    long barIntervalMs,
+    int windowBars,
+    List<String> products,
+    double[][] correlation,
+    double[][] covariance
+) {
+
+    public static CorrelationSnapshot empty(long barIntervalMs, int windowBars) {
+        return new CorrelationSnapshot(null, barIntervalMs, windowBars, List.of(), new double[0][], new double[0][]);
+    }
+}
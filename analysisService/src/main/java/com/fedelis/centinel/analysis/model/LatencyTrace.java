@@ -0,0 +1,29 @@
+package com.fedelis.centinel.analysis.model;
+
+import lombok.Value;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Trace timestamps carried by a single market data record, in epoch microseconds.
+ * A value of 0 means the upstream stage did not stamp the record.
+ */
+@Value
+public class LatencyTrace {
+
+    long receivedAtMicros;
+    long producedAtMicros;
+    long consumedAtMicros;
+
+    public static LatencyTrace fromHeaders(Headers headers, long consumedAtMicros) {
+        return new LatencyTrace(
+            decode(headers.lastHeader(TraceHeaders.RECEIVED_AT)),
+            decode(headers.lastHeader(TraceHeaders.PRODUCED_AT)),
+            consumedAtMicros
+        );
+    }
+
+    private static long decode(Header header) {
+        return header != null ? TraceHeaders.decode(header.value()) : 0L;
+    }
+}
@@ -0,0 +1,31 @@
+package com.fedelis.centinel.analysis.model;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Streams a live update client can subscribe to, per product.
+ */
+public enum LiveChannel {
+
+    CANDLES,
+    INDICATORS,
+    SIGNALS;
+
+    /**
+     * @return the name clients use for this channel in subscribe messages and see on updates
+     */
+    public String wireName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @throws IllegalArgumentException if no channel has that name
+     */
+    public static LiveChannel fromWireName(String wireName) {
+        return Arrays.stream(values())
+            .filter(channel -> channel.wireName().equalsIgnoreCase(wireName))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown channel: " + wireName));
+    }
+}
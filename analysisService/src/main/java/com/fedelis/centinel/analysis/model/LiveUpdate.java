@@ -0,0 +1,10 @@
+package com.fedelis.centinel.analysis.model;
+
+/**
+ * Envelope of every frame pushed to live update subscribers.
+ * @param channel wire name of the channel, see {@link LiveChannel#wireName()}
+ * @param productId the product the update is about
+ * @param data the candle, indicators or signal
+ */
+public record LiveUpdate(String channel, String productId, Object data) {
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Builder;
@@ -19,9 +20,12 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "market_data", indexes = {
-    @Index(name = "idx_market_data_product_id_time", columnList = "product_id, time DESC"),
+    @Index(name = "idx_market_data_product_id_time", columnList = "product_id, time DESC, id DESC"),
     @Index(name = "idx_market_data_source_time", columnList = "source, time DESC"),
     @Index(name = "idx_market_data_time", columnList = "time DESC")
+}, uniqueConstraints = {
+    // Natural key used for idempotent inserts, includes time so it is valid on the hypertable
+    @UniqueConstraint(name = "uk_market_data_natural_key", columnNames = {"product_id", "sequence", "time"})
 })
 @Builder
 @Data
@@ -40,7 +44,7 @@ public class MarketData {
     private String type;
     
     @Column(name = "sequence")
-    private Integer sequence;
+    private Long sequence;
     
     @Column(name = "product_id")
     private String productId;
@@ -82,7 +86,7 @@ public class MarketData {
     private Instant time;
     
     @Column(name = "trade_id")
-    private Integer tradeId;
+    private Long tradeId;
     
     @Column(name = "last_size", precision = 20, scale = 8)
     private BigDecimal lastSize;
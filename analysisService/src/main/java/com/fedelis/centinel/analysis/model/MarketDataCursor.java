@@ -0,0 +1,19 @@
+package com.fedelis.centinel.analysis.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Keyset position in a product's history ordered by (time DESC, id DESC): the next page starts strictly
+ * after this row. Unlike an offset, it costs the same on page one and page ten thousand.
+ */
+public record MarketDataCursor(Instant time, UUID id) {
+
+    public static MarketDataCursor after(MarketData row) {
+        return new MarketDataCursor(row.getTime(), row.getId());
+    }
+
+    public static MarketDataCursor after(PricePoint point) {
+        return new MarketDataCursor(point.getTime(), point.getId());
+    }
+}
@@ -0,0 +1,25 @@
+package com.fedelis.centinel.analysis.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A price alert rule, for example "BTC-USD rises above 65,000".
+ * @param id unique id, assigned when the rule is created
+ * @param productId the product to watch
+ * @param threshold the price that has to be crossed
+ * @param direction which crossings trigger the alert
+ * @param repeat whether the rule stays active after triggering; one-shot rules are removed when they trigger
+ * @param owner the user or strategy the alert belongs to, carried onto triggers
+ * @param createdAt when the rule was created
+ */
+public record PriceAlert(
+    String id,
+    String productId,
+    BigDecimal threshold,
+    AlertDirection direction,
+    boolean repeat,
+    String owner,
+    Instant createdAt
+) {
+}
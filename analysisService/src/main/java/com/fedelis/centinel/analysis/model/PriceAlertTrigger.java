@@ -0,0 +1,23 @@
+package com.fedelis.centinel.analysis.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Published when a tick crosses a price alert's threshold.
+ * @param previousPrice the product's price before the crossing tick
+ * @param price the price of the crossing tick
+ * @param tickTime exchange time of the crossing tick
+ */
+public record PriceAlertTrigger(
+    String alertId,
+    String productId,
+    BigDecimal threshold,
+    AlertDirection direction,
+    String owner,
+    BigDecimal previousPrice,
+    BigDecimal price,
+    Instant tickTime,
+    Instant triggeredAt
+) {
+}
@@ -0,0 +1,21 @@
+package com.fedelis.centinel.analysis.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of a market data row down to what price history readers need. Loading it skips the other
+ * columns and the persistence context, so large ranges stay cheap to read.
+ */
+public interface PricePoint {
+
+    /** Row id, the tie-breaker of the (time, id) keyset cursor. */
+    UUID getId();
+
+    Instant getTime();
+
+    BigDecimal getPrice();
+
+    BigDecimal getLastSize();
+}
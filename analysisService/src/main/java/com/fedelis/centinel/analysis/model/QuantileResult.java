@@ -0,0 +1,26 @@
+package com.fedelis.centinel.analysis.model;
+
+import java.util.Map;
+
+/**
+ * Quantiles of one metric over a window, answered from sketches.
+ * @param productId the product, or null for a merge of sketches sent by the caller
+ * @param metric wire name of the metric
+ * @param windowSeconds length of the window the sketches cover
+ * @param relativeAccuracy relative error bound of every quantile
+ * @param count values in the window
+ * @param min smallest value in the window
+ * @param max largest value in the window
+ * @param quantiles value per requested quantile, keyed by the quantile as requested
+ */
+public record QuantileResult(
+    String productId,
+    String metric,
+    long windowSeconds,
+    double relativeAccuracy,
+    long count,
+    Double min,
+    Double max,
+    Map<String, Double> quantiles
+) {
+}
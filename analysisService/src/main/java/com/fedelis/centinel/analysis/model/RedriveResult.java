@@ -0,0 +1,21 @@
+package com.fedelis.centinel.analysis.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedriveResult {
+
+    private String deadLetterTopic;
+    private long redriven;
+    private long skipped;
+    private long elapsedMillis;
+    private Map<String, Long> redrivenByTopic;
+}
@@ -0,0 +1,23 @@
+package com.fedelis.centinel.analysis.model;
+
+/**
+ * Portable form of a {@link com.fedelis.centinel.analysis.util.DDSketch}, exchanged between instances so their
+ * sketches can be merged. Sketches only merge with the same relative accuracy.
+ * @param relativeAccuracy relative error bound of every quantile
+ * @param count values added, including zeroCount
+ * @param zeroCount values too small to index, including zero and negative values
+ * @param min smallest value added
+ * @param max largest value added
+ * @param minIndex bucket index of {@code counts[0]}
+ * @param counts values per bucket, from minIndex up
+ */
+public record SketchData(
+    double relativeAccuracy,
+    long count,
+    long zeroCount,
+    double min,
+    double max,
+    int minIndex,
+    long[] counts
+) {
+}
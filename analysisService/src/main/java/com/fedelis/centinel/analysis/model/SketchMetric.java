@@ -0,0 +1,56 @@
+package com.fedelis.centinel.analysis.model;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Per-tick quantities tracked in quantile sketches.
+ */
+public enum SketchMetric {
+
+    /** Best ask minus best bid. */
+    SPREAD,
+    /** Spread relative to the mid price, in basis points, comparable across products. */
+    SPREAD_BPS,
+    /** Size of the last trade. */
+    TRADE_SIZE,
+    PRICE;
+
+    /**
+     * @return the tick's value of this metric, NaN when the tick lacks the fields it needs
+     */
+    public double valueOf(MarketData tick) {
+        return switch (this) {
+            case SPREAD -> tick.getBestBid() == null || tick.getBestAsk() == null
+                ? Double.NaN : tick.getBestAsk().subtract(tick.getBestBid()).doubleValue();
+            case SPREAD_BPS -> spreadBps(tick.getBestBid(), tick.getBestAsk());
+            case TRADE_SIZE -> tick.getLastSize() == null ? Double.NaN : tick.getLastSize().doubleValue();
+            case PRICE -> tick.getPrice() == null ? Double.NaN : tick.getPrice().doubleValue();
+        };
+    }
+
+    public String wireName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * @throws IllegalArgumentException if no metric has that name
+     */
+    public static SketchMetric fromWireName(String wireName) {
+        return Arrays.stream(values())
+            .filter(metric -> metric.wireName().equalsIgnoreCase(wireName))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown metric: " + wireName));
+    }
+
+    private static double spreadBps(BigDecimal bid, BigDecimal ask) {
+        if (bid == null || ask == null) {
+            return Double.NaN;
+        }
+        double bidValue = bid.doubleValue();
+        double askValue = ask.doubleValue();
+        double mid = (bidValue + askValue) / 2;
+        return mid > 0 ? (askValue - bidValue) / mid * 10_000 : Double.NaN;
+    }
+}
@@ -0,0 +1,104 @@
+package com.fedelis.centinel.analysis.repository;
+
+import com.fedelis.centinel.analysis.model.MarketData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Streams historical ticks out of the market_data hypertable without materializing the result set.
+ *
+ * The PostgreSQL driver only uses a server-side cursor when auto-commit is off and a fetch size is set,
+ * so every read runs inside a read-only transaction with {@code backtest.fetch-size} rows per round trip.
+ * Rows are handed to the consumer one at a time in ascending time order.
+ */
+@Repository
+@Slf4j
+public class HistoricalMarketDataReader {
+
+    private static final String TICK_QUERY =
+        "SELECT id, tick_id, type, sequence, product_id, price, open_24h, volume_24h, low_24h, high_24h, " +
+        "volume_30d, best_bid, best_ask, best_bid_size, best_ask_size, side, time, trade_id, last_size, " +
+        "source, created_at " +
+        "FROM market_data " +
+        "WHERE product_id = ? AND time >= ? AND time < ? " +
+        "ORDER BY time ASC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public HistoricalMarketDataReader(
+        DataSource dataSource,
+        PlatformTransactionManager transactionManager,
+        @Value("${backtest.fetch-size:5000}") int fetchSize
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Streams every tick for a product in [startTime, endTime) in ascending time order.
+     * @param productId the product to read
+     * @param startTime inclusive lower bound
+     * @param endTime exclusive upper bound
+     * @param consumer receives each tick as it is read from the cursor
+     * @return the number of ticks streamed
+     */
+    public long streamTicks(String productId, Instant startTime, Instant endTime, Consumer<MarketData> consumer) {
+        Long count = readOnlyTransaction.execute(status -> {
+            long[] rows = {0};
+            jdbcTemplate.query(TICK_QUERY,
+                resultSet -> {
+                    consumer.accept(mapRow(resultSet));
+                    rows[0]++;
+                },
+                productId, Timestamp.from(startTime), Timestamp.from(endTime));
+            return rows[0];
+        });
+        log.debug("✅ Streamed {} ticks for {} between {} and {}", count, productId, startTime, endTime);
+        return count != null ? count : 0;
+    }
+
+    private MarketData mapRow(ResultSet rs) throws SQLException {
+        return MarketData.builder()
+            .id(rs.getObject("id", UUID.class))
+            .tickId(rs.getObject("tick_id", UUID.class))
+            .type(rs.getString("type"))
+            .sequence(rs.getObject("sequence", Long.class))
+            .productId(rs.getString("product_id"))
+            .price(rs.getBigDecimal("price"))
+            .open24h(rs.getBigDecimal("open_24h"))
+            .volume24h(rs.getBigDecimal("volume_24h"))
+            .low24h(rs.getBigDecimal("low_24h"))
+            .high24h(rs.getBigDecimal("high_24h"))
+            .volume30d(rs.getBigDecimal("volume_30d"))
+            .bestBid(rs.getBigDecimal("best_bid"))
+            .bestAsk(rs.getBigDecimal("best_ask"))
+            .bestBidSize(rs.getBigDecimal("best_bid_size"))
+            .bestAskSize(rs.getBigDecimal("best_ask_size"))
+            .side(rs.getString("side"))
+            .time(toInstant(rs.getTimestamp("time")))
+            .tradeId(rs.getObject("trade_id", Long.class))
+            .lastSize(rs.getBigDecimal("last_size"))
+            .source(rs.getString("source"))
+            .createdAt(toInstant(rs.getTimestamp("created_at")))
+            .build();
+    }
+
+    private Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
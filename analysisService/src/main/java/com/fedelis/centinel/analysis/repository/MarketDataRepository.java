@@ -1,26 +1,186 @@
 package com.fedelis.centinel.analysis.repository;
 
+import com.fedelis.centinel.analysis.model.CandleBar;
 import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.MarketDataCursor;
+import com.fedelis.centinel.analysis.model.PricePoint;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * Market data reads. History is read either as a stream or a page at a time, never as one list of a whole
+ * range: a busy product holds millions of rows.
+ *
+ * Streams must be consumed inside a read-only transaction and closed, for example with try-with-resources;
+ * the PostgreSQL driver only uses a server-side cursor when auto-commit is off. Entities read from a stream
+ * stay in the persistence context, so long scans should use the {@link PricePoint} variant or detach what
+ * they have processed.
+ *
+ * Pages are keyset paginated on (time DESC, id DESC): pass the {@link MarketDataCursor} of the last row of
+ * a page to get the next one, or null for the first.
+ */
 @Repository
 public interface MarketDataRepository extends JpaRepository<MarketData, UUID> {
 
+    /** Rows per round trip while a stream is consumed. */
+    String STREAM_FETCH_SIZE = "1000";
+
+    /**
+     * @deprecated loads every row of the product, use {@link #streamByProductIdAndTimeRange} or {@link #findPage}
+     */
+    @Deprecated(forRemoval = true)
     List<MarketData> findByProductIdOrderByTimeDesc(String productId);
     
+    /**
+     * @deprecated loads the whole range at once, use {@link #streamByProductIdAndTimeRange} or {@link #findPage}
+     */
+    @Deprecated(forRemoval = true)
     List<MarketData> findByProductIdAndTimeBetweenOrderByTimeDesc(
         String productId, 
         Instant startTime, 
         Instant endTime
     );
+
+    /**
+     * Streams a product's ticks in [startTime, endTime), newest first.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM MarketData m WHERE m.productId = :productId AND m.time >= :startTime AND m.time < :endTime " +
+           "ORDER BY m.time DESC, m.id DESC")
+    Stream<MarketData> streamByProductIdAndTimeRange(
+        @Param("productId") String productId,
+        @Param("startTime") Instant startTime,
+        @Param("endTime") Instant endTime
+    );
+
+    /**
+     * Streams time, price and size of a product's ticks in [startTime, endTime), newest first.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m.id AS id, m.time AS time, m.price AS price, m.lastSize AS lastSize FROM MarketData m " +
+           "WHERE m.productId = :productId AND m.time >= :startTime AND m.time < :endTime " +
+           "ORDER BY m.time DESC, m.id DESC")
+    Stream<PricePoint> streamPricePoints(
+        @Param("productId") String productId,
+        @Param("startTime") Instant startTime,
+        @Param("endTime") Instant endTime
+    );
+
+    /**
+     * Streams a product's candles from startTime on, oldest first, aggregated in the database so only one row per
+     * bucket crosses the wire. Buckets are aligned to the epoch like the live {@code CandleAggregator}'s.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT time_bucket(make_interval(secs => :intervalSeconds), time, TIMESTAMPTZ 'epoch') AS bucket, " +
+                   "first(price, time) AS open, MAX(price) AS high, MIN(price) AS low, last(price, time) AS close, " +
+                   "COALESCE(SUM(last_size), 0) AS volume, COUNT(*) AS trades, MAX(time) AS latest " +
+                   "FROM market_data " +
+                   "WHERE product_id = :productId AND time >= :startTime AND price IS NOT NULL " +
+                   "GROUP BY bucket ORDER BY bucket ASC", nativeQuery = true)
+    Stream<CandleBar> streamCandles(
+        @Param("productId") String productId,
+        @Param("intervalSeconds") long intervalSeconds,
+        @Param("startTime") Instant startTime
+    );
+
+    /**
+     * @return the products with ticks from startTime on
+     */
+    @Query(value = "SELECT DISTINCT product_id FROM market_data WHERE time >= :startTime", nativeQuery = true)
+    List<String> findProductIdsSince(@Param("startTime") Instant startTime);
+
+    /**
+     * @param cursor position after which the page starts, null for the newest rows
+     * @return up to pageSize ticks in [startTime, endTime), newest first
+     */
+    default List<MarketData> findPage(String productId, Instant startTime, Instant endTime,
+                                      MarketDataCursor cursor, int pageSize) {
+        return cursor == null
+            ? findFirstPage(productId, startTime, endTime, Limit.of(pageSize))
+            : findPageAfter(productId, startTime, endTime, cursor.time(), cursor.id(), Limit.of(pageSize));
+    }
+
+    /**
+     * @param cursor position after which the page starts, null for the newest rows
+     * @return up to pageSize price points in [startTime, endTime), newest first
+     */
+    default List<PricePoint> findPricePointPage(String productId, Instant startTime, Instant endTime,
+                                                MarketDataCursor cursor, int pageSize) {
+        return cursor == null
+            ? findFirstPricePointPage(productId, startTime, endTime, Limit.of(pageSize))
+            : findPricePointPageAfter(productId, startTime, endTime, cursor.time(), cursor.id(), Limit.of(pageSize));
+    }
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT m FROM MarketData m WHERE m.productId = :productId AND m.time >= :startTime AND m.time < :endTime " +
+           "ORDER BY m.time DESC, m.id DESC")
+    List<MarketData> findFirstPage(
+        @Param("productId") String productId,
+        @Param("startTime") Instant startTime,
+        @Param("endTime") Instant endTime,
+        Limit limit
+    );
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT m FROM MarketData m WHERE m.productId = :productId AND m.time >= :startTime AND m.time < :endTime " +
+           "AND (m.time < :cursorTime OR (m.time = :cursorTime AND m.id < :cursorId)) " +
+           "ORDER BY m.time DESC, m.id DESC")
+    List<MarketData> findPageAfter(
+        @Param("productId") String productId,
+        @Param("startTime") Instant startTime,
+        @Param("endTime") Instant endTime,
+        @Param("cursorTime") Instant cursorTime,
+        @Param("cursorId") UUID cursorId,
+        Limit limit
+    );
+
+    @Query("SELECT m.id AS id, m.time AS time, m.price AS price, m.lastSize AS lastSize FROM MarketData m " +
+           "WHERE m.productId = :productId AND m.time >= :startTime AND m.time < :endTime " +
+           "ORDER BY m.time DESC, m.id DESC")
+    List<PricePoint> findFirstPricePointPage(
+        @Param("productId") String productId,
+        @Param("startTime") Instant startTime,
+        @Param("endTime") Instant endTime,
+        Limit limit
+    );
+
+    @Query("SELECT m.id AS id, m.time AS time, m.price AS price, m.lastSize AS lastSize FROM MarketData m " +
+           "WHERE m.productId = :productId AND m.time >= :startTime AND m.time < :endTime " +
+           "AND (m.time < :cursorTime OR (m.time = :cursorTime AND m.id < :cursorId)) " +
+           "ORDER BY m.time DESC, m.id DESC")
+    List<PricePoint> findPricePointPageAfter(
+        @Param("productId") String productId,
+        @Param("startTime") Instant startTime,
+        @Param("endTime") Instant endTime,
+        @Param("cursorTime") Instant cursorTime,
+        @Param("cursorId") UUID cursorId,
+        Limit limit
+    );
     
+    /**
+     * @deprecated unbounded since startTime, use {@link #findPage} or {@link #findRecentDataByProductIdWithLimit}
+     */
+    @Deprecated(forRemoval = true)
     @Query("SELECT m FROM MarketData m WHERE m.productId = :productId AND m.time >= :startTime ORDER BY m.time DESC")
     List<MarketData> findRecentDataByProductId(
         @Param("productId") String productId, 
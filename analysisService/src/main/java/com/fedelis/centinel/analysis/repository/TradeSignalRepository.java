@@ -0,0 +1,11 @@
+package com.fedelis.centinel.analysis.repository;
+
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface TradeSignalRepository extends JpaRepository<TradeSignal, UUID> {
+}
@@ -0,0 +1,202 @@
+package com.fedelis.centinel.analysis.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tunes the market data pipeline's batching from observed load.
+ *
+ * Two knobs are adjusted every {@code consumer.adaptive.adjust-interval-ms}:
+ * <ul>
+ *     <li>the write batch size: how many rows go into one TimescaleDB batch insert, adjusted additive
+ *     increase / multiplicative decrease against the worst poll batch latency seen in the interval, so it
+ *     grows while batches finish well inside {@code latency-slo-ms} and backs off as soon as one misses it</li>
+ *     <li>the idle time between polls on the live listener, which lets records accumulate into fuller batches.
+ *     It only applies under sustained load (above {@code linger-min-rate} events per second) and within the
+ *     latency headroom the last interval left, so a quiet feed is always polled immediately</li>
+ * </ul>
+ * Kafka consumer properties such as {@code max.poll.records} are fixed once a consumer is created, so they act
+ * as upper bounds and are not tuned here. A poll never hands the pipeline more than {@code max.poll.records} rows,
+ * so a larger {@code max-batch-size} is lowered to it at startup. The chosen parameters and their inputs are
+ * published as gauges.
+ */
+@Service
+@Slf4j
+public class AdaptiveBatchController {
+
+    public static final String LISTENER_ID = "market-data-consumer";
+
+    private static final double DECREASE_FACTOR = 0.7;
+    private static final double EWMA_WEIGHT = 0.3;
+
+    private final KafkaListenerEndpointRegistry listenerEndpointRegistry;
+    private final boolean enabled;
+    private final long latencySloNanos;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int increaseStep;
+    private final long maxIdleBetweenPollsMs;
+    private final double lingerMinRate;
+
+    private volatile int batchSize;
+    private volatile long idleBetweenPollsMs;
+    private volatile double arrivalRate;
+    private volatile double rowLatencyNanos;
+    private volatile long lastWorstBatchNanos;
+
+    private final AtomicLong arrivalsSinceAdjust = new AtomicLong();
+    private final AtomicLong worstBatchNanos = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private volatile long lastAdjustNanos = System.nanoTime();
+
+    public AdaptiveBatchController(
+        KafkaListenerEndpointRegistry listenerEndpointRegistry,
+        MeterRegistry meterRegistry,
+        @Value("${consumer.adaptive.enabled:true}") boolean enabled,
+        @Value("${consumer.adaptive.latency-slo-ms:250}") long latencySloMs,
+        @Value("${consumer.adaptive.min-batch-size:50}") int minBatchSize,
+        @Value("${consumer.adaptive.max-batch-size:500}") int maxBatchSize,
+        @Value("${consumer.adaptive.initial-batch-size:200}") int initialBatchSize,
+        @Value("${consumer.adaptive.increase-step:50}") int increaseStep,
+        @Value("${consumer.adaptive.max-idle-between-polls-ms:100}") long maxIdleBetweenPollsMs,
+        @Value("${consumer.adaptive.linger-min-rate:1000}") double lingerMinRate,
+        @Value("${spring.kafka.consumer.max-poll-records:500}") int maxPollRecords
+    ) {
+        if (maxBatchSize > maxPollRecords) {
+            log.warn("⚠️ consumer.adaptive.max-batch-size {} is above max.poll.records {}, which bounds every batch; "
+                + "using {}", maxBatchSize, maxPollRecords, maxPollRecords);
+            maxBatchSize = maxPollRecords;
+        }
+        minBatchSize = Math.min(minBatchSize, maxBatchSize);
+        this.listenerEndpointRegistry = listenerEndpointRegistry;
+        this.enabled = enabled;
+        this.latencySloNanos = TimeUnit.MILLISECONDS.toNanos(latencySloMs);
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.increaseStep = increaseStep;
+        this.maxIdleBetweenPollsMs = maxIdleBetweenPollsMs;
+        this.lingerMinRate = lingerMinRate;
+        this.batchSize = Math.clamp(initialBatchSize, minBatchSize, maxBatchSize);
+
+        Gauge.builder("centinel.consumer.adaptive.batch.size", this, c -> c.batchSize)
+            .description("Rows per TimescaleDB batch insert chosen by the adaptive controller")
+            .register(meterRegistry);
+        Gauge.builder("centinel.consumer.adaptive.idle.between.polls", this, c -> c.idleBetweenPollsMs)
+            .description("Idle time between polls chosen by the adaptive controller")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        Gauge.builder("centinel.consumer.adaptive.arrival.rate", this, c -> c.arrivalRate)
+            .description("Smoothed market data arrival rate")
+            .baseUnit("events/s")
+            .register(meterRegistry);
+        Gauge.builder("centinel.consumer.adaptive.row.latency", this, c -> c.rowLatencyNanos / 1_000.0)
+            .description("Smoothed database write latency per row")
+            .baseUnit("microseconds")
+            .register(meterRegistry);
+        Gauge.builder("centinel.consumer.adaptive.batch.latency.worst", this, c -> c.lastWorstBatchNanos / 1_000_000.0)
+            .description("Worst poll batch processing latency in the last adjustment interval")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return the number of rows to write per batch insert
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Records a poll batch handed to the pipeline and how long it took end to end.
+     */
+    public void recordBatch(int events, long nanos) {
+        arrivalsSinceAdjust.addAndGet(events);
+        worstBatchNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Records one batch insert of {@code rows} rows.
+     */
+    public void recordFlush(int rows, long nanos) {
+        flushedRows.addAndGet(rows);
+        flushNanos.addAndGet(nanos);
+    }
+
+    @Scheduled(fixedDelayString = "${consumer.adaptive.adjust-interval-ms:1000}")
+    public void adjust() {
+        long now = System.nanoTime();
+        double seconds = (now - lastAdjustNanos) / 1_000_000_000.0;
+        lastAdjustNanos = now;
+
+        long arrivals = arrivalsSinceAdjust.getAndSet(0);
+        long worstBatch = worstBatchNanos.getAndSet(0);
+        long rows = flushedRows.getAndSet(0);
+        long rowsNanos = flushNanos.getAndSet(0);
+        arrivalRate = ewma(arrivalRate, arrivals / seconds);
+        if (rows > 0) {
+            rowLatencyNanos = ewma(rowLatencyNanos, (double) rowsNanos / rows);
+        }
+        lastWorstBatchNanos = worstBatch;
+        if (!enabled || arrivals == 0) {
+            return;
+        }
+
+        int previousBatchSize = batchSize;
+        long previousIdle = idleBetweenPollsMs;
+        if (worstBatch > latencySloNanos) {
+            batchSize = Math.max(minBatchSize, (int) (batchSize * DECREASE_FACTOR));
+            idleBetweenPollsMs = 0;
+        } else {
+            if (worstBatch < latencySloNanos / 2) {
+                batchSize = Math.min(maxBatchSize, batchSize + increaseStep);
+            }
+            idleBetweenPollsMs = lingerFor(worstBatch);
+        }
+
+        if (idleBetweenPollsMs != previousIdle) {
+            applyIdleBetweenPolls(idleBetweenPollsMs);
+        }
+        if (batchSize != previousBatchSize || idleBetweenPollsMs != previousIdle) {
+            log.debug("🔄 Adaptive batching: batch size {} -> {}, idle between polls {}ms -> {}ms "
+                    + "(arrival rate {}/s, worst batch {}ms)",
+                previousBatchSize, batchSize, previousIdle, idleBetweenPollsMs,
+                String.format("%.0f", arrivalRate), TimeUnit.NANOSECONDS.toMillis(worstBatch));
+        }
+    }
+
+    // Wait long enough to fill a write batch at the current arrival rate, but never past half the headroom left under the SLO
+    private long lingerFor(long worstBatchNanos) {
+        if (arrivalRate < lingerMinRate) {
+            return 0;
+        }
+        long headroomMs = TimeUnit.NANOSECONDS.toMillis(latencySloNanos - worstBatchNanos) / 2;
+        long fillMs = (long) (batchSize / arrivalRate * 1_000);
+        return Math.max(0, Math.min(maxIdleBetweenPollsMs, Math.min(headroomMs, fillMs)));
+    }
+
+    // Child containers copy the container properties on start, so the setting goes to each of them
+    private void applyIdleBetweenPolls(long idleMs) {
+        MessageListenerContainer container = listenerEndpointRegistry.getListenerContainer(LISTENER_ID);
+        if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrentContainer) {
+            concurrentContainer.getContainers()
+                .forEach(child -> child.getContainerProperties().setIdleBetweenPolls(idleMs));
+        } else if (container != null) {
+            container.getContainerProperties().setIdleBetweenPolls(idleMs);
+        }
+    }
+
+    private static double ewma(double current, double sample) {
+        return current == 0 ? sample : current + EWMA_WEIGHT * (sample - current);
+    }
+}
@@ -0,0 +1,250 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Detects crossed markets for the same product across exchanges.
+ *
+ * The latest best bid and ask of every (product, source) are kept in primitive arrays indexed by venue, and every
+ * tick is compared against the other venues' quotes of its product, in both directions. An opportunity is emitted
+ * as a {@code ARBITRAGE} trade signal when buying at one venue's ask and selling at the other's bid leaves more than
+ * {@code signal.config.arbitrageThreshold} of the buy price after both venues' taker fees. Only quotes within
+ * {@code signal.arbitrage.max-quote-age-ms} of the tick take part, and a venue pair emits at most once per
+ * {@code signal.arbitrage.cooldown-ms} per product. Both are measured in exchange time ({@link MarketData#getTime()}),
+ * not by when the ticks were consumed: a consumer catching up on a backlog reads old quotes in quick succession, and
+ * judged by the local clock they would all look fresh and pair up with quotes from seconds later. A signal emitted in a Kafka transaction that rolls back
+ * ({@code processing.exactly-once}) gives its cooldown back, so the redelivered tick emits it again. The threshold
+ * reloads when it changes in the environment.
+ *
+ * Checking a tick does not allocate; only an emitted signal does. Ticks of a product arrive on its partition's
+ * listener thread, so the per-product lock is uncontended.
+ */
+@Service
+@Slf4j
+public class ArbitrageDetector {
+
+    public static final String STRATEGY = "ARBITRAGE";
+
+    private static final String THRESHOLD_PROPERTY = "signal.config.arbitrageThreshold";
+
+    private final LatencyRecorder latencyRecorder;
+    private final Environment environment;
+    private final boolean enabled;
+    private volatile double threshold;
+    private final int maxVenues;
+    private final long maxQuoteAgeMicros;
+    private final long cooldownMicros;
+    private final double defaultTakerFee;
+    private final Map<String, Double> takerFees;
+
+    private final Map<String, Integer> venueIndexes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextVenueIndex = new AtomicInteger();
+    private final String[] venues;
+    private final double[] venueFees;
+    private final Map<String, ProductQuotes> quotes = new ConcurrentHashMap<>();
+
+    /**
+     * Latest top of book per venue of one product, with its exchange time in epoch microseconds (0 for none yet).
+     * Emit times are a venues x venues matrix of (buy, sell) pairs, in the exchange time of the tick that emitted.
+     */
+    private static final class ProductQuotes {
+        final double[] bid;
+        final double[] ask;
+        final long[] quotedAtMicros;
+        final long[] lastEmitMicros;
+
+        ProductQuotes(int venues) {
+            bid = new double[venues];
+            ask = new double[venues];
+            quotedAtMicros = new long[venues];
+            lastEmitMicros = new long[venues * venues];
+        }
+    }
+
+    public ArbitrageDetector(
+        LatencyRecorder latencyRecorder,
+        Environment environment,
+        @Value("${signal.arbitrage.enabled:true}") boolean enabled,
+        @Value("${signal.config.arbitrageThreshold:0.0025}") double threshold,
+        @Value("${signal.arbitrage.max-venues:8}") int maxVenues,
+        @Value("${signal.arbitrage.max-quote-age-ms:500}") long maxQuoteAgeMs,
+        @Value("${signal.arbitrage.cooldown-ms:1000}") long cooldownMs,
+        @Value("${signal.arbitrage.default-taker-fee:0.006}") double defaultTakerFee,
+        @Value("#{${signal.arbitrage.taker-fees:{:}}}") Map<String, Double> takerFees
+    ) {
+        this.latencyRecorder = latencyRecorder;
+        this.environment = environment;
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.maxVenues = maxVenues;
+        this.maxQuoteAgeMicros = TimeUnit.MILLISECONDS.toMicros(maxQuoteAgeMs);
+        this.cooldownMicros = TimeUnit.MILLISECONDS.toMicros(cooldownMs);
+        this.defaultTakerFee = defaultTakerFee;
+        this.takerFees = takerFees;
+        this.venues = new String[maxVenues];
+        this.venueFees = new double[maxVenues];
+    }
+
+    /**
+     * Records the tick's top of book and emits a signal for every venue pair it crosses.
+     * @param emitter publishes a detected signal; the time from detection until it returns is recorded
+     *                as the {@code arbitrage_emit} latency stage
+     */
+    public void onTick(MarketData tick, Consumer<TradeSignal> emitter) {
+        if (!enabled || tick.getSource() == null || tick.getTime() == null || tick.getBestBid() == null
+            || tick.getBestAsk() == null) {
+            return;
+        }
+        int venue = venueIndex(tick.getSource());
+        if (venue < 0) {
+            return;
+        }
+        double bid = tick.getBestBid().doubleValue();
+        double ask = tick.getBestAsk().doubleValue();
+        if (bid <= 0 || ask <= 0) {
+            return;
+        }
+        Instant time = tick.getTime();
+        long quotedAt = TimeUnit.SECONDS.toMicros(time.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(time.getNano());
+        ProductQuotes product = quotes.get(tick.getProductId());
+        if (product == null) {
+            // Only the first tick of a product pays for the capturing lambda
+            product = quotes.computeIfAbsent(tick.getProductId(), p -> new ProductQuotes(maxVenues));
+        }
+        int venueCount = Math.min(nextVenueIndex.get(), maxVenues);
+        double threshold = this.threshold;
+        synchronized (product) {
+            product.bid[venue] = bid;
+            product.ask[venue] = ask;
+            product.quotedAtMicros[venue] = quotedAt;
+            for (int other = 0; other < venueCount; other++) {
+                if (other == venue || product.quotedAtMicros[other] == 0
+                    || Math.abs(quotedAt - product.quotedAtMicros[other]) > maxQuoteAgeMicros) {
+                    continue;
+                }
+                // Buy on the other venue and sell here, then the reverse
+                check(tick, product, other, venue, threshold, quotedAt, emitter);
+                check(tick, product, venue, other, threshold, quotedAt, emitter);
+            }
+        }
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (!event.getKeys().contains(THRESHOLD_PROPERTY)) {
+            return;
+        }
+        Double updated = environment.getProperty(THRESHOLD_PROPERTY, Double.class);
+        if (updated == null || updated <= 0) {
+            log.error("❌ Ignoring {}={}, keeping {}", THRESHOLD_PROPERTY, updated, threshold);
+            return;
+        }
+        log.info("🔄 Arbitrage threshold reloaded from {} to {}", threshold, updated);
+        threshold = updated;
+    }
+
+    private void check(MarketData tick, ProductQuotes product, int buyVenue, int sellVenue, double threshold,
+                       long quotedAt, Consumer<TradeSignal> emitter) {
+        double buyPrice = product.ask[buyVenue];
+        double sellPrice = product.bid[sellVenue];
+        double netSpread = (sellPrice * (1 - venueFees[sellVenue]) - buyPrice * (1 + venueFees[buyVenue])) / buyPrice;
+        if (netSpread <= threshold) {
+            return;
+        }
+        int pair = buyVenue * maxVenues + sellVenue;
+        if (product.lastEmitMicros[pair] != 0 && quotedAt - product.lastEmitMicros[pair] < cooldownMicros) {
+            return;
+        }
+        long detectedAt = System.nanoTime();
+        long previousEmit = product.lastEmitMicros[pair];
+        product.lastEmitMicros[pair] = quotedAt;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new CooldownRollback(product, pair, quotedAt, previousEmit));
+        }
+        emitter.accept(signal(tick, buyVenue, sellVenue, buyPrice, sellPrice, netSpread, threshold));
+        latencyRecorder.record("arbitrage_emit", tick.getProductId(), System.nanoTime() - detectedAt);
+    }
+
+    /**
+     * Restores a venue pair's previous emit time when the transaction its signal was sent in rolls back, unless a
+     * later signal has taken the pair since.
+     */
+    private record CooldownRollback(ProductQuotes product, int pair, long emittedAt, long previousEmit)
+        implements TransactionSynchronization {
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_ROLLED_BACK) {
+                return;
+            }
+            synchronized (product) {
+                if (product.lastEmitMicros[pair] == emittedAt) {
+                    product.lastEmitMicros[pair] = previousEmit;
+                }
+            }
+        }
+    }
+
+    private TradeSignal signal(MarketData tick, int buyVenue, int sellVenue, double buyPrice, double sellPrice,
+                               double netSpread, double threshold) {
+        log.info("🎯 Arbitrage on {}: buy {} at {}, sell {} at {}, net spread {}", tick.getProductId(),
+            venues[buyVenue], buyPrice, venues[sellVenue], sellPrice, String.format("%.4f", netSpread));
+        return TradeSignal.builder()
+            .productId(tick.getProductId())
+            .signalType("BUY")
+            .strategy(STRATEGY)
+            .currentPrice(BigDecimal.valueOf(buyPrice))
+            .targetPrice(BigDecimal.valueOf(sellPrice))
+            // The opportunity is as good as the margin it leaves over the threshold
+            .confidence(Math.min(1.0, netSpread / (2 * threshold)))
+            .reasoning(String.format("Buy on %s at %s, sell on %s at %s: %.4f net of fees",
+                venues[buyVenue], buyPrice, venues[sellVenue], sellPrice, netSpread))
+            .timestamp(Instant.now())
+            .source(venues[buyVenue] + ">" + venues[sellVenue])
+            .build();
+    }
+
+    private int venueIndex(String source) {
+        Integer index = venueIndexes.get(source);
+        if (index != null) {
+            return index;
+        }
+        synchronized (venueIndexes) {
+            index = venueIndexes.get(source);
+            if (index != null) {
+                return index;
+            }
+            if (nextVenueIndex.get() >= maxVenues) {
+                log.warn("⚠️ Ignoring {} for arbitrage detection, signal.arbitrage.max-venues={} already in use",
+                    source, maxVenues);
+                venueIndexes.put(source, -1);
+                return -1;
+            }
+            int assigned = nextVenueIndex.get();
+            venues[assigned] = source;
+            venueFees[assigned] = takerFees.getOrDefault(source, defaultTakerFee);
+            venueIndexes.put(source, assigned);
+            // Publish the index only after the venue's name and fee are in place
+            nextVenueIndex.incrementAndGet();
+            return assigned;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.BacktestResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs a single backtest on startup when {@code backtest.enabled=true} and then shuts the application down.
+ * The Kafka listeners are not started in backtest mode, so live traffic never mixes with replayed state.
+ *
+ * Example:
+ * <pre>
+ * java -jar app.jar --backtest.enabled=true --backtest.products=BTC-USD,ETH-USD \
+ *     --backtest.start=2025-01-01T00:00:00Z --backtest.end=2025-04-01T00:00:00Z
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(name = "backtest.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class BacktestRunner implements ApplicationRunner {
+
+    private final BacktestService backtestService;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Value("${backtest.products}")
+    private String productsString;
+
+    @Value("${backtest.start}")
+    private String start;
+
+    @Value("${backtest.end}")
+    private String end;
+
+    @Value("${backtest.product-parallelism:4}")
+    private int productParallelism;
+
+    @Value("${backtest.slice-duration:P1D}")
+    private Duration sliceDuration;
+
+    @Value("${backtest.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> productIds = Arrays.stream(productsString.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .toList();
+
+        BacktestResult result = backtestService.runBacktest(
+            productIds,
+            Instant.parse(start),
+            Instant.parse(end),
+            productParallelism,
+            sliceDuration
+        );
+        result.getProducts().forEach(product -> log.info(
+            "📊 {}: ticks={}, buy={}, sell={}, hold={}, failed={}",
+            product.getProductId(), product.getTicks(), product.getBuySignals(),
+            product.getSellSignals(), product.getHoldSignals(), product.getFailedSignals()));
+
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+}
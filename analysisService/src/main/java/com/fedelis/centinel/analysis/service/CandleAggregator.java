@@ -0,0 +1,172 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.model.Candle;
+import com.fedelis.centinel.analysis.model.LiveChannel;
+import com.fedelis.centinel.analysis.model.MarketData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the current candle of every product from live ticks and pushes each change to candle subscribers.
+ *
+ * Candles are built even without subscribers, so a client that subscribes mid-interval gets a complete candle.
+ * A tick older than the product's current candle is ignored. Closed candles feed the {@link LiveIndicatorService}.
+ * After a warm start, ticks up to the last one already aggregated from history are ignored too, so those the listener
+ * redelivers from before the restart are not counted twice.
+ * The in-progress candle moves with the product's partition, so a handoff does not restart it mid-interval.
+ */
+@Service
+public class CandleAggregator implements ProductStateContributor {
+
+    private final LiveUpdateBroadcaster liveUpdateBroadcaster;
+    private final LiveIndicatorService liveIndicatorService;
+    private final ObjectMapper objectMapper;
+    private final long intervalSeconds;
+    private final Map<String, Candle> current = new ConcurrentHashMap<>();
+    // Last tick time of each warm started product, until a live tick passes it
+    private final Map<String, Instant> seededThrough = new ConcurrentHashMap<>();
+
+    public CandleAggregator(
+        LiveUpdateBroadcaster liveUpdateBroadcaster,
+        LiveIndicatorService liveIndicatorService,
+        ObjectMapper objectMapper,
+        @Value("${push.candle.interval-seconds:60}") long intervalSeconds
+    ) {
+        this.liveUpdateBroadcaster = liveUpdateBroadcaster;
+        this.liveIndicatorService = liveIndicatorService;
+        this.objectMapper = objectMapper;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    /**
+     * Seeds the product's in-progress candle from history, unless live ticks already started one, and ignores ticks
+     * up to the last one in history. Used by {@link WarmStartService} before the partition's records are consumed.
+     * @param inProgress the history of the current interval, null if it has none
+     * @param lastTickTime time of the product's last tick in history
+     */
+    public void warmUp(String productId, Candle inProgress, Instant lastTickTime) {
+        if (current.containsKey(productId)) {
+            return;
+        }
+        if (inProgress != null) {
+            current.put(productId, inProgress);
+        }
+        seededThrough.put(productId, lastTickTime);
+    }
+
+    public void onTick(MarketData tick) {
+        if (tick.getPrice() == null || tick.getTime() == null) {
+            return;
+        }
+        if (!seededThrough.isEmpty() && isSeeded(tick)) {
+            return;
+        }
+        Instant start = Instant.ofEpochSecond(Math.floorDiv(tick.getTime().getEpochSecond(), intervalSeconds) * intervalSeconds);
+        BigDecimal size = tick.getLastSize() != null ? tick.getLastSize() : BigDecimal.ZERO;
+        // Ticks of a product arrive on its partition's listener thread, so each product's candle has a single writer
+        Candle candle = current.get(tick.getProductId());
+        if (candle == null || start.isAfter(candle.getStart())) {
+            Candle closed = candle;
+            candle = Candle.builder()
+                .productId(tick.getProductId())
+                .intervalSeconds(intervalSeconds)
+                .start(start)
+                .open(tick.getPrice())
+                .high(tick.getPrice())
+                .low(tick.getPrice())
+                .close(tick.getPrice())
+                .volume(size)
+                .trades(1)
+                .build();
+            current.put(tick.getProductId(), candle);
+            // A closed candle is never modified again
+            if (closed != null) {
+                liveIndicatorService.onCandleClosed(closed);
+            }
+        } else if (start.isBefore(candle.getStart())) {
+            return;
+        } else {
+            // Uncontended except against a checkpoint snapshot
+            synchronized (candle) {
+                candle.setHigh(candle.getHigh().max(tick.getPrice()));
+                candle.setLow(candle.getLow().min(tick.getPrice()));
+                candle.setClose(tick.getPrice());
+                candle.setVolume(candle.getVolume().add(size));
+                candle.setTrades(candle.getTrades() + 1);
+            }
+        }
+        // Encoding happens inside publish, before the next tick can modify the candle
+        if (liveUpdateBroadcaster.hasSubscribers(LiveChannel.CANDLES, candle.getProductId())) {
+            liveUpdateBroadcaster.publishCandle(candle);
+        }
+    }
+
+    // Redelivered ticks arrive in order, so the first one after the seeded history ends the check for the product
+    private boolean isSeeded(MarketData tick) {
+        Instant through = seededThrough.get(tick.getProductId());
+        if (through == null) {
+            return false;
+        }
+        if (!tick.getTime().isAfter(through)) {
+            return true;
+        }
+        seededThrough.remove(tick.getProductId());
+        return false;
+    }
+
+    /**
+     * @return the product's in-progress candle, or null if it has none
+     */
+    Candle getCurrent(String productId) {
+        return current.get(productId);
+    }
+
+    @Override
+    public String getStateName() {
+        return "candle";
+    }
+
+    @Override
+    public byte[] snapshot(String productId) {
+        Candle candle = current.get(productId);
+        if (candle == null) {
+            return null;
+        }
+        try {
+            synchronized (candle) {
+                return objectMapper.writeValueAsBytes(candle);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void restore(String productId, byte[] state) {
+        try {
+            Candle candle = objectMapper.readValue(state, Candle.class);
+            // A candle of another interval length cannot continue here, the next tick starts a fresh one
+            if (candle.getIntervalSeconds() == intervalSeconds) {
+                current.put(productId, candle);
+                // The previous owner's candle replaces the warm started one
+                seededThrough.remove(productId);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void evict(String productId) {
+        current.remove(productId);
+        seededThrough.remove(productId);
+    }
+}
@@ -0,0 +1,277 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.CorrelationSnapshot;
+import com.fedelis.centinel.analysis.model.MarketData;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Maintains a rolling correlation and covariance matrix across all tracked products.
+ *
+ * Ticks only record each product's last price. Every {@code correlation.bar-interval-ms} a bar closes and every
+ * product gets one log return for it, 0 if it did not trade, so all products' returns are aligned. The last
+ * {@code correlation.window-bars} returns sit in a ring per product, and the sums and cross products over the window
+ * are updated incrementally: each bar adds the new return and removes the one leaving the window, O(N) per product.
+ * Above {@code correlation.parallel-threshold} products the rows are updated in parallel on the fork/join pool, and
+ * every {@code correlation.recompute-every-bars} the sums are recomputed from the rings, also in parallel, so
+ * floating point drift does not accumulate.
+ *
+ * A product joins with an all-zero ring and appears in snapshots once it has a full window of its own returns.
+ * Bars are closed on a thread of their own, so the sums need no locking and no other scheduled task can delay a bar
+ * and stretch its return over two intervals; snapshots are immutable.
+ *
+ * The matrix is per instance: it only covers the products of the partitions this instance consumes. Its windows are
+ * not handed over on a rebalance, so a product that moves here starts a new window, and one that moves away stops
+ * moving and has its correlations decay towards 0 as its zero returns fill the window.
+ */
+@Service
+@Slf4j
+public class CorrelationEngine {
+
+    private final boolean enabled;
+    private final long barIntervalMs;
+    private final int windowBars;
+    private final int maxProducts;
+    private final int parallelThreshold;
+    private final int recomputeEveryBars;
+    private final Timer barTimer;
+    private final ScheduledExecutorService barScheduler;
+
+    private final Map<String, Integer> productIndexes = new ConcurrentHashMap<>();
+    private final AtomicInteger productCount = new AtomicInteger();
+    private final String[] products;
+    private final AtomicLongArray lastPrices;
+
+    // Bar thread state
+    private final double[] barOpen;
+    private final long[] barsSeen;
+    private final double[][] returns;
+    private final double[] sums;
+    private final double[][] crossProducts;
+    private final double[] barReturns;
+    private final double[] leavingReturns;
+    private long bars;
+
+    private volatile CorrelationSnapshot snapshot;
+
+    public CorrelationEngine(
+        MeterRegistry meterRegistry,
+        @Value("${correlation.enabled:true}") boolean enabled,
+        @Value("${correlation.bar-interval-ms:1000}") long barIntervalMs,
+        @Value("${correlation.window-bars:300}") int windowBars,
+        @Value("${correlation.max-products:256}") int maxProducts,
+        @Value("${correlation.parallel-threshold:64}") int parallelThreshold,
+        @Value("${correlation.recompute-every-bars:600}") int recomputeEveryBars
+    ) {
+        this.enabled = enabled;
+        this.barIntervalMs = barIntervalMs;
+        this.windowBars = windowBars;
+        this.maxProducts = maxProducts;
+        this.parallelThreshold = parallelThreshold;
+        this.recomputeEveryBars = recomputeEveryBars;
+        this.products = new String[maxProducts];
+        this.lastPrices = new AtomicLongArray(maxProducts);
+        this.barOpen = new double[maxProducts];
+        this.barsSeen = new long[maxProducts];
+        this.returns = new double[maxProducts][windowBars];
+        this.sums = new double[maxProducts];
+        this.crossProducts = new double[maxProducts][maxProducts];
+        this.barReturns = new double[maxProducts];
+        this.leavingReturns = new double[maxProducts];
+        this.snapshot = CorrelationSnapshot.empty(barIntervalMs, windowBars);
+        this.barTimer = Timer.builder("centinel.correlation.bar")
+            .description("Time to close a bar and update the correlation matrix")
+            .register(meterRegistry);
+        Gauge.builder("centinel.correlation.products", productCount, AtomicInteger::get)
+            .description("Products tracked by the correlation engine")
+            .register(meterRegistry);
+        this.barScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("correlation-bars").daemon().factory());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            barScheduler.scheduleAtFixedRate(this::closeBarLogged, barIntervalMs, barIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        barScheduler.shutdownNow();
+    }
+
+    /**
+     * Records the tick's price as its product's latest.
+     */
+    public void onTick(MarketData tick) {
+        if (!enabled || tick.getPrice() == null) {
+            return;
+        }
+        int index = productIndex(tick.getProductId());
+        if (index >= 0) {
+            lastPrices.set(index, Double.doubleToRawLongBits(tick.getPrice().doubleValue()));
+        }
+    }
+
+    /**
+     * @return the matrix as of the last closed bar
+     */
+    public CorrelationSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // A task that throws is never run again by the scheduler
+    private void closeBarLogged() {
+        try {
+            closeBar();
+        } catch (RuntimeException e) {
+            log.error("❌ Failed to close correlation bar: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Closes the current bar. Called every {@code correlation.bar-interval-ms} on the bar thread, and must not be
+     * called concurrently.
+     */
+    public void closeBar() {
+        int n = productCount.get();
+        if (!enabled || n == 0) {
+            return;
+        }
+        barTimer.record(() -> {
+            int slot = (int) (bars % windowBars);
+            for (int i = 0; i < n; i++) {
+                double price = Double.longBitsToDouble(lastPrices.get(i));
+                barReturns[i] = barOpen[i] > 0 && price > 0 ? Math.log(price / barOpen[i]) : 0;
+                barOpen[i] = price;
+                if (price > 0) {
+                    barsSeen[i]++;
+                }
+                leavingReturns[i] = returns[i][slot];
+                returns[i][slot] = barReturns[i];
+                sums[i] += barReturns[i] - leavingReturns[i];
+            }
+            bars++;
+            if (bars % recomputeEveryBars == 0) {
+                recompute(n);
+            } else {
+                rows(n).forEach(i -> {
+                    double[] row = crossProducts[i];
+                    double added = barReturns[i];
+                    double removed = leavingReturns[i];
+                    for (int j = i; j < n; j++) {
+                        row[j] += added * barReturns[j] - removed * leavingReturns[j];
+                    }
+                });
+            }
+            snapshot = buildSnapshot(n);
+        });
+    }
+
+    // Row i of the upper triangle only depends on the ring, so rows can be summed independently
+    private void recompute(int n) {
+        rows(n).forEach(i -> {
+            double[] ring = returns[i];
+            double sum = 0;
+            for (int k = 0; k < windowBars; k++) {
+                sum += ring[k];
+            }
+            sums[i] = sum;
+            for (int j = i; j < n; j++) {
+                double[] other = returns[j];
+                double cross = 0;
+                for (int k = 0; k < windowBars; k++) {
+                    cross += ring[k] * other[k];
+                }
+                crossProducts[i][j] = cross;
+            }
+        });
+        log.debug("🔄 Recomputed correlation sums for {} products", n);
+    }
+
+    private IntStream rows(int n) {
+        IntStream rows = IntStream.range(0, n);
+        return n >= parallelThreshold ? rows.parallel() : rows;
+    }
+
+    private CorrelationSnapshot buildSnapshot(int n) {
+        List<Integer> warm = new ArrayList<>(n);
+        List<String> warmProducts = new ArrayList<>(n);
+        // The first priced bar has no return yet, a full window needs one more
+        for (int i = 0; i < n; i++) {
+            if (barsSeen[i] > windowBars) {
+                warm.add(i);
+                warmProducts.add(products[i]);
+            }
+        }
+        int size = warm.size();
+        double[] means = new double[size];
+        double[] deviations = new double[size];
+        for (int a = 0; a < size; a++) {
+            int i = warm.get(a);
+            means[a] = sums[i] / windowBars;
+            deviations[a] = Math.sqrt(Math.max(0, crossProducts[i][i] / windowBars - means[a] * means[a]));
+        }
+        double[][] covariance = new double[size][size];
+        double[][] correlation = new double[size][size];
+        for (int a = 0; a < size; a++) {
+            int i = warm.get(a);
+            for (int b = a; b < size; b++) {
+                int j = warm.get(b);
+                int row = Math.min(i, j);
+                int column = Math.max(i, j);
+                double cov = crossProducts[row][column] / windowBars - means[a] * means[b];
+                double denominator = deviations[a] * deviations[b];
+                double corr = denominator > 0 ? Math.clamp(cov / denominator, -1.0, 1.0) : 0;
+                covariance[a][b] = covariance[b][a] = cov;
+                correlation[a][b] = correlation[b][a] = corr;
+            }
+        }
+        return new CorrelationSnapshot(Instant.now(), barIntervalMs, windowBars, List.copyOf(warmProducts),
+            correlation, covariance);
+    }
+
+    private int productIndex(String productId) {
+        Integer index = productIndexes.get(productId);
+        if (index != null) {
+            return index;
+        }
+        synchronized (productIndexes) {
+            index = productIndexes.get(productId);
+            if (index != null) {
+                return index;
+            }
+            if (productCount.get() >= maxProducts) {
+                log.warn("⚠️ Not tracking {} for correlations, correlation.max-products={} reached",
+                    productId, maxProducts);
+                productIndexes.put(productId, -1);
+                return -1;
+            }
+            int assigned = productCount.get();
+            products[assigned] = productId;
+            productIndexes.put(productId, assigned);
+            // The bar thread only looks at products below the count, publish it last
+            productCount.incrementAndGet();
+            return assigned;
+        }
+    }
+}
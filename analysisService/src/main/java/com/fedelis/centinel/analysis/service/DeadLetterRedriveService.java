@@ -0,0 +1,208 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.RedriveResult;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+/**
+ * Re-drives dead-lettered market data back onto the topic it originally failed on, once the cause has been fixed.
+ *
+ * Records are read from the dead-letter topic from the offsets committed under their own consumer group, so each
+ * record is re-driven once no matter how often this runs, and copied byte for byte to the topic named in their
+ * {@code kafka_dlt-original-topic} header. The {@code kafka_dlt-*} error headers are dropped; a record that fails
+ * again is dead-lettered again with fresh ones. Records without the header are skipped. Offsets are committed
+ * only after every send of a poll has been acknowledged.
+ */
+@Service
+@Slf4j
+public class DeadLetterRedriveService {
+
+    private static final String DLT_HEADER_PREFIX = "kafka_dlt-";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String bootstrapServers;
+    private final String deadLetterTopic;
+    private final String groupId;
+
+    public DeadLetterRedriveService(
+        @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+        @Value("${dlt.suffix:.DLT}") String deadLetterSuffix,
+        @Value("${dlt.redrive.group-id:analysis-service-dlt-redrive}") String groupId
+    ) {
+        this.bootstrapServers = bootstrapServers;
+        this.deadLetterTopic = "coinbase-market-data" + deadLetterSuffix;
+        this.groupId = groupId;
+    }
+
+    /**
+     * Re-drives up to {@code maxRecords} dead-lettered records, stopping early once every partition has been read
+     * up to the end offset it had when the run started. Records dead-lettered during the run are left for the next.
+     * Runs are serialized, concurrent calls wait for the current one.
+     */
+    public synchronized RedriveResult redrive(int maxRecords) throws Exception {
+        long start = System.currentTimeMillis();
+        long redriven = 0;
+        long skipped = 0;
+        Map<String, Long> redrivenByTopic = new HashMap<>();
+        log.info("🔄 Re-driving up to {} records from {}", maxRecords, deadLetterTopic);
+
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProps());
+             KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(producerProps())) {
+            // Assigned rather than subscribed, so there is no group rebalance to wait out before the first fetch
+            Map<TopicPartition, Long> endOffsets = assignFromCommitted(consumer);
+            Set<TopicPartition> remaining = new HashSet<>(endOffsets.keySet());
+            long lastProgress = System.currentTimeMillis();
+            while (!remaining.isEmpty() && redriven + skipped < maxRecords) {
+                ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+                List<Future<?>> sends = new ArrayList<>(records.count());
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<byte[], byte[]> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (redriven + skipped >= maxRecords || record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    String originalTopic = originalTopic(record);
+                    if (originalTopic == null) {
+                        log.warn("⚠️ Skipping {}-{}@{}: no original topic header", record.topic(),
+                            record.partition(), record.offset());
+                        skipped++;
+                        continue;
+                    }
+                    sends.add(producer.send(new ProducerRecord<>(originalTopic, null, record.key(), record.value(),
+                        withoutDeadLetterHeaders(record))));
+                    redrivenByTopic.merge(originalTopic, 1L, Long::sum);
+                    redriven++;
+                }
+                for (Future<?> send : sends) {
+                    send.get();
+                }
+                // Only what was read is committed, the rest of the poll stays for the next run
+                if (!offsets.isEmpty()) {
+                    consumer.commitSync(offsets);
+                    lastProgress = System.currentTimeMillis();
+                }
+                // Positions also move past transaction markers, which never show up as records
+                remaining.removeIf(partition -> consumer.position(partition) >= endOffsets.get(partition));
+                consumer.pause(difference(endOffsets.keySet(), remaining));
+                if (System.currentTimeMillis() - lastProgress > IDLE_TIMEOUT.toMillis()) {
+                    log.warn("⚠️ Stopping re-drive of {}: nothing read for {}s with {} partitions not yet drained",
+                        deadLetterTopic, IDLE_TIMEOUT.toSeconds(), remaining.size());
+                    break;
+                }
+            }
+        }
+
+        RedriveResult result = RedriveResult.builder()
+            .deadLetterTopic(deadLetterTopic)
+            .redriven(redriven)
+            .skipped(skipped)
+            .elapsedMillis(System.currentTimeMillis() - start)
+            .redrivenByTopic(redrivenByTopic)
+            .build();
+        log.info("✅ Re-drove {} records from {} ({} skipped) in {}ms", redriven, deadLetterTopic, skipped,
+            result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * Assigns every partition of the dead-letter topic and seeks each one to the group's committed offset, or to
+     * the start of the partition if nothing has been committed or the committed offset has been deleted.
+     * @return the end offset of every partition that has records left to re-drive
+     */
+    private Map<TopicPartition, Long> assignFromCommitted(KafkaConsumer<byte[], byte[]> consumer) {
+        List<PartitionInfo> partitionInfos = consumer.partitionsFor(deadLetterTopic);
+        if (partitionInfos == null || partitionInfos.isEmpty()) {
+            log.info("✅ Dead-letter topic {} does not exist, nothing to re-drive", deadLetterTopic);
+            return Map.of();
+        }
+        List<TopicPartition> partitions = partitionInfos.stream()
+            .map(info -> new TopicPartition(info.topic(), info.partition()))
+            .toList();
+        consumer.assign(partitions);
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+        Map<TopicPartition, Long> endOffsets = new HashMap<>();
+        consumer.endOffsets(partitions).forEach((partition, endOffset) -> {
+            OffsetAndMetadata commit = committed.get(partition);
+            long position = Math.max(commit != null ? commit.offset() : 0L, beginningOffsets.get(partition));
+            consumer.seek(partition, position);
+            if (position < endOffset) {
+                endOffsets.put(partition, endOffset);
+            }
+        });
+        consumer.pause(difference(new HashSet<>(partitions), endOffsets.keySet()));
+        return endOffsets;
+    }
+
+    private static Set<TopicPartition> difference(Set<TopicPartition> all, Set<TopicPartition> excluded) {
+        Set<TopicPartition> result = new HashSet<>(all);
+        result.removeAll(excluded);
+        return result;
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+        return props;
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return props;
+    }
+
+    private static String originalTopic(ConsumerRecord<byte[], byte[]> record) {
+        Header header = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    // Keeps trace and other headers so latency tracing still covers the re-driven record
+    private static RecordHeaders withoutDeadLetterHeaders(ConsumerRecord<byte[], byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DLT_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+}
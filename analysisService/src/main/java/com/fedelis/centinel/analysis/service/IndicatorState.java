@@ -0,0 +1,131 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.config.IndicatorParameters;
+import com.fedelis.centinel.analysis.model.TechnicalIndicators;
+
+/**
+ * Incremental RSI (Wilder smoothing) and MACD of one product's bar closes, for one set of parameters.
+ *
+ * EMAs are seeded with the simple average of their first period, as is the RSI's first average gain and loss.
+ * Indicators are null until they have seen enough bars. Not thread safe.
+ */
+class IndicatorState {
+
+    private final IndicatorParameters parameters;
+
+    private long bars;
+    private long historyPosition;
+    private double lastClose = Double.NaN;
+
+    private double gainSum;
+    private double lossSum;
+    private double averageGain;
+    private double averageLoss;
+
+    private final Ema emaShort;
+    private final Ema emaLong;
+    private final Ema macdSignal;
+
+    IndicatorState(IndicatorParameters parameters) {
+        this.parameters = parameters;
+        this.emaShort = new Ema(parameters.emaShort());
+        this.emaLong = new Ema(parameters.emaLong());
+        this.macdSignal = new Ema(parameters.macdSignal());
+    }
+
+    /**
+     * @return bar closes applied so far
+     */
+    long getBars() {
+        return bars;
+    }
+
+    long getHistoryPosition() {
+        return historyPosition;
+    }
+
+    void setHistoryPosition(long historyPosition) {
+        this.historyPosition = historyPosition;
+    }
+
+    void add(double close) {
+        bars++;
+        if (!Double.isNaN(lastClose)) {
+            addChange(close - lastClose);
+        }
+        lastClose = close;
+        emaShort.add(close);
+        emaLong.add(close);
+        if (emaLong.isReady()) {
+            macdSignal.add(emaShort.value() - emaLong.value());
+        }
+    }
+
+    TechnicalIndicators indicators() {
+        TechnicalIndicators.TechnicalIndicatorsBuilder indicators = TechnicalIndicators.builder();
+        int period = parameters.rsiPeriod();
+        if (bars > period) {
+            indicators.rsi(averageLoss == 0 ? 100.0 : 100 - 100 / (1 + averageGain / averageLoss));
+        }
+        if (emaLong.isReady()) {
+            double macd = emaShort.value() - emaLong.value();
+            indicators.macd(macd);
+            if (macdSignal.isReady()) {
+                indicators.macdSignal(macdSignal.value());
+                indicators.macdHistogram(macd - macdSignal.value());
+            }
+        }
+        return indicators.build();
+    }
+
+    private void addChange(double change) {
+        int period = parameters.rsiPeriod();
+        double gain = Math.max(change, 0);
+        double loss = Math.max(-change, 0);
+        // bars already counts this close, so this is change number bars - 1
+        long changes = bars - 1;
+        if (changes <= period) {
+            gainSum += gain;
+            lossSum += loss;
+            if (changes == period) {
+                averageGain = gainSum / period;
+                averageLoss = lossSum / period;
+            }
+        } else {
+            averageGain = (averageGain * (period - 1) + gain) / period;
+            averageLoss = (averageLoss * (period - 1) + loss) / period;
+        }
+    }
+
+    private static final class Ema {
+        private final int period;
+        private final double alpha;
+        private long count;
+        private double sum;
+        private double value;
+
+        Ema(int period) {
+            this.period = period;
+            this.alpha = 2.0 / (period + 1);
+        }
+
+        void add(double x) {
+            count++;
+            if (count < period) {
+                sum += x;
+            } else if (count == period) {
+                value = (sum + x) / period;
+            } else {
+                value += alpha * (x - value);
+            }
+        }
+
+        boolean isReady() {
+            return count >= period;
+        }
+
+        double value() {
+            return value;
+        }
+    }
+}
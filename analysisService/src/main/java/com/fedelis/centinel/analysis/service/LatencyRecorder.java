@@ -0,0 +1,57 @@
+package com.fedelis.centinel.analysis.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per-stage, per-product latencies into the {@code centinel.latency} timer.
+ *
+ * Timers publish percentile histograms so p50/p99/p999 can be aggregated across instances in Prometheus.
+ * Timers are cached per (stage, product) so the hot path does not go through the meter builder.
+ *
+ * The monitor and analysis services each carry a copy of this class so that both publish the same timer. The copies
+ * differ only in their package, which {@code SharedSourcesTests} in the monitor service checks.
+ */
+@Component
+@RequiredArgsConstructor
+public class LatencyRecorder {
+
+    public static final String METRIC_NAME = "centinel.latency";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Records a stage latency. Negative values, which happen when clocks on two hosts disagree
+     * or a timestamp is missing, are dropped.
+     * @param stage the pipeline stage
+     * @param productId the product the tick belongs to, or null if unknown
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(String stage, String productId, long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        timer(stage, productId).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String stage, String productId) {
+        String product = productId != null ? productId : "unknown";
+        return timers.computeIfAbsent(stage, s -> new ConcurrentHashMap<>())
+            .computeIfAbsent(product, p -> Timer.builder(METRIC_NAME)
+                .description("Market data pipeline latency by stage and product")
+                .tag("stage", stage)
+                .tag("product", p)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,248 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.config.IndicatorParameters;
+import com.fedelis.centinel.analysis.model.Candle;
+import com.fedelis.centinel.analysis.model.TechnicalIndicators;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Live RSI and MACD per product on closed candles, with parameters that reload without a restart.
+ *
+ * The indicator states of all products and the parameters they were built with form one immutable
+ * {@link IndicatorSet}, published through a single volatile reference. When a {@code signal.config} indicator
+ * property changes, for example through the Zookeeper config watcher, a new set is built on a background thread by
+ * replaying every product's in-memory history of closes ({@code signal.indicators.history-bars} per product) and then
+ * swapped in. The candle path keeps updating the old set until the swap; closes that arrive during the rebuild are in
+ * the history, and each state catches up on them the first time the candle path touches it after the swap.
+ *
+ * The history of closes is also what moves with a product's partition: the new owner restores it and rebuilds the
+ * product's indicators from it the same way a reload does.
+ */
+@Service
+@Slf4j
+public class LiveIndicatorService implements ProductStateContributor {
+
+    private final LiveUpdateBroadcaster liveUpdateBroadcaster;
+    private final Environment environment;
+    private final ObjectMapper objectMapper;
+    private final int historyBars;
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(
+        Thread.ofPlatform().name("indicator-rebuild").daemon().factory());
+
+    private final Map<String, CloseHistory> histories = new ConcurrentHashMap<>();
+    private volatile IndicatorSet indicatorSet;
+
+    private record IndicatorSet(IndicatorParameters parameters, Map<String, IndicatorState> states) {
+    }
+
+    /**
+     * The last closes of one product, in a ring. {@code count} is the number of closes ever added, and a state's
+     * history position is the count it has caught up to.
+     */
+    private static final class CloseHistory {
+        final double[] closes;
+        long count;
+
+        CloseHistory(int capacity) {
+            closes = new double[capacity];
+        }
+
+        synchronized void add(double close) {
+            closes[(int) (count % closes.length)] = close;
+            count++;
+        }
+
+        /**
+         * Feeds the state the closes it has not seen, as far back as the ring reaches.
+         */
+        synchronized void catchUp(IndicatorState state) {
+            long from = Math.max(state.getHistoryPosition(), count - closes.length);
+            for (long i = from; i < count; i++) {
+                state.add(closes[(int) (i % closes.length)]);
+            }
+            state.setHistoryPosition(count);
+        }
+
+        /**
+         * @return the closes still in the ring, oldest first
+         */
+        synchronized double[] toArray() {
+            long from = Math.max(0, count - closes.length);
+            double[] ordered = new double[(int) (count - from)];
+            for (long i = from; i < count; i++) {
+                ordered[(int) (i - from)] = closes[(int) (i % closes.length)];
+            }
+            return ordered;
+        }
+    }
+
+    public LiveIndicatorService(
+        LiveUpdateBroadcaster liveUpdateBroadcaster,
+        Environment environment,
+        ObjectMapper objectMapper,
+        @Value("${signal.indicators.history-bars:500}") int historyBars
+    ) {
+        this.liveUpdateBroadcaster = liveUpdateBroadcaster;
+        this.environment = environment;
+        this.objectMapper = objectMapper;
+        this.historyBars = historyBars;
+        IndicatorParameters parameters = IndicatorParameters.from(environment);
+        this.indicatorSet = new IndicatorSet(parameters, new ConcurrentHashMap<>());
+        log.info("✅ Live indicators with {}", parameters);
+    }
+
+    /**
+     * Updates the product's indicators with a closed candle and pushes them to indicator subscribers.
+     * Called on the listener thread of the product's partition.
+     */
+    public void onCandleClosed(Candle candle) {
+        IndicatorState state = apply(candle);
+        liveUpdateBroadcaster.publishIndicators(candle.getProductId(), candle.getIntervalSeconds() + "s",
+            state.indicators());
+    }
+
+    /**
+     * Updates the product's indicators with a historical closed candle without publishing them. Used by
+     * {@link WarmStartService} before the partition's records are consumed, with each product's candles in time order.
+     */
+    public void warmUp(Candle candle) {
+        apply(candle);
+    }
+
+    /**
+     * @return closes the indicators need before every one of them is valid
+     */
+    public int getWarmUpBars() {
+        return indicatorSet.parameters().warmUpBars();
+    }
+
+    public IndicatorParameters getParameters() {
+        return indicatorSet.parameters();
+    }
+
+    /**
+     * Reads the product's current indicators. Only safe on the listener thread of the product's partition, or while
+     * nothing updates the product.
+     * @return the indicators, or null if the product has no closed candle yet
+     */
+    TechnicalIndicators getIndicators(String productId) {
+        IndicatorState state = indicatorSet.states().get(productId);
+        return state != null ? state.indicators() : null;
+    }
+
+    @Override
+    public String getStateName() {
+        return "indicators";
+    }
+
+    @Override
+    public byte[] snapshot(String productId) {
+        CloseHistory history = histories.get(productId);
+        if (history == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(history.toArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replaces the product's history and rebuilds its indicators from it with the current parameters. If a reload
+     * swaps the indicator set meanwhile, the new set rebuilds the product from the same history on its next close.
+     */
+    @Override
+    public void restore(String productId, byte[] state) {
+        double[] closes;
+        try {
+            closes = objectMapper.readValue(state, double[].class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        CloseHistory history = new CloseHistory(historyBars);
+        for (double close : closes) {
+            history.add(close);
+        }
+        histories.put(productId, history);
+        IndicatorSet current = indicatorSet;
+        IndicatorState indicatorState = new IndicatorState(current.parameters());
+        history.catchUp(indicatorState);
+        current.states().put(productId, indicatorState);
+    }
+
+    @Override
+    public void evict(String productId) {
+        histories.remove(productId);
+        indicatorSet.states().remove(productId);
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith(IndicatorParameters.PREFIX))) {
+            return;
+        }
+        IndicatorParameters parameters;
+        try {
+            parameters = IndicatorParameters.from(environment);
+        } catch (IllegalArgumentException | ConversionException e) {
+            log.error("❌ Ignoring indicator parameter change, keeping {}: {}", indicatorSet.parameters(), e.getMessage());
+            return;
+        }
+        if (parameters.equals(indicatorSet.parameters())) {
+            return;
+        }
+        rebuilder.execute(() -> rebuild(parameters));
+    }
+
+    private IndicatorState apply(Candle candle) {
+        String productId = candle.getProductId();
+        CloseHistory history = histories.computeIfAbsent(productId, p -> new CloseHistory(historyBars));
+        history.add(candle.getClose().doubleValue());
+
+        IndicatorSet current = indicatorSet;
+        IndicatorState state = current.states().computeIfAbsent(productId, p -> new IndicatorState(current.parameters()));
+        // Picks up this close and any that arrived while the set was being rebuilt
+        history.catchUp(state);
+        return state;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void rebuild(IndicatorParameters parameters) {
+        long start = System.nanoTime();
+        Map<String, IndicatorState> states = new ConcurrentHashMap<>();
+        histories.forEach((productId, history) -> {
+            IndicatorState state = new IndicatorState(parameters);
+            history.catchUp(state);
+            states.put(productId, state);
+        });
+        IndicatorParameters previous = indicatorSet.parameters();
+        indicatorSet = new IndicatorSet(parameters, states);
+        log.info("🔄 Indicator parameters reloaded from {} to {}, rebuilt {} products in {}ms", previous, parameters,
+            states.size(), (System.nanoTime() - start) / 1_000_000);
+        long cold = states.values().stream().filter(s -> s.getBars() < parameters.warmUpBars()).count();
+        if (cold > 0) {
+            log.warn("⚠️ {} products have less history than the {} bars the new parameters need to warm up",
+                cold, parameters.warmUpBars());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.fedelis.centinel.analysis.service;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One connected live update client and its outbound queue.
+ *
+ * The queue is bounded and conflating: frames carry a key, and a frame whose key is already queued replaces the
+ * queued one in place, so a slow client skips intermediate versions of a candle instead of falling further behind.
+ * When the queue is full of distinct keys the oldest frame is dropped. At most one sender drains the queue at a
+ * time, WebSocket sessions do not allow concurrent sends, and publishers never wait for it.
+ */
+@Slf4j
+class LiveSubscriber {
+
+    private final WebSocketSession session;
+    private final int capacity;
+    private final Executor sender;
+    private final Counter sent;
+    private final Counter conflated;
+    private final Counter dropped;
+    private final Runnable onFailure;
+
+    private final LinkedHashMap<String, ByteBuffer> pending = new LinkedHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    LiveSubscriber(WebSocketSession session, int capacity, Executor sender, Counter sent, Counter conflated,
+                   Counter dropped, Runnable onFailure) {
+        this.session = session;
+        this.capacity = capacity;
+        this.sender = sender;
+        this.sent = sent;
+        this.conflated = conflated;
+        this.dropped = dropped;
+        this.onFailure = onFailure;
+    }
+
+    String getId() {
+        return session.getId();
+    }
+
+    /**
+     * Queues a frame for this client.
+     * @param key conflation key, a queued frame with the same key is replaced
+     * @param frame encoded frame, shared with other subscribers and never modified
+     */
+    void offer(String key, ByteBuffer frame) {
+        synchronized (pending) {
+            if (pending.replace(key, frame) != null) {
+                conflated.increment();
+            } else {
+                if (pending.size() >= capacity) {
+                    Iterator<?> oldest = pending.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    dropped.increment();
+                }
+                pending.put(key, frame);
+            }
+        }
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    // The emptiness check and releasing the drain flag happen under the queue lock, so a frame offered
+    // concurrently is either seen by this loop or schedules a new drain
+    private void drain() {
+        while (true) {
+            ByteBuffer frame;
+            synchronized (pending) {
+                Iterator<Map.Entry<String, ByteBuffer>> next = pending.entrySet().iterator();
+                if (!next.hasNext()) {
+                    draining.set(false);
+                    return;
+                }
+                frame = next.next().getValue();
+                next.remove();
+            }
+            try {
+                // The container consumes the buffer, each send gets its own view of the shared bytes
+                session.sendMessage(new BinaryMessage(frame.duplicate()));
+                sent.increment();
+            } catch (IOException | RuntimeException e) {
+                log.warn("⚠️ Failed to push to live subscriber {}, closing it: {}", getId(), e.getMessage());
+                close(CloseStatus.SERVER_ERROR);
+                onFailure.run();
+                return;
+            }
+        }
+    }
+
+    void close(CloseStatus status) {
+        synchronized (pending) {
+            pending.clear();
+        }
+        try {
+            if (session.isOpen()) {
+                session.close(status);
+            }
+        } catch (IOException e) {
+            log.debug("Live subscriber {} was already gone: {}", getId(), e.getMessage());
+        }
+    }
+}
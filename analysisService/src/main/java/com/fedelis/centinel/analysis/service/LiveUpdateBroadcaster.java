@@ -0,0 +1,212 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.model.Candle;
+import com.fedelis.centinel.analysis.model.LiveChannel;
+import com.fedelis.centinel.analysis.model.LiveUpdate;
+import com.fedelis.centinel.analysis.model.TechnicalIndicators;
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans live candles, indicators and signals out to WebSocket subscribers.
+ *
+ * An update is serialized once, only if someone subscribed to its channel and product, and the same read-only
+ * buffer is queued for every subscriber; frames go out as binary messages, so the container writes the shared
+ * bytes without re-encoding them per client. Every subscriber drains its own bounded conflating queue on a
+ * virtual thread, see {@link LiveSubscriber}, so a slow client only ever delays itself.
+ */
+@Service
+@Slf4j
+public class LiveUpdateBroadcaster {
+
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("live-push-", 0).factory());
+
+    private final Map<String, LiveSubscriber> subscribers = new ConcurrentHashMap<>();
+    private final Map<LiveChannel, Map<String, Set<LiveSubscriber>>> subscriptions = new EnumMap<>(LiveChannel.class);
+    private final AtomicLong controlSequence = new AtomicLong();
+
+    private final Counter encoded;
+    private final Counter sent;
+    private final Counter conflated;
+    private final Counter dropped;
+
+    public LiveUpdateBroadcaster(
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${push.queue-capacity:256}") int queueCapacity
+    ) {
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        for (LiveChannel channel : LiveChannel.values()) {
+            subscriptions.put(channel, new ConcurrentHashMap<>());
+        }
+        this.encoded = Counter.builder("centinel.live.frames.encoded")
+            .description("Live updates serialized, once per update regardless of the number of subscribers")
+            .register(meterRegistry);
+        this.sent = Counter.builder("centinel.live.frames.sent")
+            .description("Frames written to live update subscribers")
+            .register(meterRegistry);
+        this.conflated = Counter.builder("centinel.live.frames.conflated")
+            .description("Queued frames replaced by a newer version before a slow subscriber received them")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("centinel.live.frames.dropped")
+            .description("Frames dropped because a subscriber's queue was full")
+            .register(meterRegistry);
+        Gauge.builder("centinel.live.subscribers", subscribers, Map::size)
+            .description("Connected live update subscribers")
+            .register(meterRegistry);
+    }
+
+    public void register(WebSocketSession session) {
+        subscribers.put(session.getId(), new LiveSubscriber(session, queueCapacity, sender, sent, conflated, dropped,
+            () -> unregister(session.getId())));
+        log.info("✅ Live update subscriber connected: {}", session.getId());
+    }
+
+    public void unregister(String sessionId) {
+        LiveSubscriber subscriber = subscribers.remove(sessionId);
+        if (subscriber == null) {
+            return;
+        }
+        subscriptions.values().forEach(byProduct ->
+            byProduct.values().forEach(products -> products.remove(subscriber)));
+        subscriber.close(CloseStatus.GOING_AWAY);
+        log.info("✅ Live update subscriber disconnected: {}", sessionId);
+    }
+
+    /**
+     * @return the products the session is subscribed to on the channel after the change
+     */
+    public Set<String> subscribe(String sessionId, LiveChannel channel, Collection<String> productIds) {
+        LiveSubscriber subscriber = subscribers.get(sessionId);
+        if (subscriber != null) {
+            productIds.forEach(productId -> subscriptions.get(channel)
+                .computeIfAbsent(productId, p -> ConcurrentHashMap.newKeySet())
+                .add(subscriber));
+        }
+        return subscribedProducts(subscriber, channel);
+    }
+
+    /**
+     * @return the products the session is subscribed to on the channel after the change
+     */
+    public Set<String> unsubscribe(String sessionId, LiveChannel channel, Collection<String> productIds) {
+        LiveSubscriber subscriber = subscribers.get(sessionId);
+        if (subscriber != null) {
+            Map<String, Set<LiveSubscriber>> byProduct = subscriptions.get(channel);
+            productIds.forEach(productId -> {
+                Set<LiveSubscriber> products = byProduct.get(productId);
+                if (products != null) {
+                    products.remove(subscriber);
+                }
+            });
+        }
+        return subscribedProducts(subscriber, channel);
+    }
+
+    /**
+     * Queues a control reply, such as a subscription acknowledgement, for one session. Replies are never conflated.
+     */
+    public void reply(String sessionId, Object message) {
+        LiveSubscriber subscriber = subscribers.get(sessionId);
+        ByteBuffer frame = encode(message);
+        if (subscriber != null && frame != null) {
+            subscriber.offer("control:" + controlSequence.incrementAndGet(), frame);
+        }
+    }
+
+    /**
+     * Pushes the current state of a candle. Versions of the same candle conflate, so a slow subscriber still gets
+     * the final version of every candle.
+     */
+    public void publishCandle(Candle candle) {
+        publish(LiveChannel.CANDLES, candle.getProductId(),
+            candle.getIntervalSeconds() + ":" + candle.getStart().toEpochMilli(), candle);
+    }
+
+    /**
+     * Pushes the latest indicator values of a product on a timeframe, which conflate per timeframe.
+     */
+    public void publishIndicators(String productId, String timeframe, TechnicalIndicators indicators) {
+        publish(LiveChannel.INDICATORS, productId, timeframe, indicators);
+    }
+
+    /**
+     * Pushes a trade signal. Signals are distinct events and never conflate, only the queue bound applies.
+     */
+    public void publishSignal(TradeSignal signal) {
+        publish(LiveChannel.SIGNALS, signal.getProductId(), "signal:" + controlSequence.incrementAndGet(), signal);
+    }
+
+    public boolean hasSubscribers(LiveChannel channel, String productId) {
+        Set<LiveSubscriber> targets = subscriptions.get(channel).get(productId);
+        return targets != null && !targets.isEmpty();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.keySet().forEach(this::unregister);
+        sender.shutdownNow();
+    }
+
+    private void publish(LiveChannel channel, String productId, String key, Object data) {
+        Set<LiveSubscriber> targets = subscriptions.get(channel).get(productId);
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        ByteBuffer frame = encode(new LiveUpdate(channel.wireName(), productId, data));
+        if (frame == null) {
+            return;
+        }
+        encoded.increment();
+        String conflationKey = channel.wireName() + ":" + productId + ":" + key;
+        for (LiveSubscriber subscriber : targets) {
+            subscriber.offer(conflationKey, frame);
+        }
+    }
+
+    private ByteBuffer encode(Object message) {
+        try {
+            return ByteBuffer.wrap(objectMapper.writeValueAsBytes(message)).asReadOnlyBuffer();
+        } catch (JsonProcessingException e) {
+            log.error("❌ Failed to serialize live update: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Set<String> subscribedProducts(LiveSubscriber subscriber, LiveChannel channel) {
+        Set<String> products = new TreeSet<>();
+        if (subscriber != null) {
+            subscriptions.get(channel).forEach((productId, targets) -> {
+                if (targets.contains(subscriber)) {
+                    products.add(productId);
+                }
+            });
+        }
+        return products;
+    }
+}
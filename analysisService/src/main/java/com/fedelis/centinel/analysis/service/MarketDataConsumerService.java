@@ -1,23 +1,30 @@
 package com.fedelis.centinel.analysis.service;
 
+import com.fedelis.centinel.analysis.model.LatencyTrace;
 import com.fedelis.centinel.analysis.model.MarketData;
 import com.fedelis.centinel.analysis.model.MarketDataEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fedelis.centinel.analysis.model.TraceHeaders;
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import com.fedelis.centinel.analysis.util.MarketDataParser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -26,81 +33,119 @@ public class MarketDataConsumerService {
 
     private final MarketDataPersistenceService persistenceService;
     private final MultiTimeframeAnalysisService multiTimeframeAnalysisService;
-    private final ObjectMapper objectMapper;
+    private final MarketDataParser marketDataParser;
+    private final LatencyRecorder latencyRecorder;
+    private final AdaptiveBatchController adaptiveBatchController;
+    private final TradeSignalGenerationService tradeSignalService;
+    private final TradeSignalPersistenceService tradeSignalPersistenceService;
+    private final TradeSignalPublisher tradeSignalPublisher;
+    private final DeadLetterPublishingRecoverer deadLetterPublishingRecoverer;
+    private final PartitionStateManager partitionStateManager;
+    private final RedeliveryTracker redeliveryTracker;
+    private final CandleAggregator candleAggregator;
+    private final LiveUpdateBroadcaster liveUpdateBroadcaster;
+    private final ArbitrageDetector arbitrageDetector;
+    private final CorrelationEngine correlationEngine;
+    private final QuantileSketchService quantileSketchService;
+    private final PriceAlertEngine priceAlertEngine;
+    private final StartupTimer startupTimer;
+    // Bound once, so the per-tick arbitrage check does not allocate a method reference
+    private final Consumer<TradeSignal> signalEmitter = this::emitSignal;
+
+    @Value("${processing.idempotent-inserts:true}")
+    private boolean idempotentInserts;
+
+    @Value("${signal.kafka.enabled:true}")
+    private boolean publishSignals;
+
+    /**
+     * Result of processing one batch.
+     * @param processed rows that were persisted (or did not need to be) and added to the windows, in arrival order
+     * @param processedIndexes the index of each of {@code processed} in the batch
+     * @param processedTraces trace timestamps aligned with {@code processed}, or null when latency is not recorded
+     * @param unparseable indexes of the events that could not be deserialized or parsed, before any persist failure;
+     *                    frames other than ticks are skipped, not counted here
+     * @param persistFailures rows that parsed but could not be written
+     * @param firstPersistFailure index of the first event whose row could not be written, or -1
+     */
+    private record BatchOutcome(List<MarketData> processed, List<Integer> processedIndexes,
+                                List<LatencyTrace> processedTraces, List<Integer> unparseable, int persistFailures,
+                                int firstPersistFailure) {
+    }
 
     @KafkaListener(
+        id = AdaptiveBatchController.LISTENER_ID,
         topics = "coinbase-market-data",
         groupId = "${kafka.consumer.group-id:analysis-service-group}",
         containerFactory = "kafkaListenerContainerFactory"
     )
     public void consumeMarketData(
-        @Payload List<MarketDataEvent> marketDataEvents,
-        @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-        @Header(KafkaHeaders.RECEIVED_PARTITION) List<Integer> partitions,
-        @Header(KafkaHeaders.OFFSET) List<Long> offsets,
+        List<ConsumerRecord<String, MarketDataEvent>> delivered,
         Acknowledgment acknowledgment
     ) {
+        long consumedAtMicros = TraceHeaders.nowMicros();
+        // Records the after-rollback processor dead-lettered are done with, only the rest of their batch came back
+        List<ConsumerRecord<String, MarketDataEvent>> records = delivered.stream()
+            .filter(record -> !redeliveryTracker.isDeadLettered(record))
+            .toList();
+        // Stored and counted in a delivery that failed or rolled back afterwards
+        boolean[] applied = new boolean[records.size()];
+        for (int i = 0; i < applied.length; i++) {
+            applied[i] = redeliveryTracker.isApplied(records.get(i));
+        }
+        List<MarketDataEvent> marketDataEvents = records.stream().map(ConsumerRecord::value).toList();
+        List<LatencyTrace> traces = records.stream()
+            .map(record -> LatencyTrace.fromHeaders(record.headers(), consumedAtMicros))
+            .toList();
+        // Records are keyed by product, which tells the state manager what to hand over with each partition
+        records.forEach(record -> partitionStateManager.track(record.topic(), record.partition(), record.key()));
         try {
-            log.info("✅ Received {} market data events from topic: {}", marketDataEvents.size(), topic);
-            
-            // Process events in parallel for better performance
-            List<CompletableFuture<Boolean>> futures = marketDataEvents.parallelStream()
-                .map(event -> CompletableFuture.supplyAsync(() -> {
-                    try {
-                        log.debug("🔄 Processing event: source={}}", 
-                            event.getSource());
-                        // Persist to TimescaleDB
-                        boolean persisted = persistenceService.persistMarketData(event);
-                        // Only add to multi-timeframe windows if persistence was successful
-                        if (persisted) {
-                            // Parse market data and add to multi-timeframe windows
-                            try {
-                                MarketData marketData = parseMarketDataFromEvent(event);
-                                if (marketData != null) {
-                                    multiTimeframeAnalysisService.addPriceData(
-                                        marketData.getProductId(),
-                                        marketData.getPrice(),
-                                        marketData.getVolume24h(),
-                                        marketData.getTime()
-                                    );
-                                    log.debug("✅ Added data to multi-timeframe windows for product: {}", 
-                                        marketData.getProductId());
-                                }
-                            } catch (Exception e) {
-                                log.error("❌ Error adding data to multi-timeframe windows: {}", e.getMessage());
-                            }
-                        } else {
-                            log.warn("⚠️ Skipping multi-timeframe data addition due to persistence failure for event: source={}", 
-                                event.getSource());
-                        }
-                        
-                        return persisted;
-                    } catch (Exception e) {
-                        log.error("❌ Error processing event: source={}, error={}", 
-                            event.getSource(), e.getMessage(), e);
-                        return false;
-                    }
-                }))
-                .collect(Collectors.toList());
-            
-            // Wait for all processing to complete
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-            
-            // Count successful and failed processing
-            long successfulCount = futures.stream()
-                .mapToLong(future -> {
-                    try {
-                        return future.get() ? 1 : 0;
-                    } catch (Exception e) {
-                        log.error("❌ Error getting future result: {}", e.getMessage());
-                        return 0;
-                    }
-                })
-                .sum();
-            
-            log.info("✅ Batch processing completed: {}/{} events processed successfully", 
-                successfulCount, marketDataEvents.size());
+            log.info("✅ Received {} market data events from topic: {}", marketDataEvents.size(),
+                records.isEmpty() ? "n/a" : records.get(0).topic());
             
+            BatchOutcome outcome = processBatch(marketDataEvents, traces, applied, true);
+            if (!outcome.processed().isEmpty()) {
+                startupTimer.onTickConsumed();
+            }
+            // Only live ticks feed the pushed candles, the rolling statistics, price alerts and the arbitrage
+            // detector, replays rebuild windows without pushing history to clients or acting on stale quotes
+            for (int i = 0; i < outcome.processed().size(); i++) {
+                MarketData marketData = outcome.processed().get(i);
+                int index = outcome.processedIndexes().get(i);
+                if (!applied[index]) {
+                    candleAggregator.onTick(marketData);
+                    correlationEngine.onTick(marketData);
+                    quantileSketchService.onTick(marketData);
+                    priceAlertEngine.onTick(marketData);
+                    redeliveryTracker.markApplied(records.get(index));
+                }
+                // Quotes are overwritten rather than counted and a rolled back signal gives its cooldown back, so a
+                // redelivered tick is checked again and re-emits what the rolled back transaction discarded
+                if (publishSignals) {
+                    arbitrageDetector.onTick(marketData, signalEmitter);
+                }
+            }
+            // Poison messages can never succeed, so they go straight to the dead-letter topic instead of being retried
+            for (int index : outcome.unparseable()) {
+                if (!applied[index]) {
+                    deadLetter(records.get(index));
+                    redeliveryTracker.markApplied(records.get(index));
+                }
+            }
+            if (publishSignals) {
+                generateAndPublishSignals(outcome.processed(), outcome.processedTraces());
+            }
+            // With idempotent inserts a redelivered row only writes what is missing, so retry from the first row
+            // that never reached the database. Without a transaction the error handler commits everything before
+            // it; with one the batch rolls back and comes back whole, and the rows before it are skipped as applied.
+            // Either way that row alone is dead-lettered once its retries are exhausted
+            if (idempotentInserts && outcome.firstPersistFailure() >= 0) {
+                throw new BatchListenerFailedException(
+                    "❌ " + outcome.persistFailures() + " market data rows failed to persist",
+                    records.get(outcome.firstPersistFailure()));
+            }
+
+            afterCommit(() -> redeliveryTracker.committed(delivered));
             // Acknowledge the batch
             acknowledgment.acknowledge();
             log.debug("✅ Successfully processed and acknowledged batch of {} events", marketDataEvents.size());
@@ -113,113 +158,248 @@ public class MarketDataConsumerService {
     }
 
     /**
-     * Parses MarketData from MarketDataEvent message
-     * @param event The market data event
-     * @return MarketData object or null if parsing fails
+     * Processes a batch of market data events: parses each event, persists them in batch inserts and feeds them
+     * into the multi-timeframe windows. Shared by the live listener and the replay listener.
+     * @param marketDataEvents the events to process
+     * @param persist whether to write the events to TimescaleDB; replays that only rebuild derived state pass false
+     * @return the number of events processed successfully
      */
-    private MarketData parseMarketDataFromEvent(MarketDataEvent event) {
-        try {
-            // Add null check for message
-            if (event.getMessage() == null || event.getMessage().trim().isEmpty()) {
-                log.error("❌ MarketDataEvent message is null or empty");
-                return null;
+    public long processBatch(List<MarketDataEvent> marketDataEvents, boolean persist) {
+        return processBatch(marketDataEvents, null, null, persist).processed().size();
+    }
+
+    /**
+     * @param traces trace timestamps aligned with {@code marketDataEvents}, or null to skip latency recording
+     * @param applied which events an earlier delivery already stored and added to the windows, or null for none;
+     *                they are parsed again for their signals only
+     */
+    private BatchOutcome processBatch(List<MarketDataEvent> marketDataEvents, List<LatencyTrace> traces,
+                                      boolean[] applied, boolean persist) {
+        long batchStart = System.nanoTime();
+        int size = marketDataEvents.size();
+
+        // Parse events in parallel, results stay aligned with the events and traces
+        MarketData[] parsed = new MarketData[size];
+        boolean[] nonTicker = new boolean[size];
+        long[] parseNanos = new long[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            long parseStart = System.nanoTime();
+            MarketDataEvent event = marketDataEvents.get(i);
+            parsed[i] = event == null ? null : marketDataParser.parse(event);
+            // Subscription acks and heartbeats are expected, only broken messages are poison
+            nonTicker[i] = parsed[i] == null && event != null && marketDataParser.isNonTicker(event);
+            parseNanos[i] = System.nanoTime() - parseStart;
+        });
+
+        boolean[] persisted = new boolean[size];
+        long[] persistNanos = new long[size];
+        if (persist) {
+            persistInBatches(parsed, applied, persisted, persistNanos);
+        } else {
+            Arrays.fill(persisted, true);
+        }
+
+        // Only add to multi-timeframe windows if persistence was successful, in arrival order
+        List<MarketData> processed = new ArrayList<>(size);
+        List<Integer> processedIndexes = new ArrayList<>(size);
+        List<LatencyTrace> processedTraces = traces != null ? new ArrayList<>(size) : null;
+        List<Integer> unparseable = new ArrayList<>();
+        int persistFailures = 0;
+        int firstPersistFailure = -1;
+        for (int i = 0; i < size; i++) {
+            MarketData marketData = parsed[i];
+            if (marketData == null) {
+                if (firstPersistFailure < 0 && !nonTicker[i]) {
+                    unparseable.add(i);
+                }
+                continue;
+            }
+            if (!persisted[i]) {
+                persistFailures++;
+                if (firstPersistFailure < 0) {
+                    firstPersistFailure = i;
+                }
+                log.warn("⚠️ Skipping multi-timeframe data addition due to persistence failure for event: source={}",
+                    marketData.getSource());
+                continue;
+            }
+            // Everything from the first failed row on is redelivered, keep it out of the windows until then
+            if (idempotentInserts && firstPersistFailure >= 0) {
+                continue;
+            }
+            if (applied != null && applied[i]) {
+                processed.add(marketData);
+                processedIndexes.add(i);
+                if (traces != null) {
+                    processedTraces.add(traces.get(i));
+                }
+                continue;
             }
-            
-            String message = event.getMessage();
-            JsonNode data;
-            
             try {
-                data = objectMapper.readTree(message);
+                multiTimeframeAnalysisService.addPriceData(
+                    marketData.getProductId(),
+                    marketData.getPrice(),
+                    marketData.getVolume24h(),
+                    marketData.getTime()
+                );
+                log.debug("✅ Added data to multi-timeframe windows for product: {}", 
+                    marketData.getProductId());
             } catch (Exception e) {
-                log.error("❌ Failed to parse JSON message: {}", message, e);
-                return null;
+                log.error("❌ Error adding data to multi-timeframe windows: {}", e.getMessage());
             }
-            
-            MarketData marketData = new MarketData();
-            
-            // Set basic fields using JsonNode methods
-            marketData.setType(getStringValue(data, "type"));
-            marketData.setSequence(getIntegerValue(data, "sequence"));
-            marketData.setProductId(getStringValue(data, "product_id"));
-            marketData.setSide(getStringValue(data, "side"));
-            marketData.setTradeId(getIntegerValue(data, "trade_id"));
-            
-            // Set numeric fields with proper conversion
-            marketData.setPrice(getBigDecimalValue(data, "price"));
-            marketData.setOpen24h(getBigDecimalValue(data, "open_24h"));
-            marketData.setVolume24h(getBigDecimalValue(data, "volume_24h"));
-            marketData.setLow24h(getBigDecimalValue(data, "low_24h"));
-            marketData.setHigh24h(getBigDecimalValue(data, "high_24h"));
-            marketData.setVolume30d(getBigDecimalValue(data, "volume_30d"));
-            marketData.setBestBid(getBigDecimalValue(data, "best_bid"));
-            marketData.setBestAsk(getBigDecimalValue(data, "best_ask"));
-            marketData.setBestBidSize(getBigDecimalValue(data, "best_bid_size"));
-            marketData.setBestAskSize(getBigDecimalValue(data, "best_ask_size"));
-            marketData.setLastSize(getBigDecimalValue(data, "last_size"));
-            
-            // Handle time parsing with error handling
-            String timeStr = getStringValue(data, "time");
-            if (timeStr != null) {
-                try {
-                    marketData.setTime(Instant.parse(timeStr));
-                } catch (Exception e) {
-                    log.warn("⚠️ Could not parse time from data: {}, using current time", timeStr);
-                    marketData.setTime(Instant.now());
-                }
-            } else {
-                marketData.setTime(Instant.now());
+            processed.add(marketData);
+            processedIndexes.add(i);
+            if (traces != null) {
+                processedTraces.add(traces.get(i));
+                recordLatencies(marketData, traces.get(i), persist ? persistNanos[i] : -1, parseNanos[i]);
             }
-            
-            marketData.setSource(event.getSource());
-            marketData.setCreatedAt(Instant.now());
-            
-            log.debug("✅ Successfully parsed market data for product: {}", marketData.getProductId());
-            return marketData;
-                
-        } catch (Exception e) {
-            log.error("❌ Error parsing market data from event: {}", e.getMessage(), e);
-            return null;
         }
+        adaptiveBatchController.recordBatch(size, System.nanoTime() - batchStart);
+        
+        log.info("✅ Batch processing completed: {}/{} events processed successfully", 
+            processed.size(), size);
+        return new BatchOutcome(processed, processedIndexes, processedTraces, unparseable, persistFailures,
+            firstPersistFailure);
     }
-    
-    // JsonNode helper methods
-    private String getStringValue(JsonNode node, String fieldName) {
-        JsonNode fieldNode = node.get(fieldName);
-        return fieldNode != null && !fieldNode.isNull() ? fieldNode.asText() : null;
+
+    /**
+     * Publishes a record that can never be processed to the dead-letter topic, with the original bytes when it
+     * could not be deserialized. The send is asynchronous and does not hold up the rest of the batch.
+     */
+    private void deadLetter(ConsumerRecord<String, MarketDataEvent> record) {
+        String reason = record.value() == null
+            ? "Market data event could not be deserialized"
+            : "Market data event could not be parsed";
+        log.warn("⚠️ {} at {}-{}@{}, sending it to the dead-letter topic", reason, record.topic(),
+            record.partition(), record.offset());
+        deadLetterPublishingRecoverer.accept(record, new IllegalArgumentException(reason));
     }
 
-    private Integer getIntegerValue(JsonNode node, String fieldName) {
-        JsonNode fieldNode = node.get(fieldName);
-        if (fieldNode != null && !fieldNode.isNull()) {
-            try {
-                if (fieldNode.isInt()) {
-                    return fieldNode.asInt();
-                } else if (fieldNode.isLong()) {
-                    return fieldNode.asInt();
-                } else if (fieldNode.isTextual()) {
-                    return Integer.parseInt(fieldNode.asText());
-                }
-            } catch (NumberFormatException e) {
-                log.warn("⚠️ Could not parse Integer from field {}: {}", fieldName, fieldNode.asText());
+    /**
+     * Generates signals for the processed ticks and publishes them from the listener thread, so that with
+     * {@code processing.exactly-once} the sends join the batch's Kafka transaction.
+     * @param traces trace timestamps aligned with {@code processed}, or null to skip latency recording
+     */
+    private void generateAndPublishSignals(List<MarketData> processed, List<LatencyTrace> traces) {
+        long signalStart = System.nanoTime();
+        List<CompletableFuture<TradeSignal>> futures = processed.stream()
+            .map(tradeSignalService::generateTradeSignal)
+            .toList();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        for (int i = 0; i < futures.size(); i++) {
+            TradeSignal signal = futures.get(i).join();
+            if (signal != null) {
+                emitSignal(signal, processed.get(i), traces != null ? traces.get(i) : null, signalStart);
             }
         }
-        return null;
     }
 
-    private BigDecimal getBigDecimalValue(JsonNode node, String fieldName) {
-        JsonNode fieldNode = node.get(fieldName);
-        if (fieldNode != null && !fieldNode.isNull()) {
-            try {
-                if (fieldNode.isTextual()) {
-                    return new BigDecimal(fieldNode.asText());
-                } else if (fieldNode.isNumber()) {
-                    return new BigDecimal(fieldNode.asText());
-                }
-            } catch (NumberFormatException e) {
-                log.warn("⚠️ Could not parse BigDecimal from field {}: {}", fieldName, fieldNode.asText());
+    /**
+     * Emits a signal generated from one tick and records the signal stages against that tick's trace.
+     * @param trace the tick's trace timestamps, or null to skip latency recording
+     * @param signalStart when signal generation for the tick's batch started, from {@link System#nanoTime()}
+     */
+    private void emitSignal(TradeSignal signal, MarketData tick, LatencyTrace trace, long signalStart) {
+        emitSignal(signal);
+        if (trace == null) {
+            return;
+        }
+        String productId = tick.getProductId();
+        long emittedAt = TraceHeaders.nowMicros();
+        latencyRecorder.record("signal", productId, System.nanoTime() - signalStart);
+        Instant exchangeTime = tick.getTime();
+        long exchangeMicros = exchangeTime.getEpochSecond() * 1_000_000L + exchangeTime.getNano() / 1_000;
+        latencyRecorder.record("exchange_to_signal", productId, (emittedAt - exchangeMicros) * 1_000);
+        if (trace.getReceivedAtMicros() > 0) {
+            latencyRecorder.record("receive_to_signal", productId, (emittedAt - trace.getReceivedAtMicros()) * 1_000);
+        }
+    }
+
+    private void emitSignal(TradeSignal signal) {
+        tradeSignalPublisher.publish(signal);
+        // A signal whose transaction rolls back is generated again from the redelivered batch, so it is only stored
+        // and pushed to clients once it commits
+        afterCommit(() -> {
+            tradeSignalPersistenceService.persistTradeSignal(signal);
+            liveUpdateBroadcaster.publishSignal(signal);
+        });
+    }
+
+    /**
+     * Runs an action once the listener's Kafka transaction commits, or right away without one.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Writes the parsed rows in batch inserts of the size chosen by the adaptive batch controller.
+     * Every row of a batch gets that batch's outcome and latency. Rows an earlier delivery stored are not written.
+     */
+    private void persistInBatches(MarketData[] parsed, boolean[] applied, boolean[] persisted, long[] persistNanos) {
+        int batchSize = adaptiveBatchController.getBatchSize();
+        List<Integer> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < parsed.length; i++) {
+            if (parsed[i] == null) {
+                continue;
+            }
+            if (applied != null && applied[i]) {
+                persisted[i] = true;
+                continue;
+            }
+            batch.add(i);
+            if (batch.size() == batchSize) {
+                persistBatch(batch, parsed, persisted, persistNanos);
+                batch.clear();
             }
         }
-        return null;
+        if (!batch.isEmpty()) {
+            persistBatch(batch, parsed, persisted, persistNanos);
+        }
     }
 
+    private void persistBatch(List<Integer> indexes, MarketData[] parsed, boolean[] persisted, long[] persistNanos) {
+        List<MarketData> rows = indexes.stream().map(i -> parsed[i]).toList();
+        long start = System.nanoTime();
+        boolean saved = persistenceService.persistMarketData(rows);
+        long nanos = System.nanoTime() - start;
+        adaptiveBatchController.recordFlush(rows.size(), nanos);
+        for (int i : indexes) {
+            persisted[i] = saved;
+            persistNanos[i] = nanos;
+        }
+    }
+
+    /**
+     * Records the per-stage latencies of one event. Stages that span the exchange, monitor and analysis hosts
+     * compare wall clocks and are only as accurate as the clock sync between them.
+     */
+    private void recordLatencies(MarketData marketData, LatencyTrace trace, long persistNanos, long parseNanos) {
+        String productId = marketData.getProductId();
+        long receivedAt = trace.getReceivedAtMicros();
+        long producedAt = trace.getProducedAtMicros();
+        latencyRecorder.record("parse", productId, parseNanos);
+        latencyRecorder.record("persist", productId, persistNanos);
+        if (receivedAt > 0) {
+            Instant exchangeTime = marketData.getTime();
+            long exchangeMicros = exchangeTime.getEpochSecond() * 1_000_000L + exchangeTime.getNano() / 1_000;
+            latencyRecorder.record("exchange_to_receive", productId, (receivedAt - exchangeMicros) * 1_000);
+            latencyRecorder.record("receive_to_processed", productId, (TraceHeaders.nowMicros() - receivedAt) * 1_000);
+            if (producedAt > 0) {
+                latencyRecorder.record("receive_to_produce", productId, (producedAt - receivedAt) * 1_000);
+            }
+        }
+        if (producedAt > 0) {
+            latencyRecorder.record("kafka_transit", productId, (trace.getConsumedAtMicros() - producedAt) * 1_000);
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.MarketDataEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Re-drives the analysis pipeline from Kafka topic history.
+ *
+ * Enabled with {@code replay.enabled=true}. The replay consumes under its own consumer group so the live
+ * group's committed offsets are untouched, and on first assignment each partition is positioned at
+ * {@code replay.start-timestamp} or {@code replay.start-offset}. With {@code replay.persist=false} events
+ * only rebuild in-memory derived state and nothing is written to TimescaleDB. Throughput is logged every
+ * {@code replay.report-interval-ms}.
+ */
+@Service
+@ConditionalOnProperty(name = "replay.enabled", havingValue = "true")
+@Slf4j
+public class MarketDataReplayService implements ConsumerSeekAware {
+
+    private final MarketDataConsumerService marketDataConsumerService;
+    private final Counter replayedCounter;
+    private final boolean persist;
+    private final String startTimestamp;
+    private final Long startOffset;
+
+    // Partitions already positioned; a rebalance must not rewind them again
+    private final Set<TopicPartition> positionedPartitions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong totalReplayed = new AtomicLong();
+    private final AtomicLong replayedSinceReport = new AtomicLong();
+    private volatile long lastReportNanos = System.nanoTime();
+
+    public MarketDataReplayService(
+        MarketDataConsumerService marketDataConsumerService,
+        MeterRegistry meterRegistry,
+        @Value("${replay.persist:false}") boolean persist,
+        @Value("${replay.start-timestamp:}") String startTimestamp,
+        @Value("${replay.start-offset:#{null}}") Long startOffset
+    ) {
+        this.marketDataConsumerService = marketDataConsumerService;
+        this.persist = persist;
+        this.startTimestamp = startTimestamp;
+        this.startOffset = startOffset;
+        this.replayedCounter = Counter.builder("centinel.replay.events")
+            .description("Market data events re-driven from topic history")
+            .register(meterRegistry);
+        log.info("🔄 Replay mode enabled (persist: {}, start timestamp: {}, start offset: {})",
+            persist, startTimestamp.isEmpty() ? "none" : startTimestamp, startOffset);
+    }
+
+    @KafkaListener(
+        id = "market-data-replay",
+        topics = "${replay.topic:coinbase-market-data}",
+        groupId = "${replay.group-id:analysis-service-replay}",
+        containerFactory = "replayKafkaListenerContainerFactory"
+    )
+    public void replayMarketData(
+        @Payload List<MarketDataEvent> marketDataEvents,
+        Acknowledgment acknowledgment
+    ) {
+        marketDataConsumerService.processBatch(marketDataEvents, persist);
+        acknowledgment.acknowledge();
+        totalReplayed.addAndGet(marketDataEvents.size());
+        replayedSinceReport.addAndGet(marketDataEvents.size());
+        replayedCounter.increment(marketDataEvents.size());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Set<TopicPartition> newPartitions = assignments.keySet().stream()
+            .filter(positionedPartitions::add)
+            .collect(Collectors.toSet());
+        if (newPartitions.isEmpty()) {
+            return;
+        }
+        if (!startTimestamp.isEmpty()) {
+            long timestamp = Instant.parse(startTimestamp).toEpochMilli();
+            log.info("⏪ Seeking {} partitions to timestamp {}", newPartitions.size(), startTimestamp);
+            callback.seekToTimestamp(newPartitions, timestamp);
+        } else if (startOffset != null) {
+            log.info("⏪ Seeking {} partitions to offset {}", newPartitions.size(), startOffset);
+            newPartitions.forEach(partition ->
+                callback.seek(partition.topic(), partition.partition(), startOffset));
+        } else {
+            log.info("⏪ Seeking {} partitions to the beginning", newPartitions.size());
+            callback.seekToBeginning(newPartitions);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${replay.report-interval-ms:1000}")
+    public void reportThroughput() {
+        long now = System.nanoTime();
+        long replayed = replayedSinceReport.getAndSet(0);
+        double seconds = (now - lastReportNanos) / 1_000_000_000.0;
+        lastReportNanos = now;
+        if (replayed > 0) {
+            log.info("📈 Replay throughput: {} events/s ({} events replayed)",
+                String.format("%.0f", replayed / seconds), totalReplayed.get());
+        }
+    }
+}
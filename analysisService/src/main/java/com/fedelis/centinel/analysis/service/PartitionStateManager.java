@@ -0,0 +1,277 @@
+package com.fedelis.centinel.analysis.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands per-product analysis state over with the market data partitions, so an instance added under load starts
+ * with warm indicators instead of rebuilding them from live ticks.
+ *
+ * Market data is keyed by product, so every product lives on exactly one partition. The live listener reports the
+ * products it sees per partition through {@link #track}. On revoke, the state of those products is written by every
+ * {@link ProductStateContributor} to the compacted changelog topic {@code state.changelog.topic}, keyed by
+ * {@code <state name>/<product>} and tagged with the source partition, and then evicted. On assign, the changelog is
+ * read to its end and the latest snapshot of every product on the newly assigned partitions is restored, before the
+ * container hands the listener any record from them. Products on those partitions without a snapshot are then loaded
+ * from TimescaleDB by {@link WarmStartService}. Lost partitions are evicted without a snapshot since another consumer
+ * may already own them.
+ *
+ * Owned products are also checkpointed every {@code state.checkpoint-interval-ms}. A checkpoint can be ahead of or
+ * behind the committed offsets, so after a crash the new owner may see a few ticks twice or not at all in its
+ * windows; a clean rebalance snapshots exactly at the committed offsets. Rebalance callbacks of the listener's
+ * consumers and checkpoints are serialized, so a checkpoint never writes over a handoff snapshot.
+ */
+@Service
+@Slf4j
+public class PartitionStateManager implements ConsumerAwareRebalanceListener {
+
+    private static final String SOURCE_PARTITION_HEADER = "centinel-source-partition";
+
+    private final List<ProductStateContributor> contributors;
+    private final WarmStartService warmStartService;
+    private final String bootstrapServers;
+    private final String changelogTopic;
+    private final Duration restoreTimeout;
+    private final KafkaProducer<String, byte[]> changelogProducer;
+
+    // Products seen on each owned partition of the market data topic
+    private final Map<TopicPartition, Set<String>> productsByPartition = new ConcurrentHashMap<>();
+
+    public PartitionStateManager(
+        List<ProductStateContributor> contributors,
+        WarmStartService warmStartService,
+        @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+        @Value("${state.changelog.topic:analysis-state-changelog}") String changelogTopic,
+        @Value("${state.restore-timeout-ms:10000}") long restoreTimeoutMs
+    ) {
+        this.contributors = contributors;
+        this.warmStartService = warmStartService;
+        this.bootstrapServers = bootstrapServers;
+        this.changelogTopic = changelogTopic;
+        this.restoreTimeout = Duration.ofMillis(restoreTimeoutMs);
+        this.changelogProducer = contributors.isEmpty() ? null : new KafkaProducer<>(producerProps());
+        log.info("🔄 Partition state handoff for {} state contributors via {}", contributors.size(), changelogTopic);
+    }
+
+    /**
+     * Records that a product's ticks arrive on a partition. Called by the listener for every record.
+     */
+    public void track(String topic, int partition, String productId) {
+        if (productId == null || contributors.isEmpty()) {
+            return;
+        }
+        productsByPartition.computeIfAbsent(new TopicPartition(topic, partition), p -> ConcurrentHashMap.newKeySet())
+            .add(productId);
+    }
+
+    @Override
+    public synchronized void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (contributors.isEmpty() || partitions.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        int snapshotted = snapshot(partitions);
+        changelogProducer.flush();
+        partitions.forEach(this::evict);
+        log.info("✅ Handed off {} product states from {} revoked partitions in {}ms", snapshotted, partitions.size(),
+            Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    @Override
+    public synchronized void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (contributors.isEmpty()) {
+            return;
+        }
+        log.warn("⚠️ Lost {} partitions, evicting their state without a snapshot", partitions.size());
+        partitions.forEach(this::evict);
+    }
+
+    @Override
+    public synchronized void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Set<String> restored = contributors.isEmpty() || partitions.isEmpty() ? Set.of() : restore(partitions);
+        // Products without a snapshot, e.g. after every instance was restarted, are loaded from the database
+        warmStartService.warmStart(partitions, topic -> consumer.partitionsFor(topic).size(), restored)
+            .forEach((productId, partition) -> track(partition.topic(), partition.partition(), productId));
+    }
+
+    @Scheduled(fixedDelayString = "${state.checkpoint-interval-ms:30000}")
+    public synchronized void checkpoint() {
+        if (contributors.isEmpty() || productsByPartition.isEmpty()) {
+            return;
+        }
+        int snapshotted = snapshot(Set.copyOf(productsByPartition.keySet()));
+        log.debug("✅ Checkpointed {} product states to {}", snapshotted, changelogTopic);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (changelogProducer != null) {
+            changelogProducer.close(Duration.ofSeconds(5));
+        }
+    }
+
+    // Restores the latest snapshot of every product on the partitions, returns the products restored
+    private Set<String> restore(Collection<TopicPartition> partitions) {
+        long start = System.nanoTime();
+        int restored = 0;
+        Set<String> productIds = new HashSet<>();
+        for (ConsumerRecord<String, byte[]> snapshot : readChangelog().values()) {
+            TopicPartition source = sourcePartition(snapshot);
+            if (source == null || !partitions.contains(source) || snapshot.value() == null) {
+                continue;
+            }
+            int separator = snapshot.key().indexOf('/');
+            String stateName = snapshot.key().substring(0, separator);
+            String productId = snapshot.key().substring(separator + 1);
+            for (ProductStateContributor contributor : contributors) {
+                if (contributor.getStateName().equals(stateName)) {
+                    try {
+                        contributor.restore(productId, snapshot.value());
+                        restored++;
+                    } catch (RuntimeException e) {
+                        log.error("❌ Failed to restore {} state of {}, it starts cold: {}", stateName, productId,
+                            e.getMessage());
+                    }
+                }
+            }
+            track(source.topic(), source.partition(), productId);
+            productIds.add(productId);
+        }
+        log.info("✅ Restored {} product states for {} assigned partitions in {}ms", restored, partitions.size(),
+            Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return productIds;
+    }
+
+    private int snapshot(Collection<TopicPartition> partitions) {
+        int snapshotted = 0;
+        for (TopicPartition partition : partitions) {
+            byte[] sourcePartition = encodeSourcePartition(partition);
+            for (String productId : productsByPartition.getOrDefault(partition, Set.of())) {
+                for (ProductStateContributor contributor : contributors) {
+                    byte[] state;
+                    try {
+                        state = contributor.snapshot(productId);
+                    } catch (RuntimeException e) {
+                        // Keeps the previous snapshot instead of overwriting it with a tombstone
+                        log.error("❌ Failed to snapshot {} state of {}: {}", contributor.getStateName(), productId,
+                            e.getMessage());
+                        continue;
+                    }
+                    // A null value is a tombstone, compaction drops snapshots of state that no longer exists
+                    ProducerRecord<String, byte[]> record = new ProducerRecord<>(changelogTopic,
+                        contributor.getStateName() + "/" + productId, state);
+                    record.headers().add(SOURCE_PARTITION_HEADER, sourcePartition);
+                    changelogProducer.send(record, (metadata, exception) -> {
+                        if (exception != null) {
+                            log.error("❌ Failed to write state snapshot of {}: {}", productId, exception.getMessage());
+                        }
+                    });
+                    snapshotted++;
+                }
+            }
+        }
+        return snapshotted;
+    }
+
+    private void evict(TopicPartition partition) {
+        Set<String> productIds = productsByPartition.remove(partition);
+        if (productIds == null) {
+            return;
+        }
+        for (String productId : productIds) {
+            contributors.forEach(contributor -> contributor.evict(productId));
+        }
+    }
+
+    // The changelog only holds one snapshot per product and state, so it is read in full on every assignment
+    private Map<String, ConsumerRecord<String, byte[]>> readChangelog() {
+        Map<String, ConsumerRecord<String, byte[]>> latest = new HashMap<>();
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerProps())) {
+            List<TopicPartition> changelogPartitions = consumer.partitionsFor(changelogTopic, restoreTimeout).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+            consumer.assign(changelogPartitions);
+            consumer.seekToBeginning(changelogPartitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(changelogPartitions, restoreTimeout);
+            long deadline = System.nanoTime() + restoreTimeout.toNanos();
+            while (!reachedEnd(consumer, endOffsets)) {
+                if (System.nanoTime() > deadline) {
+                    log.warn("⚠️ Timed out reading {}, restoring from what was read", changelogTopic);
+                    break;
+                }
+                consumer.poll(Duration.ofMillis(200)).forEach(record -> latest.put(record.key(), record));
+            }
+        } catch (Exception e) {
+            log.error("❌ Failed to read state changelog {}, assigned partitions start cold: {}", changelogTopic,
+                e.getMessage());
+        }
+        return latest;
+    }
+
+    private static boolean reachedEnd(KafkaConsumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+            .allMatch(entry -> consumer.position(entry.getKey()) >= entry.getValue());
+    }
+
+    private static byte[] encodeSourcePartition(TopicPartition partition) {
+        return (partition.topic() + ":" + partition.partition()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static TopicPartition sourcePartition(ConsumerRecord<String, byte[]> record) {
+        Header header = record.headers().lastHeader(SOURCE_PARTITION_HEADER);
+        if (header == null || record.key() == null || record.key().indexOf('/') < 0) {
+            return null;
+        }
+        String value = new String(header.value(), StandardCharsets.UTF_8);
+        int separator = value.lastIndexOf(':');
+        return new TopicPartition(value.substring(0, separator), Integer.parseInt(value.substring(separator + 1)));
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        return props;
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        return props;
+    }
+}
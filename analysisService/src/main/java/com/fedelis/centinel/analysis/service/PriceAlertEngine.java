@@ -0,0 +1,239 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.PriceAlert;
+import com.fedelis.centinel.analysis.model.PriceAlertTrigger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matches live ticks against price alert rules.
+ *
+ * Rules are indexed per product in a threshold-sorted array, so a tick only looks at the thresholds between the
+ * product's previous and new price: a rise from p0 to p1 triggers rules in (p0, p1], a fall those in [p1, p0). Two
+ * binary searches find the range, whatever the number of rules. The index is copy-on-write: adding or removing a rule
+ * builds a new array and publishes it with one volatile write, and the tick path never takes a lock.
+ *
+ * Triggers are published to {@code alerts.trigger-topic}, at least once: a redelivered batch can trigger again. A
+ * one-shot rule is removed here as soon as it triggers and deleted from the rules topic for the other instances.
+ *
+ * Rules are on every instance, but the last price of a product moves with its partition, so the new owner detects a
+ * crossing between the last tick before the handoff and its first one, and a product that comes back after a while
+ * does not cross from a stale price.
+ */
+@Service
+@Slf4j
+public class PriceAlertEngine implements ProductStateContributor {
+
+    private final KafkaTemplate<String, Object> alertKafkaTemplate;
+    private final String triggerTopic;
+    private final String rulesTopic;
+    private final Counter triggered;
+
+    private final Map<String, ProductAlerts> products = new ConcurrentHashMap<>();
+    private final Map<String, PriceAlert> rules = new ConcurrentHashMap<>();
+
+    /**
+     * Immutable rules of one product, sorted by threshold.
+     */
+    private record AlertIndex(double[] thresholds, PriceAlert[] alerts) {
+        static final AlertIndex EMPTY = new AlertIndex(new double[0], new PriceAlert[0]);
+    }
+
+    private static final class ProductAlerts {
+        volatile AlertIndex index = AlertIndex.EMPTY;
+        // Written by the listener thread of the product's partition, read by checkpoints
+        double lastPrice = Double.NaN;
+        volatile BigDecimal lastPriceValue;
+    }
+
+    public PriceAlertEngine(
+        @Qualifier("alertKafkaTemplate") KafkaTemplate<String, Object> alertKafkaTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${alerts.trigger-topic:price-alerts}") String triggerTopic,
+        @Value("${alerts.rules-topic:price-alert-rules}") String rulesTopic
+    ) {
+        this.alertKafkaTemplate = alertKafkaTemplate;
+        this.triggerTopic = triggerTopic;
+        this.rulesTopic = rulesTopic;
+        this.triggered = Counter.builder("centinel.alerts.triggered")
+            .description("Price alerts triggered")
+            .register(meterRegistry);
+        Gauge.builder("centinel.alerts.rules", rules, Map::size)
+            .description("Active price alert rules")
+            .register(meterRegistry);
+    }
+
+    public void onTick(MarketData tick) {
+        if (tick.getPrice() == null) {
+            return;
+        }
+        ProductAlerts product = products.get(tick.getProductId());
+        if (product == null) {
+            product = products.computeIfAbsent(tick.getProductId(), p -> new ProductAlerts());
+        }
+        double previous = product.lastPrice;
+        BigDecimal previousValue = product.lastPriceValue;
+        double price = tick.getPrice().doubleValue();
+        product.lastPrice = price;
+        product.lastPriceValue = tick.getPrice();
+        if (Double.isNaN(previous) || price == previous) {
+            return;
+        }
+        AlertIndex index = product.index;
+        double[] thresholds = index.thresholds();
+        if (thresholds.length == 0) {
+            return;
+        }
+        if (price > previous) {
+            // (previous, price]
+            int to = firstAbove(thresholds, price);
+            for (int i = firstAbove(thresholds, previous); i < to; i++) {
+                if (index.alerts()[i].direction().matchesRise()) {
+                    trigger(index.alerts()[i], previousValue, tick);
+                }
+            }
+        } else {
+            // [price, previous)
+            int to = firstAtOrAbove(thresholds, previous);
+            for (int i = firstAtOrAbove(thresholds, price); i < to; i++) {
+                if (index.alerts()[i].direction().matchesFall()) {
+                    trigger(index.alerts()[i], previousValue, tick);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a rule or replaces the rule with the same id.
+     */
+    public void put(PriceAlert alert) {
+        PriceAlert previous = rules.put(alert.id(), alert);
+        if (previous != null && !previous.productId().equals(alert.productId())) {
+            rebuild(previous.productId());
+        }
+        rebuild(alert.productId());
+    }
+
+    public void remove(String alertId) {
+        PriceAlert removed = rules.remove(alertId);
+        if (removed != null) {
+            rebuild(removed.productId());
+        }
+    }
+
+    public Collection<PriceAlert> getRules() {
+        return List.copyOf(rules.values());
+    }
+
+    public List<PriceAlert> getRules(String productId) {
+        ProductAlerts product = products.get(productId);
+        return product == null ? List.of() : List.of(product.index.alerts());
+    }
+
+    @Override
+    public String getStateName() {
+        return "alert-price";
+    }
+
+    @Override
+    public byte[] snapshot(String productId) {
+        ProductAlerts product = products.get(productId);
+        BigDecimal lastPrice = product != null ? product.lastPriceValue : null;
+        return lastPrice != null ? lastPrice.toPlainString().getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    @Override
+    public void restore(String productId, byte[] state) {
+        BigDecimal lastPrice = new BigDecimal(new String(state, StandardCharsets.UTF_8));
+        ProductAlerts product = products.computeIfAbsent(productId, p -> new ProductAlerts());
+        product.lastPriceValue = lastPrice;
+        product.lastPrice = lastPrice.doubleValue();
+    }
+
+    /**
+     * Forgets the last price only, the product's rules stay indexed for when the partition comes back.
+     */
+    @Override
+    public void evict(String productId) {
+        ProductAlerts product = products.get(productId);
+        if (product != null) {
+            product.lastPrice = Double.NaN;
+            product.lastPriceValue = null;
+        }
+    }
+
+    private void trigger(PriceAlert alert, BigDecimal previousPrice, MarketData tick) {
+        if (!alert.repeat()) {
+            // A concurrent trigger of the same one-shot rule loses the removal and does not fire
+            if (!rules.remove(alert.id(), alert)) {
+                return;
+            }
+            rebuild(alert.productId());
+            alertKafkaTemplate.send(rulesTopic, alert.id(), null);
+        }
+        PriceAlertTrigger trigger = new PriceAlertTrigger(alert.id(), alert.productId(), alert.threshold(),
+            alert.direction(), alert.owner(), previousPrice, tick.getPrice(), tick.getTime(), Instant.now());
+        alertKafkaTemplate.send(triggerTopic, alert.productId(), trigger);
+        triggered.increment();
+        log.info("🎯 Price alert {} triggered: {} {} {} at {}", alert.id(), alert.productId(), alert.direction(),
+            alert.threshold(), tick.getPrice());
+    }
+
+    // Rules change rarely, rebuilding the product's array keeps the tick path free of locks
+    private void rebuild(String productId) {
+        ProductAlerts product = products.computeIfAbsent(productId, p -> new ProductAlerts());
+        synchronized (product) {
+            PriceAlert[] alerts = rules.values().stream()
+                .filter(alert -> alert.productId().equals(productId))
+                .sorted(Comparator.comparing(PriceAlert::threshold))
+                .toArray(PriceAlert[]::new);
+            double[] thresholds = Arrays.stream(alerts).mapToDouble(alert -> alert.threshold().doubleValue()).toArray();
+            product.index = new AlertIndex(thresholds, alerts);
+        }
+    }
+
+    private static int firstAbove(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstAtOrAbove(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,154 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.model.AlertDirection;
+import com.fedelis.centinel.analysis.model.PriceAlert;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the price alert rules of every instance in sync through the compacted topic {@code alerts.rules-topic}.
+ *
+ * Any instance can take a rule change: it is written to the topic keyed by rule id, a deletion as a tombstone. Every
+ * instance reads the whole topic from the beginning on a background thread and applies it to its
+ * {@link PriceAlertEngine}, so whichever instance owns a product's partition has all of its rules. Changes are also
+ * applied locally right away, so a rule created through an instance is visible there when the request returns.
+ */
+@Service
+@Slf4j
+public class PriceAlertRuleService {
+
+    private final PriceAlertEngine priceAlertEngine;
+    private final KafkaTemplate<String, Object> alertKafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String bootstrapServers;
+    private final String rulesTopic;
+
+    private volatile boolean running = true;
+    private volatile KafkaConsumer<String, byte[]> consumer;
+    private Thread reader;
+
+    public PriceAlertRuleService(
+        PriceAlertEngine priceAlertEngine,
+        @Qualifier("alertKafkaTemplate") KafkaTemplate<String, Object> alertKafkaTemplate,
+        ObjectMapper objectMapper,
+        @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+        @Value("${alerts.rules-topic:price-alert-rules}") String rulesTopic
+    ) {
+        this.priceAlertEngine = priceAlertEngine;
+        this.alertKafkaTemplate = alertKafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.bootstrapServers = bootstrapServers;
+        this.rulesTopic = rulesTopic;
+    }
+
+    @PostConstruct
+    public void start() {
+        reader = Thread.ofPlatform().name("price-alert-rules").daemon().start(this::readRules);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        KafkaConsumer<String, byte[]> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        if (reader != null) {
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Creates a rule with a new id.
+     * @throws Exception if the rules topic did not acknowledge the rule
+     */
+    public PriceAlert create(String productId, BigDecimal threshold, AlertDirection direction, boolean repeat,
+                             String owner) throws Exception {
+        if (productId == null || threshold == null || threshold.signum() <= 0) {
+            throw new IllegalArgumentException("An alert needs a product and a positive threshold");
+        }
+        PriceAlert alert = new PriceAlert(UUID.randomUUID().toString(), productId, threshold,
+            direction != null ? direction : AlertDirection.CROSSES, repeat, owner, Instant.now());
+        alertKafkaTemplate.send(rulesTopic, alert.id(), alert).get(10, TimeUnit.SECONDS);
+        priceAlertEngine.put(alert);
+        log.info("✅ Created price alert {}: {} {} {}", alert.id(), productId, alert.direction(), threshold);
+        return alert;
+    }
+
+    /**
+     * @throws Exception if the rules topic did not acknowledge the deletion
+     */
+    public void delete(String alertId) throws Exception {
+        alertKafkaTemplate.send(rulesTopic, alertId, null).get(10, TimeUnit.SECONDS);
+        priceAlertEngine.remove(alertId);
+        log.info("✅ Deleted price alert {}", alertId);
+    }
+
+    private void readRules() {
+        try (KafkaConsumer<String, byte[]> rulesConsumer = new KafkaConsumer<>(consumerProps())) {
+            consumer = rulesConsumer;
+            List<TopicPartition> partitions = rulesConsumer.partitionsFor(rulesTopic, Duration.ofSeconds(30)).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+            rulesConsumer.assign(partitions);
+            rulesConsumer.seekToBeginning(partitions);
+            log.info("🔄 Reading price alert rules from {}", rulesTopic);
+            while (running) {
+                for (ConsumerRecord<String, byte[]> record : rulesConsumer.poll(Duration.ofMillis(500))) {
+                    apply(record);
+                }
+            }
+        } catch (WakeupException e) {
+            log.debug("Price alert rule reader woken up for shutdown");
+        } catch (Exception e) {
+            log.error("❌ Price alert rule reader stopped, rule changes from other instances are not applied: {}",
+                e.getMessage(), e);
+        }
+    }
+
+    private void apply(ConsumerRecord<String, byte[]> record) {
+        if (record.key() == null) {
+            return;
+        }
+        if (record.value() == null) {
+            priceAlertEngine.remove(record.key());
+            return;
+        }
+        try {
+            priceAlertEngine.put(objectMapper.readValue(record.value(), PriceAlert.class));
+        } catch (Exception e) {
+            log.warn("⚠️ Skipping unreadable price alert rule {}: {}", record.key(), e.getMessage());
+        }
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return props;
+    }
+}
@@ -0,0 +1,35 @@
+package com.fedelis.centinel.analysis.service;
+
+/**
+ * In-memory per-product state that follows its market data partition between analysis instances.
+ *
+ * Beans implementing this are picked up by {@link PartitionStateManager}: when a partition is revoked the state of
+ * every product seen on it is snapshotted to the state changelog topic and evicted, and the new owner restores it
+ * before it processes the partition's first record. Snapshots are also taken periodically, so an instance that dies
+ * without a clean revoke hands over the last checkpoint instead of nothing.
+ *
+ * {@link #snapshot} may run on a scheduler thread while the listener is updating the same product, so
+ * implementations must be able to produce a consistent copy under concurrent updates.
+ */
+public interface ProductStateContributor {
+
+    /**
+     * @return a stable name for this state, used in changelog keys; changing it orphans existing snapshots
+     */
+    String getStateName();
+
+    /**
+     * @return the serialized state of the product, or null if there is none
+     */
+    byte[] snapshot(String productId);
+
+    /**
+     * Replaces the product's state with a snapshot previously returned by {@link #snapshot}.
+     */
+    void restore(String productId, byte[] state);
+
+    /**
+     * Drops the product's state after its partition moved to another consumer.
+     */
+    void evict(String productId);
+}
@@ -0,0 +1,262 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.QuantileResult;
+import com.fedelis.centinel.analysis.model.SketchData;
+import com.fedelis.centinel.analysis.model.SketchMetric;
+import com.fedelis.centinel.analysis.util.DDSketch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling per-product quantile sketches of spread, trade size and price.
+ *
+ * Each (product, metric) keeps a ring of {@code sketch.slots} sketches, one per {@code sketch.slot-seconds} of tick
+ * time; a window query merges the slots it covers. A slot is replaced when the ring comes around to it, so memory is
+ * bounded by products x metrics x slots x {@code sketch.max-bins} counts. Sketches are {@link DDSketch}es and can be
+ * exported and merged with those of other instances, and a product's rings move with its partition.
+ */
+@Service
+@Slf4j
+public class QuantileSketchService implements ProductStateContributor {
+
+    public static final List<Double> DEFAULT_QUANTILES = List.of(0.5, 0.9, 0.99, 0.999);
+
+    private static final SketchMetric[] METRICS = SketchMetric.values();
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final double relativeAccuracy;
+    private final int maxBins;
+    private final long slotSeconds;
+    private final int slots;
+    private final Map<String, ProductSketches> products = new ConcurrentHashMap<>();
+
+    /**
+     * Sketch rings of one product, indexed by metric and ring slot. Ticks of a product arrive on its partition's
+     * listener thread, queries take the same lock to merge.
+     */
+    private final class ProductSketches {
+        final DDSketch[][] sketches = new DDSketch[METRICS.length][slots];
+        final long[] slotIds = new long[slots];
+
+        ProductSketches() {
+            Arrays.fill(slotIds, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Serialized rings of one product, null where a slot has no sketch.
+     * @param slotIds the slot held by each ring position
+     * @param sketches sketches by metric wire name, then ring position
+     */
+    record RingSnapshot(long[] slotIds, Map<String, SketchData[]> sketches) {
+    }
+
+    public QuantileSketchService(
+        ObjectMapper objectMapper,
+        @Value("${sketch.enabled:true}") boolean enabled,
+        @Value("${sketch.relative-accuracy:0.01}") double relativeAccuracy,
+        @Value("${sketch.max-bins:512}") int maxBins,
+        @Value("${sketch.slot-seconds:60}") long slotSeconds,
+        @Value("${sketch.slots:15}") int slots
+    ) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxBins = maxBins;
+        this.slotSeconds = slotSeconds;
+        this.slots = slots;
+    }
+
+    public void onTick(MarketData tick) {
+        if (!enabled || tick.getTime() == null) {
+            return;
+        }
+        long slotId = Math.floorDiv(tick.getTime().getEpochSecond(), slotSeconds);
+        int ring = (int) Math.floorMod(slotId, (long) slots);
+        ProductSketches sketches = products.get(tick.getProductId());
+        if (sketches == null) {
+            sketches = products.computeIfAbsent(tick.getProductId(), p -> new ProductSketches());
+        }
+        synchronized (sketches) {
+            if (sketches.slotIds[ring] > slotId) {
+                // Older than anything the ring still holds for this slot
+                return;
+            }
+            if (sketches.slotIds[ring] != slotId) {
+                sketches.slotIds[ring] = slotId;
+                for (DDSketch[] metricRing : sketches.sketches) {
+                    metricRing[ring] = null;
+                }
+            }
+            for (int m = 0; m < METRICS.length; m++) {
+                double value = METRICS[m].valueOf(tick);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                DDSketch sketch = sketches.sketches[m][ring];
+                if (sketch == null) {
+                    sketch = new DDSketch(relativeAccuracy, maxBins);
+                    sketches.sketches[m][ring] = sketch;
+                }
+                sketch.add(value);
+            }
+        }
+    }
+
+    /**
+     * @param windowSeconds how far back from now to look, rounded up to whole slots and capped at the ring
+     */
+    public QuantileResult query(String productId, SketchMetric metric, long windowSeconds, List<Double> quantiles) {
+        int windowSlots = windowSlots(windowSeconds);
+        return result(productId, metric.wireName(), windowSlots * slotSeconds, merged(productId, metric, windowSlots),
+            quantiles);
+    }
+
+    /**
+     * @return the window's merged sketch in portable form, for merging on another instance
+     */
+    public SketchData export(String productId, SketchMetric metric, long windowSeconds) {
+        return merged(productId, metric, windowSlots(windowSeconds)).toData();
+    }
+
+    /**
+     * Merges sketches exported by other instances, together with the local window when productId is given.
+     * @throws IllegalArgumentException if a sketch has another relative accuracy
+     */
+    public QuantileResult merge(String productId, SketchMetric metric, long windowSeconds, List<SketchData> remote,
+                                List<Double> quantiles) {
+        int windowSlots = windowSlots(windowSeconds);
+        DDSketch merged = productId != null
+            ? merged(productId, metric, windowSlots)
+            : new DDSketch(relativeAccuracy, maxBins);
+        remote.forEach(merged::merge);
+        return result(productId, metric.wireName(), windowSlots * slotSeconds, merged, quantiles);
+    }
+
+    @Override
+    public String getStateName() {
+        return "sketches";
+    }
+
+    @Override
+    public byte[] snapshot(String productId) {
+        ProductSketches sketches = products.get(productId);
+        if (sketches == null) {
+            return null;
+        }
+        RingSnapshot snapshot;
+        synchronized (sketches) {
+            Map<String, SketchData[]> data = new LinkedHashMap<>();
+            for (int m = 0; m < METRICS.length; m++) {
+                SketchData[] ring = new SketchData[slots];
+                for (int i = 0; i < slots; i++) {
+                    DDSketch sketch = sketches.sketches[m][i];
+                    ring[i] = sketch != null ? sketch.toData() : null;
+                }
+                data.put(METRICS[m].wireName(), ring);
+            }
+            snapshot = new RingSnapshot(sketches.slotIds.clone(), data);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Restores the product's rings. Rings of another length or accuracy, from an instance configured differently,
+     * are dropped and the product starts with empty sketches.
+     */
+    @Override
+    public void restore(String productId, byte[] state) {
+        RingSnapshot snapshot;
+        try {
+            snapshot = objectMapper.readValue(state, RingSnapshot.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (snapshot.slotIds().length != slots) {
+            log.warn("⚠️ Dropping sketches of {}: snapshot has {} slots, {} configured", productId,
+                snapshot.slotIds().length, slots);
+            return;
+        }
+        ProductSketches sketches = new ProductSketches();
+        System.arraycopy(snapshot.slotIds(), 0, sketches.slotIds, 0, slots);
+        for (int m = 0; m < METRICS.length; m++) {
+            SketchData[] ring = snapshot.sketches().get(METRICS[m].wireName());
+            for (int i = 0; ring != null && i < slots; i++) {
+                if (ring[i] == null) {
+                    continue;
+                }
+                if (Double.compare(ring[i].relativeAccuracy(), relativeAccuracy) != 0) {
+                    log.warn("⚠️ Dropping sketches of {}: snapshot accuracy {}, {} configured", productId,
+                        ring[i].relativeAccuracy(), relativeAccuracy);
+                    return;
+                }
+                sketches.sketches[m][i] = DDSketch.fromData(ring[i], maxBins);
+            }
+        }
+        products.put(productId, sketches);
+    }
+
+    @Override
+    public void evict(String productId) {
+        products.remove(productId);
+    }
+
+    private DDSketch merged(String productId, SketchMetric metric, int windowSlots) {
+        DDSketch merged = new DDSketch(relativeAccuracy, maxBins);
+        ProductSketches sketches = products.get(productId);
+        if (sketches == null) {
+            return merged;
+        }
+        long oldestSlot = Math.floorDiv(Instant.now().getEpochSecond(), slotSeconds) - windowSlots + 1;
+        synchronized (sketches) {
+            DDSketch[] metricRing = sketches.sketches[metric.ordinal()];
+            for (int ring = 0; ring < slots; ring++) {
+                if (sketches.slotIds[ring] >= oldestSlot && metricRing[ring] != null) {
+                    merged.merge(metricRing[ring]);
+                }
+            }
+        }
+        return merged;
+    }
+
+    private int windowSlots(long windowSeconds) {
+        if (windowSeconds <= 0) {
+            return slots;
+        }
+        return (int) Math.clamp(Math.ceilDiv(windowSeconds, slotSeconds), 1, slots);
+    }
+
+    private QuantileResult result(String productId, String metric, long windowSeconds, DDSketch sketch,
+                                  List<Double> quantiles) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double quantile : quantiles) {
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+            }
+            values.put(String.valueOf(quantile), finiteOrNull(sketch.quantile(quantile)));
+        }
+        return new QuantileResult(productId, metric, windowSeconds, sketch.getRelativeAccuracy(), sketch.getCount(),
+            finiteOrNull(sketch.getMin()), finiteOrNull(sketch.getMax()), values);
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.fedelis.centinel.analysis.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers how far the live listener got with each partition, so a batch delivered again is not counted twice.
+ *
+ * A batch comes back from its first record when its Kafka transaction rolls back ({@code processing.exactly-once}),
+ * and in either mode when it fails as a whole. Its rows were already stored, idempotently, but candles, windows,
+ * correlations, sketches and alerts live in memory and would count them again, and a poison record would be
+ * dead-lettered again. The listener marks each record applied once it is stored and in that state, or
+ * dead-lettered. A record at or below the partition's mark only has its signals generated again, since they were
+ * sent in the transaction that rolled back.
+ *
+ * Records the after-rollback processor dead-letters once their retries are exhausted are remembered until a batch
+ * past them commits, so the listener can leave them out of the next delivery.
+ */
+@Component
+public class RedeliveryTracker {
+
+    private final Map<TopicPartition, Long> appliedThrough = new ConcurrentHashMap<>();
+    private final Set<TopicPartitionOffset> deadLettered = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return whether the record was stored and counted, or dead-lettered, in an earlier delivery
+     */
+    public boolean isApplied(ConsumerRecord<?, ?> record) {
+        Long through = appliedThrough.get(partition(record));
+        return through != null && record.offset() <= through;
+    }
+
+    public void markApplied(ConsumerRecord<?, ?> record) {
+        appliedThrough.merge(partition(record), record.offset(), Math::max);
+    }
+
+    /**
+     * @return whether the after-rollback processor dead-lettered the record, which must then be skipped
+     */
+    public boolean isDeadLettered(ConsumerRecord<?, ?> record) {
+        return !deadLettered.isEmpty() && deadLettered.contains(offset(record));
+    }
+
+    public void markDeadLettered(ConsumerRecord<?, ?> record) {
+        deadLettered.add(offset(record));
+        markApplied(record);
+    }
+
+    /**
+     * Forgets the dead-lettered records a committed batch went past, as they can no longer be delivered.
+     */
+    public void committed(List<? extends ConsumerRecord<?, ?>> records) {
+        if (deadLettered.isEmpty()) {
+            return;
+        }
+        for (ConsumerRecord<?, ?> record : records) {
+            deadLettered.removeIf(skipped -> skipped.getTopic().equals(record.topic())
+                && skipped.getPartition() == record.partition() && skipped.getOffset() <= record.offset());
+        }
+    }
+
+    private static TopicPartition partition(ConsumerRecord<?, ?> record) {
+        return new TopicPartition(record.topic(), record.partition());
+    }
+
+    private static TopicPartitionOffset offset(ConsumerRecord<?, ?> record) {
+        return new TopicPartitionOffset(record.topic(), record.partition(), record.offset());
+    }
+}
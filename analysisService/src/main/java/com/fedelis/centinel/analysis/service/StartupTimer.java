@@ -0,0 +1,59 @@
+package com.fedelis.centinel.analysis.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the service takes from JVM start until it is ready and until it consumes its first live tick.
+ *
+ * Both are published as {@code centinel.startup} time gauges, and the first tick is logged as
+ * {@code First tick consumed <n>ms after JVM start}, which the startup benchmark reads.
+ */
+@Component
+@Slf4j
+public class StartupTimer {
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private volatile long readyMillis = -1;
+    private volatile long firstTickMillis = -1;
+
+    public StartupTimer(MeterRegistry meterRegistry) {
+        TimeGauge.builder("centinel.startup", this, TimeUnit.MILLISECONDS, t -> t.readyMillis)
+            .description("Time from JVM start until the application is ready, -1 until then")
+            .tag("phase", "ready")
+            .register(meterRegistry);
+        TimeGauge.builder("centinel.startup", this, TimeUnit.MILLISECONDS, t -> t.firstTickMillis)
+            .description("Time from JVM start until the first live tick is consumed, -1 until then")
+            .tag("phase", "first_tick")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        readyMillis = System.currentTimeMillis() - jvmStartMillis;
+        log.info("✅ Ready {}ms after JVM start", readyMillis);
+    }
+
+    /**
+     * Called for every live batch; only the first one is recorded.
+     */
+    public void onTickConsumed() {
+        if (firstTickMillis >= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (firstTickMillis >= 0) {
+                return;
+            }
+            firstTickMillis = System.currentTimeMillis() - jvmStartMillis;
+        }
+        log.info("✅ First tick consumed {}ms after JVM start", firstTickMillis);
+    }
+}
@@ -0,0 +1,192 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import com.fedelis.centinel.analysis.repository.TradeSignalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind persister for trade signals.
+ *
+ * Signals are buffered in memory and written to the trade_signals hypertable in batched
+ * inserts, either when the buffer reaches the configured batch size or when the flush
+ * interval elapses, whichever comes first. Callers on the signal path only pay for an
+ * enqueue; the database round trip and the index maintenance on trade_signals happen on
+ * the flush thread. Any signals still buffered on shutdown are drained before the
+ * datasource is closed.
+ *
+ * Size-triggered flushes run on a dedicated {@code signal-flush} thread rather than the shared
+ * task executor, so they cannot be rejected by, or queue behind, the signal path's own tasks.
+ */
+@Service
+@Slf4j
+public class TradeSignalPersistenceService {
+
+    private final TradeSignalRepository tradeSignalRepository;
+    private final ExecutorService flushExecutor;
+    private final BlockingQueue<TradeSignal> buffer;
+    private final int batchSize;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+    private final AtomicBoolean accepting = new AtomicBoolean(true);
+
+    private final Timer flushTimer;
+    private final Counter persistedCounter;
+    private final Counter failedCounter;
+
+    public TradeSignalPersistenceService(
+        TradeSignalRepository tradeSignalRepository,
+        MeterRegistry meterRegistry,
+        @Value("${signal.persistence.batch-size:500}") int batchSize,
+        @Value("${signal.persistence.buffer-capacity:10000}") int bufferCapacity
+    ) {
+        this.tradeSignalRepository = tradeSignalRepository;
+        this.flushExecutor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("signal-flush").factory());
+        this.batchSize = batchSize;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+
+        this.flushTimer = Timer.builder("centinel.signals.persistence.flush")
+            .description("Time taken to write one batch of trade signals")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.persistedCounter = Counter.builder("centinel.signals.persistence.persisted")
+            .description("Trade signals written to the database")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("centinel.signals.persistence.failed")
+            .description("Trade signals that could not be written to the database")
+            .register(meterRegistry);
+        Gauge.builder("centinel.signals.persistence.buffered", buffer, BlockingQueue::size)
+            .description("Trade signals waiting to be flushed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues a trade signal for persistence. Triggers an early flush once a full batch is buffered.
+     * If the buffer is full the caller blocks until it has flushed the buffer inline, which applies
+     * backpressure to the signal path instead of dropping signals.
+     * @param signal the signal to persist
+     */
+    public void persistTradeSignal(TradeSignal signal) {
+        if (signal == null) {
+            return;
+        }
+        if (!accepting.get()) {
+            log.warn("⚠️ Trade signal persistence is shutting down, writing signal for {} synchronously",
+                signal.getProductId());
+            writeBatch(List.of(signal));
+            return;
+        }
+        if (!buffer.offer(signal)) {
+            log.warn("⚠️ Trade signal buffer is full ({} signals), flushing on caller thread", buffer.size());
+            do {
+                // Wait for a running flush instead of spinning on tryLock, then drain whatever is left
+                flushLock.lock();
+                try {
+                    drain();
+                } finally {
+                    flushLock.unlock();
+                }
+            } while (!buffer.offer(signal));
+        }
+        if (buffer.size() >= batchSize && flushPending.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(() -> {
+                    try {
+                        flush();
+                    } finally {
+                        flushPending.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Only once shutdown has begun, the caller writes the batch itself
+                flushPending.set(false);
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Time-based flush so that signals never sit in the buffer longer than the flush interval.
+     */
+    @Scheduled(fixedDelayString = "${signal.persistence.flush-interval-ms:250}")
+    public void scheduledFlush() {
+        if (!buffer.isEmpty()) {
+            flush();
+        }
+    }
+
+    /**
+     * Drains the buffer in batches of at most {@code batchSize}. Only one flush runs at a time;
+     * a concurrent caller returns immediately since the running flush will pick up its signals.
+     * @return the number of signals drained from the buffer
+     */
+    public int flush() {
+        if (!flushLock.tryLock()) {
+            return 0;
+        }
+        try {
+            return drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int drain() {
+        int drained = 0;
+        List<TradeSignal> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            drained += batch.size();
+            batch.clear();
+        }
+        return drained;
+    }
+
+    private void writeBatch(List<TradeSignal> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            tradeSignalRepository.saveAll(batch);
+            persistedCounter.increment(batch.size());
+            log.debug("✅ Flushed {} trade signals", batch.size());
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("❌ Failed to flush batch of {} trade signals: {}", batch.size(), e.getMessage(), e);
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting.set(false);
+        flushExecutor.shutdown();
+        if (!flushExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("⚠️ Signal flush thread did not finish within 30s, draining the buffer regardless");
+        }
+        flushLock.lock();
+        try {
+            int drained = drain();
+            log.info("✅ Drained {} buffered trade signals on shutdown", drained);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Publishes trade signals to Kafka for the executor service, keyed by product.
+ *
+ * When called from the live listener with {@code processing.exactly-once=true} the send joins the
+ * listener's Kafka transaction and only becomes visible to read_committed consumers once the batch's
+ * offsets commit with it.
+ */
+@Service
+@Slf4j
+public class TradeSignalPublisher {
+
+    private final KafkaTemplate<String, TradeSignal> tradeSignalKafkaTemplate;
+    private final String topic;
+
+    public TradeSignalPublisher(
+        KafkaTemplate<String, TradeSignal> tradeSignalKafkaTemplate,
+        @Value("${signal.kafka.topic:trade-signals}") String topic
+    ) {
+        this.tradeSignalKafkaTemplate = tradeSignalKafkaTemplate;
+        this.topic = topic;
+    }
+
+    public void publish(TradeSignal signal) {
+        tradeSignalKafkaTemplate.send(topic, signal.getProductId(), signal);
+        log.debug("✉️ Published {} signal for {} to {}", signal.getSignalType(), signal.getProductId(), topic);
+    }
+}
@@ -0,0 +1,307 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.Candle;
+import com.fedelis.centinel.analysis.model.CandleBar;
+import com.fedelis.centinel.analysis.repository.MarketDataRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Loads candle and indicator state from TimescaleDB for the market data partitions an instance is assigned, so RSI
+ * and MACD are valid from the first live candle instead of an hour or more after every deploy.
+ *
+ * {@link PartitionStateManager} calls {@link #warmStart} from the rebalance listener, after restoring the changelog
+ * snapshots and before the listener is handed any record of the new partitions. Snapshots are newer than the
+ * database, so only products without one are loaded: those with ticks in the lookback
+ * ({@code signal.indicators.history-bars} candles of {@code push.candle.interval-seconds}) whose key hashes to an
+ * assigned partition, the way the monitor's producer partitions them. Their candles are aggregated by the database
+ * and streamed back, {@code warm-start.parallelism} products at a time on a bounded fork/join pool. Closed candles
+ * are replayed into {@link LiveIndicatorService} and the in-progress one seeds {@link CandleAggregator}. Loads only
+ * collect candles; they are applied on the calling thread, so a load that outlives {@code warm-start.timeout-ms} is
+ * dropped without touching the state.
+ *
+ * Until the first assignment has been warm started this indicator reports {@code OUT_OF_SERVICE}, which keeps the
+ * readiness group down, and the progress is published as the {@code centinel.warmstart.products} gauges. Ticks
+ * the listener then redelivers from before the restart are ignored by the aggregator up to the product's last tick in
+ * the database, so they are not counted twice.
+ */
+@Service
+@Slf4j
+public class WarmStartService implements HealthIndicator {
+
+    private enum Phase { PENDING, LOADING, DONE, FAILED, SKIPPED }
+
+    /**
+     * A product's candles, oldest first, and the time of its last tick.
+     */
+    private record History(List<Candle> candles, Instant lastTickTime) {
+    }
+
+    private final MarketDataRepository marketDataRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final LiveIndicatorService liveIndicatorService;
+    private final CandleAggregator candleAggregator;
+    private final boolean enabled;
+    private final int parallelism;
+    private final long timeoutMs;
+    private final int historyBars;
+    private final long intervalSeconds;
+
+    private volatile Phase phase;
+    private volatile boolean ready;
+    private volatile long elapsedMillis;
+    private final AtomicInteger productsTotal = new AtomicInteger();
+    private final AtomicInteger productsLoaded = new AtomicInteger();
+
+    public WarmStartService(
+        MarketDataRepository marketDataRepository,
+        PlatformTransactionManager transactionManager,
+        LiveIndicatorService liveIndicatorService,
+        CandleAggregator candleAggregator,
+        MeterRegistry meterRegistry,
+        @Value("${warm-start.enabled:true}") boolean enabled,
+        @Value("${backtest.enabled:false}") boolean backtestEnabled,
+        @Value("${replay.enabled:false}") boolean replayEnabled,
+        @Value("${warm-start.parallelism:4}") int parallelism,
+        @Value("${warm-start.timeout-ms:60000}") long timeoutMs,
+        @Value("${signal.indicators.history-bars:500}") int historyBars,
+        @Value("${push.candle.interval-seconds:60}") long intervalSeconds
+    ) {
+        this.marketDataRepository = marketDataRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.liveIndicatorService = liveIndicatorService;
+        this.candleAggregator = candleAggregator;
+        // Backtests and replays keep the live listener stopped and build their own state
+        this.enabled = enabled && !backtestEnabled && !replayEnabled;
+        this.parallelism = parallelism;
+        this.timeoutMs = timeoutMs;
+        this.historyBars = historyBars;
+        this.intervalSeconds = intervalSeconds;
+        this.phase = this.enabled ? Phase.PENDING : Phase.SKIPPED;
+        this.ready = !this.enabled;
+
+        Gauge.builder("centinel.warmstart.products", productsTotal, AtomicInteger::get)
+            .description("Products of the assigned partitions to warm start from TimescaleDB")
+            .tag("state", "total")
+            .register(meterRegistry);
+        Gauge.builder("centinel.warmstart.products", productsLoaded, AtomicInteger::get)
+            .description("Products whose history has been loaded from TimescaleDB")
+            .tag("state", "loaded")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = ready ? Health.up() : Health.outOfService();
+        return health
+            .withDetail("phase", phase)
+            .withDetail("productsLoaded", productsLoaded.get())
+            .withDetail("productsTotal", productsTotal.get())
+            .withDetail("elapsedMillis", elapsedMillis)
+            .build();
+    }
+
+    /**
+     * Loads the products of newly assigned partitions that were not restored from a snapshot. A failed or timed out
+     * load leaves the products to warm up from live candles.
+     * @param partitions the partitions just assigned to the listener
+     * @param partitionCount the number of partitions of a topic, to place products the way the producer does
+     * @param restored products whose state was restored from the changelog
+     * @return the warm started products and the partition each belongs to
+     */
+    public Map<String, TopicPartition> warmStart(Collection<TopicPartition> partitions,
+                                                 ToIntFunction<String> partitionCount, Set<String> restored) {
+        if (!enabled) {
+            return Map.of();
+        }
+        long started = System.nanoTime();
+        Phase outcome = Phase.FAILED;
+        Map<String, TopicPartition> warmed = new LinkedHashMap<>();
+        try {
+            phase = Phase.LOADING;
+            productsLoaded.set(0);
+            Instant currentStart = bucketStart(Instant.now());
+            Instant since = currentStart.minusSeconds(historyBars * intervalSeconds);
+            Map<String, TopicPartition> owned = ownedProducts(partitions, partitionCount, restored, since);
+            productsTotal.set(owned.size());
+            log.info("🔄 Warm starting {} products of {} assigned partitions from {} candles of {}s since {} "
+                + "(parallelism: {})", owned.size(), partitions.size(), historyBars, intervalSeconds, since,
+                parallelism);
+
+            Map<String, History> loaded = load(List.copyOf(owned.keySet()), since);
+            int cold = 0;
+            for (Map.Entry<String, History> entry : loaded.entrySet()) {
+                if (apply(entry.getKey(), entry.getValue(), currentStart) < liveIndicatorService.getWarmUpBars()) {
+                    cold++;
+                }
+                warmed.put(entry.getKey(), owned.get(entry.getKey()));
+            }
+            outcome = Phase.DONE;
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            log.info("✅ Warm started {} of {} products in {}ms", loaded.size(), owned.size(), elapsedMillis);
+            if (cold > 0) {
+                log.warn("⚠️ {} products have less history than the {} candles the indicators need",
+                    cold, liveIndicatorService.getWarmUpBars());
+            }
+        } catch (Exception e) {
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            log.error("❌ Warm start failed after {}ms, indicators will warm up from live candles", elapsedMillis, e);
+        } finally {
+            phase = outcome;
+            // Ready once the first assignment is consumed, later rebalances do not take the instance out of service
+            ready = true;
+        }
+        return warmed;
+    }
+
+    // Products with recent ticks that the producer's default partitioner places on one of the partitions
+    private Map<String, TopicPartition> ownedProducts(Collection<TopicPartition> partitions,
+                                                      ToIntFunction<String> partitionCount, Set<String> restored,
+                                                      Instant since) {
+        Map<String, TopicPartition> owned = new LinkedHashMap<>();
+        if (partitions.isEmpty()) {
+            return owned;
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        for (String productId : marketDataRepository.findProductIdsSince(since)) {
+            if (restored.contains(productId)) {
+                continue;
+            }
+            for (TopicPartition partition : partitions) {
+                int count = counts.computeIfAbsent(partition.topic(), partitionCount::applyAsInt);
+                if (partitionFor(productId, count) == partition.partition()) {
+                    owned.put(productId, partition);
+                    break;
+                }
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * @return the partition Kafka's default partitioner sends a record keyed by the product to
+     */
+    static int partitionFor(String productId, int partitionCount) {
+        return Utils.toPositive(Utils.murmur2(productId.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+
+    // Loads run on the pool; whatever has not finished by the deadline is left out
+    private Map<String, History> load(List<String> productIds, Instant since) throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        Map<String, CompletableFuture<History>> loads = new LinkedHashMap<>();
+        try {
+            for (String productId : productIds) {
+                loads.put(productId, CompletableFuture.supplyAsync(() -> loadProduct(productId, since), pool));
+            }
+            try {
+                CompletableFuture.allOf(loads.values().toArray(CompletableFuture[]::new))
+                    .get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("⚠️ Warm start timed out after {}ms with {} of {} products loaded",
+                    timeoutMs, productsLoaded.get(), productIds.size());
+            } catch (ExecutionException e) {
+                // Failed products are logged below, the others are still applied
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Map<String, History> loaded = new LinkedHashMap<>();
+        loads.forEach((productId, load) -> {
+            if (load.state() == Future.State.SUCCESS) {
+                loaded.put(productId, load.resultNow());
+            } else if (load.state() == Future.State.FAILED) {
+                log.error("❌ Failed to warm start {}", productId, load.exceptionNow());
+            }
+        });
+        return loaded;
+    }
+
+    private History loadProduct(String productId, Instant since) {
+        History history = readOnlyTransaction.execute(status -> {
+            List<Candle> read = new ArrayList<>(historyBars + 1);
+            Instant lastTickTime = null;
+            try (Stream<CandleBar> bars = marketDataRepository.streamCandles(productId, intervalSeconds, since)) {
+                Iterator<CandleBar> iterator = bars.iterator();
+                while (iterator.hasNext()) {
+                    CandleBar bar = iterator.next();
+                    read.add(toCandle(productId, bar));
+                    lastTickTime = bar.getLatest();
+                }
+            }
+            return new History(read, lastTickTime);
+        });
+        productsLoaded.incrementAndGet();
+        return history != null ? history : new History(List.of(), null);
+    }
+
+    /**
+     * Replays the closed candles into the indicators and seeds the in-progress one, along with the last tick time
+     * the aggregator skips redelivered ticks up to.
+     * @return the number of closed candles applied
+     */
+    private int apply(String productId, History history, Instant currentStart) {
+        int closed = 0;
+        Candle inProgress = null;
+        for (Candle candle : history.candles()) {
+            if (candle.getStart().isBefore(currentStart)) {
+                liveIndicatorService.warmUp(candle);
+                closed++;
+            } else {
+                inProgress = candle;
+            }
+        }
+        if (history.lastTickTime() != null) {
+            candleAggregator.warmUp(productId, inProgress, history.lastTickTime());
+        }
+        return closed;
+    }
+
+    private Candle toCandle(String productId, CandleBar bar) {
+        return Candle.builder()
+            .productId(productId)
+            .intervalSeconds(intervalSeconds)
+            .start(bar.getBucket())
+            .open(bar.getOpen())
+            .high(bar.getHigh())
+            .low(bar.getLow())
+            .close(bar.getClose())
+            .volume(bar.getVolume())
+            .trades(bar.getTrades())
+            .build();
+    }
+
+    private Instant bucketStart(Instant time) {
+        return Instant.ofEpochSecond(Math.floorDiv(time.getEpochSecond(), intervalSeconds) * intervalSeconds);
+    }
+}
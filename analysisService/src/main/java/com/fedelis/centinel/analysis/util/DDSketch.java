@@ -0,0 +1,190 @@
+package com.fedelis.centinel.analysis.util;
+
+import com.fedelis.centinel.analysis.model.SketchData;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with relative error guarantees (DDSketch, Masson et al., VLDB 2019).
+ *
+ * A positive value v goes into bucket {@code ceil(log(v) / log(gamma))} with {@code gamma = (1 + a) / (1 - a)},
+ * so every quantile is answered within relative accuracy {@code a} of the true value, whatever the distribution.
+ * Buckets are a dense array of counts between the lowest and highest index seen. Memory is bounded by
+ * {@code maxBins}: when the range grows past it the lowest buckets are collapsed into one, which keeps the upper
+ * quantiles used for anomaly thresholds exact to the guarantee. Merging two sketches adds their bucket counts.
+ *
+ * Not thread safe.
+ */
+public final class DDSketch {
+
+    // Values below this are counted in the zero bucket instead of getting an index
+    private static final double MIN_INDEXABLE_VALUE = 1e-12;
+    private static final int INITIAL_BINS = 32;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final int maxBins;
+
+    private long[] counts = new long[0];
+    private int minIndex;
+    private int maxIndex = -1;
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public DDSketch(double relativeAccuracy, int maxBins) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be in (0, 1): " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.maxBins = maxBins;
+    }
+
+    public static DDSketch fromData(SketchData data, int maxBins) {
+        DDSketch sketch = new DDSketch(data.relativeAccuracy(), maxBins);
+        sketch.merge(data);
+        return sketch;
+    }
+
+    public void add(double value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (value < MIN_INDEXABLE_VALUE) {
+            zeroCount++;
+            return;
+        }
+        // slot may replace the array, so it has to run before counts is read
+        int slot = slot((int) Math.ceil(Math.log(value) / logGamma));
+        counts[slot]++;
+    }
+
+    public void merge(DDSketch other) {
+        merge(other.toData());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the sketch was built with another relative accuracy
+     */
+    public void merge(SketchData other) {
+        if (Double.compare(other.relativeAccuracy(), relativeAccuracy) != 0) {
+            throw new IllegalArgumentException("Cannot merge sketches of relative accuracy "
+                + other.relativeAccuracy() + " into " + relativeAccuracy);
+        }
+        if (other.count() == 0) {
+            return;
+        }
+        count += other.count();
+        zeroCount += other.zeroCount();
+        min = Math.min(min, other.min());
+        max = Math.max(max, other.max());
+        long[] otherCounts = other.counts();
+        // Resolve the highest bucket first, so collapsing happens once for the whole merged range
+        for (int i = otherCounts.length - 1; i >= 0; i--) {
+            if (otherCounts[i] != 0) {
+                int slot = slot(other.minIndex() + i);
+                counts[slot] += otherCounts[i];
+            }
+        }
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return the estimated value at the quantile, NaN if the sketch is empty
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double rank = quantile * (count - 1);
+        if (rank < zeroCount) {
+            return min;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                // Midpoint of the bucket, within the relative accuracy of anything in it
+                double value = 2 * Math.pow(gamma, minIndex + i) / (gamma + 1);
+                return Math.clamp(value, min, max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public SketchData toData() {
+        int bins = maxIndex - minIndex + 1;
+        return new SketchData(relativeAccuracy, count, zeroCount, min, max, minIndex,
+            Arrays.copyOf(counts, Math.max(0, bins)));
+    }
+
+    /**
+     * Returns the array slot of a bucket index, growing the range or collapsing the lowest buckets as needed.
+     */
+    private int slot(int index) {
+        if (maxIndex < minIndex) {
+            counts = new long[INITIAL_BINS];
+            minIndex = index;
+            maxIndex = index;
+            return 0;
+        }
+        if (index > maxIndex) {
+            if (index - minIndex + 1 > maxBins) {
+                collapseBelow(index - maxBins + 1);
+            }
+            maxIndex = index;
+        } else if (index < minIndex) {
+            if (maxIndex - index + 1 > maxBins) {
+                // Below the range that fits, counts in the lowest kept bucket
+                return 0;
+            }
+            int shift = minIndex - index;
+            long[] shifted = new long[Math.min(maxBins, Math.max(counts.length, maxIndex - index + 1) * 2)];
+            System.arraycopy(counts, 0, shifted, shift, maxIndex - minIndex + 1);
+            counts = shifted;
+            minIndex = index;
+        }
+        int slot = index - minIndex;
+        if (slot >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.min(maxBins, Math.max(slot + 1, counts.length * 2)));
+        }
+        return slot;
+    }
+
+    private void collapseBelow(int newMinIndex) {
+        int drop = Math.min(newMinIndex - minIndex, maxIndex - minIndex + 1);
+        long collapsed = 0;
+        for (int i = 0; i < drop; i++) {
+            collapsed += counts[i];
+        }
+        int kept = maxIndex - minIndex + 1 - drop;
+        long[] shifted = new long[counts.length];
+        System.arraycopy(counts, drop, shifted, 0, kept);
+        shifted[0] += collapsed;
+        counts = shifted;
+        minIndex = newMinIndex;
+        if (maxIndex < minIndex) {
+            maxIndex = minIndex;
+        }
+    }
+}
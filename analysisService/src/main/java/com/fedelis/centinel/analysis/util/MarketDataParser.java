@@ -0,0 +1,182 @@
+package com.fedelis.centinel.analysis.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.MarketDataEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Maps the raw Coinbase ticker JSON carried by a {@link MarketDataEvent} onto a {@link MarketData} entity.
+ * Shared by the consumer, persistence and analysis services, and benchmarked in the benchmarks module.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MarketDataParser {
+
+    private static final String TICKER = "ticker";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Parses MarketData from MarketDataEvent message
+     * @param event The market data event
+     * @return MarketData object or null if parsing fails
+     */
+    public MarketData parse(MarketDataEvent event) {
+        try {
+            // Add null check for message
+            if (event.getMessage() == null || event.getMessage().trim().isEmpty()) {
+                log.error("❌ MarketDataEvent message is null or empty");
+                return null;
+            }
+            
+            String message = event.getMessage();
+            JsonNode data;
+            
+            try {
+                data = objectMapper.readTree(message);
+            } catch (Exception e) {
+                log.error("❌ Failed to parse JSON message: {}", message, e);
+                return null;
+            }
+            if (!isTicker(data)) {
+                log.debug("Skipping {} message, not a tick", getStringValue(data, "type"));
+                return null;
+            }
+            
+            MarketData marketData = toMarketData(data);
+            if (marketData == null) {
+                return null;
+            }
+            marketData.setSource(event.getSource());
+            
+            log.debug("✅ Successfully parsed market data for product: {}", marketData.getProductId());
+            return marketData;
+                
+        } catch (Exception e) {
+            log.error("❌ Error parsing market data from event: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Tells a frame that is not a tick apart from a broken one, for a message {@link #parse} returned null for.
+     * Coinbase sends subscription acknowledgements, heartbeats and errors on the same socket as the ticks; they are
+     * expected and skipped, not dead-lettered.
+     * @param event the market data event
+     * @return true if the message is JSON with a type other than {@code ticker}
+     */
+    public boolean isNonTicker(MarketDataEvent event) {
+        if (event.getMessage() == null || event.getMessage().isBlank()) {
+            return false;
+        }
+        try {
+            return !isTicker(objectMapper.readTree(event.getMessage()));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // A message without a type is taken for a tick, and rejected later if it lacks one's fields
+    private boolean isTicker(JsonNode data) {
+        String type = getStringValue(data, "type");
+        return type == null || TICKER.equals(type);
+    }
+
+    /**
+     * Maps an already parsed ticker message onto a MarketData entity, without the source.
+     * A missing or unparseable exchange time or sequence makes the message unusable, since both are part of the
+     * natural key: stamping a local time or storing a null sequence would let a redelivered tick insert twice.
+     * @param data the ticker message tree
+     * @return the mapped entity, or null if the time or sequence is missing or cannot be parsed
+     */
+    public MarketData toMarketData(JsonNode data) {
+        Long sequence = getLongValue(data, "sequence");
+        if (sequence == null) {
+            log.warn("⚠️ Rejecting market data without a sequence: type={}", getStringValue(data, "type"));
+            return null;
+        }
+        String timeStr = getStringValue(data, "time");
+        if (timeStr == null) {
+            log.warn("⚠️ Rejecting market data without an exchange time: type={}, sequence={}",
+                getStringValue(data, "type"), sequence);
+            return null;
+        }
+
+        MarketData marketData = new MarketData();
+        try {
+            marketData.setTime(Instant.parse(timeStr));
+        } catch (Exception e) {
+            log.warn("⚠️ Could not parse time from data: {}", timeStr);
+            return null;
+        }
+        
+        // Set basic fields using JsonNode methods
+        marketData.setType(getStringValue(data, "type"));
+        marketData.setSequence(sequence);
+        marketData.setProductId(getStringValue(data, "product_id"));
+        marketData.setSide(getStringValue(data, "side"));
+        marketData.setTradeId(getLongValue(data, "trade_id"));
+        
+        // Set numeric fields with proper conversion
+        marketData.setPrice(getBigDecimalValue(data, "price"));
+        marketData.setOpen24h(getBigDecimalValue(data, "open_24h"));
+        marketData.setVolume24h(getBigDecimalValue(data, "volume_24h"));
+        marketData.setLow24h(getBigDecimalValue(data, "low_24h"));
+        marketData.setHigh24h(getBigDecimalValue(data, "high_24h"));
+        marketData.setVolume30d(getBigDecimalValue(data, "volume_30d"));
+        marketData.setBestBid(getBigDecimalValue(data, "best_bid"));
+        marketData.setBestAsk(getBigDecimalValue(data, "best_ask"));
+        marketData.setBestBidSize(getBigDecimalValue(data, "best_bid_size"));
+        marketData.setBestAskSize(getBigDecimalValue(data, "best_ask_size"));
+        marketData.setLastSize(getBigDecimalValue(data, "last_size"));
+        
+        marketData.setCreatedAt(Instant.now());
+        return marketData;
+    }
+    
+    // JsonNode helper methods
+    private String getStringValue(JsonNode node, String fieldName) {
+        JsonNode fieldNode = node.get(fieldName);
+        return fieldNode != null && !fieldNode.isNull() ? fieldNode.asText() : null;
+    }
+
+    private Long getLongValue(JsonNode node, String fieldName) {
+        JsonNode fieldNode = node.get(fieldName);
+        if (fieldNode != null && !fieldNode.isNull()) {
+            try {
+                if (fieldNode.canConvertToLong()) {
+                    return fieldNode.asLong();
+                } else if (fieldNode.isTextual()) {
+                    return Long.parseLong(fieldNode.asText());
+                }
+            } catch (NumberFormatException e) {
+                log.warn("⚠️ Could not parse Long from field {}: {}", fieldName, fieldNode.asText());
+            }
+        }
+        return null;
+    }
+
+    private BigDecimal getBigDecimalValue(JsonNode node, String fieldName) {
+        JsonNode fieldNode = node.get(fieldName);
+        if (fieldNode != null && !fieldNode.isNull()) {
+            try {
+                if (fieldNode.isTextual()) {
+                    return new BigDecimal(fieldNode.asText());
+                } else if (fieldNode.isNumber()) {
+                    return new BigDecimal(fieldNode.asText());
+                }
+            } catch (NumberFormatException e) {
+                log.warn("⚠️ Could not parse BigDecimal from field {}: {}", fieldName, fieldNode.asText());
+            }
+        }
+        return null;
+    }
+}
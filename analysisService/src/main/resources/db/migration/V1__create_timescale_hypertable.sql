@@ -1,23 +1,65 @@
 -- Enable TimescaleDB extension if not already enabled
 CREATE EXTENSION IF NOT EXISTS timescaledb;
 
--- Create the market_data table if it doesn't exist
+-- Create the market_data table if it doesn't exist, in the layout of the MarketData entity.
+-- Hypertables require every unique index to include the partitioning column,
+-- so the primary key is (id, time) rather than id alone.
 CREATE TABLE IF NOT EXISTS market_data (
-    id BIGSERIAL,
-    symbol TEXT NOT NULL,
-    price DECIMAL(20, 8) NOT NULL,
-    volume DECIMAL(20, 8),
-    timestamp TIMESTAMP WITH TIME ZONE NOT NULL,
-    exchange TEXT NOT NULL,
-    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
-    PRIMARY KEY (id, timestamp)
+    id UUID NOT NULL,
+    tick_id UUID,
+    type VARCHAR(255),
+    sequence BIGINT,
+    product_id VARCHAR(255),
+    price DECIMAL(20, 8),
+    open_24h DECIMAL(20, 8),
+    volume_24h DECIMAL(20, 8),
+    low_24h DECIMAL(20, 8),
+    high_24h DECIMAL(20, 8),
+    volume_30d DECIMAL(20, 8),
+    best_bid DECIMAL(20, 8),
+    best_ask DECIMAL(20, 8),
+    best_bid_size DECIMAL(20, 8),
+    best_ask_size DECIMAL(20, 8),
+    side VARCHAR(255),
+    time TIMESTAMP WITH TIME ZONE NOT NULL,
+    trade_id BIGINT,
+    last_size DECIMAL(20, 8),
+    source VARCHAR(255),
+    created_at TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (id, time)
 );
 
--- Create index on timestamp for better performance
-CREATE INDEX IF NOT EXISTS idx_market_data_timestamp ON market_data (timestamp);
+-- If the table was created by Hibernate the primary key is on id only, re-key it
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indrelid
+        WHERE c.relname = 'market_data' AND i.indisprimary AND i.indnatts = 1
+    ) AND EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_name = 'market_data' AND column_name = 'product_id'
+    ) THEN
+        ALTER TABLE market_data DROP CONSTRAINT market_data_pkey;
+        ALTER TABLE market_data ADD PRIMARY KEY (id, time);
+    END IF;
+END $$;
 
--- Convert the market_data table to a hypertable
-SELECT create_hypertable('market_data', 'timestamp', if_not_exists => TRUE);
+-- Convert the market_data table to a hypertable, skipped for the legacy symbol/timestamp layout
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_name = 'market_data' AND column_name = 'product_id'
+    ) THEN
+        PERFORM create_hypertable('market_data', 'time', if_not_exists => TRUE, migrate_data => TRUE,
+            create_default_indexes => FALSE);
+        CREATE INDEX IF NOT EXISTS idx_market_data_source_time ON market_data (source, time DESC);
+        CREATE INDEX IF NOT EXISTS idx_market_data_time ON market_data (time DESC);
+    END IF;
+END $$;
+
+-- The natural key and the product/time index are added by V3 and V4
 
 -- Add compression policy (optional - for older data)
 -- SELECT add_compression_policy('market_data', INTERVAL '7 days');
@@ -0,0 +1,60 @@
+-- Enable TimescaleDB extension if not already enabled
+CREATE EXTENSION IF NOT EXISTS timescaledb;
+
+-- Create the trade_signals table if it doesn't exist.
+-- Hypertables require every unique index to include the partitioning column,
+-- so the primary key is (id, timestamp) rather than id alone.
+CREATE TABLE IF NOT EXISTS trade_signals (
+    id UUID NOT NULL,
+    product_id VARCHAR(255) NOT NULL,
+    signal_type VARCHAR(255) NOT NULL,
+    strategy VARCHAR(255),
+    current_price DECIMAL(20, 8),
+    target_price DECIMAL(20, 8),
+    stop_loss DECIMAL(20, 8),
+    take_profit DECIMAL(20, 8),
+    confidence DOUBLE PRECISION,
+    reasoning VARCHAR(1000),
+    timestamp TIMESTAMP WITH TIME ZONE NOT NULL,
+    source VARCHAR(255),
+    rsi_value DOUBLE PRECISION,
+    macd_value DOUBLE PRECISION,
+    macd_signal DOUBLE PRECISION,
+    macd_histogram DOUBLE PRECISION,
+    bollinger_upper DOUBLE PRECISION,
+    bollinger_middle DOUBLE PRECISION,
+    bollinger_lower DOUBLE PRECISION,
+    sma_20 DOUBLE PRECISION,
+    sma_50 DOUBLE PRECISION,
+    ema_12 DOUBLE PRECISION,
+    ema_26 DOUBLE PRECISION,
+    PRIMARY KEY (id, timestamp)
+);
+
+-- If the table was created by Hibernate the primary key is on id only, re-key it
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indrelid
+        WHERE c.relname = 'trade_signals' AND i.indisprimary AND i.indnatts = 1
+    ) THEN
+        ALTER TABLE trade_signals DROP CONSTRAINT trade_signals_pkey;
+        ALTER TABLE trade_signals ADD PRIMARY KEY (id, timestamp);
+    END IF;
+END $$;
+
+-- Secondary indexes, led by product_id so they stay chunk-local
+CREATE INDEX IF NOT EXISTS idx_trade_signals_product_id ON trade_signals (product_id, timestamp DESC);
+CREATE INDEX IF NOT EXISTS idx_trade_signals_signal_type ON trade_signals (signal_type, timestamp DESC);
+CREATE INDEX IF NOT EXISTS idx_trade_signals_timestamp ON trade_signals (timestamp DESC);
+CREATE INDEX IF NOT EXISTS idx_trade_signals_confidence ON trade_signals (confidence DESC);
+
+-- Convert the trade_signals table to a hypertable
+SELECT create_hypertable('trade_signals', 'timestamp',
+    chunk_time_interval => INTERVAL '1 day',
+    if_not_exists => TRUE,
+    migrate_data => TRUE);
+
+-- Add compression policy (optional - for older data)
+-- SELECT add_compression_policy('trade_signals', INTERVAL '7 days');
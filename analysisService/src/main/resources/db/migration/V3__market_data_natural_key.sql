@@ -0,0 +1,25 @@
+-- Natural key for idempotent market data inserts (INSERT ... ON CONFLICT DO NOTHING).
+-- Unique indexes on a hypertable must include the partitioning column, which time is.
+-- Skipped when market_data still has the legacy symbol/timestamp layout.
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_name = 'market_data' AND column_name = 'product_id'
+    ) THEN
+        -- Coinbase sequence numbers and trade ids outgrow a 32-bit integer
+        ALTER TABLE market_data ALTER COLUMN sequence TYPE BIGINT;
+        ALTER TABLE market_data ALTER COLUMN trade_id TYPE BIGINT;
+
+        -- Drop duplicates left behind by at-least-once processing before enforcing the key
+        DELETE FROM market_data a
+        USING market_data b
+        WHERE a.product_id = b.product_id
+          AND a.sequence = b.sequence
+          AND a.time = b.time
+          AND (a.created_at, a.id) > (b.created_at, b.id);
+
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_market_data_natural_key
+            ON market_data (product_id, sequence, time);
+    END IF;
+END $$;
@@ -0,0 +1,14 @@
+-- Keyset pagination walks a product's history by (time DESC, id DESC); adding id to the
+-- product/time index lets the cursor predicate and the tie-break be served from the index.
+-- Skipped when market_data still has the legacy symbol/timestamp layout.
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_name = 'market_data' AND column_name = 'product_id'
+    ) THEN
+        DROP INDEX IF EXISTS idx_market_data_product_id_time;
+        CREATE INDEX IF NOT EXISTS idx_market_data_product_id_time
+            ON market_data (product_id, time DESC, id DESC);
+    END IF;
+END $$;
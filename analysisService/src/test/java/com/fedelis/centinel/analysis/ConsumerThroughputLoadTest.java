@@ -0,0 +1,315 @@
+package com.fedelis.centinel.analysis;
+
+import com.fedelis.centinel.analysis.model.MarketDataEvent;
+import com.fedelis.centinel.analysis.service.MarketDataConsumerService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and latency harness for the live consumer path.
+ *
+ * Produces {@code loadtest.ticks} synthetic ticker messages to embedded Kafka up front, keyed by product like the
+ * monitor's, then for every combination of {@code loadtest.listener-threads} and {@code loadtest.max-poll-records}
+ * drains the backlog under a fresh consumer group through {@link MarketDataConsumerService#consumeMarketData}, persisting into
+ * a TimescaleDB container. Each scenario reports sustained ticks per second, p50/p99/p999 batch latency and
+ * consumer lag, printed as a table and written to {@code target/loadtest/consumer-throughput.csv}.
+ *
+ * Tagged {@code loadtest} and excluded from the default build, run with {@code ./mvnw test -Ploadtest}.
+ */
+@Tag("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(ConsumerThroughputLoadTest.TimescaleConfiguration.class)
+@EmbeddedKafka(partitions = ConsumerThroughputLoadTest.PARTITIONS, topics = ConsumerThroughputLoadTest.TOPIC)
+@SpringBootTest(properties = {
+	"spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+	"spring.cloud.zookeeper.enabled=false",
+	"spring.cloud.zookeeper.config.enabled=false",
+	"spring.cloud.zookeeper.discovery.enabled=false",
+	// The container does not run the migrations, let Hibernate create the tables for the run
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"logging.level.com.fedelis.centinel.analysis=WARN"
+})
+class ConsumerThroughputLoadTest {
+
+	static final String TOPIC = "loadtest-market-data";
+	static final int PARTITIONS = 12;
+
+	private static final long TICKS = Long.getLong("loadtest.ticks", 1_000_000L);
+	private static final long SCENARIO_TIMEOUT_MS = Long.getLong("loadtest.scenario-timeout-ms", 30 * 60 * 1000L);
+	// Enough products that keying by product still reaches most of the partitions
+	private static final String[] PRODUCTS = {"BTC-USD", "ETH-USD", "SOL-USD", "ADA-USD", "DOGE-USD", "LTC-USD",
+		"XRP-USD", "DOT-USD", "AVAX-USD", "LINK-USD", "MATIC-USD", "ATOM-USD", "UNI-USD", "BCH-USD", "XLM-USD",
+		"ETC-USD", "FIL-USD", "AAVE-USD", "ALGO-USD", "NEAR-USD", "ICP-USD", "APT-USD", "ARB-USD", "OP-USD"};
+	private static final double[] START_PRICES = {65000.0, 3500.0, 150.0, 0.45, 0.15, 85.0,
+		0.55, 7.0, 35.0, 15.0, 0.7, 9.0, 8.0, 450.0, 0.11,
+		26.0, 5.0, 95.0, 0.18, 5.5, 12.0, 9.5, 1.1, 2.3};
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class TimescaleConfiguration {
+
+		@Bean
+		@ServiceConnection
+		PostgreSQLContainer<?> timescaleContainer() {
+			return new PostgreSQLContainer<>(DockerImageName.parse("timescale/timescaledb:latest-pg16")
+				.asCompatibleSubstituteFor("postgres"));
+		}
+
+	}
+
+	record ScenarioResult(int listenerThreads, int maxPollRecords, long ticks, double seconds,
+		double p50Millis, double p99Millis, double p999Millis, long maxLag, double meanLag) {
+
+		double ticksPerSecond() {
+			return ticks / seconds;
+		}
+
+	}
+
+	@Autowired
+	private EmbeddedKafkaBroker embeddedKafka;
+
+	@Autowired
+	private ConsumerFactory<String, MarketDataEvent> consumerFactory;
+
+	@Autowired
+	private MarketDataConsumerService marketDataConsumerService;
+
+	@Autowired
+	private KafkaListenerEndpointRegistry listenerEndpointRegistry;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Admin admin;
+
+	@BeforeAll
+	void produceBacklog() {
+		// The harness drives its own containers, keep the application's listener off the broker
+		listenerEndpointRegistry.getListenerContainers().forEach(MessageListenerContainer::stop);
+		admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString()));
+
+		Map<String, Object> props = new HashMap<>();
+		props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString());
+		props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+		props.put(ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024);
+		props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+		props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+		DefaultKafkaProducerFactory<String, MarketDataEvent> producerFactory =
+			new DefaultKafkaProducerFactory<>(props, new StringSerializer(), new JsonSerializer<>());
+		KafkaTemplate<String, MarketDataEvent> kafkaTemplate = new KafkaTemplate<>(producerFactory);
+
+		long start = System.nanoTime();
+		SplittableRandom random = new SplittableRandom(42);
+		Instant time = Instant.parse("2025-01-01T00:00:00Z");
+		double[] prices = START_PRICES.clone();
+		for (long i = 0; i < TICKS; i++) {
+			int p = random.nextInt(PRODUCTS.length);
+			prices[p] *= Math.exp(random.nextGaussian() * 0.0002);
+			// Keyed by product like the monitor's sends, so each product's ticks stay in order on one partition
+			kafkaTemplate.send(TOPIC, PRODUCTS[p],
+				new MarketDataEvent(tickerMessage(PRODUCTS[p], prices[p], i, time.plusMillis(i)), "coinbase"));
+		}
+		kafkaTemplate.flush();
+		producerFactory.destroy();
+		System.out.printf("Produced %d ticks to %s in %.1fs%n", TICKS, TOPIC, (System.nanoTime() - start) / 1e9);
+	}
+
+	@AfterAll
+	void closeAdmin() {
+		if (admin != null) {
+			admin.close();
+		}
+	}
+
+	@Test
+	void consumerThroughputAcrossListenerSettings() throws Exception {
+		List<ScenarioResult> results = new ArrayList<>();
+		for (int listenerThreads : intList("loadtest.listener-threads", "1,3,6,12")) {
+			for (int maxPollRecords : intList("loadtest.max-poll-records", "100,500,2000")) {
+				jdbcTemplate.execute("TRUNCATE TABLE market_data");
+				ScenarioResult result = runScenario(listenerThreads, maxPollRecords);
+				results.add(result);
+				assertThat(result.ticks()).as("ticks consumed with %d threads, %d max poll records", listenerThreads, maxPollRecords)
+					.isEqualTo(TICKS);
+			}
+		}
+		report(results);
+	}
+
+	private ScenarioResult runScenario(int listenerThreads, int maxPollRecords) throws Exception {
+		String groupId = "loadtest-" + listenerThreads + "-" + maxPollRecords + "-" + System.nanoTime();
+		Map<String, Object> props = new HashMap<>(consumerFactory.getConfigurationProperties());
+		props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+		props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+		props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		Timer batchTimer = Timer.builder("loadtest.batch")
+			.publishPercentiles(0.5, 0.99, 0.999)
+			.register(registry);
+		AtomicLong consumed = new AtomicLong();
+
+		ContainerProperties containerProperties = new ContainerProperties(TOPIC);
+		containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+		containerProperties.setMessageListener((BatchAcknowledgingMessageListener<String, MarketDataEvent>) (records, acknowledgment) -> {
+			long batchStart = System.nanoTime();
+			marketDataConsumerService.consumeMarketData(records, acknowledgment);
+			batchTimer.record(System.nanoTime() - batchStart, TimeUnit.NANOSECONDS);
+			consumed.addAndGet(records.size());
+		});
+		ConcurrentMessageListenerContainer<String, MarketDataEvent> container = new ConcurrentMessageListenerContainer<>(
+			new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new JsonDeserializer<>(MarketDataEvent.class, false)),
+			containerProperties);
+		container.setConcurrency(listenerThreads);
+
+		List<Long> lagSamples = new ArrayList<>();
+		ScheduledExecutorService lagSampler = Executors.newSingleThreadScheduledExecutor();
+		long start = System.nanoTime();
+		container.start();
+		try {
+			lagSampler.scheduleAtFixedRate(() -> {
+				long lag = lag(groupId);
+				synchronized (lagSamples) {
+					lagSamples.add(lag);
+				}
+			}, 500, 500, TimeUnit.MILLISECONDS);
+
+			long deadline = System.currentTimeMillis() + SCENARIO_TIMEOUT_MS;
+			while (consumed.get() < TICKS && System.currentTimeMillis() < deadline) {
+				Thread.sleep(50);
+			}
+		} finally {
+			lagSampler.shutdownNow();
+			container.stop();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		HistogramSnapshot snapshot = batchTimer.takeSnapshot();
+		long maxLag;
+		double meanLag;
+		synchronized (lagSamples) {
+			maxLag = lagSamples.stream().mapToLong(Long::longValue).max().orElse(0);
+			meanLag = lagSamples.stream().mapToLong(Long::longValue).average().orElse(0);
+		}
+		ScenarioResult result = new ScenarioResult(listenerThreads, maxPollRecords, consumed.get(), seconds,
+			percentileMillis(snapshot, 0.5), percentileMillis(snapshot, 0.99), percentileMillis(snapshot, 0.999),
+			maxLag, meanLag);
+		System.out.printf("threads=%d maxPollRecords=%d -> %.0f ticks/s%n",
+			listenerThreads, maxPollRecords, result.ticksPerSecond());
+		return result;
+	}
+
+	// Lag is the produced backlog minus everything the group has committed so far
+	private long lag(String groupId) {
+		try {
+			Map<?, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+				.partitionsToOffsetAndMetadata().get(5, TimeUnit.SECONDS);
+			long committedTotal = committed.values().stream()
+				.filter(offset -> offset != null)
+				.mapToLong(OffsetAndMetadata::offset)
+				.sum();
+			return TICKS - committedTotal;
+		} catch (Exception e) {
+			return TICKS;
+		}
+	}
+
+	private static double percentileMillis(HistogramSnapshot snapshot, double percentile) {
+		for (ValueAtPercentile value : snapshot.percentileValues()) {
+			if (value.percentile() == percentile) {
+				return value.value(TimeUnit.MILLISECONDS);
+			}
+		}
+		return Double.NaN;
+	}
+
+	private static void report(List<ScenarioResult> results) throws IOException {
+		StringBuilder csv = new StringBuilder("listener_threads,max_poll_records,ticks,seconds,ticks_per_second,"
+			+ "batch_p50_ms,batch_p99_ms,batch_p999_ms,max_lag,mean_lag\n");
+		System.out.printf("%n%8s %10s %12s %10s %10s %10s %12s %12s%n",
+			"threads", "maxPoll", "ticks/s", "p50 ms", "p99 ms", "p999 ms", "max lag", "mean lag");
+		for (ScenarioResult r : results) {
+			System.out.printf("%8d %10d %12.0f %10.2f %10.2f %10.2f %12d %12.0f%n",
+				r.listenerThreads(), r.maxPollRecords(), r.ticksPerSecond(),
+				r.p50Millis(), r.p99Millis(), r.p999Millis(), r.maxLag(), r.meanLag());
+			csv.append(String.format("%d,%d,%d,%.3f,%.0f,%.3f,%.3f,%.3f,%d,%.0f%n",
+				r.listenerThreads(), r.maxPollRecords(), r.ticks(), r.seconds(), r.ticksPerSecond(),
+				r.p50Millis(), r.p99Millis(), r.p999Millis(), r.maxLag(), r.meanLag()));
+		}
+		Path output = Path.of("target", "loadtest", "consumer-throughput.csv");
+		Files.createDirectories(output.getParent());
+		Files.writeString(output, csv);
+		System.out.println("Results written to " + output.toAbsolutePath());
+	}
+
+	private static List<Integer> intList(String property, String defaultValue) {
+		return Arrays.stream(System.getProperty(property, defaultValue).split(","))
+			.map(String::trim)
+			.map(Integer::parseInt)
+			.toList();
+	}
+
+	private static String tickerMessage(String productId, double price, long sequence, Instant time) {
+		return String.format("{\"type\":\"ticker\",\"sequence\":%d,\"product_id\":\"%s\",\"price\":\"%.4f\","
+			+ "\"open_24h\":\"%.4f\",\"volume_24h\":\"12345.67890000\",\"low_24h\":\"%.4f\",\"high_24h\":\"%.4f\","
+			+ "\"volume_30d\":\"370370.36700000\",\"best_bid\":\"%.4f\",\"best_bid_size\":\"0.25000000\","
+			+ "\"best_ask\":\"%.4f\",\"best_ask_size\":\"0.31000000\",\"side\":\"buy\",\"time\":\"%s\","
+			+ "\"trade_id\":%d,\"last_size\":\"0.01000000\"}",
+			sequence, productId, price, price, price * 0.97, price * 1.03, price * 0.9999, price * 1.0001,
+			time, sequence);
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.fedelis.centinel.analysis.config;
+
+import com.fedelis.centinel.analysis.service.RedeliveryTracker;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class FailedRecordAfterRollbackProcessorTests {
+
+	private static final String TOPIC = "coinbase-market-data";
+
+	private final ConsumerRecordRecoverer recoverer = mock(ConsumerRecordRecoverer.class);
+	private final RedeliveryTracker redeliveryTracker = new RedeliveryTracker();
+	@SuppressWarnings("unchecked")
+	private final Consumer<String, String> consumer = mock(Consumer.class);
+	private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+
+	private final ConsumerRecord<String, String> first = new ConsumerRecord<>(TOPIC, 0, 5, "BTC-USD", "first");
+	private final ConsumerRecord<String, String> failed = new ConsumerRecord<>(TOPIC, 0, 6, "BTC-USD", "failed");
+	private final ConsumerRecord<String, String> other = new ConsumerRecord<>(TOPIC, 1, 3, "ETH-USD", "other");
+	private final List<ConsumerRecord<String, String>> batch = List.of(first, failed, other);
+
+	@Test
+	void failedRecordIsRetriedThenDeadLetteredAloneWhileTheBatchComesBackWhole() {
+		// One retry, then the record is recovered
+		FailedRecordAfterRollbackProcessor<String, String> processor =
+			new FailedRecordAfterRollbackProcessor<>(recoverer, new FixedBackOff(0, 1), redeliveryTracker);
+		Exception exception = new ListenerExecutionFailedException("listener failed",
+			new BatchListenerFailedException("persist failed", failed));
+
+		processor.process(batch, consumer, container, exception, true, ContainerProperties.EOSMode.V2);
+		verify(recoverer, never()).accept(any(), any());
+		assertThat(redeliveryTracker.isDeadLettered(failed)).isFalse();
+
+		processor.process(batch, consumer, container, exception, true, ContainerProperties.EOSMode.V2);
+		verify(recoverer, times(1)).accept(eq(failed), eq(exception));
+		verify(recoverer, never()).accept(eq(first), any());
+		verify(recoverer, never()).accept(eq(other), any());
+		assertThat(redeliveryTracker.isDeadLettered(failed)).isTrue();
+		assertThat(redeliveryTracker.isDeadLettered(first)).isFalse();
+
+		// Nothing committed, so every partition starts over from the batch's first record both times
+		verify(consumer, times(2)).seek(new TopicPartition(TOPIC, 0), 5L);
+		verify(consumer, times(2)).seek(new TopicPartition(TOPIC, 1), 3L);
+	}
+
+	@Test
+	void failureWithoutAFailedRecordDeadLettersTheWholeBatchOnceRetriesAreExhausted() {
+		FailedRecordAfterRollbackProcessor<String, String> processor =
+			new FailedRecordAfterRollbackProcessor<>(recoverer, new FixedBackOff(0, 0), redeliveryTracker);
+		Exception exception = new IllegalStateException("signal send failed");
+
+		processor.process(batch, consumer, container, exception, true, ContainerProperties.EOSMode.V2);
+
+		for (ConsumerRecord<String, String> record : batch) {
+			verify(recoverer, times(1)).accept(record, exception);
+			assertThat(redeliveryTracker.isDeadLettered(record)).isTrue();
+		}
+	}
+
+	@Test
+	void deadLetteredRecordsAreForgottenOnceABatchPastThemCommits() {
+		redeliveryTracker.markDeadLettered(failed);
+
+		redeliveryTracker.committed(List.of(first));
+		assertThat(redeliveryTracker.isDeadLettered(failed)).isTrue();
+
+		redeliveryTracker.committed(List.of(first, failed, other));
+		assertThat(redeliveryTracker.isDeadLettered(failed)).isFalse();
+		// Still applied, so a later redelivery of the partition does not count it either
+		assertThat(redeliveryTracker.isApplied(failed)).isTrue();
+	}
+
+}
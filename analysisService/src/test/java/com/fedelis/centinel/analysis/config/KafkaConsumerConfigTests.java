@@ -0,0 +1,47 @@
+package com.fedelis.centinel.analysis.config;
+
+import com.fedelis.centinel.analysis.model.MarketDataEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KafkaConsumerConfigTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void failedRecordIsDeadLetteredToTheSuffixedTopicWithThePartitionLeftToTheProducer() {
+		KafkaConsumerConfig config = new KafkaConsumerConfig();
+		ReflectionTestUtils.setField(config, "deadLetterSuffix", ".DLT");
+		KafkaTemplate<String, Object> template = mock(KafkaTemplate.class);
+		when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+		DeadLetterPublishingRecoverer recoverer = config.deadLetterPublishingRecoverer(template);
+		ConsumerRecord<String, MarketDataEvent> record = new ConsumerRecord<>("coinbase-market-data", 2, 41, "BTC-USD",
+			new MarketDataEvent("{\"type\":\"ticker\"}", "coinbase"));
+
+		recoverer.accept(record, new IllegalStateException("persist failed"));
+
+		ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+		verify(template).send(sent.capture());
+		assertThat(sent.getValue().topic()).isEqualTo("coinbase-market-data.DLT");
+		// Partition -1 leaves the choice to the producer, the DLT does not need as many partitions as the source
+		assertThat(sent.getValue().partition()).isNull();
+		assertThat(sent.getValue().key()).isEqualTo("BTC-USD");
+		assertThat(new String(sent.getValue().headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC).value(),
+			StandardCharsets.UTF_8)).isEqualTo("coinbase-market-data");
+	}
+
+}
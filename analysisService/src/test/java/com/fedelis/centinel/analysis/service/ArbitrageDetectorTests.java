@@ -0,0 +1,121 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArbitrageDetectorTests {
+
+	private static final String PRODUCT = "BTC-USD";
+	private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+	private final List<TradeSignal> signals = new ArrayList<>();
+
+	@Test
+	void crossedVenuesEmitOnlyWhenTheSpreadClearsTheThresholdAfterFees() {
+		// 6 bps taker fee on both venues
+		ArbitrageDetector detector = new ArbitrageDetector(new LatencyRecorder(new SimpleMeterRegistry()),
+			new MockEnvironment(), true, 0.0025, 8, 500, 1_000, 0.0006, Map.of());
+		detector.onTick(quote("coinbase", "99.90", "100.00", START), signals::add);
+
+		// 0.3% gross, 0.18% after fees
+		detector.onTick(quote("kraken", "100.30", "100.40", START.plusMillis(10)), signals::add);
+		assertThat(signals).isEmpty();
+
+		// 0.5% gross, 0.38% after fees
+		detector.onTick(quote("kraken", "100.50", "100.60", START.plusMillis(20)), signals::add);
+		assertThat(signals).singleElement().satisfies(signal -> {
+			assertThat(signal.getStrategy()).isEqualTo(ArbitrageDetector.STRATEGY);
+			assertThat(signal.getSource()).isEqualTo("coinbase>kraken");
+			assertThat(signal.getCurrentPrice()).isEqualByComparingTo("100.00");
+			assertThat(signal.getTargetPrice()).isEqualByComparingTo("100.50");
+		});
+	}
+
+	@Test
+	void quotesFurtherApartThanTheMaximumAgeInExchangeTimeAreNotPaired() {
+		ArbitrageDetector detector = detector();
+		detector.onTick(quote("coinbase", "100.00", "100.10", START), signals::add);
+
+		// Consumed right after, but quoted 600 ms later on the exchange
+		detector.onTick(quote("kraken", "101.00", "101.10", START.plusMillis(600)), signals::add);
+		assertThat(signals).isEmpty();
+
+		// A catching up consumer reads it much later, but the two were live together
+		detector.onTick(quote("coinbase", "100.00", "100.10", START.plusMillis(700)), signals::add);
+		assertThat(signals).hasSize(1);
+	}
+
+	@Test
+	void venuePairEmitsAtMostOncePerCooldownOfExchangeTime() {
+		ArbitrageDetector detector = detector();
+		detector.onTick(quote("coinbase", "100.00", "100.10", START), signals::add);
+
+		detector.onTick(quote("kraken", "101.00", "101.10", START.plusMillis(100)), signals::add);
+		detector.onTick(quote("kraken", "101.00", "101.10", START.plusMillis(400)), signals::add);
+		detector.onTick(quote("coinbase", "100.00", "100.10", START.plusMillis(900)), signals::add);
+		assertThat(signals).hasSize(1);
+
+		detector.onTick(quote("kraken", "101.00", "101.10", START.plusMillis(1_100)), signals::add);
+		assertThat(signals).hasSize(2);
+	}
+
+	@Test
+	void signalRolledBackWithItsTransactionIsEmittedAgainWhenTheTickComesBack() {
+		ArbitrageDetector detector = detector();
+		detector.onTick(quote("coinbase", "100.00", "100.10", START), signals::add);
+		MarketData crossed = quote("kraken", "101.00", "101.10", START.plusMillis(50));
+
+		inTransaction(() -> detector.onTick(crossed, signals::add), false);
+		inTransaction(() -> detector.onTick(crossed, signals::add), true);
+		// Committed this time, so the cooldown holds
+		inTransaction(() -> detector.onTick(crossed, signals::add), true);
+
+		assertThat(signals).hasSize(2).allSatisfy(signal -> assertThat(signal.getSource()).isEqualTo("coinbase>kraken"));
+	}
+
+	private static ArbitrageDetector detector() {
+		return new ArbitrageDetector(new LatencyRecorder(new SimpleMeterRegistry()), new MockEnvironment(), true,
+			0.0025, 8, 500, 1_000, 0.0, Map.of());
+	}
+
+	private static MarketData quote(String source, String bid, String ask, Instant time) {
+		return MarketData.builder()
+			.productId(PRODUCT)
+			.source(source)
+			.time(time)
+			.bestBid(new BigDecimal(bid))
+			.bestAsk(new BigDecimal(ask))
+			.build();
+	}
+
+	private static void inTransaction(Runnable work, boolean commit) {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			work.run();
+			List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+			if (commit) {
+				TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+			}
+			TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, commit
+				? TransactionSynchronization.STATUS_COMMITTED
+				: TransactionSynchronization.STATUS_ROLLED_BACK);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.CorrelationSnapshot;
+import com.fedelis.centinel.analysis.model.MarketData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CorrelationEngineTests {
+
+	private static final int WINDOW = 4;
+	private static final double[] BTC = {100, 101, 99.5, 102, 101.2, 103, 102.5, 104, 103.1, 105, 104.4, 106};
+	private static final double[] ETH = {50, 50.8, 49.9, 50.2, 51, 50.6, 51.5, 51.1, 52, 51.7, 52.6, 52.2};
+
+	@Test
+	void incrementalSumsMatchTheCovarianceAndCorrelationOfTheWindow() {
+		// Recomputes from the rings every third bar, so both update paths are covered
+		CorrelationEngine engine = new CorrelationEngine(new SimpleMeterRegistry(), true, 1_000, WINDOW, 8, 64, 3);
+		List<double[]> returns = new ArrayList<>();
+		for (int bar = 0; bar < BTC.length; bar++) {
+			engine.onTick(tick("BTC-USD", BTC[bar]));
+			engine.onTick(tick("ETH-USD", ETH[bar]));
+			engine.closeBar();
+			if (bar > 0) {
+				returns.add(new double[]{Math.log(BTC[bar] / BTC[bar - 1]), Math.log(ETH[bar] / ETH[bar - 1])});
+			}
+
+			CorrelationSnapshot snapshot = engine.getSnapshot();
+			if (bar < WINDOW) {
+				// The first priced bar has no return, a full window takes one more
+				assertThat(snapshot.products()).isEmpty();
+				continue;
+			}
+			assertThat(snapshot.products()).containsExactly("BTC-USD", "ETH-USD");
+			List<double[]> window = returns.subList(returns.size() - WINDOW, returns.size());
+			double btcVariance = covariance(window, 0, 0);
+			double ethVariance = covariance(window, 1, 1);
+			double covariance = covariance(window, 0, 1);
+			assertThat(snapshot.covariance()[0][0]).isCloseTo(btcVariance, within(1e-12));
+			assertThat(snapshot.covariance()[1][1]).isCloseTo(ethVariance, within(1e-12));
+			assertThat(snapshot.covariance()[0][1]).isCloseTo(covariance, within(1e-12));
+			assertThat(snapshot.covariance()[1][0]).isEqualTo(snapshot.covariance()[0][1]);
+			assertThat(snapshot.correlation()[0][1])
+				.isCloseTo(covariance / Math.sqrt(btcVariance * ethVariance), within(1e-9));
+			assertThat(snapshot.correlation()[0][0]).isCloseTo(1.0, within(1e-9));
+		}
+	}
+
+	@Test
+	void productsMovingInLockstepOrOppositeAreFullyCorrelated() {
+		CorrelationEngine engine = new CorrelationEngine(new SimpleMeterRegistry(), true, 1_000, WINDOW, 8, 64, 600);
+		for (int bar = 0; bar < BTC.length; bar++) {
+			engine.onTick(tick("BTC-USD", BTC[bar]));
+			// Same returns at a different price level, and the inverse returns
+			engine.onTick(tick("WBTC-USD", 2 * BTC[bar]));
+			engine.onTick(tick("SHORT-USD", 10_000 / BTC[bar]));
+			engine.closeBar();
+		}
+
+		CorrelationSnapshot snapshot = engine.getSnapshot();
+		assertThat(snapshot.products()).containsExactly("BTC-USD", "WBTC-USD", "SHORT-USD");
+		assertThat(snapshot.correlation()[0][1]).isCloseTo(1.0, within(1e-9));
+		assertThat(snapshot.correlation()[0][2]).isCloseTo(-1.0, within(1e-9));
+	}
+
+	@Test
+	void productWithoutPriceMovementHasNoCorrelation() {
+		CorrelationEngine engine = new CorrelationEngine(new SimpleMeterRegistry(), true, 1_000, WINDOW, 8, 64, 600);
+		for (int bar = 0; bar < BTC.length; bar++) {
+			engine.onTick(tick("BTC-USD", BTC[bar]));
+			engine.onTick(tick("USDC-USD", 1.0));
+			engine.closeBar();
+		}
+
+		CorrelationSnapshot snapshot = engine.getSnapshot();
+		assertThat(snapshot.covariance()[1][1]).isZero();
+		assertThat(snapshot.correlation()[0][1]).isZero();
+	}
+
+	// Population covariance, as the engine reports it
+	private static double covariance(List<double[]> window, int a, int b) {
+		double meanA = window.stream().mapToDouble(r -> r[a]).average().orElseThrow();
+		double meanB = window.stream().mapToDouble(r -> r[b]).average().orElseThrow();
+		return window.stream().mapToDouble(r -> (r[a] - meanA) * (r[b] - meanB)).sum() / window.size();
+	}
+
+	private static MarketData tick(String productId, double price) {
+		return MarketData.builder()
+			.productId(productId)
+			.price(BigDecimal.valueOf(price))
+			.build();
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.config.IndicatorParameters;
+import com.fedelis.centinel.analysis.model.TechnicalIndicators;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class IndicatorStateTests {
+
+	// Short periods, so the expected values can be worked out by hand
+	private static final IndicatorParameters PARAMETERS = new IndicatorParameters(2, 2, 3, 2);
+
+	@Test
+	void rsiAveragesTheFirstPeriodThenSmoothsWithWilder() {
+		IndicatorState state = new IndicatorState(PARAMETERS);
+
+		state.add(1);
+		state.add(2);
+		assertThat(state.indicators().getRsi()).isNull();
+
+		// Changes +1, -1: average gain and loss 0.5
+		state.add(1);
+		assertThat(state.indicators().getRsi()).isCloseTo(50.0, within(1e-9));
+
+		// +2: gain (0.5 + 2) / 2 = 1.25, loss 0.5 / 2 = 0.25, RS 5
+		state.add(3);
+		assertThat(state.indicators().getRsi()).isCloseTo(100 - 100 / 6.0, within(1e-9));
+	}
+
+	@Test
+	void rsiIsAHundredWithoutLosses() {
+		IndicatorState state = new IndicatorState(PARAMETERS);
+		for (double close : new double[]{1, 2, 3, 4}) {
+			state.add(close);
+		}
+
+		assertThat(state.indicators().getRsi()).isEqualTo(100.0);
+	}
+
+	@Test
+	void macdIsTheDifferenceOfSmaSeededEmasAndItsSignalAnEmaOfIt() {
+		IndicatorState state = new IndicatorState(PARAMETERS);
+		state.add(1);
+		state.add(2);
+		assertThat(state.indicators().getMacd()).isNull();
+
+		// EMA(2) 1.5 then 19/6, EMA(3) seeded with (1 + 2 + 4) / 3
+		state.add(4);
+		TechnicalIndicators indicators = state.indicators();
+		assertThat(indicators.getMacd()).isCloseTo(5 / 6.0, within(1e-9));
+		assertThat(indicators.getMacdSignal()).isNull();
+
+		state.add(8);
+		assertThat(state.indicators().getMacd()).isCloseTo(11 / 9.0, within(1e-9));
+		assertThat(state.indicators().getMacdSignal()).isCloseTo((5 / 6.0 + 11 / 9.0) / 2, within(1e-9));
+
+		state.add(16);
+		indicators = state.indicators();
+		assertThat(indicators.getMacd()).isCloseTo(239 / 108.0, within(1e-9));
+		assertThat(indicators.getMacdSignal()).isCloseTo(589 / 324.0, within(1e-9));
+		assertThat(indicators.getMacdHistogram()).isCloseTo(32 / 81.0, within(1e-9));
+		assertThat(state.getBars()).isEqualTo(PARAMETERS.warmUpBars());
+	}
+
+}
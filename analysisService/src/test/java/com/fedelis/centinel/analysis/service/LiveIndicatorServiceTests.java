@@ -0,0 +1,103 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.config.IndicatorParameters;
+import com.fedelis.centinel.analysis.model.Candle;
+import com.fedelis.centinel.analysis.model.TechnicalIndicators;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LiveIndicatorServiceTests {
+
+	private static final String PRODUCT = "BTC-USD";
+	private static final double[] CLOSES = {100, 101, 99.5, 102, 101.2, 103, 102.5, 104, 103.1, 105, 104.4, 106};
+
+	private final MockEnvironment environment = new MockEnvironment()
+		.withProperty("signal.config.rsiPeriod", "3")
+		.withProperty("signal.config.emaShort", "2")
+		.withProperty("signal.config.emaLong", "4")
+		.withProperty("signal.config.macdSignal", "2");
+	private final LiveIndicatorService service = new LiveIndicatorService(mock(LiveUpdateBroadcaster.class),
+		environment, new ObjectMapper(), 50);
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void parameterChangeRebuildsTheIndicatorsFromTheHistoryOfCloses() throws InterruptedException {
+		for (double close : CLOSES) {
+			service.warmUp(candle(close));
+		}
+		assertThat(service.getIndicators(PRODUCT)).isEqualTo(replayed(new IndicatorParameters(3, 2, 4, 2)));
+
+		environment.setProperty("signal.config.rsiPeriod", "5");
+		environment.setProperty("signal.config.emaLong", "5");
+		service.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("signal.config.rsiPeriod", "signal.config.emaLong")));
+
+		IndicatorParameters reloaded = new IndicatorParameters(5, 2, 5, 2);
+		awaitParameters(reloaded);
+		assertThat(service.getIndicators(PRODUCT)).isEqualTo(replayed(reloaded));
+
+		// The next close lands on the rebuilt state
+		service.warmUp(candle(107));
+		IndicatorState expected = replayedState(reloaded);
+		expected.add(107);
+		assertThat(service.getIndicators(PRODUCT)).isEqualTo(expected.indicators());
+	}
+
+	@Test
+	void unusableOrUnrelatedChangesKeepTheCurrentParameters() throws InterruptedException {
+		IndicatorParameters initial = service.getParameters();
+
+		// emaShort must stay below emaLong
+		environment.setProperty("signal.config.emaShort", "6");
+		service.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("signal.config.emaShort")));
+		environment.setProperty("signal.config.emaShort", "2");
+		environment.setProperty("signal.config.rsiPeriod", "7");
+		service.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("push.queue-capacity")));
+		Thread.sleep(100);
+
+		assertThat(service.getParameters()).isEqualTo(initial);
+	}
+
+	private void awaitParameters(IndicatorParameters parameters) throws InterruptedException {
+		long deadline = System.nanoTime() + 5_000_000_000L;
+		while (!service.getParameters().equals(parameters) && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(service.getParameters()).isEqualTo(parameters);
+	}
+
+	private static TechnicalIndicators replayed(IndicatorParameters parameters) {
+		return replayedState(parameters).indicators();
+	}
+
+	private static IndicatorState replayedState(IndicatorParameters parameters) {
+		IndicatorState state = new IndicatorState(parameters);
+		for (double close : CLOSES) {
+			state.add(close);
+		}
+		return state;
+	}
+
+	private static Candle candle(double close) {
+		return Candle.builder()
+			.productId(PRODUCT)
+			.intervalSeconds(60)
+			.start(Instant.parse("2025-01-01T00:00:00Z"))
+			.close(BigDecimal.valueOf(close))
+			.build();
+	}
+
+}
@@ -0,0 +1,214 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.MarketDataEvent;
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import com.fedelis.centinel.analysis.util.MarketDataParser;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MarketDataConsumerServiceTests {
+
+	private static final String TOPIC = "coinbase-market-data";
+
+	private final MarketDataPersistenceService persistenceService = mock(MarketDataPersistenceService.class);
+	private final MultiTimeframeAnalysisService multiTimeframeAnalysisService = mock(MultiTimeframeAnalysisService.class);
+	private final MarketDataParser marketDataParser = mock(MarketDataParser.class);
+	private final AdaptiveBatchController adaptiveBatchController = mock(AdaptiveBatchController.class);
+	private final TradeSignalGenerationService tradeSignalService = mock(TradeSignalGenerationService.class);
+	private final TradeSignalPersistenceService tradeSignalPersistenceService = mock(TradeSignalPersistenceService.class);
+	private final TradeSignalPublisher tradeSignalPublisher = mock(TradeSignalPublisher.class);
+	private final DeadLetterPublishingRecoverer deadLetterPublishingRecoverer = mock(DeadLetterPublishingRecoverer.class);
+	private final RedeliveryTracker redeliveryTracker = new RedeliveryTracker();
+	private final CandleAggregator candleAggregator = mock(CandleAggregator.class);
+	private final LiveUpdateBroadcaster liveUpdateBroadcaster = mock(LiveUpdateBroadcaster.class);
+	private final ArbitrageDetector arbitrageDetector = mock(ArbitrageDetector.class);
+	private final CorrelationEngine correlationEngine = mock(CorrelationEngine.class);
+	private final QuantileSketchService quantileSketchService = mock(QuantileSketchService.class);
+	private final PriceAlertEngine priceAlertEngine = mock(PriceAlertEngine.class);
+	private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+	private final MarketDataConsumerService service = new MarketDataConsumerService(
+		persistenceService, multiTimeframeAnalysisService, marketDataParser, mock(LatencyRecorder.class),
+		adaptiveBatchController, tradeSignalService, tradeSignalPersistenceService, tradeSignalPublisher,
+		deadLetterPublishingRecoverer, mock(PartitionStateManager.class), redeliveryTracker, candleAggregator,
+		liveUpdateBroadcaster, arbitrageDetector, correlationEngine, quantileSketchService, priceAlertEngine,
+		mock(StartupTimer.class));
+
+	private final MarketData btc = tick("BTC-USD", "65000");
+	private final MarketData eth = tick("ETH-USD", "3500");
+	private final TradeSignal btcSignal = signal(btc);
+	private final TradeSignal ethSignal = signal(eth);
+	private final ConsumerRecord<String, MarketDataEvent> btcRecord = record(10, "BTC-USD", new MarketDataEvent("btc", "coinbase"));
+	// Not valid JSON, the ErrorHandlingDeserializer hands it over as null
+	private final ConsumerRecord<String, MarketDataEvent> poisonRecord = record(11, "SOL-USD", null);
+	private final ConsumerRecord<String, MarketDataEvent> ethRecord = record(12, "ETH-USD", new MarketDataEvent("eth", "coinbase"));
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "idempotentInserts", true);
+		ReflectionTestUtils.setField(service, "publishSignals", true);
+		// One insert per row, so a failure points at exactly one row
+		when(adaptiveBatchController.getBatchSize()).thenReturn(1);
+		when(marketDataParser.parse(btcRecord.value())).thenReturn(btc);
+		when(marketDataParser.parse(ethRecord.value())).thenReturn(eth);
+		when(tradeSignalService.generateTradeSignal(btc)).thenReturn(CompletableFuture.completedFuture(btcSignal));
+		when(tradeSignalService.generateTradeSignal(eth)).thenReturn(CompletableFuture.completedFuture(ethSignal));
+		when(persistenceService.persistMarketData(List.of(btc))).thenReturn(true);
+	}
+
+	@Test
+	void rolledBackBatchIsNotCountedTwiceWhenItIsDeliveredAgain() {
+		// The ETH row fails to persist once, which rolls back the whole batch
+		when(persistenceService.persistMarketData(List.of(eth))).thenReturn(false, true);
+		List<ConsumerRecord<String, MarketDataEvent>> batch = List.of(btcRecord, poisonRecord, ethRecord);
+
+		assertThatThrownBy(() -> inTransaction(batch, false)).isInstanceOf(BatchListenerFailedException.class);
+		inTransaction(batch, true);
+
+		for (MarketData tick : List.of(btc, eth)) {
+			verify(candleAggregator, times(1)).onTick(tick);
+			verify(correlationEngine, times(1)).onTick(tick);
+			verify(quantileSketchService, times(1)).onTick(tick);
+			verify(priceAlertEngine, times(1)).onTick(tick);
+			verify(multiTimeframeAnalysisService, times(1)).addPriceData(eq(tick.getProductId()), any(), any(), any());
+		}
+		verify(persistenceService, times(1)).persistMarketData(List.of(btc));
+		verify(deadLetterPublishingRecoverer, times(1)).accept(eq(poisonRecord), any());
+		// The rolled back BTC signal is sent again, but only the committed ones are stored and pushed
+		verify(tradeSignalPublisher, times(2)).publish(btcSignal);
+		verify(tradeSignalPublisher, times(1)).publish(ethSignal);
+		for (TradeSignal signal : List.of(btcSignal, ethSignal)) {
+			verify(tradeSignalPersistenceService, times(1)).persistTradeSignal(signal);
+			verify(liveUpdateBroadcaster, times(1)).publishSignal(signal);
+		}
+		// Re-checked on redelivery, the detector gives a rolled back signal's cooldown back itself
+		verify(arbitrageDetector, times(2)).onTick(eq(btc), any());
+		verify(acknowledgment, times(1)).acknowledge();
+	}
+
+	@Test
+	void recordDeadLetteredAfterARollbackIsLeftOutOfTheNextDelivery() {
+		redeliveryTracker.markDeadLettered(ethRecord);
+
+		inTransaction(List.of(btcRecord, ethRecord), true);
+
+		verify(persistenceService, never()).persistMarketData(List.of(eth));
+		verify(candleAggregator, never()).onTick(eth);
+		verify(tradeSignalPublisher, never()).publish(ethSignal);
+		verify(candleAggregator, times(1)).onTick(btc);
+		verify(acknowledgment, times(1)).acknowledge();
+	}
+
+	@Test
+	void persistFailureWithoutATransactionFailsTheBatchAtThatRowAlone() {
+		when(persistenceService.persistMarketData(List.of(eth))).thenReturn(false, true);
+
+		assertThatThrownBy(() -> service.consumeMarketData(List.of(btcRecord, poisonRecord, ethRecord), acknowledgment))
+			.isInstanceOfSatisfying(BatchListenerFailedException.class,
+				e -> assertThat(e.getRecord()).isSameAs(ethRecord));
+		// The error handler commits the rows before the failed one and delivers the rest again
+		service.consumeMarketData(List.of(ethRecord), acknowledgment);
+
+		verify(deadLetterPublishingRecoverer, times(1)).accept(eq(poisonRecord), any());
+		verify(deadLetterPublishingRecoverer, never()).accept(eq(ethRecord), any());
+		verify(candleAggregator, times(1)).onTick(btc);
+		verify(candleAggregator, times(1)).onTick(eth);
+		verify(acknowledgment, times(1)).acknowledge();
+	}
+
+	@Test
+	void framesOtherThanTicksAreSkippedWithoutBeingDeadLettered() {
+		MarketDataEvent subscriptions = new MarketDataEvent("{\"type\":\"subscriptions\",\"channels\":[]}", "coinbase");
+		ConsumerRecord<String, MarketDataEvent> subscriptionsRecord = record(13, null, subscriptions);
+		when(marketDataParser.isNonTicker(subscriptions)).thenReturn(true);
+
+		service.consumeMarketData(List.of(btcRecord, subscriptionsRecord, poisonRecord), acknowledgment);
+
+		verify(deadLetterPublishingRecoverer, never()).accept(eq(subscriptionsRecord), any());
+		verify(deadLetterPublishingRecoverer, times(1)).accept(eq(poisonRecord), any());
+		verify(candleAggregator, times(1)).onTick(btc);
+		verify(acknowledgment, times(1)).acknowledge();
+	}
+
+	@Test
+	void withoutATransactionSignalsAreStoredRightAway() {
+		service.consumeMarketData(List.of(btcRecord), acknowledgment);
+
+		verify(persistenceService, times(1)).persistMarketData(anyList());
+		verify(tradeSignalPersistenceService, times(1)).persistTradeSignal(btcSignal);
+		verify(liveUpdateBroadcaster, times(1)).publishSignal(btcSignal);
+		verify(acknowledgment, times(1)).acknowledge();
+	}
+
+	/**
+	 * Delivers a batch the way the container does with a Kafka transaction manager: with transaction synchronization
+	 * active, then committed or rolled back.
+	 */
+	private void inTransaction(List<ConsumerRecord<String, MarketDataEvent>> batch, boolean commit) {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			boolean committed = false;
+			try {
+				service.consumeMarketData(batch, acknowledgment);
+				committed = commit;
+			} finally {
+				List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+				if (committed) {
+					TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+				}
+				TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, committed
+					? TransactionSynchronization.STATUS_COMMITTED
+					: TransactionSynchronization.STATUS_ROLLED_BACK);
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static ConsumerRecord<String, MarketDataEvent> record(long offset, String key, MarketDataEvent value) {
+		return new ConsumerRecord<>(TOPIC, 0, offset, key, value);
+	}
+
+	private static MarketData tick(String productId, String price) {
+		return MarketData.builder()
+			.productId(productId)
+			.source("coinbase")
+			.time(Instant.parse("2025-01-01T00:00:00Z"))
+			.price(new BigDecimal(price))
+			.build();
+	}
+
+	private static TradeSignal signal(MarketData tick) {
+		return TradeSignal.builder()
+			.productId(tick.getProductId())
+			.signalType("BUY")
+			.strategy("tests")
+			.build();
+	}
+
+}
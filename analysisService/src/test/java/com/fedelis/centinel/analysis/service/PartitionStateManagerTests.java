@@ -0,0 +1,120 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fedelis.centinel.analysis.model.Candle;
+import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.TechnicalIndicators;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Hands a product's candle and indicator state from one owner to the next through an embedded changelog topic.
+ */
+@EmbeddedKafka(topics = PartitionStateManagerTests.CHANGELOG)
+class PartitionStateManagerTests {
+
+	static final String CHANGELOG = "analysis-state-changelog";
+
+	private static final TopicPartition PARTITION = new TopicPartition("coinbase-market-data", 0);
+	private static final String PRODUCT = "BTC-USD";
+	private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+	private final LiveUpdateBroadcaster broadcaster = mock(LiveUpdateBroadcaster.class);
+	private final WarmStartService warmStartService = mock(WarmStartService.class);
+
+	@Test
+	void revokedStateIsRestoredByTheNextOwner(EmbeddedKafkaBroker broker) {
+		LiveIndicatorService oldIndicators = indicators();
+		CandleAggregator oldCandles = new CandleAggregator(broadcaster, oldIndicators, objectMapper, 60);
+		PartitionStateManager oldOwner = manager(broker, oldCandles, oldIndicators);
+		// 100 closed one-minute candles, more than MACD needs, and one in progress
+		for (int i = 0; i < 100 * 6 + 3; i++) {
+			oldCandles.onTick(tick(PRODUCT, i));
+		}
+		oldOwner.track(PARTITION.topic(), PARTITION.partition(), PRODUCT);
+		TechnicalIndicators indicators = oldIndicators.getIndicators(PRODUCT);
+		Candle candle = oldCandles.getCurrent(PRODUCT);
+		assertThat(indicators.getRsi()).isNotNull();
+		assertThat(indicators.getMacdSignal()).isNotNull();
+		assertThat(candle.getTrades()).isEqualTo(3);
+
+		oldOwner.onPartitionsRevokedBeforeCommit(null, List.of(PARTITION));
+		oldOwner.close();
+
+		assertThat(oldIndicators.getIndicators(PRODUCT)).isNull();
+		assertThat(oldCandles.getCurrent(PRODUCT)).isNull();
+
+		LiveIndicatorService newIndicators = indicators();
+		CandleAggregator newCandles = new CandleAggregator(broadcaster, newIndicators, objectMapper, 60);
+		PartitionStateManager newOwner = manager(broker, newCandles, newIndicators);
+		newOwner.onPartitionsAssigned(null, List.of(PARTITION));
+		newOwner.close();
+
+		assertThat(newIndicators.getIndicators(PRODUCT)).isEqualTo(indicators);
+		assertThat(newCandles.getCurrent(PRODUCT)).isEqualTo(candle);
+		// The database only fills in products without a snapshot
+		verify(warmStartService).warmStart(eq(List.of(PARTITION)), any(), eq(Set.of(PRODUCT)));
+	}
+
+	@Test
+	void stateOfOtherPartitionsIsNotRestored(EmbeddedKafkaBroker broker) {
+		LiveIndicatorService oldIndicators = indicators();
+		CandleAggregator oldCandles = new CandleAggregator(broadcaster, oldIndicators, objectMapper, 60);
+		PartitionStateManager oldOwner = manager(broker, oldCandles, oldIndicators);
+		TopicPartition other = new TopicPartition(PARTITION.topic(), 1);
+		for (int i = 0; i < 60; i++) {
+			oldCandles.onTick(tick("ETH-USD", i));
+		}
+		oldOwner.track(other.topic(), other.partition(), "ETH-USD");
+		oldOwner.onPartitionsRevokedBeforeCommit(null, List.of(other));
+		oldOwner.close();
+
+		LiveIndicatorService newIndicators = indicators();
+		CandleAggregator newCandles = new CandleAggregator(broadcaster, newIndicators, objectMapper, 60);
+		PartitionStateManager newOwner = manager(broker, newCandles, newIndicators);
+		newOwner.onPartitionsAssigned(null, List.of(PARTITION));
+		newOwner.close();
+
+		assertThat(newIndicators.getIndicators("ETH-USD")).isNull();
+		assertThat(newCandles.getCurrent("ETH-USD")).isNull();
+	}
+
+	private LiveIndicatorService indicators() {
+		return new LiveIndicatorService(broadcaster, new MockEnvironment(), objectMapper, 500);
+	}
+
+	private PartitionStateManager manager(EmbeddedKafkaBroker broker, ProductStateContributor... contributors) {
+		return new PartitionStateManager(List.of(contributors), warmStartService, broker.getBrokersAsString(), CHANGELOG,
+			10_000);
+	}
+
+	// One tick every 10 seconds on a slow wave, so gains and losses alternate
+	private static MarketData tick(String productId, int i) {
+		double price = 100 + 5 * Math.sin(i / 20.0) + i * 0.01;
+		return MarketData.builder()
+			.productId(productId)
+			.sequence((long) i)
+			.time(START.plusSeconds(i * 10L))
+			.price(BigDecimal.valueOf(price).setScale(2, RoundingMode.HALF_UP))
+			.lastSize(new BigDecimal("0.50000000"))
+			.build();
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.AlertDirection;
+import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.PriceAlert;
+import com.fedelis.centinel.analysis.model.PriceAlertTrigger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PriceAlertEngineTests {
+
+	private static final String TRIGGERS = "price-alerts";
+	private static final String RULES = "price-alert-rules";
+	private static final String PRODUCT = "BTC-USD";
+
+	@SuppressWarnings("unchecked")
+	private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final PriceAlertEngine engine = new PriceAlertEngine(kafkaTemplate, meterRegistry, TRIGGERS, RULES);
+
+	@Test
+	void riseTriggersThresholdsAboveThePreviousPriceUpToAndIncludingTheNewOne() {
+		engine.put(alert("at-previous", "100", AlertDirection.RISES_ABOVE, true));
+		engine.put(alert("between", "101", AlertDirection.RISES_ABOVE, true));
+		engine.put(alert("at-price", "105", AlertDirection.CROSSES, true));
+		engine.put(alert("above", "106", AlertDirection.RISES_ABOVE, true));
+		engine.put(alert("falling", "102", AlertDirection.FALLS_BELOW, true));
+
+		engine.onTick(tick("100"));
+		engine.onTick(tick("105"));
+
+		assertThat(triggers()).extracting(PriceAlertTrigger::alertId).containsExactlyInAnyOrder("between", "at-price");
+		assertThat(meterRegistry.counter("centinel.alerts.triggered").count()).isEqualTo(2);
+	}
+
+	@Test
+	void fallTriggersThresholdsFromTheNewPriceUpToButExcludingThePreviousOne() {
+		engine.put(alert("below", "94", AlertDirection.FALLS_BELOW, true));
+		engine.put(alert("at-price", "95", AlertDirection.FALLS_BELOW, true));
+		engine.put(alert("between", "97", AlertDirection.CROSSES, true));
+		engine.put(alert("at-previous", "100", AlertDirection.FALLS_BELOW, true));
+		engine.put(alert("rising", "98", AlertDirection.RISES_ABOVE, true));
+
+		engine.onTick(tick("100"));
+		engine.onTick(tick("95"));
+
+		List<PriceAlertTrigger> triggers = triggers();
+		assertThat(triggers).extracting(PriceAlertTrigger::alertId).containsExactlyInAnyOrder("at-price", "between");
+		assertThat(triggers).allSatisfy(trigger -> {
+			assertThat(trigger.previousPrice()).isEqualByComparingTo("100");
+			assertThat(trigger.price()).isEqualByComparingTo("95");
+		});
+	}
+
+	@Test
+	void nothingTriggersWithoutAPreviousPriceOrAMove() {
+		engine.put(alert("crossing", "100", AlertDirection.CROSSES, true));
+
+		engine.onTick(tick("100"));
+		engine.onTick(tick("100"));
+
+		verify(kafkaTemplate, never()).send(eq(TRIGGERS), any(), any());
+	}
+
+	@Test
+	void oneShotRuleIsRemovedWhenItTriggers() {
+		engine.put(alert("once", "101", AlertDirection.CROSSES, false));
+		engine.put(alert("always", "101", AlertDirection.CROSSES, true));
+
+		engine.onTick(tick("100"));
+		engine.onTick(tick("102"));
+		engine.onTick(tick("100"));
+
+		assertThat(triggers()).extracting(PriceAlertTrigger::alertId).containsExactlyInAnyOrder("once", "always", "always");
+		assertThat(engine.getRules()).extracting(PriceAlert::id).containsExactly("always");
+		assertThat(engine.getRules(PRODUCT)).extracting(PriceAlert::id).containsExactly("always");
+		// Deleted from the compacted rules topic for the other instances
+		verify(kafkaTemplate, times(1)).send(eq(RULES), eq("once"), isNull());
+	}
+
+	private List<PriceAlertTrigger> triggers() {
+		ArgumentCaptor<Object> triggers = ArgumentCaptor.forClass(Object.class);
+		verify(kafkaTemplate, atLeast(0)).send(eq(TRIGGERS), eq(PRODUCT), triggers.capture());
+		return triggers.getAllValues().stream().map(PriceAlertTrigger.class::cast).toList();
+	}
+
+	private static PriceAlert alert(String id, String threshold, AlertDirection direction, boolean repeat) {
+		return new PriceAlert(id, PRODUCT, new BigDecimal(threshold), direction, repeat, "tests", Instant.EPOCH);
+	}
+
+	private static MarketData tick(String price) {
+		return MarketData.builder()
+			.productId(PRODUCT)
+			.time(Instant.now())
+			.price(new BigDecimal(price))
+			.build();
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.model.TradeSignal;
+import com.fedelis.centinel.analysis.repository.TradeSignalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TradeSignalPersistenceServiceTests {
+
+	private final TradeSignalRepository repository = mock(TradeSignalRepository.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	// Batches are cleared after they are written, so keep a copy and the thread that wrote it
+	private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+	private final List<String> writerThreads = new CopyOnWriteArrayList<>();
+
+	TradeSignalPersistenceServiceTests() {
+		when(repository.saveAll(any())).thenAnswer(invocation -> {
+			Iterable<TradeSignal> batch = invocation.getArgument(0);
+			List<String> products = new ArrayList<>();
+			batch.forEach(signal -> products.add(signal.getProductId()));
+			batches.add(products);
+			writerThreads.add(Thread.currentThread().getName());
+			return List.of();
+		});
+	}
+
+	@Test
+	void fullBatchIsFlushedOnTheFlushThread() throws InterruptedException {
+		TradeSignalPersistenceService service = new TradeSignalPersistenceService(repository, meterRegistry, 3, 100);
+		service.persistTradeSignal(signal("A"));
+		service.persistTradeSignal(signal("B"));
+		service.persistTradeSignal(signal("C"));
+
+		verify(repository, timeout(5_000)).saveAll(any());
+		// Waits for the flush thread, and has nothing left to drain
+		service.shutdown();
+		assertThat(batches).containsExactly(List.of("A", "B", "C"));
+		assertThat(writerThreads).containsExactly("signal-flush");
+	}
+
+	@Test
+	void fullBufferIsFlushedOnTheCallerThreadWithoutLosingSignals() throws InterruptedException {
+		// Batches larger than the buffer, so only the full buffer forces a write
+		TradeSignalPersistenceService service = new TradeSignalPersistenceService(repository, meterRegistry, 10, 2);
+		try {
+			service.persistTradeSignal(signal("A"));
+			service.persistTradeSignal(signal("B"));
+			service.persistTradeSignal(signal("C"));
+
+			assertThat(batches).containsExactly(List.of("A", "B"));
+			assertThat(writerThreads).containsExactly(Thread.currentThread().getName());
+			assertThat(meterRegistry.get("centinel.signals.persistence.buffered").gauge().value()).isEqualTo(1);
+		} finally {
+			service.shutdown();
+		}
+		assertThat(batches).containsExactly(List.of("A", "B"), List.of("C"));
+	}
+
+	@Test
+	void shutdownDrainsTheBufferAndLaterSignalsAreWrittenDirectly() throws InterruptedException {
+		TradeSignalPersistenceService service = new TradeSignalPersistenceService(repository, meterRegistry, 10, 100);
+		service.persistTradeSignal(signal("A"));
+		service.persistTradeSignal(signal("B"));
+		assertThat(batches).isEmpty();
+
+		service.shutdown();
+		service.persistTradeSignal(signal("C"));
+
+		assertThat(batches).containsExactly(List.of("A", "B"), List.of("C"));
+		assertThat(meterRegistry.counter("centinel.signals.persistence.persisted").count()).isEqualTo(3);
+	}
+
+	private static TradeSignal signal(String productId) {
+		return TradeSignal.builder()
+			.productId(productId)
+			.signalType("BUY")
+			.currentPrice(BigDecimal.ONE)
+			.timestamp(Instant.now())
+			.build();
+	}
+
+}
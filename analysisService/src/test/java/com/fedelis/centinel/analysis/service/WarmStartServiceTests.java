@@ -0,0 +1,88 @@
+package com.fedelis.centinel.analysis.service;
+
+import com.fedelis.centinel.analysis.repository.MarketDataRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.internals.BuiltInPartitioner;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WarmStartServiceTests {
+
+	private static final String TOPIC = "coinbase-market-data";
+	private static final int PARTITIONS = 6;
+	private static final List<String> PRODUCTS = List.of("BTC-USD", "ETH-USD", "SOL-USD", "ADA-USD", "DOGE-USD",
+		"LTC-USD", "XRP-USD", "DOT-USD", "AVAX-USD", "LINK-USD", "ATOM-USD", "UNI-USD");
+
+	private final MarketDataRepository repository = mock(MarketDataRepository.class);
+	private final WarmStartService warmStartService = new WarmStartService(repository,
+		mock(PlatformTransactionManager.class), mock(LiveIndicatorService.class), mock(CandleAggregator.class),
+		new SimpleMeterRegistry(), true, false, false, 2, 10_000, 500, 60);
+
+	WarmStartServiceTests() {
+		when(repository.findProductIdsSince(any())).thenReturn(PRODUCTS);
+		when(repository.streamCandles(anyString(), anyLong(), any())).thenAnswer(invocation -> Stream.empty());
+	}
+
+	@Test
+	void productsArePlacedOnPartitionsLikeTheProducerPlacesThem() {
+		for (String productId : PRODUCTS) {
+			assertThat(WarmStartService.partitionFor(productId, PARTITIONS)).isEqualTo(
+				BuiltInPartitioner.partitionForKey(productId.getBytes(StandardCharsets.UTF_8), PARTITIONS));
+		}
+	}
+
+	@Test
+	void onlyProductsOfTheAssignedPartitionsWithoutASnapshotAreLoaded() {
+		// The partitions of the first two products, one of which was restored from its snapshot
+		Set<Integer> partitions = Set.of(WarmStartService.partitionFor(PRODUCTS.get(0), PARTITIONS),
+			WarmStartService.partitionFor(PRODUCTS.get(1), PARTITIONS));
+		List<TopicPartition> assigned = partitions.stream().map(p -> new TopicPartition(TOPIC, p)).toList();
+		Map<String, TopicPartition> owned = PRODUCTS.stream()
+			.filter(productId -> partitions.contains(WarmStartService.partitionFor(productId, PARTITIONS)))
+			.collect(Collectors.toMap(productId -> productId,
+				productId -> new TopicPartition(TOPIC, WarmStartService.partitionFor(productId, PARTITIONS))));
+		String restored = PRODUCTS.get(0);
+
+		assertThat(warmStartService.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+		Map<String, TopicPartition> warmed = warmStartService.warmStart(assigned, topic -> PARTITIONS, Set.of(restored));
+
+		owned.remove(restored);
+		assertThat(warmed).isEqualTo(owned);
+		for (String productId : PRODUCTS) {
+			if (owned.containsKey(productId)) {
+				verify(repository).streamCandles(eq(productId), eq(60L), any());
+			} else {
+				verify(repository, never()).streamCandles(eq(productId), anyLong(), any());
+			}
+		}
+		assertThat(warmStartService.health().getStatus()).isEqualTo(Status.UP);
+	}
+
+	@Test
+	void instanceWithoutPartitionsIsReadyWithoutLoading() {
+		assertThat(warmStartService.warmStart(List.of(), topic -> PARTITIONS, Set.of())).isEmpty();
+
+		verify(repository, never()).findProductIdsSince(any());
+		assertThat(warmStartService.health().getStatus()).isEqualTo(Status.UP);
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.fedelis.centinel.analysis.util;
+
+import com.fedelis.centinel.analysis.model.SketchData;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class DDSketchTests {
+
+	private static final double ACCURACY = 0.01;
+	private static final double[] QUANTILES = {0.0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 1.0};
+
+	@Test
+	void everyQuantileIsWithinTheRelativeAccuracyOfTheExactValue() {
+		// Heavy tailed, like price moves and latencies
+		double[] values = logNormal(new Random(42), 50_000);
+		DDSketch sketch = new DDSketch(ACCURACY, 2048);
+		for (double value : values) {
+			sketch.add(value);
+		}
+
+		Arrays.sort(values);
+		assertThat(sketch.getCount()).isEqualTo(values.length);
+		assertThat(sketch.getMin()).isEqualTo(values[0]);
+		assertThat(sketch.getMax()).isEqualTo(values[values.length - 1]);
+		for (double quantile : QUANTILES) {
+			double exact = exact(values, quantile);
+			assertThat(sketch.quantile(quantile))
+				.as("quantile %s", quantile)
+				.isCloseTo(exact, within(exact * ACCURACY * (1 + 1e-9)));
+		}
+	}
+
+	@Test
+	void collapsingTheLowestBucketsKeepsTheUpperQuantilesAccurate() {
+		// Six decades need several hundred buckets at 1%, far more than the 64 allowed
+		Random random = new Random(7);
+		double[] values = new double[20_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.pow(10, random.nextDouble() * 6);
+		}
+		DDSketch sketch = new DDSketch(ACCURACY, 64);
+		for (double value : values) {
+			sketch.add(value);
+		}
+
+		Arrays.sort(values);
+		SketchData data = sketch.toData();
+		assertThat(data.counts()).hasSizeLessThanOrEqualTo(64);
+		assertThat(Arrays.stream(data.counts()).sum() + data.zeroCount()).isEqualTo(values.length);
+		for (double quantile : new double[] {0.99, 0.995, 0.999, 1.0}) {
+			double exact = exact(values, quantile);
+			assertThat(sketch.quantile(quantile))
+				.as("quantile %s", quantile)
+				.isCloseTo(exact, within(exact * ACCURACY * (1 + 1e-9)));
+		}
+		// The low quantiles were folded into the lowest kept bucket and lose their guarantee
+		assertThat(sketch.quantile(0.01)).isGreaterThan(exact(values, 0.01) * (1 + ACCURACY));
+	}
+
+	@Test
+	void mergingSketchesGivesTheSketchOfTheUnion() {
+		Random random = new Random(11);
+		DDSketch low = new DDSketch(ACCURACY, 2048);
+		DDSketch high = new DDSketch(ACCURACY, 2048);
+		DDSketch union = new DDSketch(ACCURACY, 2048);
+		for (int i = 0; i < 10_000; i++) {
+			double a = 1 + random.nextDouble() * 99;
+			double b = 50 + random.nextDouble() * 4_950;
+			low.add(a);
+			high.add(b);
+			union.add(a);
+			union.add(b);
+		}
+		low.add(0);
+		union.add(0);
+
+		DDSketch merged = DDSketch.fromData(high.toData(), 2048);
+		merged.merge(low);
+
+		assertThat(merged.toData()).usingRecursiveComparison().isEqualTo(union.toData());
+		for (double quantile : QUANTILES) {
+			assertThat(merged.quantile(quantile)).as("quantile %s", quantile).isEqualTo(union.quantile(quantile));
+		}
+	}
+
+	@Test
+	void sketchesOfAnotherAccuracyAreNotMerged() {
+		DDSketch sketch = new DDSketch(ACCURACY, 2048);
+		DDSketch coarser = new DDSketch(0.02, 2048);
+		coarser.add(1);
+
+		assertThatThrownBy(() -> sketch.merge(coarser)).isInstanceOf(IllegalArgumentException.class);
+		assertThat(sketch.getCount()).isZero();
+	}
+
+	private static double[] logNormal(Random random, int count) {
+		double[] values = new double[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = Math.exp(random.nextGaussian() * 2);
+		}
+		return values;
+	}
+
+	// The sketch ranks a quantile q at q * (n - 1), rounded down
+	private static double exact(double[] sorted, double quantile) {
+		return sorted[(int) Math.floor(quantile * (sorted.length - 1))];
+	}
+
+}
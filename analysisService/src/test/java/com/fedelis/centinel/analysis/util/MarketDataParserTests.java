@@ -0,0 +1,50 @@
+package com.fedelis.centinel.analysis.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.MarketDataEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarketDataParserTests {
+
+	private final MarketDataParser parser = new MarketDataParser(new ObjectMapper());
+
+	@Test
+	void tickerMessageIsParsed() {
+		MarketDataEvent event = new MarketDataEvent("""
+			{"type":"ticker","sequence":42,"product_id":"BTC-USD","price":"65000.01","time":"2025-01-01T00:00:00Z"}
+			""", "coinbase");
+
+		MarketData marketData = parser.parse(event);
+
+		assertThat(marketData).isNotNull();
+		assertThat(marketData.getProductId()).isEqualTo("BTC-USD");
+		assertThat(marketData.getSource()).isEqualTo("coinbase");
+		assertThat(parser.isNonTicker(event)).isFalse();
+	}
+
+	@Test
+	void subscriptionAcknowledgementIsNotATick() {
+		MarketDataEvent event = new MarketDataEvent("""
+			{"type":"subscriptions","channels":[{"name":"ticker","product_ids":["BTC-USD"]}]}
+			""", "coinbase");
+
+		assertThat(parser.parse(event)).isNull();
+		assertThat(parser.isNonTicker(event)).isTrue();
+	}
+
+	@Test
+	void brokenMessagesAreNotMistakenForOtherFrames() {
+		MarketDataEvent notJson = new MarketDataEvent("{\"type\":", "coinbase");
+		MarketDataEvent noSequence = new MarketDataEvent(
+			"{\"type\":\"ticker\",\"product_id\":\"BTC-USD\",\"time\":\"2025-01-01T00:00:00Z\"}", "coinbase");
+
+		assertThat(parser.parse(notJson)).isNull();
+		assertThat(parser.isNonTicker(notJson)).isFalse();
+		assertThat(parser.parse(noSequence)).isNull();
+		assertThat(parser.isNonTicker(noSequence)).isFalse();
+	}
+
+}
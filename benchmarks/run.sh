@@ -0,0 +1,28 @@
+#!/bin/sh
+# Builds the benchmarks against the current analysis service and runs them with the GC profiler.
+#   ./run.sh                  run everything, write results/<commit>.json and compare with baseline/baseline.json
+#   ./run.sh Parsing          run benchmarks matching a regex
+#   ./run.sh --save-baseline  run everything and store the result as the new baseline
+set -e
+cd "$(dirname "$0")"
+
+SAVE_BASELINE=false
+if [ "$1" = "--save-baseline" ]; then
+  SAVE_BASELINE=true
+  shift
+fi
+
+../analysisService/mvnw -q -f ../analysisService/pom.xml install -DskipTests
+./mvnw -q clean package
+
+mkdir -p results
+RESULT="results/$(git rev-parse --short HEAD).json"
+java -jar target/benchmarks.jar -prof gc -rf json -rff "$RESULT" "$@"
+
+if [ "$SAVE_BASELINE" = true ]; then
+  cp "$RESULT" baseline/baseline.json
+  echo "Saved $RESULT as baseline/baseline.json"
+elif [ -f baseline/baseline.json ]; then
+  java -cp target/benchmarks.jar com.fedelis.centinel.benchmark.BaselineComparator \
+    baseline/baseline.json "$RESULT" "${REGRESSION_THRESHOLD:-10}"
+fi
@@ -0,0 +1,93 @@
+package com.fedelis.centinel.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result file against a stored baseline and exits non-zero when a benchmark's score
+ * or its normalised allocation ({@code gc.alloc.rate.norm}, from {@code -prof gc}) regressed by more than
+ * the threshold. Usage: {@code BaselineComparator <baseline.json> <current.json> [thresholdPercent]}.
+ */
+public final class BaselineComparator {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+    private static final double MIN_ALLOC_BYTES = 8;
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(new File(args[0])));
+        Map<String, JsonNode> current = index(objectMapper.readTree(new File(args[1])));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s %12s %12s %9s%n",
+            "benchmark", "baseline", "current", "delta", "alloc base", "alloc now", "delta");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s%n", entry.getKey(), "new");
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double scoreDelta = percentChange(score(before), score(after));
+            // Lower is better for time per op, higher is better for throughput
+            boolean throughput = "thrpt".equals(after.path("mode").asText());
+            double scoreRegression = throughput ? -scoreDelta : scoreDelta;
+            double allocBefore = allocation(before);
+            double allocAfter = allocation(after);
+            double allocDelta = percentChange(allocBefore, allocAfter);
+
+            // Allocation noise of a few bytes per op on an almost allocation free path is not a regression
+            boolean allocRegressed = allocDelta > threshold && allocAfter - allocBefore > MIN_ALLOC_BYTES;
+            boolean regressed = scoreRegression > threshold || allocRegressed;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %8.1f%% %12.1f %12.1f %8.1f%%%s%n",
+                entry.getKey(), score(before), score(after), scoreDelta,
+                allocBefore, allocAfter, allocDelta, regressed ? "  REGRESSION" : "");
+        }
+        System.out.printf("%d regression(s) over %.1f%%%n", regressions, threshold);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    // Keys results by benchmark name plus parameters so parameterised runs are compared like for like
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> indexed = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                .replace("com.fedelis.centinel.benchmark.", ""));
+            result.path("params").fields().forEachRemaining(param ->
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            indexed.put(key.toString(), result);
+        }
+        return indexed;
+    }
+
+    private static double score(JsonNode result) {
+        return result.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static double allocation(JsonNode result) {
+        return result.path("secondaryMetrics").path(ALLOC_METRIC).path("score").asDouble(0);
+    }
+
+    private static double percentChange(double before, double after) {
+        if (before == 0) {
+            return after == 0 ? 0 : 100;
+        }
+        return (after - before) / before * 100;
+    }
+}
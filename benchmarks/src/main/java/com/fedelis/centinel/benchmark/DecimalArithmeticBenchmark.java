@@ -0,0 +1,123 @@
+package com.fedelis.centinel.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-tick arithmetic the signal path does on quotes (mid price, spread in basis points and a running
+ * VWAP) in {@link BigDecimal}, as {@code MarketData} stores it, against {@code double} and scaled
+ * {@code long} fixed point. The fixed point variant keeps prices in quote increments (cents) and sizes
+ * at 8 decimals, the precision of the {@code market_data} columns, so products fit in a long.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DecimalArithmeticBenchmark {
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    private static final BigDecimal BPS = BigDecimal.valueOf(10_000);
+
+    private BigDecimal[] bidDecimals;
+    private BigDecimal[] askDecimals;
+    private BigDecimal[] sizeDecimals;
+    private double[] bidDoubles;
+    private double[] askDoubles;
+    private double[] sizeDoubles;
+    private long[] bidLongs;
+    private long[] askLongs;
+    private long[] sizeLongs;
+    private int index;
+
+    private BigDecimal decimalNotional = BigDecimal.ZERO;
+    private BigDecimal decimalVolume = BigDecimal.ZERO;
+    private double doubleNotional;
+    private double doubleVolume;
+    private long longNotional;
+    private long longVolume;
+
+    @Setup
+    public void setUp() {
+        double[] closes = TickFixtures.closes();
+        int size = closes.length;
+        bidDecimals = new BigDecimal[size];
+        askDecimals = new BigDecimal[size];
+        sizeDecimals = new BigDecimal[size];
+        bidDoubles = new double[size];
+        askDoubles = new double[size];
+        sizeDoubles = new double[size];
+        bidLongs = new long[size];
+        askLongs = new long[size];
+        sizeLongs = new long[size];
+        for (int i = 0; i < size; i++) {
+            bidDecimals[i] = new BigDecimal(String.format("%.2f", closes[i] - 0.01));
+            askDecimals[i] = new BigDecimal(String.format("%.2f", closes[i] + 0.01));
+            sizeDecimals[i] = new BigDecimal(String.format("%.8f", 0.001 + (i % 100) / 1000.0));
+            bidDoubles[i] = bidDecimals[i].doubleValue();
+            askDoubles[i] = askDecimals[i].doubleValue();
+            sizeDoubles[i] = sizeDecimals[i].doubleValue();
+            bidLongs[i] = bidDecimals[i].movePointRight(2).longValueExact();
+            askLongs[i] = askDecimals[i].movePointRight(2).longValueExact();
+            sizeLongs[i] = sizeDecimals[i].movePointRight(8).longValueExact();
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        int i = next();
+        BigDecimal mid = bidDecimals[i].add(askDecimals[i]).divide(TWO, MathContext.DECIMAL64);
+        BigDecimal spreadBps = askDecimals[i].subtract(bidDecimals[i]).multiply(BPS).divide(mid, MathContext.DECIMAL64);
+        decimalNotional = decimalNotional.add(mid.multiply(sizeDecimals[i]));
+        decimalVolume = decimalVolume.add(sizeDecimals[i]);
+        return decimalNotional.divide(decimalVolume, MathContext.DECIMAL64).add(spreadBps);
+    }
+
+    @Benchmark
+    public double primitiveDouble() {
+        int i = next();
+        double mid = (bidDoubles[i] + askDoubles[i]) / 2;
+        double spreadBps = (askDoubles[i] - bidDoubles[i]) * 10_000 / mid;
+        doubleNotional += mid * sizeDoubles[i];
+        doubleVolume += sizeDoubles[i];
+        return doubleNotional / doubleVolume + spreadBps;
+    }
+
+    @Benchmark
+    public long fixedPointLong() {
+        int i = next();
+        // Mid in half cents to stay exact, spread in hundredths of a basis point
+        long midHalfCents = bidLongs[i] + askLongs[i];
+        long spreadCentiBps = (askLongs[i] - bidLongs[i]) * 2_000_000 / midHalfCents;
+        longNotional += midHalfCents * sizeLongs[i];
+        longVolume += sizeLongs[i];
+        return longNotional / (2 * longVolume) + spreadCentiBps;
+    }
+
+    // The running VWAP restarts every pass over the fixtures so the accumulators, and BigDecimal's cost, stay bounded
+    private int next() {
+        index = (index + 1) & (TickFixtures.SIZE - 1);
+        if (index == 0) {
+            decimalNotional = BigDecimal.ZERO;
+            decimalVolume = BigDecimal.ZERO;
+            doubleNotional = 0;
+            doubleVolume = 0;
+            longNotional = 0;
+            longVolume = 0;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,119 @@
+package com.fedelis.centinel.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeries;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of folding one new close into the default signal indicators (RSI 14, EMA 12/26, MACD 12/26)
+ * through ta4j over a bounded bar series, against incremental {@code double} state that updates in O(1).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class IndicatorUpdateBenchmark {
+
+    private static final int RSI_PERIOD = 14;
+    private static final double EMA_SHORT_ALPHA = 2.0 / (12 + 1);
+    private static final double EMA_LONG_ALPHA = 2.0 / (26 + 1);
+
+    @Param({"200", "1000"})
+    private int maxBars;
+
+    private double[] closes;
+    private int index;
+
+    private BarSeries series;
+    private ZonedDateTime barTime;
+    private RSIIndicator rsi;
+    private EMAIndicator emaShort;
+    private EMAIndicator emaLong;
+    private MACDIndicator macd;
+
+    private double lastClose;
+    private double emaShortValue;
+    private double emaLongValue;
+    private double avgGain;
+    private double avgLoss;
+
+    @Setup
+    public void setUp() {
+        closes = TickFixtures.closes();
+        series = new BaseBarSeries("BTC-USD");
+        series.setMaximumBarCount(maxBars);
+        barTime = ZonedDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        rsi = new RSIIndicator(closePrice, RSI_PERIOD);
+        emaShort = new EMAIndicator(closePrice, 12);
+        emaLong = new EMAIndicator(closePrice, 26);
+        macd = new MACDIndicator(closePrice, 12, 26);
+
+        lastClose = closes[0];
+        emaShortValue = closes[0];
+        emaLongValue = closes[0];
+        // Fill the series so every measured update evicts a bar, like a warmed up window
+        for (int i = 0; i < maxBars; i++) {
+            ta4jUpdate(closes[next()]);
+            incrementalUpdate(closes[index]);
+        }
+    }
+
+    @Benchmark
+    public void ta4j(Blackhole blackhole) {
+        int endIndex = ta4jUpdate(closes[next()]);
+        blackhole.consume(rsi.getValue(endIndex));
+        blackhole.consume(emaShort.getValue(endIndex));
+        blackhole.consume(emaLong.getValue(endIndex));
+        blackhole.consume(macd.getValue(endIndex));
+    }
+
+    @Benchmark
+    public double incremental() {
+        return incrementalUpdate(closes[next()]);
+    }
+
+    private int ta4jUpdate(double close) {
+        barTime = barTime.plusMinutes(1);
+        series.addBar(barTime, close, close, close, close, 1.0);
+        return series.getEndIndex();
+    }
+
+    // Wilder smoothed RSI and the two EMAs, returning RSI plus MACD so nothing is dead code
+    private double incrementalUpdate(double close) {
+        double change = close - lastClose;
+        lastClose = close;
+        avgGain = (avgGain * (RSI_PERIOD - 1) + Math.max(change, 0)) / RSI_PERIOD;
+        avgLoss = (avgLoss * (RSI_PERIOD - 1) + Math.max(-change, 0)) / RSI_PERIOD;
+        emaShortValue += EMA_SHORT_ALPHA * (close - emaShortValue);
+        emaLongValue += EMA_LONG_ALPHA * (close - emaLongValue);
+        double rsiValue = avgLoss == 0 ? 100 : 100 - 100 / (1 + avgGain / avgLoss);
+        return rsiValue + (emaShortValue - emaLongValue);
+    }
+
+    private int next() {
+        index = (index + 1) & (TickFixtures.SIZE - 1);
+        return index;
+    }
+}
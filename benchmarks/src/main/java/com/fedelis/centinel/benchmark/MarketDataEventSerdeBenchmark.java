@@ -0,0 +1,72 @@
+package com.fedelis.centinel.benchmark;
+
+import com.fedelis.centinel.analysis.model.MarketDataEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka value serde cost for {@link MarketDataEvent}, using the same spring-kafka JSON serializer and
+ * deserializer the monitor producer and analysis consumer are configured with.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MarketDataEventSerdeBenchmark {
+
+    private static final String TOPIC = "coinbase-market-data";
+
+    private JsonSerializer<MarketDataEvent> serializer;
+    private JsonDeserializer<MarketDataEvent> deserializer;
+    private MarketDataEvent[] events;
+    private byte[][] payloads;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        serializer.setAddTypeInfo(false);
+        deserializer = new JsonDeserializer<>(MarketDataEvent.class, false);
+        events = TickFixtures.events();
+        payloads = new byte[events.length][];
+        for (int i = 0; i < events.length; i++) {
+            payloads[i] = serializer.serialize(TOPIC, events[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, events[next()]);
+    }
+
+    @Benchmark
+    public MarketDataEvent deserialize() {
+        return deserializer.deserialize(TOPIC, payloads[next()]);
+    }
+
+    private int next() {
+        index = (index + 1) & (TickFixtures.SIZE - 1);
+        return index;
+    }
+}
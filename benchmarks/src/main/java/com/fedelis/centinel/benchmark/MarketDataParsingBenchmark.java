@@ -0,0 +1,71 @@
+package com.fedelis.centinel.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.analysis.config.ApplicationConfig;
+import com.fedelis.centinel.analysis.model.MarketData;
+import com.fedelis.centinel.analysis.model.MarketDataEvent;
+import com.fedelis.centinel.analysis.util.MarketDataParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a ticker message into a {@link MarketData} entity, split into the JSON tree parse and
+ * the entity mapping so the two can be compared. {@code parseEvent} is the full path the consumer,
+ * persistence and analysis services run per tick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MarketDataParsingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private MarketDataParser parser;
+    private MarketDataEvent[] events;
+    private JsonNode[] trees;
+    private int index;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ApplicationConfig().objectMapper();
+        parser = new MarketDataParser(objectMapper);
+        events = TickFixtures.events();
+        trees = new JsonNode[events.length];
+        for (int i = 0; i < events.length; i++) {
+            trees[i] = objectMapper.readTree(events[i].getMessage());
+        }
+    }
+
+    @Benchmark
+    public MarketData parseEvent() {
+        return parser.parse(events[next()]);
+    }
+
+    @Benchmark
+    public JsonNode readTree() throws Exception {
+        return objectMapper.readTree(events[next()].getMessage());
+    }
+
+    @Benchmark
+    public MarketData mapEntity() {
+        return parser.toMarketData(trees[next()]);
+    }
+
+    private int next() {
+        index = (index + 1) & (TickFixtures.SIZE - 1);
+        return index;
+    }
+}
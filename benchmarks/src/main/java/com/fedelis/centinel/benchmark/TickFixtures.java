@@ -0,0 +1,67 @@
+package com.fedelis.centinel.benchmark;
+
+import com.fedelis.centinel.analysis.model.MarketDataEvent;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic Coinbase ticker messages shaped like the live feed, shared by the benchmarks.
+ */
+final class TickFixtures {
+
+    static final int SIZE = 1024;
+    private static final String[] PRODUCTS = {"BTC-USD", "ETH-USD", "SOL-USD", "ADA-USD"};
+    private static final double[] PRICES = {65000.0, 3500.0, 150.0, 0.45};
+
+    private TickFixtures() {
+    }
+
+    static String[] tickerMessages() {
+        SplittableRandom random = new SplittableRandom(42);
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        String[] messages = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            int p = i % PRODUCTS.length;
+            double price = PRICES[p] * (1 + random.nextGaussian() * 0.001);
+            messages[i] = "{\"type\":\"ticker\",\"sequence\":" + (1_000_000 + i)
+                + ",\"product_id\":\"" + PRODUCTS[p]
+                + "\",\"price\":\"" + String.format("%.2f", price)
+                + "\",\"open_24h\":\"" + String.format("%.2f", PRICES[p])
+                + "\",\"volume_24h\":\"" + String.format("%.8f", 12345.6789 + i)
+                + "\",\"low_24h\":\"" + String.format("%.2f", PRICES[p] * 0.97)
+                + "\",\"high_24h\":\"" + String.format("%.2f", PRICES[p] * 1.03)
+                + "\",\"volume_30d\":\"" + String.format("%.8f", 370370.367 + i)
+                + "\",\"best_bid\":\"" + String.format("%.2f", price - 0.01)
+                + "\",\"best_bid_size\":\"" + String.format("%.8f", random.nextDouble())
+                + "\",\"best_ask\":\"" + String.format("%.2f", price + 0.01)
+                + "\",\"best_ask_size\":\"" + String.format("%.8f", random.nextDouble())
+                + "\",\"side\":\"" + (random.nextBoolean() ? "buy" : "sell")
+                + "\",\"time\":\"" + start.plusMillis(i * 7L)
+                + "\",\"trade_id\":" + (500_000 + i)
+                + ",\"last_size\":\"" + String.format("%.8f", random.nextDouble() * 0.1)
+                + "\"}";
+        }
+        return messages;
+    }
+
+    static MarketDataEvent[] events() {
+        String[] messages = tickerMessages();
+        MarketDataEvent[] events = new MarketDataEvent[messages.length];
+        for (int i = 0; i < messages.length; i++) {
+            events[i] = new MarketDataEvent(messages[i], "coinbase");
+        }
+        return events;
+    }
+
+    static double[] closes() {
+        SplittableRandom random = new SplittableRandom(7);
+        double[] closes = new double[SIZE];
+        double price = PRICES[0];
+        for (int i = 0; i < SIZE; i++) {
+            price *= Math.exp(random.nextGaussian() * 0.0005);
+            closes[i] = price;
+        }
+        return closes;
+    }
+}
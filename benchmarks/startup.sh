@@ -0,0 +1,54 @@
+#!/bin/sh
+# Measures how long a restarted analysis service takes to consume its first tick, once per startup mode:
+#   plain                 no AOT, the context is built by scanning and reflection at startup
+#   spring-aot            AOT-processed context
+#   spring-aot+aot-cache  AOT-processed context and the AOT cache from the image's training run
+# Runs against the compose stack with the generator as the tick source, and writes results/startup-<commit>.csv.
+#   ./startup.sh          5 restarts per mode
+#   RUNS=10 ./startup.sh
+set -e
+cd "$(dirname "$0")"
+
+RUNS=${RUNS:-5}
+COMPOSE="docker compose -f ../compose.yaml --profile loadtest"
+
+$COMPOSE build analysis-service
+$COMPOSE up -d zookeeper kafka timescaledb generator-service
+$COMPOSE stop analysis-service
+
+mkdir -p results
+RESULT="results/startup-$(git rev-parse --short HEAD).csv"
+echo "mode,run,ready_ms,first_tick_ms" > "$RESULT"
+
+run_mode() {
+  mode=$1
+  opts=$2
+  for run in $(seq "$RUNS"); do
+    container="analysis-startup-$run"
+    $COMPOSE run -d --no-deps --name "$container" -e JAVA_OPTS="$opts" analysis-service > /dev/null
+    ready=""
+    first_tick=""
+    for second in $(seq 120); do
+      logs=$(docker logs "$container" 2>&1)
+      ready=$(echo "$logs" | sed -n 's/.*Ready \([0-9]*\)ms after JVM start.*/\1/p' | head -1)
+      first_tick=$(echo "$logs" | sed -n 's/.*First tick consumed \([0-9]*\)ms after JVM start.*/\1/p' | head -1)
+      [ -n "$first_tick" ] && break
+      sleep 1
+    done
+    # A graceful stop leaves the consumer group, so the next run is not held up waiting for this member's session
+    docker stop "$container" > /dev/null
+    docker rm "$container" > /dev/null
+    echo "$mode,$run,${ready:-timeout},${first_tick:-timeout}" | tee -a "$RESULT"
+  done
+}
+
+run_mode plain ""
+run_mode spring-aot "-Dspring.aot.enabled=true"
+run_mode spring-aot+aot-cache "-XX:AOTCache=/app/app.aot -Dspring.aot.enabled=true"
+
+echo
+echo "Median time to first tick (ms):"
+for mode in plain spring-aot spring-aot+aot-cache; do
+  grep "^$mode," "$RESULT" | cut -d, -f4 | grep -v timeout | sort -n \
+    | awk -v mode="$mode" '{ v[NR] = $1 } END { if (NR) printf "  %-22s %s\n", mode, v[int((NR + 1) / 2)] }'
+done
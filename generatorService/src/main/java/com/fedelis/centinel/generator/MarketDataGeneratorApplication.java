@@ -0,0 +1,13 @@
+package com.fedelis.centinel.generator;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class MarketDataGeneratorApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(MarketDataGeneratorApplication.class, args);
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.fedelis.centinel.generator.config;
+
+import com.fedelis.centinel.generator.model.MarketDataEvent;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaProducerConfig {
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+    @Value("${kafka.producer.profile.market-data:BALANCED}")
+    private ProducerProfile marketDataProfile;
+    @Bean
+    public ProducerFactory<String, MarketDataEvent> producerFactory() {
+        Map<String, Object> configMap = new HashMap<>();
+        configMap.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configMap.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configMap.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configMap.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+
+        // Same profile as the monitor service's tick producer so the broker sees the same traffic shape
+        marketDataProfile.apply(configMap);
+
+        return new DefaultKafkaProducerFactory<>(configMap);
+    }
+
+    @Bean
+    public KafkaTemplate<String, MarketDataEvent> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+}
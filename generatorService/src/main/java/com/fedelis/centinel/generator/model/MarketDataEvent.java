@@ -0,0 +1,19 @@
+package com.fedelis.centinel.generator.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kafka envelope for a ticker message, identical to the one published by the monitor service.
+ */
+@Data
+@NoArgsConstructor
+public class MarketDataEvent {
+    private String message;
+    private String source;
+
+    public MarketDataEvent(String message, String source) {
+        this.message = message;
+        this.source = source;
+    }
+}
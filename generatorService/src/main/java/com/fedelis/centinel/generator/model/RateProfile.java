@@ -0,0 +1,79 @@
+package com.fedelis.centinel.generator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tick arrival rate as a function of simulated time.
+ *
+ * CONSTANT emits {@code baseRate} ticks per second. BURST multiplies the base rate by
+ * {@code burstMultiplier} for the first {@code burstSeconds} of every {@code periodSeconds}.
+ * SINE oscillates between 0 and twice the base rate over {@code periodSeconds}, which
+ * approximates quiet and busy stretches of a trading day compressed in time.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateProfile {
+
+    public enum Shape {
+        CONSTANT,
+        BURST,
+        SINE
+    }
+
+    private Shape shape;
+    private double baseRate;
+    private double burstMultiplier;
+    private double burstSeconds;
+    private double periodSeconds;
+
+    /**
+     * Rejects profiles that would divide by zero or never emit a tick.
+     * @return this profile
+     * @throws IllegalArgumentException if the rate or, for BURST and SINE, the period is not positive, or a BURST
+     *         multiplier is not positive or its burst does not fit the period
+     */
+    public RateProfile validate() {
+        if (shape == null) {
+            throw new IllegalArgumentException("Rate profile shape must be set");
+        }
+        if (baseRate <= 0) {
+            throw new IllegalArgumentException("Rate profile base rate must be positive, got " + baseRate);
+        }
+        if (shape != Shape.CONSTANT && periodSeconds <= 0) {
+            throw new IllegalArgumentException(
+                "Rate profile " + shape + " needs a positive period, got " + periodSeconds + "s");
+        }
+        if (shape == Shape.BURST) {
+            // A non-positive burst rate gives an infinite or negative interval between ticks
+            if (burstMultiplier <= 0) {
+                throw new IllegalArgumentException(
+                    "Rate profile BURST needs a positive multiplier, got " + burstMultiplier);
+            }
+            if (burstSeconds < 0 || burstSeconds > periodSeconds) {
+                throw new IllegalArgumentException("Rate profile BURST needs a burst between 0 and the "
+                    + periodSeconds + "s period, got " + burstSeconds + "s");
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @param simulatedSeconds seconds since the generator started, in simulated time
+     * @return ticks per second at that point of the profile
+     */
+    public double ratePerSecond(double simulatedSeconds) {
+        return switch (shape) {
+            case CONSTANT -> baseRate;
+            case BURST -> (simulatedSeconds % periodSeconds) < burstSeconds
+                ? baseRate * burstMultiplier
+                : baseRate;
+            case SINE -> Math.max(baseRate * 0.01,
+                baseRate * (1 + Math.sin(2 * Math.PI * simulatedSeconds / periodSeconds)));
+        };
+    }
+}
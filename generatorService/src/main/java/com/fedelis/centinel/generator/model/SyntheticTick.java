@@ -0,0 +1,34 @@
+package com.fedelis.centinel.generator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A generated ticker update carrying the same fields as a Coinbase {@code ticker} channel message.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyntheticTick {
+    private String productId;
+    private long sequence;
+    private long tradeId;
+    private double price;
+    private double open24h;
+    private double volume24h;
+    private double low24h;
+    private double high24h;
+    private double volume30d;
+    private double bestBid;
+    private double bestBidSize;
+    private double bestAsk;
+    private double bestAskSize;
+    private String side;
+    private Instant time;
+    private double lastSize;
+}
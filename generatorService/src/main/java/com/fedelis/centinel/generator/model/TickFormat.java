@@ -0,0 +1,12 @@
+package com.fedelis.centinel.generator.model;
+
+/**
+ * Wire format for generated ticks.
+ * JSON is the Coinbase ticker message as text; BINARY is the fixed layout written by
+ * {@link com.fedelis.centinel.generator.services.TickEncoder#toBinary}.
+ * Only the WebSocket sink honours the format; the Kafka sink always publishes JSON.
+ */
+public enum TickFormat {
+    JSON,
+    BINARY
+}
@@ -0,0 +1,148 @@
+package com.fedelis.centinel.generator.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fedelis.centinel.generator.model.SyntheticTick;
+import com.fedelis.centinel.generator.model.TickFormat;
+import com.fedelis.centinel.generator.services.TickEncoder;
+import com.fedelis.centinel.generator.services.TickSink;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local WebSocket server that speaks enough of the Coinbase feed protocol for the monitor service's
+ * {@code CoinbaseWebsocketClient} to connect to it: point {@code coinbase.api.url.public} at
+ * {@code ws://localhost:<port>}. Clients receive ticks for the products they subscribed to on the
+ * ticker channel, and {@code unsubscribe} messages are honoured.
+ */
+@Component
+@ConditionalOnProperty(name = "generator.sink.websocket.enabled", havingValue = "true")
+@Slf4j
+public class TickWebSocketServer extends WebSocketServer implements TickSink {
+
+    private final ObjectMapper objectMapper;
+    private final TickFormat format;
+
+    public TickWebSocketServer(
+        ObjectMapper objectMapper,
+        @Value("${generator.sink.websocket.port:8765}") int port,
+        @Value("${generator.format:JSON}") TickFormat format
+    ) {
+        super(new InetSocketAddress(port));
+        this.objectMapper = objectMapper;
+        this.format = format;
+        setReuseAddr(true);
+    }
+
+    @PostConstruct
+    public void startServer() {
+        start();
+    }
+
+    @PreDestroy
+    public void stopServer() throws InterruptedException {
+        log.info("🔄 Stopping synthetic feed WebSocket server");
+        stop(1000);
+    }
+
+    @Override
+    public void onStart() {
+        log.info("✅ Synthetic feed WebSocket server listening on port {} ({})", getPort(), format);
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        conn.setAttachment(ConcurrentHashMap.<String>newKeySet());
+        log.info("✅ Client connected: {}", conn.getRemoteSocketAddress());
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        log.info("✅ Client disconnected: {} (code: {}, reason: {})", conn.getRemoteSocketAddress(), code, reason);
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        try {
+            JsonNode request = objectMapper.readTree(message);
+            String type = request.path("type").asText();
+            Set<String> subscriptions = conn.getAttachment();
+            Set<String> productIds = requestedProducts(request);
+            switch (type) {
+                case "subscribe" -> subscriptions.addAll(productIds);
+                case "unsubscribe" -> subscriptions.removeAll(productIds);
+                default -> {
+                    conn.send("{\"type\":\"error\",\"message\":\"Failed to subscribe\",\"reason\":\"unknown type\"}");
+                    return;
+                }
+            }
+            log.info("✉️ {} {} -> subscribed to {}", type, productIds, subscriptions);
+            ObjectNode channel = objectMapper.createObjectNode().put("name", "ticker");
+            ArrayNode subscribedProducts = channel.putArray("product_ids");
+            subscriptions.forEach(subscribedProducts::add);
+            ObjectNode reply = objectMapper.createObjectNode().put("type", "subscriptions");
+            reply.putArray("channels").add(channel);
+            conn.send(reply.toString());
+        } catch (Exception e) {
+            log.error("❌ Failed to handle client message: {}", message, e);
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        log.error("❌ Synthetic feed WebSocket error", ex);
+    }
+
+    @Override
+    public void publish(SyntheticTick tick) {
+        // Encode once and share the frame across every subscribed connection
+        String text = null;
+        ByteBuffer binary = null;
+        for (WebSocket conn : getConnections()) {
+            Set<String> subscriptions = conn.getAttachment();
+            if (subscriptions == null || !subscriptions.contains(tick.getProductId()) || !conn.isOpen()) {
+                continue;
+            }
+            if (format == TickFormat.BINARY) {
+                if (binary == null) {
+                    binary = TickEncoder.toBinary(tick);
+                }
+                conn.send(binary.duplicate());
+            } else {
+                if (text == null) {
+                    text = TickEncoder.toTickerJson(tick);
+                }
+                conn.send(text);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "websocket:" + getPort();
+    }
+
+    // Accepts product_ids at the top level and inside ticker channel objects, like the Coinbase feed
+    private Set<String> requestedProducts(JsonNode request) {
+        Set<String> productIds = new HashSet<>();
+        request.path("product_ids").forEach(node -> productIds.add(node.asText()));
+        request.path("channels").forEach(channel ->
+            channel.path("product_ids").forEach(node -> productIds.add(node.asText())));
+        return productIds;
+    }
+}
@@ -0,0 +1,59 @@
+package com.fedelis.centinel.generator.services;
+
+import com.fedelis.centinel.generator.model.MarketDataEvent;
+import com.fedelis.centinel.generator.model.SyntheticTick;
+import com.fedelis.centinel.generator.model.TickFormat;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes generated ticks straight to Kafka in the same {@link MarketDataEvent} envelope the
+ * monitor service produces, so the analysis service cannot tell them apart from the live feed.
+ *
+ * The envelope always carries the JSON ticker text, since that is what the analysis service parses.
+ * {@code generator.format} only applies to the WebSocket sink.
+ */
+@Component
+@ConditionalOnProperty(name = "generator.sink.kafka.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class KafkaTickSink implements TickSink {
+
+    private final KafkaTemplate<String, MarketDataEvent> kafkaTemplate;
+
+    @Value("${kafka.topic.market-data:coinbase-market-data}")
+    private String kafkaTopic;
+
+    @Value("${generator.source:coinbase}")
+    private String source;
+
+    @Value("${generator.format:JSON}")
+    private TickFormat format;
+
+    @PostConstruct
+    public void warnOnIgnoredFormat() {
+        if (format != TickFormat.JSON) {
+            log.warn("⚠️ generator.format={} only applies to the WebSocket sink, Kafka still gets JSON", format);
+        }
+    }
+
+    @Override
+    public void publish(SyntheticTick tick) {
+        kafkaTemplate.send(kafkaTopic, tick.getProductId(), new MarketDataEvent(TickEncoder.toTickerJson(tick), source))
+            .whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    log.error("❌ Failed to publish synthetic tick to Kafka topic {}: {}", kafkaTopic, throwable.getMessage());
+                }
+            });
+    }
+
+    @Override
+    public String getName() {
+        return "kafka:" + kafkaTopic;
+    }
+}
@@ -0,0 +1,139 @@
+package com.fedelis.centinel.generator.services;
+
+import com.fedelis.centinel.generator.model.RateProfile;
+import com.fedelis.centinel.generator.model.SyntheticTick;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the tick generator on a single thread and fans every tick out to the enabled sinks.
+ *
+ * Tick content and tick times are a pure function of the seed, the product list and the rate profile.
+ * The wall clock is only used to pace emission: each tick is held back until its simulated offset has
+ * elapsed in real time. With {@code generator.max-speed=true} pacing is skipped and ticks are emitted
+ * as fast as the sinks accept them, with the same simulated timestamps.
+ */
+@Service
+@Slf4j
+public class MarketDataGeneratorService {
+
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final List<TickSink> sinks;
+    private final TickGenerator tickGenerator;
+    private final RateProfile rateProfile;
+    private final boolean maxSpeed;
+    private final long maxTicks;
+    private volatile boolean running;
+    private Thread generatorThread;
+
+    public MarketDataGeneratorService(
+        List<TickSink> sinks,
+        @Value("${generator.products:BTC-USD,ETH-USD,ADA-USD,SOL-USD}") String productsString,
+        @Value("${generator.product-count:4}") int productCount,
+        @Value("${generator.seed:42}") long seed,
+        @Value("${generator.volatility:0.0002}") double volatility,
+        @Value("${generator.start-time:2025-01-01T00:00:00Z}") Instant startTime,
+        @Value("${generator.rate.shape:CONSTANT}") RateProfile.Shape shape,
+        @Value("${generator.rate.ticks-per-second:1000}") double ticksPerSecond,
+        @Value("${generator.rate.burst-multiplier:10}") double burstMultiplier,
+        @Value("${generator.rate.burst-seconds:1}") double burstSeconds,
+        @Value("${generator.rate.period-seconds:10}") double periodSeconds,
+        @Value("${generator.max-speed:false}") boolean maxSpeed,
+        @Value("${generator.max-ticks:0}") long maxTicks
+    ) {
+        List<String> configuredProducts = Arrays.stream(productsString.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .toList();
+        this.sinks = sinks;
+        this.tickGenerator = new TickGenerator(
+            TickGenerator.productUniverse(configuredProducts, productCount),
+            seed,
+            volatility,
+            startTime
+        );
+        this.rateProfile = RateProfile.builder()
+            .shape(shape)
+            .baseRate(ticksPerSecond)
+            .burstMultiplier(burstMultiplier)
+            .burstSeconds(burstSeconds)
+            .periodSeconds(periodSeconds)
+            .build()
+            .validate();
+        this.maxSpeed = maxSpeed;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Starts generating once the application, and with it every sink, is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startGenerating() {
+        if (sinks.isEmpty()) {
+            log.warn("⚠️ No tick sinks are enabled, nothing to generate");
+            return;
+        }
+        log.info("🔄 Starting synthetic market data generator: profile={}, maxSpeed={}, sinks={}",
+            rateProfile, maxSpeed, sinks.stream().map(TickSink::getName).toList());
+        running = true;
+        generatorThread = Thread.ofPlatform().name("tick-generator").start(this::generate);
+    }
+
+    @PreDestroy
+    public void stopGenerating() throws InterruptedException {
+        running = false;
+        if (generatorThread != null) {
+            generatorThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void generate() {
+        long startNanos = System.nanoTime();
+        long lastReportNanos = startNanos;
+        long emittedSinceReport = 0;
+        long emitted = 0;
+        double simulatedSeconds = 0;
+
+        while (running && (maxTicks <= 0 || emitted < maxTicks)) {
+            long offsetNanos = (long) (simulatedSeconds * 1_000_000_000L);
+            if (!maxSpeed) {
+                long waitNanos = offsetNanos - (System.nanoTime() - startNanos);
+                if (waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+            }
+
+            SyntheticTick tick = tickGenerator.next(offsetNanos);
+            for (TickSink sink : sinks) {
+                try {
+                    sink.publish(tick);
+                } catch (Exception e) {
+                    log.error("❌ Sink {} failed to publish tick: {}", sink.getName(), e.getMessage());
+                }
+            }
+            emitted++;
+            emittedSinceReport++;
+            simulatedSeconds += 1.0 / rateProfile.ratePerSecond(simulatedSeconds);
+
+            long now = System.nanoTime();
+            if (now - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+                log.info("📈 Generated {} ticks/s ({} total)",
+                    emittedSinceReport * 1_000_000_000L / (now - lastReportNanos), emitted);
+                lastReportNanos = now;
+                emittedSinceReport = 0;
+            }
+        }
+        log.info("✅ Synthetic market data generator stopped after {} ticks", emitted);
+    }
+}
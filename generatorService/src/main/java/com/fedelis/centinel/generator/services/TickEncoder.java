@@ -0,0 +1,90 @@
+package com.fedelis.centinel.generator.services;
+
+import com.fedelis.centinel.generator.model.SyntheticTick;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Encodes generated ticks into the formats the generator can emit.
+ */
+public final class TickEncoder {
+
+    private TickEncoder() {
+    }
+
+    /**
+     * Encodes a tick as a Coinbase {@code ticker} channel message. Numeric fields are strings,
+     * as on the real feed, with sequence and trade_id as JSON numbers.
+     */
+    public static String toTickerJson(SyntheticTick tick) {
+        int priceScale = priceScale(tick.getPrice());
+        return new StringBuilder(512)
+            .append("{\"type\":\"ticker\",\"sequence\":").append(tick.getSequence())
+            .append(",\"product_id\":\"").append(tick.getProductId())
+            .append("\",\"price\":\"").append(format(tick.getPrice(), priceScale))
+            .append("\",\"open_24h\":\"").append(format(tick.getOpen24h(), priceScale))
+            .append("\",\"volume_24h\":\"").append(format(tick.getVolume24h(), 8))
+            .append("\",\"low_24h\":\"").append(format(tick.getLow24h(), priceScale))
+            .append("\",\"high_24h\":\"").append(format(tick.getHigh24h(), priceScale))
+            .append("\",\"volume_30d\":\"").append(format(tick.getVolume30d(), 8))
+            .append("\",\"best_bid\":\"").append(format(tick.getBestBid(), priceScale))
+            .append("\",\"best_bid_size\":\"").append(format(tick.getBestBidSize(), 8))
+            .append("\",\"best_ask\":\"").append(format(tick.getBestAsk(), priceScale))
+            .append("\",\"best_ask_size\":\"").append(format(tick.getBestAskSize(), 8))
+            .append("\",\"side\":\"").append(tick.getSide())
+            .append("\",\"time\":\"").append(tick.getTime())
+            .append("\",\"trade_id\":").append(tick.getTradeId())
+            .append(",\"last_size\":\"").append(format(tick.getLastSize(), 8))
+            .append("\"}")
+            .toString();
+    }
+
+    /**
+     * Encodes a tick in a compact big-endian layout:
+     * <pre>
+     * short  product id length, followed by the UTF-8 product id
+     * long   sequence
+     * long   trade id
+     * long   epoch seconds, int nanos
+     * double price, best bid, best bid size, best ask, best ask size, last size, volume 24h
+     * byte   side (1 = buy, 0 = sell)
+     * </pre>
+     */
+    public static ByteBuffer toBinary(SyntheticTick tick) {
+        byte[] productId = tick.getProductId().getBytes(StandardCharsets.UTF_8);
+        Instant time = tick.getTime();
+        ByteBuffer buffer = ByteBuffer.allocate(Short.BYTES + productId.length + 3 * Long.BYTES
+            + Integer.BYTES + 7 * Double.BYTES + 1);
+        buffer.putShort((short) productId.length)
+            .put(productId)
+            .putLong(tick.getSequence())
+            .putLong(tick.getTradeId())
+            .putLong(time.getEpochSecond())
+            .putInt(time.getNano())
+            .putDouble(tick.getPrice())
+            .putDouble(tick.getBestBid())
+            .putDouble(tick.getBestBidSize())
+            .putDouble(tick.getBestAsk())
+            .putDouble(tick.getBestAskSize())
+            .putDouble(tick.getLastSize())
+            .putDouble(tick.getVolume24h())
+            .put((byte) ("buy".equals(tick.getSide()) ? 1 : 0));
+        return buffer.flip();
+    }
+
+    // Coinbase quotes high priced assets in cents and cheaper ones with more decimals
+    private static int priceScale(double price) {
+        if (price >= 100) {
+            return 2;
+        }
+        return price >= 1 ? 4 : 6;
+    }
+
+    private static String format(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_EVEN).toPlainString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.fedelis.centinel.generator.services;
+
+import com.fedelis.centinel.generator.model.SyntheticTick;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic random-walk tick source.
+ *
+ * Every random draw comes from one seeded {@link SplittableRandom}, and tick times are derived from the
+ * simulated offset passed in by the caller rather than the wall clock, so the same seed, products and
+ * offsets always produce the same sequence of ticks. Prices follow a geometric random walk with
+ * {@code volatility} as the standard deviation of the per-tick log return.
+ */
+public class TickGenerator {
+
+    // Starting prices for products we commonly stream, anything else gets a seeded random price
+    private static final Map<String, Double> KNOWN_PRICES = Map.of(
+        "BTC-USD", 65000.0,
+        "ETH-USD", 3500.0,
+        "SOL-USD", 150.0,
+        "ADA-USD", 0.45
+    );
+
+    // Average trade notional in quote currency, used to size trades across very different price levels
+    private static final double MEAN_TRADE_NOTIONAL = 500.0;
+
+    private final SplittableRandom random;
+    private final Instant startTime;
+    private final double volatility;
+    private final String[] productIds;
+    private final double[] prices;
+    private final double[] open24h;
+    private final double[] high24h;
+    private final double[] low24h;
+    private final double[] volume24h;
+    private final double[] volume30d;
+    private final long[] sequences;
+    private long tradeId;
+
+    public TickGenerator(List<String> productIds, long seed, double volatility, Instant startTime) {
+        if (productIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one product is required");
+        }
+        this.random = new SplittableRandom(seed);
+        this.startTime = startTime;
+        this.volatility = volatility;
+        this.productIds = productIds.toArray(new String[0]);
+
+        int count = this.productIds.length;
+        this.prices = new double[count];
+        this.open24h = new double[count];
+        this.high24h = new double[count];
+        this.low24h = new double[count];
+        this.volume24h = new double[count];
+        this.volume30d = new double[count];
+        this.sequences = new long[count];
+        for (int i = 0; i < count; i++) {
+            double price = KNOWN_PRICES.getOrDefault(this.productIds[i], Math.exp(random.nextDouble(Math.log(0.1), Math.log(1000.0))));
+            prices[i] = price;
+            open24h[i] = price;
+            high24h[i] = price;
+            low24h[i] = price;
+            volume24h[i] = MEAN_TRADE_NOTIONAL / price * 10_000;
+            volume30d[i] = volume24h[i] * 30;
+            sequences[i] = 1_000_000L * (i + 1);
+        }
+        this.tradeId = 1;
+    }
+
+    /**
+     * Builds the product list for a run: the configured products first, padded with synthetic
+     * {@code SYNnnn-USD} products up to {@code productCount}.
+     */
+    public static List<String> productUniverse(List<String> configuredProducts, int productCount) {
+        List<String> products = new ArrayList<>(configuredProducts);
+        for (int i = products.size(); i < productCount; i++) {
+            products.add(String.format("SYN%03d-USD", i));
+        }
+        return products;
+    }
+
+    /**
+     * Generates the next tick for a randomly chosen product.
+     * @param offsetNanos simulated time since the start of the run
+     * @return the generated tick
+     */
+    public SyntheticTick next(long offsetNanos) {
+        int i = random.nextInt(productIds.length);
+
+        double logReturn = random.nextGaussian() * volatility;
+        double price = prices[i] * Math.exp(logReturn);
+        prices[i] = price;
+        high24h[i] = Math.max(high24h[i], price);
+        low24h[i] = Math.min(low24h[i], price);
+
+        // Spread between 0.5 and 1.5 basis points around the last trade
+        double halfSpread = price * (0.00005 + random.nextDouble() * 0.0001) / 2;
+        double meanSize = MEAN_TRADE_NOTIONAL / price;
+        double lastSize = -Math.log(1 - random.nextDouble()) * meanSize;
+        volume24h[i] += lastSize;
+        volume30d[i] += lastSize;
+
+        return SyntheticTick.builder()
+            .productId(productIds[i])
+            .sequence(++sequences[i])
+            .tradeId(tradeId++)
+            .price(price)
+            .open24h(open24h[i])
+            .volume24h(volume24h[i])
+            .low24h(low24h[i])
+            .high24h(high24h[i])
+            .volume30d(volume30d[i])
+            .bestBid(price - halfSpread)
+            .bestBidSize(-Math.log(1 - random.nextDouble()) * meanSize * 4)
+            .bestAsk(price + halfSpread)
+            .bestAskSize(-Math.log(1 - random.nextDouble()) * meanSize * 4)
+            .side(logReturn >= 0 ? "buy" : "sell")
+            .time(startTime.plusNanos(offsetNanos))
+            .lastSize(lastSize)
+            .build();
+    }
+}
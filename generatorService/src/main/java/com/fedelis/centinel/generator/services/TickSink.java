@@ -0,0 +1,20 @@
+package com.fedelis.centinel.generator.services;
+
+import com.fedelis.centinel.generator.model.SyntheticTick;
+
+/**
+ * Destination for generated ticks. Implementations are called from the single generator thread.
+ */
+public interface TickSink {
+
+    /**
+     * Publishes one generated tick.
+     * @param tick the tick to publish
+     */
+    void publish(SyntheticTick tick);
+
+    /**
+     * @return a short name for logging
+     */
+    String getName();
+}
@@ -0,0 +1,73 @@
+package com.fedelis.centinel.generator;
+
+import com.fedelis.centinel.generator.model.RateProfile;
+import com.fedelis.centinel.generator.model.SyntheticTick;
+import com.fedelis.centinel.generator.services.TickEncoder;
+import com.fedelis.centinel.generator.services.TickGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TickGeneratorTests {
+
+	private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+	@Test
+	void sameSeedProducesSameTicks() {
+		List<String> products = TickGenerator.productUniverse(List.of("BTC-USD", "ETH-USD"), 10);
+
+		assertThat(generate(products, 7L, 1_000)).isEqualTo(generate(products, 7L, 1_000));
+		assertThat(generate(products, 7L, 1_000)).isNotEqualTo(generate(products, 8L, 1_000));
+	}
+
+	@Test
+	void productUniverseIsPaddedWithSyntheticProducts() {
+		assertThat(TickGenerator.productUniverse(List.of("BTC-USD"), 3))
+			.containsExactly("BTC-USD", "SYN001-USD", "SYN002-USD");
+	}
+
+	@Test
+	void periodicProfilesRejectNonPositivePeriod() {
+		for (RateProfile.Shape shape : List.of(RateProfile.Shape.BURST, RateProfile.Shape.SINE)) {
+			RateProfile profile = RateProfile.builder().shape(shape).baseRate(100).periodSeconds(0).build();
+			assertThatThrownBy(profile::validate).isInstanceOf(IllegalArgumentException.class);
+		}
+		RateProfile constant = RateProfile.builder().shape(RateProfile.Shape.CONSTANT).baseRate(100).build();
+		assertThat(constant.validate().ratePerSecond(3.5)).isEqualTo(100);
+	}
+
+	@Test
+	void burstProfilesRejectNonPositiveMultiplierAndBurstsOutsideThePeriod() {
+		RateProfile.RateProfileBuilder burst = RateProfile.builder()
+			.shape(RateProfile.Shape.BURST)
+			.baseRate(100)
+			.periodSeconds(10);
+		assertThatThrownBy(burst.burstMultiplier(0).burstSeconds(1).build()::validate)
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(burst.burstMultiplier(-2).burstSeconds(1).build()::validate)
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(burst.burstMultiplier(10).burstSeconds(-1).build()::validate)
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(burst.burstMultiplier(10).burstSeconds(11).build()::validate)
+			.isInstanceOf(IllegalArgumentException.class);
+
+		RateProfile valid = burst.burstMultiplier(10).burstSeconds(10).build().validate();
+		assertThat(valid.ratePerSecond(5)).isEqualTo(1_000);
+	}
+
+	private List<String> generate(List<String> products, long seed, int count) {
+		TickGenerator generator = new TickGenerator(products, seed, 0.0002, START);
+		List<String> messages = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			SyntheticTick tick = generator.next(i * 1_000_000L);
+			messages.add(TickEncoder.toTickerJson(tick));
+		}
+		return messages;
+	}
+
+}
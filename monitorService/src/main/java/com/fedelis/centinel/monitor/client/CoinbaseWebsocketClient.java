@@ -1,12 +1,17 @@
 package com.fedelis.centinel.monitor.client;
 
-import com.fedelis.centinel.monitor.model.MarketDataEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fedelis.centinel.monitor.model.TraceHeaders;
+import com.fedelis.centinel.monitor.services.TickRingBuffer;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
 import org.java_websocket.handshake.ServerHandshake;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.java_websocket.client.WebSocketClient;
 
@@ -14,11 +19,15 @@ import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 @Data
 @Service
@@ -38,42 +47,61 @@ public class CoinbaseWebsocketClient implements ExchangeConnectorWebsocketClient
     private String PUBLIC_COINBASE_WS_URL;
     @Value("${coinbase.api.url.private}")
     private String PRIVATE_COINBASE_WS_URL;
-    @Value("${kafka.topic.market-data:coinbase-market-data}")
-    private String kafkaTopic;
+    // Coinbase product ids such as BTC-USD; anything else never makes it into a message
+    private static final Pattern PRODUCT_ID = Pattern.compile("[A-Z0-9]+-[A-Z0-9]+");
     private final String exchangeName = "coinbase";
-    private boolean connected = false;
+    private volatile boolean connected = false;
     private boolean authenticated = false;
-    private List<String> subscribedSymbols = new ArrayList<>();
-    private KafkaTemplate<String, MarketDataEvent> kafkaTemplate;
+    // Guarded by itself; changes and the messages that announce them are sent under the same lock, so the server
+    // sees them in the order they were made
+    private final Set<String> subscribedSymbols = new LinkedHashSet<>();
+    @Value("${market.data.raw-frames:true}")
+    private boolean rawFrames;
+    private TickRingBuffer tickRingBuffer;
+    private final ObjectMapper objectMapper;
     private WebSocketClient webSocketClient;
 
     @Autowired
-    public CoinbaseWebsocketClient(KafkaTemplate<String, MarketDataEvent> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public CoinbaseWebsocketClient(TickRingBuffer tickRingBuffer, ObjectMapper objectMapper) {
+        this.tickRingBuffer = tickRingBuffer;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Connects to the Coinbase WebSocket feed with specific symbols.
-     * @param symbols list of symbols to subscribe to
+     * @return whether the symbol is a Coinbase product id such as {@code BTC-USD}
+     */
+    public static boolean isValidProductId(String symbol) {
+        return symbol != null && PRODUCT_ID.matcher(symbol).matches();
+    }
+
+    /**
+     * Connects to the Coinbase WebSocket feed and subscribes to the subscription set as it is when the connection
+     * opens, so symbols added or removed before that are kept.
      */
     @Override
-    public void connect(List<String> symbols) throws URISyntaxException {
+    public void connect() throws URISyntaxException {
         if (connected) return;
-        this.subscribedSymbols = symbols != null ? symbols : new ArrayList<>();
 
         // Use public URL for market data streaming
         String wsUrl = PUBLIC_COINBASE_WS_URL;
         log.info("Connecting to Coinbase WebSocket at: {}", wsUrl);
 
-        webSocketClient = new WebSocketClient(new URI(wsUrl)) {
+        // Raw frames go into the tick ring as received bytes, skipping the String decode of every message
+        Draft draft = rawFrames
+            ? new RawTextFrameDraft(this::onRawTextFrame)
+            : new Draft_6455();
+        webSocketClient = new WebSocketClient(new URI(wsUrl), draft) {
             @Override
             public void onOpen(ServerHandshake handshakedata) {
                 try {
-                    // Subscribe to ticker channel for the specified symbols
-                    String subscribeMessage = buildSubscribeMessage(subscribedSymbols);
-                    webSocketClient.send(subscribeMessage);
-                    connected = true;
-                    log.info("Connected to Coinbase WebSocket and subscribed to symbols: {}", subscribedSymbols);
+                    // Subscribe to ticker channel for the current symbols, including any changed while disconnected
+                    synchronized (subscribedSymbols) {
+                        if (!subscribedSymbols.isEmpty()) {
+                            webSocketClient.send(buildSubscribeMessage(subscribedSymbols));
+                        }
+                        connected = true;
+                        log.info("Connected to Coinbase WebSocket and subscribed to symbols: {}", subscribedSymbols);
+                    }
                 } catch (Exception e) {
                     connected = false;
                     log.error("❌ Failed to connect to Coinbase WebSocket", e);
@@ -82,13 +110,11 @@ public class CoinbaseWebsocketClient implements ExchangeConnectorWebsocketClient
 
             @Override
             public void onMessage(String message) {
+                long receivedAtMicros = TraceHeaders.nowMicros();
                 try {
-                    // Create MarketDataEvent with the raw message for now
-                    MarketDataEvent event = new MarketDataEvent(message, exchangeName);
-                    
                     log.debug("✉️ Websocket Message Received");
-                    kafkaTemplate.send(kafkaTopic, event);
-                    log.debug("✉️ Sent market data event to Kafka topic: {}", kafkaTopic);
+                    // Decoded once into the ring, the journal and any other stages read it from there
+                    tickRingBuffer.publish(message, receivedAtMicros);
                 } catch (Exception e) {
                     log.error("❌ Failed to process WebSocket message: {}", message, e);
                 }
@@ -113,24 +139,46 @@ public class CoinbaseWebsocketClient implements ExchangeConnectorWebsocketClient
     }
 
 
-    private String buildSubscribeMessage(List<String> productIds) {
+    /**
+     * Publishes the payload of a text frame to the tick ring as the exact bytes received.
+     * @param payload the frame payload, only valid during this call
+     */
+    private void onRawTextFrame(ByteBuffer payload) {
+        long receivedAtMicros = TraceHeaders.nowMicros();
+        try {
+            log.debug("✉️ Websocket Frame Received");
+            tickRingBuffer.publish(payload, receivedAtMicros);
+        } catch (Exception e) {
+            log.error("❌ Failed to process WebSocket frame of {} bytes", payload.remaining(), e);
+        }
+    }
+
+    private String buildSubscribeMessage(Collection<String> productIds) {
         //todo build out option to sub to other channels
         if (authenticated) {
             return buildAuthenticatedSubscribeMessage(productIds);
         }
+        return buildChannelMessage("subscribe", productIds);
+    }
 
-        // Convert list to JSON array format
-        String productIdsJson =  "[\"" + String.join("\",\"", productIds) + "\"]";
+    String buildChannelMessage(String type, Collection<String> productIds) {
+        return channelMessage(type, productIds).toString();
+    }
 
-        return String.format("""
-        {"type": "subscribe", "channels": [{ "name": "ticker", "product_ids": %s }]}
-        """, productIdsJson);
+    private ObjectNode channelMessage(String type, Collection<String> productIds) {
+        ObjectNode message = objectMapper.createObjectNode().put("type", type);
+        ArrayNode ids = message.putArray("channels").addObject()
+            .put("name", "ticker")
+            .putArray("product_ids");
+        productIds.forEach(ids::add);
+        return message;
     }
+
     /**
      * Builds an authenticated subscribe message for the Coinbase WebSocket feed.
      * @return JSON string for subscription with authentication fields
      */
-    private String buildAuthenticatedSubscribeMessage(List<String> productIds) {
+    private String buildAuthenticatedSubscribeMessage(Collection<String> productIds) {
         try {
             String timestamp = String.valueOf(Instant.now().getEpochSecond());
             String method = "GET";
@@ -138,20 +186,12 @@ public class CoinbaseWebsocketClient implements ExchangeConnectorWebsocketClient
             String prehash = timestamp + method + requestPath;
             String signature = generateSignature(prehash, apiSecret);
 
-            // Convert list to JSON array format
-            String productIdsJson = productIds.isEmpty() ?
-                    "[\"BTC-USD\",\"ETH-USD\"]" :
-                    "[\"" + String.join("\",\"", productIds) + "\"]";
-
-            return String.format("""
-            {"type": "subscribe",
-             "channels": [{ "name": "ticker", "product_ids": %s }],
-             "signature": "%s",
-             "key": "%s",
-             "passphrase": "%s",
-             "timestamp": "%s"
-            }
-            """, productIdsJson, signature, apiKey, passphrase, timestamp);
+            return channelMessage("subscribe", productIds.isEmpty() ? List.of("BTC-USD", "ETH-USD") : productIds)
+                .put("signature", signature)
+                .put("key", apiKey)
+                .put("passphrase", passphrase)
+                .put("timestamp", timestamp)
+                .toString();
         } catch (Exception e) {
             log.error("❌ Failed to build authenticated subscribe message", e);
             throw new RuntimeException("Failed to build authenticated subscribe message", e);
@@ -224,4 +264,71 @@ public class CoinbaseWebsocketClient implements ExchangeConnectorWebsocketClient
         }
     }
 
+    /**
+     * Subscribes to the symbols not already subscribed with one incremental {@code subscribe} message.
+     * While disconnected the symbols are only added to the set, which is subscribed in full on the next connect.
+     * @param symbols symbols to add
+     * @return the symbols that were added
+     * @throws IllegalArgumentException if a symbol is not a product id, in which case nothing is subscribed
+     */
+    @Override
+    public Set<String> subscribe(Collection<String> symbols) {
+        requireProductIds(symbols);
+        synchronized (subscribedSymbols) {
+            Set<String> added = new LinkedHashSet<>();
+            for (String symbol : symbols) {
+                if (subscribedSymbols.add(symbol)) {
+                    added.add(symbol);
+                }
+            }
+            if (!added.isEmpty() && connected) {
+                sendMessage(buildSubscribeMessage(added));
+            }
+            log.info("✅ Subscribed to {}, now streaming {}", added, subscribedSymbols);
+            return added;
+        }
+    }
+
+    /**
+     * Unsubscribes from the subscribed symbols with one incremental {@code unsubscribe} message, leaving the
+     * other symbols on the connection untouched.
+     * @param symbols symbols to remove
+     * @return the symbols that were removed
+     * @throws IllegalArgumentException if a symbol is not a product id, in which case nothing is unsubscribed
+     */
+    @Override
+    public Set<String> unsubscribe(Collection<String> symbols) {
+        requireProductIds(symbols);
+        synchronized (subscribedSymbols) {
+            Set<String> removed = new LinkedHashSet<>();
+            for (String symbol : symbols) {
+                if (subscribedSymbols.remove(symbol)) {
+                    removed.add(symbol);
+                }
+            }
+            if (!removed.isEmpty() && connected) {
+                sendMessage(buildChannelMessage("unsubscribe", removed));
+            }
+            log.info("✅ Unsubscribed from {}, now streaming {}", removed, subscribedSymbols);
+            return removed;
+        }
+    }
+
+    private static void requireProductIds(Collection<String> symbols) {
+        for (String symbol : symbols) {
+            if (!isValidProductId(symbol)) {
+                throw new IllegalArgumentException("Not a Coinbase product id: " + symbol);
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the subscribed symbols
+     */
+    @Override
+    public Set<String> getSubscribedSymbols() {
+        synchronized (subscribedSymbols) {
+            return new LinkedHashSet<>(subscribedSymbols);
+        }
+    }
 }
@@ -1,7 +1,8 @@
 package com.fedelis.centinel.monitor.client;
 
 import java.net.URISyntaxException;
-import java.util.List;
+import java.util.Collection;
+import java.util.Set;
 
 /**
  * Blueprint interface for WebSocket clients streaming market data from exchanges.
@@ -9,10 +10,10 @@ import java.util.List;
  */
 public interface ExchangeConnectorWebsocketClient {
     /**
-     * Connects to the exchange WebSocket feed and starts streaming data.
+     * Connects to the exchange WebSocket feed and starts streaming the symbols in the subscription set.
      * @throws URISyntaxException if connection fails
      */
-    void connect(List<String> symbols) throws URISyntaxException;
+    void connect() throws URISyntaxException;
 
     /**
      * Disconnects from the exchange WebSocket feed.
@@ -30,4 +31,22 @@ public interface ExchangeConnectorWebsocketClient {
      * @param message the message to send
      */
     void sendMessage(String message);
+
+    /**
+     * Adds symbols to the subscription set, subscribing to them on the open connection without reconnecting.
+     * The set is resubscribed in full whenever the connection opens.
+     * @return the symbols that were not subscribed before
+     */
+    Set<String> subscribe(Collection<String> symbols);
+
+    /**
+     * Removes symbols from the subscription set, unsubscribing from them on the open connection.
+     * @return the symbols that were subscribed before
+     */
+    Set<String> unsubscribe(Collection<String> symbols);
+
+    /**
+     * @return a snapshot of the symbols the client is, or will be once connected, subscribed to
+     */
+    Set<String> getSubscribedSymbols();
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.fedelis.centinel.monitor.client;
+
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.enums.Opcode;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.framing.Framedata;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * RFC 6455 draft that hands the payload of complete text frames to a callback as raw bytes, instead of decoding
+ * them into a String for {@code onMessage(String)}. Fragmented text messages and every other frame type take the
+ * regular path. The payload buffer is only valid during the callback.
+ */
+public class RawTextFrameDraft extends Draft_6455 {
+
+    private final Consumer<ByteBuffer> textFrameHandler;
+
+    public RawTextFrameDraft(Consumer<ByteBuffer> textFrameHandler) {
+        this.textFrameHandler = textFrameHandler;
+    }
+
+    @Override
+    public void processFrame(WebSocketImpl webSocketImpl, Framedata frame) throws InvalidDataException {
+        if (frame.getOpcode() == Opcode.TEXT && frame.isFin()) {
+            textFrameHandler.accept(frame.getPayloadData());
+            return;
+        }
+        super.processFrame(webSocketImpl, frame);
+    }
+
+    // Every connection gets its own copy of the draft
+    @Override
+    public Draft copyInstance() {
+        return new RawTextFrameDraft(textFrameHandler);
+    }
+}
@@ -1,7 +1,9 @@
 package com.fedelis.centinel.monitor.config;
 
 import com.fedelis.centinel.monitor.model.MarketDataEvent;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -14,12 +16,25 @@ import org.springframework.kafka.support.serializer.JsonSerializer;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Kafka producers of the monitor service, one per topic, each tuned by the {@link ProducerProfile} selected
+ * for that topic under {@code kafka.producer.profile}.
+ */
 @Configuration
 public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
+    @Value("${kafka.topic.market-data:coinbase-market-data}")
+    private String marketDataTopic;
+    @Value("${kafka.topic.market-data-raw:coinbase-market-data-raw}")
+    private String rawTopic;
+    @Value("${kafka.producer.profile.market-data:BALANCED}")
+    private ProducerProfile marketDataProfile;
+    @Value("${kafka.producer.profile.market-data-raw:HIGH_THROUGHPUT}")
+    private ProducerProfile rawProfile;
+
     @Bean
-    public ProducerFactory<String, MarketDataEvent> producerFactory() {
+    public ProducerFactory<String, MarketDataEvent> producerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> configMap = new HashMap<>();
         configMap.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configMap.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
@@ -27,20 +42,37 @@ public class KafkaProducerConfig {
         
         configMap.put(JsonSerializer.TYPE_MAPPINGS, "market-data:com.fedelis.centinel.monitor.model.MarketDataEvent");
         configMap.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configMap.put(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG, ProducedAtInterceptor.class.getName());
         
-        // Optimize for low-latency financial data
-        configMap.put(ProducerConfig.ACKS_CONFIG, "1"); // Fast acknowledgment
-        configMap.put(ProducerConfig.RETRIES_CONFIG, 3);
-        configMap.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
-        configMap.put(ProducerConfig.LINGER_MS_CONFIG, 5); // Low latency
-        configMap.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
-
-        return new DefaultKafkaProducerFactory<>(configMap);
+        // Ticks are latency sensitive but highly repetitive, the balanced profile compresses them with lz4
+        marketDataProfile.apply(configMap);
+
+        return marketDataProfile.instrument(new DefaultKafkaProducerFactory<>(configMap), meterRegistry, marketDataTopic);
+    }
+
+    @Bean
+    public KafkaTemplate<String, MarketDataEvent> kafkaTemplate(ProducerFactory<String, MarketDataEvent> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * Producer for the raw archive topic: values are the exact bytes received from the exchange, with
+     * metadata in headers instead of a JSON envelope.
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> rawProducerFactory(MeterRegistry meterRegistry) {
+        Map<String, Object> configMap = new HashMap<>();
+        configMap.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configMap.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configMap.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        configMap.put(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG, ProducedAtInterceptor.class.getName());
+        rawProfile.apply(configMap);
+        return rawProfile.instrument(new DefaultKafkaProducerFactory<>(configMap), meterRegistry, rawTopic);
     }
 
     @Bean
-    public KafkaTemplate<String, MarketDataEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, byte[]> rawKafkaTemplate(ProducerFactory<String, byte[]> rawProducerFactory) {
+        return new KafkaTemplate<>(rawProducerFactory);
     }
 
 }
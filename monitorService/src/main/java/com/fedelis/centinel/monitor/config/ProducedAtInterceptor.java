@@ -0,0 +1,35 @@
+package com.fedelis.centinel.monitor.config;
+
+import com.fedelis.centinel.monitor.model.TraceHeaders;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.Map;
+
+/**
+ * Stamps {@link TraceHeaders#PRODUCED_AT} when the producer accepts a record, after any time spent in the ring,
+ * the journal or the template, so the receive to produce stage covers everything the monitor does with a tick.
+ * Runs on the sending thread, before the record's headers become read-only.
+ */
+public class ProducedAtInterceptor implements ProducerInterceptor<Object, Object> {
+
+    @Override
+    public ProducerRecord<Object, Object> onSend(ProducerRecord<Object, Object> record) {
+        record.headers().remove(TraceHeaders.PRODUCED_AT);
+        record.headers().add(TraceHeaders.PRODUCED_AT, TraceHeaders.encode(TraceHeaders.nowMicros()));
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
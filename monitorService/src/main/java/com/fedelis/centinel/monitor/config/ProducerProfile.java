@@ -0,0 +1,78 @@
+package com.fedelis.centinel.monitor.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.MicrometerProducerListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Named Kafka producer tuning profiles, selected per topic with {@code kafka.producer.profile.*}.
+ *
+ * Every profile is idempotent with {@code acks=all}, so retries can neither lose nor reorder records; they only
+ * differ in how long records wait to fill a batch and how batches are compressed. Producers built from a profile
+ * publish the Kafka client metrics tagged with {@code profile}, including {@code kafka.producer.batch.size.avg}
+ * and {@code kafka.producer.compression.rate.avg}.
+ *
+ * The monitor, analysis and generator services build separately and each have this enum, so the generated load and
+ * every live producer are tuned alike. Only the package line may differ, see {@code SharedSourcesTests} in the
+ * monitor service.
+ */
+public enum ProducerProfile {
+
+    /** Sends as soon as a record arrives, uncompressed. For small records where every millisecond counts. */
+    LOW_LATENCY(0, 16_384, "none", 33_554_432L),
+
+    /** A short linger with lz4, which is cheap enough for the live tick stream and shrinks ticks severalfold. */
+    BALANCED(5, 65_536, "lz4", 33_554_432L),
+
+    /** Long lingers, large batches and zstd, for archives where broker disk and network cost more than latency. */
+    HIGH_THROUGHPUT(50, 524_288, "zstd", 67_108_864L);
+
+    private final int lingerMs;
+    private final int batchSize;
+    private final String compressionType;
+    private final long bufferMemory;
+
+    ProducerProfile(int lingerMs, int batchSize, String compressionType, long bufferMemory) {
+        this.lingerMs = lingerMs;
+        this.batchSize = batchSize;
+        this.compressionType = compressionType;
+        this.bufferMemory = bufferMemory;
+    }
+
+    /**
+     * Adds this profile's settings to a producer configuration.
+     * @return the same configuration map
+     */
+    public Map<String, Object> apply(Map<String, Object> config) {
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120_000);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        return config;
+    }
+
+    /**
+     * Registers the producer's client metrics, tagged with this profile and the topic it serves.
+     */
+    public <K, V> DefaultKafkaProducerFactory<K, V> instrument(DefaultKafkaProducerFactory<K, V> producerFactory,
+                                                               MeterRegistry meterRegistry, String topic) {
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry,
+            List.of(Tag.of("profile", tagValue()), Tag.of("topic", topic))));
+        return producerFactory;
+    }
+
+    public String tagValue() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,59 @@
+package com.fedelis.centinel.monitor.endpoint;
+
+import com.fedelis.centinel.monitor.client.CoinbaseWebsocketClient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Actuator endpoint for changing the streamed symbols on the live connection:
+ * <ul>
+ *     <li>{@code GET /actuator/subscriptions} lists the subscribed symbols</li>
+ *     <li>{@code POST /actuator/subscriptions/{symbol}} subscribes to a symbol</li>
+ *     <li>{@code DELETE /actuator/subscriptions/{symbol}} unsubscribes from it</li>
+ * </ul>
+ * Changes last until the next change of {@code market.data.symbols}, which replaces the whole set. Symbols must be
+ * Coinbase product ids such as {@code BTC-USD}, anything else is refused with a 400.
+ */
+@Component
+@Endpoint(id = "subscriptions")
+@RequiredArgsConstructor
+public class SubscriptionsEndpoint {
+
+    private final CoinbaseWebsocketClient coinbaseClient;
+
+    @ReadOperation
+    public Set<String> subscriptions() {
+        return coinbaseClient.getSubscribedSymbols();
+    }
+
+    @WriteOperation
+    public Set<String> subscribe(@Selector String symbol) {
+        requireProductId(symbol);
+        coinbaseClient.subscribe(List.of(symbol));
+        return coinbaseClient.getSubscribedSymbols();
+    }
+
+    @DeleteOperation
+    public Set<String> unsubscribe(@Selector String symbol) {
+        requireProductId(symbol);
+        coinbaseClient.unsubscribe(List.of(symbol));
+        return coinbaseClient.getSubscribedSymbols();
+    }
+
+    // Answered with a 400 instead of the client's IllegalArgumentException turning into a 500
+    private static void requireProductId(String symbol) {
+        if (!CoinbaseWebsocketClient.isValidProductId(symbol)) {
+            throw new InvalidEndpointRequestException("Not a Coinbase product id: " + symbol,
+                "Symbols look like BTC-USD");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.fedelis.centinel.monitor.model;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Kafka header names used to carry latency trace timestamps along the market data path.
+ * Values are epoch microseconds encoded as 8-byte big-endian longs.
+ *
+ * The monitor and analysis services each carry a copy of this class, as they build and ship separately. The copies
+ * differ only in their package, which {@code SharedSourcesTests} in the monitor service checks.
+ */
+public final class TraceHeaders {
+
+    /** When the WebSocket frame was handed to onMessage. */
+    public static final String RECEIVED_AT = "centinel-received-at";
+
+    /** When the record was handed to the Kafka producer. */
+    public static final String PRODUCED_AT = "centinel-produced-at";
+
+    /** The exchange a raw record came from, UTF-8, in place of the JSON envelope's source field. */
+    public static final String SOURCE = "centinel-source";
+
+    private TraceHeaders() {
+    }
+
+    /**
+     * @return the current wall clock time in epoch microseconds
+     */
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    public static byte[] encode(long epochMicros) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(epochMicros).array();
+    }
+
+    /**
+     * @return the decoded timestamp, or 0 if the header is missing or malformed
+     */
+    public static long decode(byte[] value) {
+        return value != null && value.length == Long.BYTES ? ByteBuffer.wrap(value).getLong() : 0L;
+    }
+}
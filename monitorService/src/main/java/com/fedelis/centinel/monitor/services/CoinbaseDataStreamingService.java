@@ -1,15 +1,20 @@
 package com.fedelis.centinel.monitor.services;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fedelis.centinel.monitor.client.CoinbaseWebsocketClient;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 @Service
@@ -17,11 +22,25 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class CoinbaseDataStreamingService {
 
+    private static final String SYMBOLS_PROPERTY = "market.data.symbols";
+
     private final CoinbaseWebsocketClient coinbaseClient;
+    private final Environment environment;
 
     @Value("${market.data.symbols:BTC-USD}")
     private String assetSymbolsString;
 
+    /**
+     * Seeds the subscription set with the configured symbols before anything else can change it. The connection is
+     * opened later and asynchronously, and subscribes to the set as it is by then, so a symbol change that arrives
+     * in between is kept rather than overwritten by the startup value.
+     * @throws IllegalArgumentException if a configured symbol is not a Coinbase product id
+     */
+    @PostConstruct
+    public void seedSubscriptions() {
+        coinbaseClient.subscribe(parseSymbols(assetSymbolsString));
+    }
+
     /**
      * Starts the market data streaming process.
      * Connects to Coinbase WebSocket and begins processing messages.
@@ -29,11 +48,9 @@ public class CoinbaseDataStreamingService {
     @Async
     public CompletableFuture<Void> startStreaming() {
         try {
-            List<String> assetSymbols = Arrays.asList(assetSymbolsString.split(","));
-            log.info("Starting market data streaming for symbols: {}", assetSymbols);
-            
-            // Connect with the specified symbols
-            coinbaseClient.connect(assetSymbols);
+            log.info("Starting market data streaming for symbols: {}", coinbaseClient.getSubscribedSymbols());
+
+            coinbaseClient.connect();
 
             log.info("Market data streaming started successfully");
             return CompletableFuture.completedFuture(null);
@@ -51,4 +68,49 @@ public class CoinbaseDataStreamingService {
         log.info("Stopping market data streaming");
         coinbaseClient.disconnect();
     }
+
+    /**
+     * Moves the live connection to the given symbols with incremental subscribe and unsubscribe messages.
+     * Symbols present in both the old and new sets keep streaming uninterrupted.
+     * @param symbols the complete set of symbols to stream
+     */
+    public synchronized void updateSymbols(List<String> symbols) {
+        Set<String> target = new LinkedHashSet<>(symbols);
+        Set<String> removed = coinbaseClient.getSubscribedSymbols();
+        removed.removeAll(target);
+        if (!removed.isEmpty()) {
+            coinbaseClient.unsubscribe(removed);
+        }
+        coinbaseClient.subscribe(target);
+    }
+
+    /**
+     * Applies a change of {@code market.data.symbols}, e.g. from the Zookeeper config watcher, to the live connection.
+     */
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (!event.getKeys().contains(SYMBOLS_PROPERTY)) {
+            return;
+        }
+        List<String> symbols = parseSymbols(environment.getProperty(SYMBOLS_PROPERTY, ""));
+        if (symbols.isEmpty()) {
+            log.warn("⚠️ Ignoring empty {}, keeping {}", SYMBOLS_PROPERTY, coinbaseClient.getSubscribedSymbols());
+            return;
+        }
+        List<String> invalid = symbols.stream().filter(s -> !CoinbaseWebsocketClient.isValidProductId(s)).toList();
+        if (!invalid.isEmpty()) {
+            log.error("❌ Ignoring {}={}, {} are not product ids, keeping {}", SYMBOLS_PROPERTY, symbols, invalid,
+                coinbaseClient.getSubscribedSymbols());
+            return;
+        }
+        log.info("🔄 {} changed to {}", SYMBOLS_PROPERTY, symbols);
+        updateSymbols(symbols);
+    }
+
+    private static List<String> parseSymbols(String symbols) {
+        return Arrays.stream(symbols.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .toList();
+    }
 }
@@ -0,0 +1,164 @@
+package com.fedelis.centinel.monitor.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tails the {@link TickJournal} into Kafka on its own thread.
+ *
+ * Entries are sent in batches of whatever has accumulated, up to {@code journal.forwarder.max-batch}, and the
+ * journal cursor only moves once Kafka has acknowledged the whole batch. If any send fails the forwarder backs
+ * off and resends from the cursor, so during a broker outage ticks pile up in the journal and are forwarded in
+ * order once it is back. A batch that partly succeeded is sent again in full, so delivery is at least once; the
+ * analysis service's idempotent inserts absorb the duplicates. A batch is only sent again once none of its sends
+ * is pending any more, so a slow broker is waited for rather than flooded with copies.
+ */
+@Service
+@Slf4j
+public class JournalForwarder {
+
+    private final TickJournal tickJournal;
+    private final MarketDataPublisher marketDataPublisher;
+    private final String source;
+    private final int maxBatch;
+    private final long idleParkNanos;
+    private final long sendTimeoutMs;
+    private final long maxBackoffMs;
+    private volatile boolean running;
+    private Thread forwarderThread;
+
+    public JournalForwarder(
+        TickJournal tickJournal,
+        MarketDataPublisher marketDataPublisher,
+        @Value("${market.data.source:coinbase}") String source,
+        @Value("${journal.forwarder.max-batch:1000}") int maxBatch,
+        @Value("${journal.forwarder.idle-park-micros:100}") long idleParkMicros,
+        @Value("${journal.forwarder.send-timeout-ms:10000}") long sendTimeoutMs,
+        @Value("${journal.forwarder.max-backoff-ms:5000}") long maxBackoffMs
+    ) {
+        this.tickJournal = tickJournal;
+        this.marketDataPublisher = marketDataPublisher;
+        this.source = source;
+        this.maxBatch = maxBatch;
+        this.idleParkNanos = TimeUnit.MICROSECONDS.toNanos(idleParkMicros);
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startForwarding() {
+        if (!tickJournal.isEnabled()) {
+            return;
+        }
+        running = true;
+        forwarderThread = Thread.ofPlatform().name("journal-forwarder").start(this::forward);
+    }
+
+    @PreDestroy
+    public void stopForwarding() throws InterruptedException {
+        running = false;
+        if (forwarderThread != null) {
+            forwarderThread.join(sendTimeoutMs);
+        }
+    }
+
+    private void forward() {
+        TickJournal.Reader reader = tickJournal.reader(tickJournal.getForwardedIndex());
+        List<TickJournal.Entry> batch = new ArrayList<>(maxBatch);
+        List<CompletableFuture<?>> sends = new ArrayList<>(maxBatch);
+        long backoffMs = 100;
+        boolean outage = false;
+        log.info("🔄 Forwarding tick journal to Kafka from entry {}", tickJournal.getForwardedIndex());
+
+        while (running) {
+            batch.clear();
+            TickJournal.Entry entry;
+            while (batch.size() < maxBatch && (entry = reader.next()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(idleParkNanos);
+                continue;
+            }
+
+            sends.clear();
+            Exception failure = null;
+            try {
+                for (TickJournal.Entry journaled : batch) {
+                    sends.add(marketDataPublisher.publish(journaled.message(), source, journaled.receivedAtMicros()));
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+            try {
+                // Never resend while part of the batch may still be in flight
+                if (!awaitSends(sends)) {
+                    return;
+                }
+                if (failure == null) {
+                    CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                failure = e;
+            }
+
+            if (failure == null) {
+                tickJournal.commitForwarded(batch.getLast().index() + 1);
+                if (outage) {
+                    log.info("✅ Kafka is reachable again, forwarding journal backlog from entry {}", batch.getFirst().index());
+                    outage = false;
+                    backoffMs = 100;
+                }
+            } else {
+                if (!outage) {
+                    log.warn("⚠️ Kafka publish failed, buffering ticks in the journal: {}", failure.getMessage());
+                    outage = true;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs));
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+                reader = tickJournal.reader(tickJournal.getForwardedIndex());
+            }
+        }
+    }
+
+    /**
+     * Waits until every send has succeeded or failed. A send still pending after {@code send-timeout-ms} is not
+     * given up on, as the producer completes it within its {@code delivery.timeout.ms} (two minutes) either way;
+     * sending the batch again behind it would only queue a second copy of every tick in the producer.
+     * @return false if the forwarder was stopped while waiting
+     */
+    private boolean awaitSends(List<CompletableFuture<?>> sends) throws InterruptedException {
+        CompletableFuture<Void> settled = CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]));
+        long waitedMs = 0;
+        while (true) {
+            try {
+                settled.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (ExecutionException e) {
+                // allOf only fails once every send has completed
+                return true;
+            } catch (TimeoutException e) {
+                if (!running) {
+                    return false;
+                }
+                waitedMs += sendTimeoutMs;
+                log.warn("⚠️ Kafka has not acknowledged {} ticks after {} ms, still waiting", sends.size(), waitedMs);
+            }
+        }
+    }
+}
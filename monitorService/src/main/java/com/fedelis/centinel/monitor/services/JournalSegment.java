@@ -0,0 +1,93 @@
+package com.fedelis.centinel.monitor.services;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One memory-mapped, fixed-size file of the tick journal. Entries are laid out back to back from offset 0:
+ * <pre>
+ * int    payload length, written last so a half-written entry reads as the end of the journal
+ * long   received-at timestamp, epoch microseconds
+ * byte[] UTF-8 payload
+ * </pre>
+ * A length of {@link #END_OF_SEGMENT} marks that the journal continues in the next segment, and a length of 0
+ * is space that has not been written yet. The mapping lives off-heap in its own arena and is released when the
+ * segment is closed rather than whenever the buffer is garbage collected.
+ */
+final class JournalSegment implements AutoCloseable {
+
+    static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    static final int END_OF_SEGMENT = -1;
+
+    private final long baseIndex;
+    private final Path path;
+    private final Arena arena;
+    private final MemorySegment memory;
+
+    private JournalSegment(long baseIndex, Path path, Arena arena, MemorySegment memory) {
+        this.baseIndex = baseIndex;
+        this.path = path;
+        this.arena = arena;
+        this.memory = memory;
+    }
+
+    /**
+     * Maps a segment file, creating it with {@code size} bytes if it does not exist yet.
+     */
+    static JournalSegment open(Path path, long baseIndex, int size) throws IOException {
+        long mappedSize = Files.exists(path) && Files.size(path) > 0 ? Files.size(path) : size;
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return new JournalSegment(baseIndex, path, arena, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize, arena));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    long getBaseIndex() {
+        return baseIndex;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int capacity() {
+        return (int) memory.byteSize();
+    }
+
+    /**
+     * @return the mapped file, for copying entries in from other native memory
+     */
+    MemorySegment memory() {
+        return memory;
+    }
+
+    /**
+     * @return a view of the mapped file; each caller gets its own position and limit
+     */
+    ByteBuffer buffer() {
+        return memory.asByteBuffer();
+    }
+
+    /**
+     * Flushes written pages to the file, so entries also survive a host crash and not just a process crash.
+     */
+    void force() {
+        memory.force();
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,27 @@
+package com.fedelis.centinel.monitor.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copies every tick from the ring into the {@link TickJournal}, from which the {@link JournalForwarder}
+ * publishes to Kafka.
+ */
+@Component
+@ConditionalOnProperty(name = "journal.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JournalTickHandler implements TickHandler {
+
+    private final TickJournal tickJournal;
+
+    @Override
+    public String getName() {
+        return "journal";
+    }
+
+    @Override
+    public void onTick(TickSlot slot, boolean endOfBatch) {
+        tickJournal.append(slot);
+    }
+}
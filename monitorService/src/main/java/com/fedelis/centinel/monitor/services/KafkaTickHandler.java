@@ -0,0 +1,37 @@
+package com.fedelis.centinel.monitor.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes every tick from the ring straight to Kafka when the journal is disabled.
+ */
+@Component
+@ConditionalOnProperty(name = "journal.enabled", havingValue = "false")
+@Slf4j
+public class KafkaTickHandler implements TickHandler {
+
+    private final MarketDataPublisher marketDataPublisher;
+    private final String source;
+
+    public KafkaTickHandler(
+        MarketDataPublisher marketDataPublisher,
+        @Value("${market.data.source:coinbase}") String source
+    ) {
+        this.marketDataPublisher = marketDataPublisher;
+        this.source = source;
+    }
+
+    @Override
+    public String getName() {
+        return "kafka";
+    }
+
+    @Override
+    public void onTick(TickSlot slot, boolean endOfBatch) {
+        marketDataPublisher.publish(slot.getMessage(), source, slot.getReceivedAtMicros());
+        log.debug("✉️ Sent market data event to Kafka");
+    }
+}
@@ -0,0 +1,74 @@
+package com.fedelis.centinel.monitor.services;
+
+import com.fedelis.centinel.monitor.model.MarketDataEvent;
+import com.fedelis.centinel.monitor.model.TraceHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes raw exchange messages to the market data topic, keyed by product so each product's ticks stay
+ * ordered on one partition, which is also what lets the analysis service hand per-product state over with
+ * the partition. Every record carries the trace headers used for end-to-end latency.
+ */
+@Service
+@Slf4j
+public class MarketDataPublisher {
+
+    private final KafkaTemplate<String, MarketDataEvent> kafkaTemplate;
+    private final LatencyRecorder latencyRecorder;
+    private final String kafkaTopic;
+
+    public MarketDataPublisher(
+        KafkaTemplate<String, MarketDataEvent> kafkaTemplate,
+        LatencyRecorder latencyRecorder,
+        @Value("${kafka.topic.market-data:coinbase-market-data}") String kafkaTopic
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.latencyRecorder = latencyRecorder;
+        this.kafkaTopic = kafkaTopic;
+    }
+
+    /**
+     * @param message the raw exchange message
+     * @param source the exchange the message came from
+     * @param receivedAtMicros when the message was received from the exchange, in epoch microseconds
+     * @return the pending send
+     */
+    public CompletableFuture<SendResult<String, MarketDataEvent>> publish(String message, String source,
+                                                                          long receivedAtMicros) {
+        String productId = extractProductId(message);
+        ProducerRecord<String, MarketDataEvent> record =
+            new ProducerRecord<>(kafkaTopic, productId, new MarketDataEvent(message, source));
+        record.headers().add(TraceHeaders.RECEIVED_AT, TraceHeaders.encode(receivedAtMicros));
+        // PRODUCED_AT is stamped by ProducedAtInterceptor once the producer accepts the record
+        return kafkaTemplate.send(record).whenComplete((result, throwable) -> {
+            Header producedAt = record.headers().lastHeader(TraceHeaders.PRODUCED_AT);
+            if (throwable == null && producedAt != null) {
+                latencyRecorder.record("produce_ack", productId,
+                    (TraceHeaders.nowMicros() - TraceHeaders.decode(producedAt.value())) * 1_000);
+            }
+        });
+    }
+
+    /**
+     * Pulls product_id out of a ticker message with a plain string scan, so keying and latency tagging
+     * do not cost a JSON parse per message.
+     * @return the product id, or null if the message has none
+     */
+    private static String extractProductId(String message) {
+        int start = message.indexOf("\"product_id\":\"");
+        if (start < 0) {
+            return null;
+        }
+        start += "\"product_id\":\"".length();
+        int end = message.indexOf('"', start);
+        return end > start ? message.substring(start, end) : null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.fedelis.centinel.monitor.services;
+
+import com.fedelis.centinel.monitor.model.TraceHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Archives every tick to {@code kafka.topic.market-data-raw} as the exact bytes received from the exchange.
+ * There is no JSON envelope: the value goes out through a {@code ByteArraySerializer}, keyed by product, with
+ * the source and trace timestamps as headers. The only copy is the one out of the ring slot, which Kafka needs
+ * since the slot is reused.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka.raw-archive.enabled", havingValue = "true")
+@Slf4j
+public class RawArchiveTickHandler implements TickHandler {
+
+    private final KafkaTemplate<String, byte[]> rawKafkaTemplate;
+    private final String topic;
+    private final byte[] source;
+
+    public RawArchiveTickHandler(
+        KafkaTemplate<String, byte[]> rawKafkaTemplate,
+        @Value("${kafka.topic.market-data-raw:coinbase-market-data-raw}") String topic,
+        @Value("${market.data.source:coinbase}") String source
+    ) {
+        this.rawKafkaTemplate = rawKafkaTemplate;
+        this.topic = topic;
+        this.source = source.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getName() {
+        return "raw-archive";
+    }
+
+    @Override
+    public void onTick(TickSlot slot, boolean endOfBatch) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, slot.getProductId(), slot.getMessageBytes());
+        record.headers().add(TraceHeaders.SOURCE, source);
+        record.headers().add(TraceHeaders.RECEIVED_AT, TraceHeaders.encode(slot.getReceivedAtMicros()));
+        rawKafkaTemplate.send(record).whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                log.error("❌ Failed to archive raw tick to {}: {}", topic, throwable.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.fedelis.centinel.monitor.services;
+
+/**
+ * A stage that consumes every tick published to the {@link TickRingBuffer}. Each handler bean runs on its own
+ * thread with its own cursor into the ring, and the WebSocket thread never overwrites a slot a handler has not
+ * finished with.
+ */
+public interface TickHandler {
+
+    /**
+     * @return the handler name, used for its thread and metrics
+     */
+    String getName();
+
+    /**
+     * Handles one tick. The slot is only valid for the duration of the call. If this throws, the same tick is handed
+     * over again after a back off, so whatever the failed call already did must be safe to repeat.
+     * @param slot the tick
+     * @param endOfBatch whether this is the last tick currently available, a good point to flush
+     */
+    void onTick(TickSlot slot, boolean endOfBatch) throws Exception;
+}
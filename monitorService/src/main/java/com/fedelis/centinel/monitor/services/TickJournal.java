@@ -0,0 +1,337 @@
+package com.fedelis.centinel.monitor.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Durable, append-only journal of received exchange messages, so a Kafka outage does not lose ticks.
+ *
+ * Messages are copied or encoded straight into memory-mapped segment files of {@code journal.segment-bytes} each, named
+ * after the index of their first entry. Appends touch neither the heap nor a system call, and the page cache
+ * keeps them through a process crash; mapped pages are also forced to disk every {@code journal.force-interval-ms}.
+ * The {@link JournalForwarder} tails the journal into Kafka and commits how far Kafka has acknowledged to a
+ * mapped cursor file, after which fully forwarded segments are deleted. On restart the last segment is scanned
+ * to find the end of the journal and forwarding resumes from the cursor.
+ *
+ * There is a single writer, the journal's tick handler, and a single reader, the forwarder. Entries are published to
+ * the reader by the volatile write of the next index after the entry is complete.
+ */
+@Service
+@Slf4j
+public class TickJournal {
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CURSOR_FILE = "forwarded.cursor";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentSkipListMap<Long, JournalSegment> segments = new ConcurrentSkipListMap<>();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private volatile JournalSegment writeSegment;
+    private ByteBuffer writeBuffer;
+    private int writePosition;
+    private volatile long nextIndex;
+
+    private Arena cursorArena;
+    private MemorySegment cursor;
+    private volatile long forwardedIndex;
+
+    /**
+     * A journaled message.
+     * @param index position in the journal, starting at 0 and never reused
+     * @param receivedAtMicros when the message was received from the exchange, in epoch microseconds
+     * @param message the raw exchange message
+     */
+    public record Entry(long index, long receivedAtMicros, String message) {
+    }
+
+    public TickJournal(
+        MeterRegistry meterRegistry,
+        @Value("${journal.enabled:true}") boolean enabled,
+        @Value("${journal.dir:data/journal}") String directory,
+        @Value("${journal.segment-bytes:67108864}") int segmentBytes
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        cursorArena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(directory.resolve(CURSOR_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            cursor = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES, cursorArena);
+        }
+        forwardedIndex = cursor.get(ValueLayout.JAVA_LONG, 0);
+
+        for (Path path : segmentFiles()) {
+            long baseIndex = Long.parseLong(path.getFileName().toString().replace(SEGMENT_SUFFIX, ""));
+            segments.put(baseIndex, JournalSegment.open(path, baseIndex, segmentBytes));
+        }
+        if (segments.isEmpty()) {
+            startSegment(forwardedIndex);
+        } else {
+            recoverEnd(segments.lastEntry().getValue());
+        }
+        if (forwardedIndex < segments.firstKey()) {
+            forwardedIndex = segments.firstKey();
+        }
+
+        Gauge.builder("centinel.journal.backlog", this, journal -> journal.nextIndex - journal.forwardedIndex)
+            .description("Journaled ticks not yet acknowledged by Kafka")
+            .register(meterRegistry);
+        Gauge.builder("centinel.journal.segments", segments, Map::size)
+            .description("Tick journal segment files on disk")
+            .register(meterRegistry);
+        log.info("✅ Tick journal opened at {}: {} segments, entries {} to {}, forwarded up to {}",
+            directory.toAbsolutePath(), segments.size(), segments.firstKey(), nextIndex, forwardedIndex);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends a message.
+     * @return the index of the new entry
+     */
+    public synchronized long append(String message, long receivedAtMicros) {
+        if (message.isEmpty()) {
+            throw new IllegalArgumentException("Cannot journal an empty message");
+        }
+        // UTF-8 needs at most three bytes per UTF-16 char
+        reserve(message.length() * 3);
+
+        int payloadStart = writePosition + JournalSegment.HEADER_BYTES;
+        writeBuffer.limit(writeBuffer.capacity()).position(payloadStart);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(message), writeBuffer, true);
+        encoder.flush(writeBuffer);
+        return commit(writeBuffer.position() - payloadStart, receivedAtMicros);
+    }
+
+    /**
+     * Appends the message held in a tick ring slot, copying it from the ring's native memory straight into the
+     * mapped segment when it is inline.
+     * @return the index of the new entry
+     */
+    public synchronized long append(TickSlot slot) {
+        if (!slot.isMessageInline()) {
+            return append(slot.getMessage(), slot.getReceivedAtMicros());
+        }
+        int length = slot.getMessageLength();
+        if (length == 0) {
+            throw new IllegalArgumentException("Cannot journal an empty message");
+        }
+        reserve(length);
+        slot.copyMessageTo(writeSegment.memory(), writePosition + JournalSegment.HEADER_BYTES);
+        return commit(length, slot.getReceivedAtMicros());
+    }
+
+    // Makes sure the current segment has room for the entry plus an end-of-segment marker after it
+    private void reserve(int maxPayloadBytes) {
+        int maxEntryBytes = JournalSegment.HEADER_BYTES + maxPayloadBytes + Integer.BYTES;
+        if (maxEntryBytes > segmentBytes) {
+            throw new IllegalArgumentException("Message of up to " + maxPayloadBytes + " bytes does not fit a journal segment");
+        }
+        if (writePosition + maxEntryBytes > writeSegment.capacity()) {
+            writeBuffer.putInt(writePosition, JournalSegment.END_OF_SEGMENT);
+            startSegment(nextIndex);
+        }
+    }
+
+    // The length goes in last, and the volatile index increment publishes the entry to the forwarder
+    private long commit(int length, long receivedAtMicros) {
+        writeBuffer.putLong(writePosition + Integer.BYTES, receivedAtMicros);
+        writeBuffer.putInt(writePosition, length);
+        writePosition += JournalSegment.HEADER_BYTES + length;
+        return nextIndex++;
+    }
+
+    /**
+     * @return a reader positioned at {@code fromIndex}, or at the oldest retained entry if that was already deleted
+     */
+    public Reader reader(long fromIndex) {
+        return new Reader(Math.max(fromIndex, segments.firstKey()));
+    }
+
+    /**
+     * @return the index of the first entry Kafka has not acknowledged yet
+     */
+    public long getForwardedIndex() {
+        return forwardedIndex;
+    }
+
+    /**
+     * Records that every entry below {@code index} was acknowledged by Kafka, and deletes segments that only hold
+     * such entries. Called by the forwarder only.
+     */
+    public void commitForwarded(long index) {
+        cursor.set(ValueLayout.JAVA_LONG, 0, index);
+        forwardedIndex = index;
+        Map.Entry<Long, JournalSegment> oldest = segments.firstEntry();
+        Long next = segments.higherKey(oldest.getKey());
+        while (next != null && next <= index) {
+            segments.remove(oldest.getKey());
+            oldest.getValue().close();
+            try {
+                Files.deleteIfExists(oldest.getValue().getPath());
+            } catch (IOException e) {
+                log.warn("⚠️ Failed to delete forwarded journal segment {}: {}", oldest.getValue().getPath(), e.getMessage());
+            }
+            oldest = segments.firstEntry();
+            next = segments.higherKey(oldest.getKey());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${journal.force-interval-ms:1000}")
+    public void force() {
+        JournalSegment segment = writeSegment;
+        if (segment != null) {
+            segment.force();
+            cursor.force();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!enabled) {
+            return;
+        }
+        force();
+        segments.values().forEach(JournalSegment::close);
+        segments.clear();
+        cursorArena.close();
+        writeSegment = null;
+    }
+
+    private void startSegment(long baseIndex) {
+        try {
+            JournalSegment segment = JournalSegment.open(directory.resolve(segmentName(baseIndex)), baseIndex, segmentBytes);
+            segments.put(baseIndex, segment);
+            writeBuffer = segment.buffer();
+            writePosition = 0;
+            writeSegment = segment;
+            nextIndex = baseIndex;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment " + baseIndex, e);
+        }
+    }
+
+    // Walks the last segment's entries to find where the previous run stopped writing
+    private void recoverEnd(JournalSegment segment) {
+        ByteBuffer buffer = segment.buffer();
+        int position = 0;
+        long index = segment.getBaseIndex();
+        while (position + JournalSegment.HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == JournalSegment.END_OF_SEGMENT) {
+                startSegment(index);
+                return;
+            }
+            if (length <= 0 || position + JournalSegment.HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            position += JournalSegment.HEADER_BYTES + length;
+            index++;
+        }
+        writeSegment = segment;
+        writeBuffer = buffer;
+        writePosition = position;
+        nextIndex = index;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private static String segmentName(long baseIndex) {
+        return String.format("%020d%s", baseIndex, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Sequential reader over the journal. Not thread safe; the forwarder owns one at a time.
+     */
+    public final class Reader {
+
+        private byte[] scratch = new byte[4096];
+        private ByteBuffer buffer;
+        private int position;
+        private long index;
+
+        private Reader(long fromIndex) {
+            Map.Entry<Long, JournalSegment> segment = segments.floorEntry(fromIndex);
+            buffer = segment.getValue().buffer();
+            index = segment.getKey();
+            while (index < fromIndex) {
+                position += JournalSegment.HEADER_BYTES + buffer.getInt(position);
+                index++;
+            }
+        }
+
+        /**
+         * @return the next entry, or null if the reader has caught up with the writer
+         */
+        public Entry next() {
+            if (index >= nextIndex) {
+                return null;
+            }
+            int length = buffer.getInt(position);
+            if (length == JournalSegment.END_OF_SEGMENT) {
+                buffer = segments.get(index).buffer();
+                position = 0;
+                length = buffer.getInt(position);
+            }
+            long receivedAtMicros = buffer.getLong(position + Integer.BYTES);
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(position + JournalSegment.HEADER_BYTES, scratch, 0, length);
+            Entry entry = new Entry(index, receivedAtMicros, new String(scratch, 0, length, StandardCharsets.UTF_8));
+            position += JournalSegment.HEADER_BYTES + length;
+            index++;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.fedelis.centinel.monitor.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Off-heap ring of fixed-size tick slots that fans each received message out to every {@link TickHandler}.
+ *
+ * The WebSocket thread is the single producer. It copies the raw frame bytes (or encodes a String message) into
+ * the next slot once and decodes the fields stages key on (product, exchange sequence, price, best bid and ask)
+ * from those bytes next to it, then publishes the
+ * slot with a volatile write of the ring cursor. Each handler runs on its own thread and follows the cursor with
+ * its own sequence, reading slots in place through a {@link TickSlot} flyweight. A slot is only reused once every
+ * handler is past it; if the slowest handler falls a whole ring behind, the producer waits, so no stage ever
+ * misses a tick. A handler that throws is given the same tick again until it succeeds. Slots live in one native allocation of {@code ring.slots * ring.slot-bytes}, so the per-tick
+ * heap footprint no longer scales with the number of stages.
+ *
+ * Messages longer than a slot are kept on the heap for that slot instead; Coinbase ticker messages are a few
+ * hundred bytes.
+ */
+@Service
+@Slf4j
+public class TickRingBuffer {
+
+    private static final byte[] SEQUENCE_KEY = "\"sequence\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PRICE_KEY = "\"price\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BEST_BID_KEY = "\"best_bid\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BEST_ASK_KEY = "\"best_ask\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PRODUCT_ID_KEY = "\"product_id\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+    private static final long MIN_RETRY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<TickHandler> handlers;
+    private final MeterRegistry meterRegistry;
+    private final int slotBytes;
+    private final int slots;
+    private final int mask;
+    private final long idleParkNanos;
+
+    private final Arena arena;
+    private final MemorySegment memory;
+    private final ByteBuffer writeBuffer;
+    private final byte[][] overflow;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final Counter producerStalls;
+
+    // Product ids are interned to an index once, so slots hold an int and handlers get a shared String back
+    private byte[][] productBytes = new byte[0][];
+    private volatile String[] products = new String[0];
+
+    private volatile long cursor = -1;
+    private long nextSequence;
+    private long cachedMinimumSequence = -1;
+    private final List<HandlerProcessor> processors;
+
+    public TickRingBuffer(
+        List<TickHandler> handlers,
+        MeterRegistry meterRegistry,
+        @Value("${ring.slots:16384}") int slots,
+        @Value("${ring.slot-bytes:1024}") int slotBytes,
+        @Value("${ring.idle-park-micros:50}") long idleParkMicros
+    ) {
+        if (Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("ring.slots must be a power of two, was " + slots);
+        }
+        if (slotBytes % Long.BYTES != 0 || slotBytes <= TickSlot.MESSAGE) {
+            throw new IllegalArgumentException("ring.slot-bytes must be a multiple of 8 above " + TickSlot.MESSAGE);
+        }
+        this.handlers = handlers;
+        this.meterRegistry = meterRegistry;
+        this.slots = slots;
+        this.mask = slots - 1;
+        this.slotBytes = slotBytes;
+        this.idleParkNanos = TimeUnit.MICROSECONDS.toNanos(idleParkMicros);
+        this.arena = Arena.ofShared();
+        this.memory = arena.allocate((long) slots * slotBytes, Long.BYTES);
+        this.writeBuffer = memory.asByteBuffer();
+        this.overflow = new byte[slots][];
+        this.producerStalls = Counter.builder("centinel.ring.producer.stalls")
+            .description("Times the WebSocket thread waited for the slowest tick handler to free a slot")
+            .register(meterRegistry);
+        this.processors = handlers.stream().map(HandlerProcessor::new).toList();
+    }
+
+    @PostConstruct
+    public void start() {
+        processors.forEach(HandlerProcessor::start);
+        log.info("✅ Tick ring started with {} slots of {} bytes for handlers {}", slots, slotBytes,
+            handlers.stream().map(TickHandler::getName).toList());
+    }
+
+    /**
+     * Waits for every handler to finish what was published, then stops them.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (HandlerProcessor processor : processors) {
+            processor.stop();
+        }
+        arena.close();
+    }
+
+    /**
+     * Publishes a received message to every handler. Called from the WebSocket thread only.
+     */
+    public void publish(String message, long receivedAtMicros) {
+        long sequence = nextSequence;
+        waitForSlot(sequence);
+        int index = (int) (sequence & mask);
+        long offset = (long) index * slotBytes;
+
+        // UTF-8 needs at most three bytes per UTF-16 char
+        if (message.length() * 3 <= slotBytes - TickSlot.MESSAGE) {
+            int start = (int) offset + TickSlot.MESSAGE;
+            writeBuffer.limit(start + slotBytes - TickSlot.MESSAGE).position(start);
+            encoder.reset();
+            encoder.encode(CharBuffer.wrap(message), writeBuffer, true);
+            encoder.flush(writeBuffer);
+            writeInline(index, offset, writeBuffer.position() - start, receivedAtMicros);
+        } else {
+            writeOverflow(index, offset, message.getBytes(StandardCharsets.UTF_8), receivedAtMicros);
+        }
+        commit(sequence);
+    }
+
+    /**
+     * Publishes the raw payload of a text frame without decoding it to a String. Called from the WebSocket
+     * thread only; the payload is copied into the slot and can be reused once this returns.
+     */
+    public void publish(ByteBuffer payload, long receivedAtMicros) {
+        long sequence = nextSequence;
+        waitForSlot(sequence);
+        int index = (int) (sequence & mask);
+        long offset = (long) index * slotBytes;
+
+        int length = payload.remaining();
+        if (length <= slotBytes - TickSlot.MESSAGE) {
+            MemorySegment.copy(MemorySegment.ofBuffer(payload), 0, memory, offset + TickSlot.MESSAGE, length);
+            writeInline(index, offset, length, receivedAtMicros);
+        } else {
+            byte[] bytes = new byte[length];
+            payload.get(payload.position(), bytes);
+            writeOverflow(index, offset, bytes, receivedAtMicros);
+        }
+        commit(sequence);
+    }
+
+    String productId(int index) {
+        return index < 0 ? null : products[index];
+    }
+
+    byte[] overflowMessage(long sequence) {
+        return overflow[(int) (sequence & mask)];
+    }
+
+    private void writeInline(int index, long offset, int length, long receivedAtMicros) {
+        memory.set(ValueLayout.JAVA_INT, offset + TickSlot.MESSAGE_LENGTH, length);
+        overflow[index] = null;
+        decodeFields(memory.asSlice(offset + TickSlot.MESSAGE, length), offset, receivedAtMicros);
+    }
+
+    private void writeOverflow(int index, long offset, byte[] message, long receivedAtMicros) {
+        memory.set(ValueLayout.JAVA_INT, offset + TickSlot.MESSAGE_LENGTH, -1);
+        overflow[index] = message;
+        decodeFields(MemorySegment.ofArray(message), offset, receivedAtMicros);
+    }
+
+    private void decodeFields(MemorySegment message, long offset, long receivedAtMicros) {
+        memory.set(ValueLayout.JAVA_LONG, offset + TickSlot.RECEIVED_AT, receivedAtMicros);
+        memory.set(ValueLayout.JAVA_LONG, offset + TickSlot.EXCHANGE_SEQUENCE, longField(message, SEQUENCE_KEY));
+        memory.set(ValueLayout.JAVA_DOUBLE, offset + TickSlot.PRICE, decimalField(message, PRICE_KEY));
+        memory.set(ValueLayout.JAVA_DOUBLE, offset + TickSlot.BEST_BID, decimalField(message, BEST_BID_KEY));
+        memory.set(ValueLayout.JAVA_DOUBLE, offset + TickSlot.BEST_ASK, decimalField(message, BEST_ASK_KEY));
+        memory.set(ValueLayout.JAVA_INT, offset + TickSlot.PRODUCT_INDEX, productIndex(message));
+    }
+
+    private void commit(long sequence) {
+        nextSequence = sequence + 1;
+        cursor = sequence;
+    }
+
+    // The slot for sequence was last used by sequence - slots, which every handler must be done with
+    private void waitForSlot(long sequence) {
+        long wrapPoint = sequence - slots;
+        if (cachedMinimumSequence >= wrapPoint) {
+            return;
+        }
+        long minimum = minimumHandlerSequence();
+        if (minimum < wrapPoint) {
+            producerStalls.increment();
+            while ((minimum = minimumHandlerSequence()) < wrapPoint) {
+                LockSupport.parkNanos(idleParkNanos);
+            }
+        }
+        cachedMinimumSequence = minimum;
+    }
+
+    private long minimumHandlerSequence() {
+        long minimum = cursor;
+        for (HandlerProcessor processor : processors) {
+            minimum = Math.min(minimum, processor.sequence);
+        }
+        return minimum;
+    }
+
+    // Matches the product bytes against the products seen so far, so only a new product allocates a String
+    private int productIndex(MemorySegment message) {
+        int start = valueStart(message, PRODUCT_ID_KEY);
+        if (start < 0) {
+            return -1;
+        }
+        int end = start;
+        while (end < message.byteSize() && message.get(ValueLayout.JAVA_BYTE, end) != '"') {
+            end++;
+        }
+        if (end == start || end == message.byteSize()) {
+            return -1;
+        }
+        MemorySegment value = message.asSlice(start, end - start);
+        for (int i = 0; i < productBytes.length; i++) {
+            if (value.mismatch(MemorySegment.ofArray(productBytes[i])) < 0) {
+                return i;
+            }
+        }
+        byte[] bytes = value.toArray(ValueLayout.JAVA_BYTE);
+        int index = productBytes.length;
+        productBytes = Arrays.copyOf(productBytes, index + 1);
+        productBytes[index] = bytes;
+        String[] grown = Arrays.copyOf(products, index + 1);
+        grown[index] = new String(bytes, StandardCharsets.UTF_8);
+        products = grown;
+        return index;
+    }
+
+    /**
+     * @return the offset just past the key, or -1 if the message does not contain it
+     */
+    private static int valueStart(MemorySegment message, byte[] key) {
+        long last = message.byteSize() - key.length;
+        outer:
+        for (int i = 0; i <= last; i++) {
+            for (int j = 0; j < key.length; j++) {
+                if (message.get(ValueLayout.JAVA_BYTE, i + j) != key[j]) {
+                    continue outer;
+                }
+            }
+            return i + key.length;
+        }
+        return -1;
+    }
+
+    private static long longField(MemorySegment message, byte[] key) {
+        int position = valueStart(message, key);
+        if (position < 0) {
+            return -1;
+        }
+        long value = 0;
+        boolean digits = false;
+        byte b;
+        while (position < message.byteSize() && (b = message.get(ValueLayout.JAVA_BYTE, position)) >= '0' && b <= '9') {
+            value = value * 10 + (b - '0');
+            digits = true;
+            position++;
+        }
+        return digits ? value : -1;
+    }
+
+    // Parses a quoted decimal in place; falls back to Double.parseDouble past 18 significant digits
+    private static double decimalField(MemorySegment message, byte[] key) {
+        int start = valueStart(message, key);
+        if (start < 0) {
+            return Double.NaN;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        boolean negative = false;
+        int position = start;
+        for (; position < message.byteSize(); position++) {
+            byte b = message.get(ValueLayout.JAVA_BYTE, position);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else if (b == '-' && position == start) {
+                negative = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (digits > 18) {
+            byte[] text = message.asSlice(start, position - start).toArray(ValueLayout.JAVA_BYTE);
+            return Double.parseDouble(new String(text, StandardCharsets.US_ASCII));
+        }
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Runs one handler on its own thread, following the ring cursor. A tick the handler throws on is handed to it
+     * again, with a back off of up to a second, until it goes through: the handler stalls rather than skip a tick,
+     * and once it is a ring behind so does the producer. Only a tick still failing while the ring stops is dropped.
+     */
+    private final class HandlerProcessor {
+
+        private final TickHandler handler;
+        private final TickSlot slot;
+        private final Counter failures;
+        private volatile long sequence = -1;
+        private volatile boolean running;
+        private Thread thread;
+
+        private HandlerProcessor(TickHandler handler) {
+            this.handler = handler;
+            this.slot = new TickSlot(TickRingBuffer.this, memory);
+            Gauge.builder("centinel.ring.lag", this, processor -> cursor - processor.sequence)
+                .description("Ticks published to the ring that the handler has not processed yet")
+                .tag("handler", handler.getName())
+                .register(meterRegistry);
+            this.failures = Counter.builder("centinel.ring.handler.failures")
+                .description("Times the handler threw on a tick, which is then retried")
+                .tag("handler", handler.getName())
+                .register(meterRegistry);
+        }
+
+        private void start() {
+            running = true;
+            thread = Thread.ofPlatform().name("tick-handler-" + handler.getName()).start(this::run);
+        }
+
+        private void stop() throws InterruptedException {
+            running = false;
+            if (thread != null) {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        }
+
+        private void run() {
+            long retryBackoffNanos = MIN_RETRY_BACKOFF_NANOS;
+            // Keeps going after a stop until it has caught up with what was published
+            while (running || sequence < cursor) {
+                long available = cursor;
+                if (available <= sequence) {
+                    LockSupport.parkNanos(idleParkNanos);
+                    continue;
+                }
+                long next = sequence + 1;
+                Exception failure = null;
+                for (; next <= available; next++) {
+                    try {
+                        handler.onTick(slot.moveTo(next, (next & mask) * slotBytes), next == available);
+                    } catch (Exception e) {
+                        failure = e;
+                        break;
+                    }
+                }
+                // Frees the slots handled so far at once; a failed tick keeps its slot and is handed over again
+                sequence = next - 1;
+                if (failure == null) {
+                    retryBackoffNanos = MIN_RETRY_BACKOFF_NANOS;
+                    continue;
+                }
+                failures.increment();
+                if (!running) {
+                    log.error("❌ Tick handler {} failed on tick {} while stopping, dropping it: {}", handler.getName(),
+                        next, failure.getMessage(), failure);
+                    sequence = next;
+                    continue;
+                }
+                log.error("❌ Tick handler {} failed on tick {}, retrying in {} ms: {}", handler.getName(), next,
+                    TimeUnit.NANOSECONDS.toMillis(retryBackoffNanos), failure.getMessage(), failure);
+                LockSupport.parkNanos(retryBackoffNanos);
+                retryBackoffNanos = Math.min(retryBackoffNanos * 2, MAX_RETRY_BACKOFF_NANOS);
+            }
+        }
+    }
+}
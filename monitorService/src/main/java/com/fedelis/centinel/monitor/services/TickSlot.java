@@ -0,0 +1,128 @@
+package com.fedelis.centinel.monitor.services;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of one {@link TickRingBuffer} slot. Handlers get a flyweight that is moved from slot to slot,
+ * so reading a tick allocates nothing unless the raw message is turned back into a String.
+ * <pre>
+ * 0   long   received-at timestamp, epoch microseconds
+ * 8   long   exchange sequence number, -1 if absent
+ * 16  double price, NaN if absent
+ * 24  double best bid, NaN if absent
+ * 32  double best ask, NaN if absent
+ * 40  int    raw message length in bytes, or -1 if the message did not fit and is held on the heap
+ * 44  int    product index into the ring's product table, -1 if absent
+ * 48  ...    raw UTF-8 message
+ * </pre>
+ */
+public final class TickSlot {
+
+    static final long RECEIVED_AT = 0;
+    static final long EXCHANGE_SEQUENCE = 8;
+    static final long PRICE = 16;
+    static final long BEST_BID = 24;
+    static final long BEST_ASK = 32;
+    static final long MESSAGE_LENGTH = 40;
+    static final long PRODUCT_INDEX = 44;
+    static final int MESSAGE = 48;
+
+    private final TickRingBuffer ring;
+    private final MemorySegment memory;
+    private long offset;
+    private long sequence;
+
+    TickSlot(TickRingBuffer ring, MemorySegment memory) {
+        this.ring = ring;
+        this.memory = memory;
+    }
+
+    TickSlot moveTo(long sequence, long offset) {
+        this.sequence = sequence;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * @return the position of this tick in the ring, increasing by one per tick
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getReceivedAtMicros() {
+        return memory.get(ValueLayout.JAVA_LONG, offset + RECEIVED_AT);
+    }
+
+    public long getExchangeSequence() {
+        return memory.get(ValueLayout.JAVA_LONG, offset + EXCHANGE_SEQUENCE);
+    }
+
+    public double getPrice() {
+        return memory.get(ValueLayout.JAVA_DOUBLE, offset + PRICE);
+    }
+
+    public double getBestBid() {
+        return memory.get(ValueLayout.JAVA_DOUBLE, offset + BEST_BID);
+    }
+
+    public double getBestAsk() {
+        return memory.get(ValueLayout.JAVA_DOUBLE, offset + BEST_ASK);
+    }
+
+    /**
+     * @return the product id, shared with every other tick of the product, or null if the message has none
+     */
+    public String getProductId() {
+        return ring.productId(memory.get(ValueLayout.JAVA_INT, offset + PRODUCT_INDEX));
+    }
+
+    /**
+     * @return whether the raw message is held off-heap in the slot and can be copied with {@link #copyMessageTo}
+     */
+    public boolean isMessageInline() {
+        return memory.get(ValueLayout.JAVA_INT, offset + MESSAGE_LENGTH) >= 0;
+    }
+
+    /**
+     * @return the length in bytes of the inline raw message
+     */
+    public int getMessageLength() {
+        return memory.get(ValueLayout.JAVA_INT, offset + MESSAGE_LENGTH);
+    }
+
+    /**
+     * Copies the inline raw message to another off-heap or mapped segment without going through the heap.
+     */
+    public void copyMessageTo(MemorySegment target, long targetOffset) {
+        MemorySegment.copy(memory, offset + MESSAGE, target, targetOffset, getMessageLength());
+    }
+
+    /**
+     * @return a copy of the exact bytes received, for stages that hand them on asynchronously
+     */
+    public byte[] getMessageBytes() {
+        int length = getMessageLength();
+        if (length < 0) {
+            return ring.overflowMessage(sequence).clone();
+        }
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(memory, ValueLayout.JAVA_BYTE, offset + MESSAGE, bytes, 0, length);
+        return bytes;
+    }
+
+    /**
+     * @return the raw message as a String; allocates and decodes, so only for stages that need one
+     */
+    public String getMessage() {
+        int length = getMessageLength();
+        if (length < 0) {
+            return new String(ring.overflowMessage(sequence), StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(memory, ValueLayout.JAVA_BYTE, offset + MESSAGE, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,48 @@
+package com.fedelis.centinel.monitor;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The services build and ship separately, so the few classes they share are copied into each of them. The copies must
+ * stay identical apart from their package line, or the services would disagree on the wire or in their metrics.
+ */
+class SharedSourcesTests {
+
+	// Maven runs tests from the module directory, so the other services are its siblings
+	private static final Path SERVICES = Path.of("..");
+
+	@ParameterizedTest
+	@CsvSource({
+		"monitor/model/TraceHeaders.java, analysisService, analysis/model/TraceHeaders.java",
+		"monitor/services/LatencyRecorder.java, analysisService, analysis/service/LatencyRecorder.java",
+		"monitor/config/ProducerProfile.java, analysisService, analysis/config/ProducerProfile.java",
+		"monitor/config/ProducerProfile.java, generatorService, generator/config/ProducerProfile.java",
+		"monitor/config/BuildTimeConditionsCheck.java, analysisService, analysis/config/BuildTimeConditionsCheck.java",
+		"monitor/config/BuildTimeConditionsCheck.java, generatorService, generator/config/BuildTimeConditionsCheck.java",
+	})
+	void sharedClassesAreIdenticalApartFromTheirPackage(String monitorPath, String service, String copyPath)
+		throws IOException {
+		Path copy = source(service, copyPath);
+		// Only checked out together, the Docker builds see one service at a time
+		assumeTrue(Files.exists(copy), () -> copy + " is not checked out");
+
+		assertThat(withoutPackage(copy)).isEqualTo(withoutPackage(source("monitorService", monitorPath)));
+	}
+
+	private static Path source(String service, String path) {
+		return SERVICES.resolve(service).resolve("src/main/java/com/fedelis/centinel").resolve(path);
+	}
+
+	private static String withoutPackage(Path source) throws IOException {
+		return Files.readString(source).replaceFirst("(?m)^package [\\w.]+;", "");
+	}
+
+}
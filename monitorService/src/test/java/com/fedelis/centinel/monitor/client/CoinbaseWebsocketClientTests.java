@@ -0,0 +1,56 @@
+package com.fedelis.centinel.monitor.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fedelis.centinel.monitor.services.TickRingBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+
+class CoinbaseWebsocketClientTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final CoinbaseWebsocketClient client = new CoinbaseWebsocketClient(mock(TickRingBuffer.class), objectMapper);
+
+	@Test
+	void channelMessageIsBuiltAsJson() throws Exception {
+		JsonNode message = objectMapper.readTree(client.buildChannelMessage("unsubscribe", List.of("BTC-USD", "ETH-USD")));
+
+		assertThat(message.get("type").asText()).isEqualTo("unsubscribe");
+		JsonNode channel = message.get("channels").get(0);
+		assertThat(channel.get("name").asText()).isEqualTo("ticker");
+		assertThat(channel.get("product_ids")).extracting(JsonNode::asText).containsExactly("BTC-USD", "ETH-USD");
+	}
+
+	@Test
+	void symbolsThatAreNotProductIdsAreRefused() {
+		client.subscribe(List.of("BTC-USD"));
+
+		for (String symbol : List.of("btc-usd", "BTC", "BTC-USD\"],\"name\":\"level2", "BTC-USD ", "")) {
+			assertThatIllegalArgumentException().isThrownBy(() -> client.subscribe(List.of("ETH-USD", symbol)));
+			assertThatIllegalArgumentException().isThrownBy(() -> client.unsubscribe(List.of(symbol)));
+		}
+		assertThat(client.getSubscribedSymbols()).containsExactly("BTC-USD");
+		assertThat(CoinbaseWebsocketClient.isValidProductId("1INCH-USDT")).isTrue();
+	}
+
+	@Test
+	void connectingKeepsTheSymbolsSubscribedBeforehand() throws Exception {
+		// Nothing listens there, the connection only has to be attempted
+		ReflectionTestUtils.setField(client, "PUBLIC_COINBASE_WS_URL", "ws://localhost:9");
+		client.subscribe(List.of("BTC-USD", "ETH-USD"));
+		client.unsubscribe(List.of("BTC-USD"));
+		client.subscribe(List.of("SOL-USD"));
+
+		client.connect();
+
+		assertThat(client.getSubscribedSymbols()).containsExactly("ETH-USD", "SOL-USD");
+		client.disconnect();
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.fedelis.centinel.monitor.config;
+
+import com.fedelis.centinel.monitor.services.JournalTickHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BuildTimeConditionsCheckTests {
+
+	// Built with the defaults: journaling on, no raw archive
+	private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+	private final MockEnvironment environment = new MockEnvironment();
+
+	BuildTimeConditionsCheckTests() {
+		beanFactory.registerBeanDefinition("journalTickHandler", new RootBeanDefinition(JournalTickHandler.class));
+	}
+
+	@Test
+	void contextBuiltWithTheSamePropertiesPasses() {
+		environment.setProperty("journal.enabled", "TRUE");
+
+		assertThat(new BuildTimeConditionsCheck(beanFactory, environment).findMismatches()).isEmpty();
+	}
+
+	@Test
+	void everyComponentWhoseConditionChangedIsReported() {
+		environment.setProperty("journal.enabled", "false");
+		environment.setProperty("kafka.raw-archive.enabled", "true");
+
+		assertThat(new BuildTimeConditionsCheck(beanFactory, environment).findMismatches()).containsExactlyInAnyOrder(
+			"journal.enabled=false but the AOT-processed context was built with JournalTickHandler",
+			"journal.enabled=false but the AOT-processed context was built without KafkaTickHandler",
+			"kafka.raw-archive.enabled=true but the AOT-processed context was built without RawArchiveTickHandler");
+	}
+
+}
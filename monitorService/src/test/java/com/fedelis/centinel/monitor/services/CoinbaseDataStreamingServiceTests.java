@@ -0,0 +1,71 @@
+package com.fedelis.centinel.monitor.services;
+
+import com.fedelis.centinel.monitor.client.CoinbaseWebsocketClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CoinbaseDataStreamingServiceTests {
+
+	private static final String SYMBOLS = "market.data.symbols";
+
+	private final CoinbaseWebsocketClient client = mock(CoinbaseWebsocketClient.class);
+	private final MockEnvironment environment = new MockEnvironment();
+	private final CoinbaseDataStreamingService service = new CoinbaseDataStreamingService(client, environment);
+
+	@Test
+	void startupSymbolsAreSeededOnceAndTheConnectionTakesTheSetAsItIsThen() throws Exception {
+		ReflectionTestUtils.setField(service, "assetSymbolsString", "BTC-USD, ETH-USD");
+
+		service.seedSubscriptions();
+		assertThat(service.startStreaming()).isCompleted();
+
+		verify(client).subscribe(List.of("BTC-USD", "ETH-USD"));
+		verify(client).connect();
+		verify(client, never()).unsubscribe(any());
+	}
+
+	@Test
+	void invalidConfiguredSymbolFailsTheStartup() {
+		ReflectionTestUtils.setField(service, "assetSymbolsString", "BTC-USD,btc-usd");
+		when(client.subscribe(List.of("BTC-USD", "btc-usd"))).thenThrow(IllegalArgumentException.class);
+
+		assertThatIllegalArgumentException().isThrownBy(service::seedSubscriptions);
+	}
+
+	@Test
+	void symbolChangeMovesTheConnectionToExactlyTheNewSet() {
+		when(client.getSubscribedSymbols()).thenReturn(new LinkedHashSet<>(List.of("BTC-USD", "ETH-USD")));
+		environment.setProperty(SYMBOLS, "ETH-USD,SOL-USD");
+
+		service.onEnvironmentChange(new EnvironmentChangeEvent(Set.of(SYMBOLS)));
+
+		verify(client).unsubscribe(Set.of("BTC-USD"));
+		verify(client).subscribe(new LinkedHashSet<>(List.of("ETH-USD", "SOL-USD")));
+	}
+
+	@Test
+	void symbolChangeWithAnInvalidSymbolIsIgnoredAsAWhole() {
+		when(client.getSubscribedSymbols()).thenReturn(new LinkedHashSet<>(List.of("BTC-USD")));
+		environment.setProperty(SYMBOLS, "ETH-USD,SOL-USD\",\"x");
+
+		service.onEnvironmentChange(new EnvironmentChangeEvent(Set.of(SYMBOLS)));
+
+		verify(client, never()).subscribe(any());
+		verify(client, never()).unsubscribe(any());
+	}
+
+}
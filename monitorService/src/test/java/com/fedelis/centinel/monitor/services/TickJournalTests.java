@@ -0,0 +1,186 @@
+package com.fedelis.centinel.monitor.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TickJournalTests {
+
+	// Twelve of the 7 char messages below fit a segment, as room for three bytes per char is reserved
+	private static final int SEGMENT_BYTES = 256;
+	private static final int ENTRIES_PER_SEGMENT = 12;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void entriesRollOverIntoNewSegmentsAndReadBackInOrder() throws IOException {
+		TickJournal journal = open();
+		try {
+			for (int i = 0; i < 40; i++) {
+				assertThat(journal.append(message(i), 1_000L + i)).isEqualTo(i);
+			}
+
+			assertThat(segmentBases()).containsExactly(0L, 12L, 24L, 36L);
+			List<TickJournal.Entry> entries = readAll(journal, 0);
+			assertThat(entries).hasSize(40);
+			for (int i = 0; i < 40; i++) {
+				assertThat(entries.get(i)).isEqualTo(new TickJournal.Entry(i, 1_000L + i, message(i)));
+			}
+			// A reader can also start part way into a later segment
+			assertThat(journal.reader(30).next()).isEqualTo(new TickJournal.Entry(30, 1_030L, message(30)));
+		} finally {
+			journal.close();
+		}
+	}
+
+	@Test
+	void tailingReaderFollowsTheJournalIntoTheNextSegment() throws IOException {
+		TickJournal journal = open();
+		try {
+			for (int i = 0; i < 10; i++) {
+				journal.append(message(i), i);
+			}
+			TickJournal.Reader reader = journal.reader(0);
+			List<TickJournal.Entry> read = new ArrayList<>(drain(reader));
+			assertThat(read).hasSize(10);
+
+			// Caught up, then the writer marks the end of the segment and moves on
+			for (int i = 10; i < 30; i++) {
+				journal.append(message(i), i);
+			}
+			read.addAll(drain(reader));
+
+			assertThat(read).extracting(TickJournal.Entry::index).containsExactlyElementsOf(indices(30));
+			assertThat(read).extracting(TickJournal.Entry::message)
+				.containsExactlyElementsOf(indices(30).stream().map(i -> message(i.intValue())).toList());
+		} finally {
+			journal.close();
+		}
+	}
+
+	@Test
+	void reopeningAfterACrashResumesAfterTheLastCompleteEntry() throws IOException {
+		TickJournal crashed = open();
+		int written = 0;
+		for (int i = 0; i < 5; i++) {
+			crashed.append(message(i), i);
+			written += JournalSegment.HEADER_BYTES + message(i).length();
+		}
+		// A half-written entry: the payload made it to the page cache, its length did not
+		try (FileChannel channel = FileChannel.open(segmentPath(0), StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap("garbage".getBytes(StandardCharsets.UTF_8)), written + JournalSegment.HEADER_BYTES);
+		}
+
+		// The crashed journal is never closed, as if the process had died
+		TickJournal journal = open();
+		try {
+			assertThat(journal.append(message(5), 5)).isEqualTo(5);
+			assertThat(readAll(journal, 0)).extracting(TickJournal.Entry::message)
+				.containsExactly(message(0), message(1), message(2), message(3), message(4), message(5));
+		} finally {
+			journal.close();
+		}
+	}
+
+	@Test
+	void reopeningAfterACrashBehindTheSegmentMarkerStartsTheNextSegment() throws IOException {
+		TickJournal crashed = open();
+		for (int i = 0; i <= ENTRIES_PER_SEGMENT; i++) {
+			crashed.append(message(i), i);
+		}
+		// The end-of-segment marker was written but the next segment never made it to disk
+		Files.delete(segmentPath(ENTRIES_PER_SEGMENT));
+
+		TickJournal journal = open();
+		try {
+			assertThat(journal.append("resumed", 99)).isEqualTo(ENTRIES_PER_SEGMENT);
+			assertThat(segmentBases()).containsExactly(0L, (long) ENTRIES_PER_SEGMENT);
+			List<TickJournal.Entry> entries = readAll(journal, 0);
+			assertThat(entries).hasSize(ENTRIES_PER_SEGMENT + 1);
+			assertThat(entries.getLast()).isEqualTo(new TickJournal.Entry(ENTRIES_PER_SEGMENT, 99, "resumed"));
+		} finally {
+			journal.close();
+		}
+	}
+
+	@Test
+	void forwardedSegmentsAreDeletedAndTheCursorSurvivesARestart() throws IOException {
+		TickJournal journal = open();
+		for (int i = 0; i < 40; i++) {
+			journal.append(message(i), i);
+		}
+		journal.commitForwarded(25);
+		journal.close();
+
+		assertThat(segmentBases()).containsExactly(24L, 36L);
+		TickJournal reopened = open();
+		try {
+			assertThat(reopened.getForwardedIndex()).isEqualTo(25);
+			// The oldest retained entry, as everything before it was deleted
+			assertThat(reopened.reader(0).next().index()).isEqualTo(24);
+			assertThat(reopened.append(message(40), 40)).isEqualTo(40);
+		} finally {
+			reopened.close();
+		}
+	}
+
+	private TickJournal open() throws IOException {
+		TickJournal journal = new TickJournal(new SimpleMeterRegistry(), true, directory.toString(), SEGMENT_BYTES);
+		journal.open();
+		return journal;
+	}
+
+	private static String message(int i) {
+		return String.format("tick-%02d", i);
+	}
+
+	private static List<TickJournal.Entry> readAll(TickJournal journal, long fromIndex) {
+		return drain(journal.reader(fromIndex));
+	}
+
+	private static List<TickJournal.Entry> drain(TickJournal.Reader reader) {
+		List<TickJournal.Entry> entries = new ArrayList<>();
+		TickJournal.Entry entry;
+		while ((entry = reader.next()) != null) {
+			entries.add(entry);
+		}
+		return entries;
+	}
+
+	private static List<Long> indices(int count) {
+		List<Long> indices = new ArrayList<>(count);
+		for (long i = 0; i < count; i++) {
+			indices.add(i);
+		}
+		return indices;
+	}
+
+	private Path segmentPath(long baseIndex) {
+		return directory.resolve(String.format("%020d.journal", baseIndex));
+	}
+
+	private List<Long> segmentBases() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.map(path -> path.getFileName().toString())
+				.filter(name -> name.endsWith(".journal"))
+				.map(name -> Long.parseLong(name.replace(".journal", "")))
+				.sorted()
+				.toList();
+		}
+	}
+
+}
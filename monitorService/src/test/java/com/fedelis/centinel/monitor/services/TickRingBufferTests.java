@@ -0,0 +1,140 @@
+package com.fedelis.centinel.monitor.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TickRingBufferTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	/**
+	 * What a handler saw of one tick, copied out while the slot was valid.
+	 */
+	record Seen(long sequence, long exchangeSequence, String productId, double price, boolean inline, String message,
+		byte[] bytes) {
+	}
+
+	static class RecordingHandler implements TickHandler {
+
+		private final String name;
+		private final long delayMillis;
+		final List<Seen> seen = Collections.synchronizedList(new ArrayList<>());
+
+		RecordingHandler(String name, long delayMillis) {
+			this.name = name;
+			this.delayMillis = delayMillis;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public void onTick(TickSlot slot, boolean endOfBatch) throws Exception {
+			if (delayMillis > 0) {
+				Thread.sleep(delayMillis);
+			}
+			seen.add(new Seen(slot.getSequence(), slot.getExchangeSequence(), slot.getProductId(), slot.getPrice(),
+				slot.isMessageInline(), slot.getMessage(), slot.getMessageBytes()));
+		}
+	}
+
+	@Test
+	void slowHandlerHoldsTheProducerBackInsteadOfLosingTicks() throws InterruptedException {
+		RecordingHandler slow = new RecordingHandler("slow", 1);
+		RecordingHandler fast = new RecordingHandler("fast", 0);
+		TickRingBuffer ring = new TickRingBuffer(List.of(slow, fast), meterRegistry, 8, 512, 10);
+		ring.start();
+		// Twelve times around the ring
+		for (int i = 0; i < 96; i++) {
+			ring.publish(ticker(i, "BTC-USD", "100.25"), i);
+		}
+		ring.stop();
+
+		for (RecordingHandler handler : List.of(slow, fast)) {
+			assertThat(handler.seen).hasSize(96);
+			for (int i = 0; i < 96; i++) {
+				Seen seen = handler.seen.get(i);
+				assertThat(seen.sequence()).isEqualTo(i);
+				assertThat(seen.exchangeSequence()).isEqualTo(1_000 + i);
+				assertThat(seen.message()).isEqualTo(ticker(i, "BTC-USD", "100.25"));
+			}
+		}
+		assertThat(meterRegistry.counter("centinel.ring.producer.stalls").count()).isPositive();
+	}
+
+	@Test
+	void tickAHandlerFailsOnIsHandedOverAgainInsteadOfBeingSkipped() throws InterruptedException {
+		AtomicInteger failuresLeft = new AtomicInteger(3);
+		RecordingHandler flaky = new RecordingHandler("flaky", 0) {
+			@Override
+			public void onTick(TickSlot slot, boolean endOfBatch) throws Exception {
+				if (slot.getSequence() == 5 && failuresLeft.getAndDecrement() > 0) {
+					throw new IllegalStateException("broker unavailable");
+				}
+				super.onTick(slot, endOfBatch);
+			}
+		};
+		RecordingHandler steady = new RecordingHandler("steady", 0);
+		TickRingBuffer ring = new TickRingBuffer(List.of(flaky, steady), meterRegistry, 8, 512, 10);
+		ring.start();
+		for (int i = 0; i < 32; i++) {
+			ring.publish(ticker(i, "BTC-USD", "100.25"), i);
+		}
+		ring.stop();
+
+		for (RecordingHandler handler : List.of(flaky, steady)) {
+			assertThat(handler.seen).extracting(Seen::sequence)
+				.containsExactlyElementsOf(LongStream.range(0, 32).boxed().toList());
+		}
+		assertThat(meterRegistry.counter("centinel.ring.handler.failures", "handler", "flaky").count()).isEqualTo(3);
+		assertThat(meterRegistry.counter("centinel.ring.handler.failures", "handler", "steady").count()).isZero();
+	}
+
+	@Test
+	void messagesLongerThanASlotAreKeptOnTheHeap() throws InterruptedException {
+		RecordingHandler handler = new RecordingHandler("recording", 0);
+		// 80 bytes of message space per slot, two slots so every slot is reused
+		TickRingBuffer ring = new TickRingBuffer(List.of(handler), meterRegistry, 2, 128, 10);
+		ring.start();
+		// Fits the slot as bytes, but a String is only written inline if it fits at three bytes per char
+		String small = "{\"sequence\":7,\"product_id\":\"ETH-USD\",\"price\":\"1.5\"}";
+		String tiny = "{\"price\":\"2\"}";
+		String large = ticker(1, "SOL-USD", "23.456");
+		ring.publish(large, 1);
+		ring.publish(ByteBuffer.wrap(large.getBytes(StandardCharsets.UTF_8)), 2);
+		ring.publish(ByteBuffer.wrap(small.getBytes(StandardCharsets.UTF_8)), 3);
+		ring.publish(small, 4);
+		ring.publish(tiny, 5);
+		ring.stop();
+
+		assertThat(handler.seen).extracting(Seen::inline).containsExactly(false, false, true, false, true);
+		assertThat(handler.seen).extracting(Seen::message).containsExactly(large, large, small, small, tiny);
+		assertThat(handler.seen.get(1).bytes()).isEqualTo(large.getBytes(StandardCharsets.UTF_8));
+		assertThat(handler.seen.get(0).productId()).isEqualTo("SOL-USD");
+		assertThat(handler.seen.get(0).price()).isEqualTo(23.456);
+		assertThat(handler.seen.get(0).exchangeSequence()).isEqualTo(1_001);
+		assertThat(handler.seen.get(2).productId()).isEqualTo("ETH-USD");
+		assertThat(handler.seen.get(2).price()).isEqualTo(1.5);
+		assertThat(handler.seen.get(3).productId()).isEqualTo("ETH-USD");
+		assertThat(handler.seen.get(4).productId()).isNull();
+		assertThat(handler.seen.get(4).price()).isEqualTo(2.0);
+	}
+
+	private static String ticker(int i, String productId, String price) {
+		return "{\"type\":\"ticker\",\"sequence\":" + (1_000 + i) + ",\"product_id\":\"" + productId
+			+ "\",\"price\":\"" + price + "\",\"best_bid\":\"100.20\",\"best_ask\":\"100.30\"}";
+	}
+
+}